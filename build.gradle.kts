@@ -22,4 +22,19 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+// Benchmarks are plain programs, so they're kept out of the test source set.
+sourceSets {
+    create("bench") {
+        compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+        runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+    }
+}
+
+// E.G: gradle bench -Pbenchmark=reference.BenchResolveType
+tasks.register<JavaExec>("bench") {
+    group = "verification"
+    description = "Runs a benchmark of the bench source set."
+    classpath = sourceSets["bench"].runtimeClasspath
+    mainClass.set("com.asledgehammer.rosetta.java." + (findProperty("benchmark") ?: "reference.BenchResolveType"))
+}
@@ -0,0 +1,41 @@
+package com.asledgehammer.rosetta.java;
+
+import java.util.HashMap;
+
+/**
+ * Measures compiling a package of 50k classes after one note is edited. Only the edited class is
+ * registered as dirty, so the compile shouldn't depend on the size of the package.
+ *
+ * <p>Run with {@code gradle bench -Pbenchmark=BenchDirtyCompile}. It is a plain timing loop so it
+ * runs without JMH.
+ */
+public class BenchDirtyCompile {
+
+  private static final int CLASSES = 50_000;
+  private static final int ROUNDS = 10;
+  private static final int EDITS = 100_000;
+
+  public static void main(String[] args) {
+    final JavaLanguage language = new JavaLanguage();
+    final JavaPackage pkg = language.of(BenchDirtyCompile.class).getPackage();
+    final JavaClass[] classes = new JavaClass[CLASSES];
+    for (int index = 0; index < CLASSES; index++) {
+      classes[index] = new JavaClass(pkg, "Generated" + index, new HashMap<>());
+      pkg.addClass(classes[index]);
+    }
+
+    long start = System.nanoTime();
+    pkg.compile();
+    System.out.printf("Full compile: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+    for (int round = 0; round < ROUNDS; round++) {
+      start = System.nanoTime();
+      for (int edit = 0; edit < EDITS; edit++) {
+        classes[(edit * 7919) % CLASSES].setNotes("Edit " + round + "-" + edit);
+        pkg.compile();
+      }
+      final double perEdit = (System.nanoTime() - start) / (double) EDITS;
+      System.out.printf("Round %d: %.1f ns per edit and compile%n", round + 1, perEdit);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package com.asledgehammer.rosetta.java.reference;
+
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.*;
+
+/**
+ * Compares {@link ClassReference#resolveType(TypeReference, Class)} with the chain walk it replaced,
+ * for the type variables of the collection hierarchy seen through user subclasses. (ArrayList ->
+ * AbstractList -> AbstractCollection -> List/Collection/Iterable)
+ *
+ * <p>Run with {@code gradle bench -Pbenchmark=reference.BenchResolveType}. The variants alternate per round
+ * after a warm-up, and every result is folded into a sink that is printed, so the JIT can't drop the
+ * calls.
+ */
+public class BenchResolveType {
+
+  static class NamedList<X extends CharSequence> extends ArrayList<X> {}
+
+  static class StringList extends NamedList<String> {}
+
+  static class IntegerList extends ArrayList<Integer> {}
+
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int ROUNDS = 10;
+  private static final int OPERATIONS = 1_400_000;
+
+  private static final Class<?>[] DECLARING = {
+    ArrayList.class,
+    AbstractList.class,
+    AbstractCollection.class,
+    List.class,
+    Collection.class,
+    Iterable.class
+  };
+
+  /** Every result is folded in here and printed at the end. */
+  private static long sink;
+
+  public static void main(String[] args) {
+    final ClassReference[] references = {
+      ClassReference.of(StringList.class), ClassReference.of(IntegerList.class)
+    };
+    final Baseline[] baselines = {new Baseline(StringList.class), new Baseline(IntegerList.class)};
+    final TypeReference e = TypeReference.of("E");
+    final TypeReference t = TypeReference.of("T");
+
+    // Both variants resolve the same types.
+    for (int operation = 0; operation < DECLARING.length * 2; operation++) {
+      final Class<?> deCl = DECLARING[operation % DECLARING.length];
+      final TypeReference type = deCl == Iterable.class ? t : e;
+      final TypeReference cached = references[operation & 1].resolveType(type, deCl);
+      final TypeReference walked = baselines[operation & 1].resolveType(type, deCl);
+      if (!cached.compile().equals(walked.compile())) {
+        throw new IllegalStateException(
+            "The variants disagree for " + type + " in " + deCl + ": " + cached + " != " + walked);
+      }
+    }
+
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      runCached(references, e, t);
+      runBaseline(baselines, e, t);
+    }
+
+    final double[] cached = new double[ROUNDS];
+    final double[] baseline = new double[ROUNDS];
+    for (int round = 0; round < ROUNDS; round++) {
+      cached[round] = runCached(references, e, t);
+      baseline[round] = runBaseline(baselines, e, t);
+      System.out.printf(
+          "Round %d: cached %.1f ns/op, chain walk %.1f ns/op%n",
+          round + 1, cached[round], baseline[round]);
+    }
+
+    final double cachedMedian = median(cached);
+    final double baselineMedian = median(baseline);
+    System.out.printf(
+        "Median: cached %.1f ns/op, chain walk %.1f ns/op (%.1fx)%n",
+        cachedMedian, baselineMedian, baselineMedian / cachedMedian);
+    System.out.println("(Sink: " + sink + ")");
+  }
+
+  /**
+   * @return The nanoseconds per resolution.
+   */
+  private static double runCached(ClassReference[] references, TypeReference e, TypeReference t) {
+    long local = 0;
+    final long start = System.nanoTime();
+    for (int operation = 0; operation < OPERATIONS; operation++) {
+      final Class<?> deCl = DECLARING[operation % DECLARING.length];
+      final TypeReference type = deCl == Iterable.class ? t : e;
+      local += references[operation & 1].resolveType(type, deCl).hashCode();
+    }
+    final long elapsed = System.nanoTime() - start;
+    sink += local;
+    return elapsed / (double) OPERATIONS;
+  }
+
+  /**
+   * @return The nanoseconds per resolution.
+   */
+  private static double runBaseline(Baseline[] baselines, TypeReference e, TypeReference t) {
+    long local = 0;
+    final long start = System.nanoTime();
+    for (int operation = 0; operation < OPERATIONS; operation++) {
+      final Class<?> deCl = DECLARING[operation % DECLARING.length];
+      final TypeReference type = deCl == Iterable.class ? t : e;
+      local += baselines[operation & 1].resolveType(type, deCl).hashCode();
+    }
+    final long elapsed = System.nanoTime() - start;
+    sink += local;
+    return elapsed / (double) OPERATIONS;
+  }
+
+  private static double median(double[] values) {
+    final double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    final int middle = sorted.length / 2;
+    return sorted.length % 2 == 0 ? (sorted[middle - 1] + sorted[middle]) / 2 : sorted[middle];
+  }
+
+  /**
+   * The resolution before the substitution tables: every call finds the chain of super-types to the
+   * declaring class, copies it and walks the assigned variables of each step. (The variable is
+   * followed by name through each step, so both variants give the same results)
+   */
+  private static final class Baseline {
+
+    private final ClassReference reference;
+
+    /** The variables each class assigns to its direct super-types. */
+    private final Map<Class<?>, Map<Class<?>, Map<String, TypeReference>>> assigned =
+        new HashMap<>();
+
+    /** The declared variables of each class. */
+    private final Map<Class<?>, Map<String, TypeReference>> declared = new HashMap<>();
+
+    private Baseline(Class<?> clazz) {
+      this.reference = ClassReference.of(clazz);
+      collect(clazz);
+    }
+
+    private void collect(Class<?> clazz) {
+      if (clazz == null || declared.containsKey(clazz)) return;
+
+      final Map<String, TypeReference> variables = new HashMap<>();
+      for (TypeVariable<?> variable : clazz.getTypeParameters()) {
+        variables.put(variable.getTypeName(), TypeReference.of(variable));
+      }
+      declared.put(clazz, variables);
+
+      final Map<Class<?>, Map<String, TypeReference>> supers = new HashMap<>();
+      if (clazz.getSuperclass() != null) {
+        supers.put(
+            clazz.getSuperclass(),
+            ClassReference.createTypeMap(clazz.getSuperclass(), clazz.getGenericSuperclass()));
+      }
+      final Class<?>[] interfaces = clazz.getInterfaces();
+      final Type[] genericInterfaces = clazz.getGenericInterfaces();
+      for (int index = 0; index < interfaces.length; index++) {
+        supers.put(
+            interfaces[index],
+            ClassReference.createTypeMap(interfaces[index], genericInterfaces[index]));
+      }
+      assigned.put(clazz, supers);
+
+      collect(clazz.getSuperclass());
+      for (Class<?> interfaze : interfaces) collect(interfaze);
+    }
+
+    private TypeReference resolveType(TypeReference type, Class<?> deCl) {
+      TypeReference resolvedType = type;
+      String rawType = type.getBase();
+      TypeReference[] bounds = resolvedType.getBounds();
+
+      // Here we resolve the hierarchy as a stack to traverse backwards.
+      final List<ClassReference> stackRef = new ArrayList<>(reference.resolveChain(deCl));
+
+      ClassReference sup = stackRef.remove(stackRef.size() - 1);
+      while (!stackRef.isEmpty()) {
+        ClassReference refNext = stackRef.remove(stackRef.size() - 1);
+        Map<String, TypeReference> vars = assigned.get(refNext.getClazz()).get(sup.getClazz());
+        if (vars != null && vars.containsKey(rawType)) {
+          resolvedType = vars.get(rawType);
+          rawType = resolvedType.getBase();
+          if (resolvedType.isGeneric()) {
+            TypeReference o = declared.get(refNext.getClazz()).get(resolvedType.getBase());
+            if (o != null) bounds = o.getBounds();
+          }
+        }
+        sup = refNext;
+      }
+
+      if (!resolvedType.isPrimitive() && resolvedType.isGeneric()) {
+        return TypeReference.intern(
+            new UnionTypeReference(resolvedType.getBase(), true, bounds));
+      }
+      return resolvedType;
+    }
+  }
+}
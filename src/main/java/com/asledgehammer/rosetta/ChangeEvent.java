@@ -0,0 +1,111 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/** ChangeEvent records a single change to a property of a {@link RosettaObject}. */
+public final class ChangeEvent {
+
+  /** The kind of change recorded. */
+  public enum Type {
+    /** A property is assigned a new value. */
+    SET,
+    /** A value is added to a collection property. (Tags, classes, etc.) */
+    ADD,
+    /** A value is removed from a collection property. (Tags, classes, etc.) */
+    REMOVE
+  }
+
+  private final long sequence;
+  private final Type type;
+  private final RosettaObject source;
+  private final String path;
+  private final String property;
+  @Nullable private final Object oldValue;
+  @Nullable private final Object newValue;
+
+  ChangeEvent(
+      long sequence,
+      @NotNull Type type,
+      @NotNull RosettaObject source,
+      @NotNull String path,
+      @NotNull String property,
+      @Nullable Object oldValue,
+      @Nullable Object newValue) {
+    this.sequence = sequence;
+    this.type = type;
+    this.source = source;
+    this.path = path;
+    this.property = property;
+    this.oldValue = oldValue;
+    this.newValue = newValue;
+  }
+
+  /**
+   * @return The sequence number of the event in its journal. (Increments by one per event)
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  @NotNull
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return The object that changed.
+   */
+  @NotNull
+  public RosettaObject getSource() {
+    return source;
+  }
+
+  /**
+   * @return The path of the object that changed, at the time of the change.
+   */
+  @NotNull
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * @return The name of the property that changed. E.G: "notes", "tags", "classes"
+   */
+  @NotNull
+  public String getProperty() {
+    return property;
+  }
+
+  /**
+   * @return The value before the change. For {@link Type#REMOVE}, the removed value.
+   */
+  @Nullable
+  public Object getOldValue() {
+    return oldValue;
+  }
+
+  /**
+   * @return The value after the change. For {@link Type#ADD}, the added value.
+   */
+  @Nullable
+  public Object getNewValue() {
+    return newValue;
+  }
+
+  @Override
+  public String toString() {
+    return "ChangeEvent #"
+        + sequence
+        + " "
+        + type
+        + " "
+        + path
+        + " "
+        + property
+        + ": "
+        + oldValue
+        + " -> "
+        + newValue;
+  }
+}
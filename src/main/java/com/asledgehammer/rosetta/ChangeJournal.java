@@ -0,0 +1,192 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ChangeJournal records {@link ChangeEvent}s in a fixed-size ring buffer so that consumers can catch
+ * up on changes incrementally instead of rebuilding from scratch.
+ *
+ * <p>Events are only recorded while at least one {@link Cursor} is open. When no one is subscribed,
+ * recording costs a single volatile read. Objects check {@link #isAnyRecording()} first, so they
+ * don't look up their journal at all unless some journal in the process is recording.
+ *
+ * <p>A cursor that falls more than {@link #getCapacity()} events behind loses the oldest events and
+ * reports this through {@link Cursor#isOverrun()}. Consumers should then rebuild from the model.
+ */
+public class ChangeJournal {
+
+  /** The default count of events kept in the ring buffer. */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  /** The count of journals with one or more open cursors. */
+  private static final AtomicInteger RECORDING = new AtomicInteger();
+
+  private final ChangeEvent[] events;
+
+  /** The sequence number of the next event. (The first event is 1) */
+  private long next = 1;
+
+  private volatile int subscribers = 0;
+
+  public ChangeJournal() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity The count of events kept in the ring buffer.
+   * @throws IllegalArgumentException If the capacity is less than 1.
+   */
+  public ChangeJournal(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity must be at least 1. (Given: " + capacity + ")");
+    }
+    this.events = new ChangeEvent[capacity];
+  }
+
+  /**
+   * @return True if one or more cursors are open and changes are recorded.
+   */
+  public boolean isRecording() {
+    return subscribers != 0;
+  }
+
+  /**
+   * @return True if one or more journals in the process are recording.
+   */
+  public static boolean isAnyRecording() {
+    return RECORDING.get() != 0;
+  }
+
+  /**
+   * Records a change. (If recording)
+   *
+   * @param type The kind of change.
+   * @param source The object that changed.
+   * @param property The name of the property that changed.
+   * @param oldValue The value before the change.
+   * @param newValue The value after the change.
+   */
+  public void record(
+      @NotNull ChangeEvent.Type type,
+      @NotNull RosettaObject source,
+      @NotNull String property,
+      @Nullable Object oldValue,
+      @Nullable Object newValue) {
+    if (subscribers == 0) return;
+    String path = source.getPath();
+    synchronized (this) {
+      long sequence = next++;
+      events[(int) (sequence % events.length)] =
+          new ChangeEvent(sequence, type, source, path, property, oldValue, newValue);
+    }
+  }
+
+  /**
+   * Opens a cursor positioned after the latest event. Recording starts if this is the first open
+   * cursor.
+   *
+   * @return The opened cursor.
+   */
+  @NotNull
+  public synchronized Cursor subscribe() {
+    if (subscribers++ == 0) RECORDING.incrementAndGet();
+    return new Cursor(next);
+  }
+
+  /**
+   * @return The sequence number of the latest event. (0 if no events are recorded)
+   */
+  public synchronized long getSequence() {
+    return next - 1;
+  }
+
+  /**
+   * @return The count of events kept in the ring buffer.
+   */
+  public int getCapacity() {
+    return events.length;
+  }
+
+  /** Cursor reads events from a {@link ChangeJournal} in order. */
+  public class Cursor implements AutoCloseable {
+
+    /** The sequence number of the next event to read. */
+    private long position;
+
+    private boolean overrun;
+    private boolean closed;
+
+    private Cursor(long position) {
+      this.position = position;
+    }
+
+    /**
+     * Reads all events recorded since the last poll.
+     *
+     * @return The events in sequence order. If empty, no changes were recorded.
+     * @throws IllegalStateException If the cursor is closed.
+     */
+    @NotNull
+    public List<ChangeEvent> poll() {
+      synchronized (ChangeJournal.this) {
+        if (closed) {
+          throw new IllegalStateException("The cursor is closed.");
+        }
+
+        // Skip events overwritten in the ring buffer.
+        long oldest = Math.max(1, next - events.length);
+        if (position < oldest) {
+          overrun = true;
+          position = oldest;
+        }
+
+        if (position == next) return List.of();
+        List<ChangeEvent> polled = new ArrayList<>((int) (next - position));
+        for (; position < next; position++) {
+          polled.add(events[(int) (position % events.length)]);
+        }
+        return polled;
+      }
+    }
+
+    /**
+     * @return True if events were lost because the cursor fell too far behind.
+     */
+    public boolean isOverrun() {
+      synchronized (ChangeJournal.this) {
+        return overrun;
+      }
+    }
+
+    /** Clears the overrun flag after the consumer has rebuilt its state. */
+    public void clearOverrun() {
+      synchronized (ChangeJournal.this) {
+        overrun = false;
+      }
+    }
+
+    /**
+     * @return The sequence number of the next event to read.
+     */
+    public long getPosition() {
+      synchronized (ChangeJournal.this) {
+        return position;
+      }
+    }
+
+    /** Closes the cursor. Recording stops when the last cursor closes. */
+    @Override
+    public void close() {
+      synchronized (ChangeJournal.this) {
+        if (closed) return;
+        closed = true;
+        if (--subscribers == 0) RECORDING.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * CompactMap is a String-keyed map for small member containers. It stores nothing until the first
+ * entry, then keeps up to {@link #THRESHOLD} entries in sorted arrays searched with binary search,
+ * and only switches to a {@link HashMap} above that.
+ *
+ * <p>Small maps iterate in key order. Null keys are not supported.
+ *
+ * @param <V> The type of values.
+ */
+public class CompactMap<V> extends AbstractMap<String, V> {
+
+  /** The most entries stored in arrays before switching to a HashMap. */
+  public static final int THRESHOLD = 8;
+
+  private static final String[] NO_KEYS = new String[0];
+  private static final Object[] NO_VALUES = new Object[0];
+
+  private String[] keys = NO_KEYS;
+  private Object[] values = NO_VALUES;
+  private int size = 0;
+
+  /** Used once the map grows above the threshold. */
+  @Nullable private HashMap<String, V> map;
+
+  @Nullable private Set<Entry<String, V>> entrySet;
+
+  public CompactMap() {}
+
+  /**
+   * @return The estimated bytes of the map's storage. (Excluding keys and values)
+   */
+  long estimateStorage() {
+    if (map != null) return FootprintEstimator.sizeOfHashMap(HashMap.class, map.size());
+    if (keys.length == 0) return 0;
+    return 2 * FootprintEstimator.array(keys.length, FootprintEstimator.REFERENCE);
+  }
+
+  private int indexOf(@NotNull Object key) {
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  @Override
+  public int size() {
+    return map != null ? map.size() : size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    if (map != null) return map.containsKey(key);
+    return key instanceof String && indexOf(key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings({"unchecked"})
+  public V get(Object key) {
+    if (map != null) return map.get(key);
+    if (!(key instanceof String)) return null;
+    int index = indexOf(key);
+    return index >= 0 ? (V) values[index] : null;
+  }
+
+  @Override
+  @SuppressWarnings({"unchecked"})
+  public V put(@NotNull String key, V value) {
+    Objects.requireNonNull(key, "The key is null.");
+    if (map != null) return map.put(key, value);
+
+    int index = indexOf(key);
+    if (index >= 0) {
+      V old = (V) values[index];
+      values[index] = value;
+      return old;
+    }
+
+    // Switch to a HashMap above the threshold.
+    if (size == THRESHOLD) {
+      HashMap<String, V> map = new HashMap<>(THRESHOLD * 4);
+      for (int i = 0; i < size; i++) {
+        map.put(keys[i], (V) values[i]);
+      }
+      this.keys = NO_KEYS;
+      this.values = NO_VALUES;
+      this.size = 0;
+      this.map = map;
+      return map.put(key, value);
+    }
+
+    // Insert in order, growing the arrays in small steps.
+    int insert = -(index + 1);
+    if (size == keys.length) {
+      int capacity = Math.min(THRESHOLD, Math.max(2, size * 2));
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    System.arraycopy(keys, insert, keys, insert + 1, size - insert);
+    System.arraycopy(values, insert, values, insert + 1, size - insert);
+    keys[insert] = key;
+    values[insert] = value;
+    size++;
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    if (map != null) return map.remove(key);
+    if (!(key instanceof String)) return null;
+    int index = indexOf(key);
+    return index >= 0 ? removeAt(index) : null;
+  }
+
+  @SuppressWarnings({"unchecked"})
+  private V removeAt(int index) {
+    V old = (V) values[index];
+    int moved = size - index - 1;
+    System.arraycopy(keys, index + 1, keys, index, moved);
+    System.arraycopy(values, index + 1, values, index, moved);
+    size--;
+    keys[size] = null;
+    values[size] = null;
+    if (size == 0) {
+      keys = NO_KEYS;
+      values = NO_VALUES;
+    }
+    return old;
+  }
+
+  @Override
+  public void clear() {
+    keys = NO_KEYS;
+    values = NO_VALUES;
+    size = 0;
+    map = null;
+  }
+
+  @NotNull
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, V>> {
+
+    @Override
+    public int size() {
+      return CompactMap.this.size();
+    }
+
+    @Override
+    public void clear() {
+      CompactMap.this.clear();
+    }
+
+    @NotNull
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+      if (map != null) return map.entrySet().iterator();
+      return new Iterator<>() {
+        private int next = 0;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+          return next < size;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        public Entry<String, V> next() {
+          if (next >= size) {
+            throw new NoSuchElementException();
+          }
+          last = next++;
+          final int index = last;
+          return new SimpleEntry<>(keys[index], (V) values[index]) {
+            @Override
+            public V setValue(V value) {
+              values[index] = value;
+              return super.setValue(value);
+            }
+          };
+        }
+
+        @Override
+        public void remove() {
+          if (last == -1) {
+            throw new IllegalStateException();
+          }
+          removeAt(last);
+          next = last;
+          last = -1;
+        }
+      };
+    }
+  }
+}
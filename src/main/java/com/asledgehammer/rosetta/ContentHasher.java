@@ -0,0 +1,164 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ContentHasher folds the properties of a {@link RosettaObject} into a 64-bit content hash. (See
+ * {@link RosettaObject#getContentHash()})
+ *
+ * <p>Hashes only depend on content, so they are the same across runs and between separately built
+ * models. Maps keyed by name are hashed without order, so models discovered in another order hash
+ * the same.
+ *
+ * <p>Hashers can also be created to hash nodes that aren't RosettaObjects, such as languages.
+ */
+public final class ContentHasher {
+
+  private static final long SEED = 0xCBF29CE484222325L;
+  private static final long PRIME = 0x100000001B3L;
+
+  /** Marks absent values, so null and empty values hash differently. */
+  private static final long NULL = 0x9E3779B97F4A7C15L;
+
+  private long hash = SEED;
+
+  /** The object being hashed. (If any) */
+  @Nullable private final RosettaObject owner;
+
+  public ContentHasher() {
+    this(null);
+  }
+
+  ContentHasher(@Nullable RosettaObject owner) {
+    this.owner = owner;
+  }
+
+  /**
+   * @param value The value to fold in.
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher value(long value) {
+    hash = mix(hash ^ value) + PRIME;
+    return this;
+  }
+
+  /**
+   * @param value The value to fold in.
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher bool(boolean value) {
+    return value(value ? 1 : 0);
+  }
+
+  /**
+   * @param value The string to fold in. (If any)
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher string(@Nullable String value) {
+    if (value == null) return value(NULL);
+    return value(value.length()).value(hashString(value));
+  }
+
+  /**
+   * @param value The enum constant to fold in. (If any)
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher constant(@Nullable Enum<?> value) {
+    return string(value != null ? value.name() : null);
+  }
+
+  /**
+   * @param values The strings to fold in, regardless of their order. (E.G: Tags)
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher strings(@NotNull Collection<String> values) {
+    long sum = 0;
+    for (String value : values) sum += mix(hashString(value));
+    return value(values.size()).value(sum);
+  }
+
+  /**
+   * @param child The child to fold in, through its cached content hash. (If any)
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher child(@Nullable RosettaObject child) {
+    return value(child != null ? child.getContentHash() : NULL);
+  }
+
+  /**
+   * @param children The children to fold in, in order. (E.G: Parameters)
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher children(@NotNull Collection<? extends RosettaObject> children) {
+    value(children.size());
+    for (RosettaObject child : children) value(child.getContentHash());
+    return this;
+  }
+
+  /**
+   * @param children The children to fold in, regardless of their order. (E.G: Overloads)
+   * @return The hasher, for chaining.
+   */
+  @NotNull
+  public ContentHasher unordered(@NotNull Collection<? extends RosettaObject> children) {
+    long sum = 0;
+    for (RosettaObject child : children) sum += mix(child.getContentHash());
+    return value(children.size()).value(sum);
+  }
+
+  /**
+   * Folds in the members registered in the object being hashed, regardless of their order. The sum
+   * of their hashes is kept up to date as members change, so only changed members are visited
+   * after the first hash. (E.G: The classes of a package)
+   *
+   * @param groups Every member of the object. Only iterated on the first hash.
+   * @return The hasher, for chaining.
+   * @throws IllegalStateException If the hasher isn't hashing a RosettaObject.
+   */
+  @NotNull
+  @SafeVarargs
+  public final ContentHasher members(@NotNull Iterable<? extends RosettaObject>... groups) {
+    if (owner == null) {
+      throw new IllegalStateException("Only RosettaObjects have members.");
+    }
+    // Copied so the varargs array isn't passed on.
+    final List<Iterable<? extends RosettaObject>> list = new ArrayList<>(groups.length);
+    for (Iterable<? extends RosettaObject> group : groups) list.add(group);
+    return value(owner.sumMembers(list));
+  }
+
+  /**
+   * @return The content hash.
+   */
+  public long get() {
+    return mix(hash);
+  }
+
+  /** FNV-1a over the characters of the string. */
+  private static long hashString(@NotNull String value) {
+    long hash = SEED;
+    for (int index = 0; index < value.length(); index++) {
+      hash = (hash ^ value.charAt(index)) * PRIME;
+    }
+    return hash;
+  }
+
+  /** The 64-bit finalizer of MurmurHash3, so every bit of the input affects every bit. */
+  static long mix(long value) {
+    value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+    value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return value ^ (value >>> 33);
+  }
+}
@@ -0,0 +1,61 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An estimate of the heap retained by a node of the model. (A collection, language, package or
+ * class) Estimates include the node's children.
+ *
+ * <p>Objects shared across the model are not counted in the bytes of the nodes referencing them.
+ * (Canonical TypeReferences, interned signatures and names shared with reflection) They are
+ * estimated once by the language that shares them instead.
+ *
+ * @param name The name of the node.
+ * @param bytes The estimated bytes retained by the node and its children.
+ * @param counts The count of objects by kind. E.G: "class", "method", "string"
+ * @param children The footprints of the node's children.
+ */
+public record Footprint(
+    @NotNull String name,
+    long bytes,
+    @NotNull Map<String, Long> counts,
+    @NotNull List<Footprint> children) {
+
+  public Footprint {
+    counts = Map.copyOf(counts);
+    children = List.copyOf(children);
+  }
+
+  /**
+   * @param name The name of the node.
+   * @return A footprint with no bytes, counts or children.
+   */
+  @NotNull
+  public static Footprint empty(@NotNull String name) {
+    return new Footprint(name, 0, Map.of(), List.of());
+  }
+
+  /**
+   * @param kind The kind of object. E.G: "class", "method", "string"
+   * @return The count of objects of the kind. (0 if none)
+   */
+  public long getCount(@NotNull String kind) {
+    return counts.getOrDefault(kind, 0L);
+  }
+
+  /**
+   * @param name The name of the child.
+   * @return The footprint of the child.
+   * @throws NullPointerException If the node has no child with the name.
+   */
+  @NotNull
+  public Footprint getChild(@NotNull String name) {
+    for (Footprint child : children) {
+      if (child.name.equals(name)) return child;
+    }
+    throw new NullPointerException("The footprint has no child: " + name);
+  }
+}
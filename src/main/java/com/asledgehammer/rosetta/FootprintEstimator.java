@@ -0,0 +1,237 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * FootprintEstimator accumulates an estimate of the heap retained by objects of the model.
+ *
+ * <p>Sizes follow the layout of a 64-bit JVM with compressed references: 12-byte object headers,
+ * 16-byte array headers, 4-byte references and 8-byte alignment. The shallow size of each class is
+ * computed once from its declared fields.
+ */
+public final class FootprintEstimator {
+
+  public static final int OBJECT_HEADER = 12;
+  public static final int ARRAY_HEADER = 16;
+  public static final int REFERENCE = 4;
+  public static final int ALIGNMENT = 8;
+
+  private static final ClassValue<Long> SHALLOW_SIZES =
+      new ClassValue<>() {
+        @Override
+        protected Long computeValue(@NotNull Class<?> type) {
+          long size = OBJECT_HEADER;
+          for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+              if (!Modifier.isStatic(field.getModifiers())) {
+                size += sizeOfField(field.getType());
+              }
+            }
+          }
+          return align(size);
+        }
+      };
+
+  private static final long HASH_MAP_NODE = 32;
+
+  private final Map<String, Long> counts = new TreeMap<>();
+  private long bytes;
+
+  public FootprintEstimator() {}
+
+  /**
+   * Counts the shallow size of an object.
+   *
+   * @param object The object.
+   * @param kind The kind of object to count. E.G: "class", "method"
+   */
+  public void object(@NotNull Object object, @NotNull String kind) {
+    bytes += shallowSizeOf(object.getClass());
+    count(kind, 1);
+  }
+
+  /**
+   * Counts a string owned by the model. (Null strings are ignored)
+   *
+   * @param string The string.
+   */
+  public void string(@Nullable String string) {
+    if (string == null) return;
+    bytes += sizeOf(string);
+    count("string", 1);
+  }
+
+  /**
+   * Counts a map container. (Not its keys or values)
+   *
+   * @param map The map.
+   */
+  public void map(@NotNull Map<?, ?> map) {
+    if (map instanceof CompactMap<?> compact) {
+      bytes += shallowSizeOf(CompactMap.class) + compact.estimateStorage();
+    } else {
+      bytes += sizeOfHashMap(map.getClass(), map.size());
+    }
+  }
+
+  /**
+   * Counts a list container. (Not its elements) Empty immutable lists are shared and not counted.
+   *
+   * @param list The list.
+   */
+  public void list(@NotNull List<?> list) {
+    if (list instanceof ArrayList<?>) {
+      bytes += shallowSizeOf(ArrayList.class) + array(list.size(), REFERENCE);
+    } else if (!list.isEmpty()) {
+      // Immutable lists of one or two elements store them in fields.
+      bytes += shallowSizeOf(list.getClass()) + (list.size() > 2 ? array(list.size(), REFERENCE) : 0);
+    }
+  }
+
+  /**
+   * Counts a tag set. (Tag names are shared through the {@link TagDictionary})
+   *
+   * @param tags The tag set.
+   */
+  public void tags(@NotNull TagSet tags) {
+    bytes += shallowSizeOf(TagSet.class) + tags.estimateStorage();
+  }
+
+  /**
+   * Counts the shallow size of a reflection object retained by the model. (Null objects are ignored)
+   *
+   * @param target The reflection object.
+   */
+  public void reflection(@Nullable Object target) {
+    if (target == null) return;
+    bytes += shallowSizeOf(target.getClass());
+    count("reflection", 1);
+  }
+
+  /**
+   * @param bytes The bytes to add to the estimate.
+   */
+  public void add(long bytes) {
+    this.bytes += bytes;
+  }
+
+  /**
+   * @param kind The kind of object.
+   * @param count The count of objects to add.
+   */
+  public void count(@NotNull String kind, long count) {
+    counts.merge(kind, count, Long::sum);
+  }
+
+  /**
+   * @return The bytes estimated so far.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Builds a footprint from the estimate and the footprints of children.
+   *
+   * @param name The name of the node.
+   * @param children The footprints of the node's children.
+   * @return The footprint of the node, including its children.
+   */
+  @NotNull
+  public Footprint build(@NotNull String name, @NotNull List<Footprint> children) {
+    long total = bytes;
+    Map<String, Long> counts = new TreeMap<>(this.counts);
+    for (Footprint child : children) {
+      total += child.bytes();
+      child.counts().forEach((kind, count) -> counts.merge(kind, count, Long::sum));
+    }
+    return new Footprint(name, total, counts, children);
+  }
+
+  /**
+   * Estimates the bytes of a large collection from a sample of its elements.
+   *
+   * @param elements The elements.
+   * @param limit The most elements to sample.
+   * @param estimate Estimates the bytes of one element.
+   * @param <E> The type of elements.
+   * @return The estimated bytes of all elements.
+   */
+  public static <E> long sample(
+      @NotNull Collection<E> elements, int limit, @NotNull ToLongFunction<E> estimate) {
+    int size = elements.size();
+    if (size == 0) return 0;
+    long sampled = 0;
+    int count = 0;
+    for (Iterator<E> iterator = elements.iterator(); iterator.hasNext() && count < limit; count++) {
+      sampled += estimate.applyAsLong(iterator.next());
+    }
+    return count == 0 ? 0 : sampled * size / count;
+  }
+
+  /**
+   * @param type The class.
+   * @return The shallow size of instances of the class.
+   */
+  public static long shallowSizeOf(@NotNull Class<?> type) {
+    return SHALLOW_SIZES.get(type);
+  }
+
+  /**
+   * @param string The string.
+   * @return The size of the string and its backing array.
+   */
+  public static long sizeOf(@NotNull String string) {
+    int length = string.length();
+    int width = 1;
+    for (int index = 0; index < length; index++) {
+      if (string.charAt(index) > 0xFF) {
+        width = 2;
+        break;
+      }
+    }
+    return shallowSizeOf(String.class) + array(length, width);
+  }
+
+  /**
+   * @param type The class of the map.
+   * @param size The count of entries.
+   * @return The size of a hash map with the entries. (Excluding keys and values)
+   */
+  public static long sizeOfHashMap(@NotNull Class<?> type, int size) {
+    if (size == 0) return shallowSizeOf(type);
+    int capacity = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+    return shallowSizeOf(type) + array(Math.max(16, capacity), REFERENCE) + size * HASH_MAP_NODE;
+  }
+
+  /**
+   * @param length The length of the array.
+   * @param width The size of each element.
+   * @return The size of the array.
+   */
+  public static long array(int length, int width) {
+    return align(ARRAY_HEADER + (long) length * width);
+  }
+
+  /**
+   * @param size The unaligned size.
+   * @return The size rounded up to the object alignment.
+   */
+  public static long align(long size) {
+    return (size + ALIGNMENT - 1) & -ALIGNMENT;
+  }
+
+  private static int sizeOfField(@NotNull Class<?> type) {
+    if (!type.isPrimitive()) return REFERENCE;
+    if (type == long.class || type == double.class) return 8;
+    if (type == int.class || type == float.class) return 4;
+    if (type == short.class || type == char.class) return 2;
+    return 1;
+  }
+}
@@ -3,9 +3,15 @@ package com.asledgehammer.rosetta;
 import com.asledgehammer.rosetta.exception.RosettaException;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import com.asledgehammer.rosetta.exception.ValueTypeException;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMergeReport;
+import com.asledgehammer.rosetta.java.diff.JavaDiff;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.snakeyaml.engine.v2.api.Dump;
 import org.snakeyaml.engine.v2.api.Load;
 
@@ -25,6 +31,9 @@ public class RosettaCollection {
   private final Map<String, RosettaLanguage> languages = new HashMap<>();
   private final Map<String, RosettaApplication> applications = new HashMap<>();
 
+  /** Records changes to the objects of the collection's languages. */
+  private final ChangeJournal journal = new ChangeJournal();
+
   private String locale = "EN_US";
   private final String version = "1.2";
 
@@ -40,7 +49,10 @@ public class RosettaCollection {
   @SuppressWarnings({"unchecked"})
   public void load(@NotNull File file) throws IOException {
     Load reader = Rosetta.getYamlReader();
-    Object raw = reader.loadAllFromReader(new FileReader(file));
+    Object raw;
+    try (FileReader fileReader = new FileReader(file)) {
+      raw = reader.loadFromReader(fileReader);
+    }
     if (!(raw instanceof Map)) {
       throw new RosettaException(
           "Invalid YAML root type: " + raw.getClass().getName() + " (Must be dictionary/Map)");
@@ -57,7 +69,7 @@ public class RosettaCollection {
   @SuppressWarnings({"unchecked"})
   public void load(@NotNull Reader reader) {
     Load load = Rosetta.getYamlReader();
-    Object raw = load.loadAllFromReader(reader);
+    Object raw = load.loadFromReader(reader);
     if (!(raw instanceof Map)) {
       throw new RosettaException(
           "Invalid YAML root type: " + raw.getClass().getName() + " (Must be dictionary/Map)");
@@ -96,7 +108,7 @@ public class RosettaCollection {
     }
 
     Load reader = Rosetta.getYamlReader();
-    Iterable<Object> oRaw = reader.loadAllFromString(yaml);
+    Object oRaw = reader.loadFromString(yaml);
 
     if (!(oRaw instanceof Map)) {
       throw new RuntimeException("Improperly formatted Rosetta YAML:\n" + yaml);
@@ -166,6 +178,7 @@ public class RosettaCollection {
       if (!hasLanguage(keyLower)) {
         language = Rosetta.createLanguage(keyLower);
         this.languages.put(keyLower, language);
+        language.setCollection(this);
       } else {
         language = this.languages.get(keyLower);
       }
@@ -274,6 +287,101 @@ public class RosettaCollection {
     return raw;
   }
 
+  /**
+   * Runs a transaction. Edits buffered in the transaction are applied together once the consumer
+   * returns. If the consumer throws, nothing is applied.
+   *
+   * @param edit The consumer buffering edits.
+   * @throws RuntimeException If an edit fails. Edits already applied are undone first.
+   */
+  public void edit(@NotNull Consumer<RosettaTransaction> edit) {
+    RosettaTransaction transaction = new RosettaTransaction();
+    edit.accept(transaction);
+    transaction.commit();
+  }
+
+  /**
+   * Estimates the heap retained by the collection's languages. Estimates are incremental where the
+   * language supports it, so this is cheap enough to invoke periodically on a live model.
+   *
+   * @return The footprint of the collection. Children are the languages by ID.
+   */
+  @NotNull
+  public Footprint footprint() {
+    final List<String> keys = new ArrayList<>(this.languages.keySet());
+    keys.sort(Comparator.naturalOrder());
+    final List<Footprint> children = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      children.add(this.languages.get(key).footprint());
+    }
+    return new FootprintEstimator().build("collection", children);
+  }
+
+  /**
+   * Returns a hash of the content of the collection's languages. Languages cache the hashes of
+   * their definitions, so only what changed since the previous hash is hashed again.
+   *
+   * <p>NOTE: Only the thread editing the collection should invoke this method.
+   *
+   * @return The content hash of the collection. (See {@link RosettaObject#getContentHash()})
+   */
+  public long getContentHash() {
+    final List<String> keys = new ArrayList<>(this.languages.keySet());
+    keys.sort(Comparator.naturalOrder());
+    final ContentHasher hasher = new ContentHasher().string(version).string(locale);
+    for (String key : keys) {
+      hasher.string(key).value(this.languages.get(key).getContentHash());
+    }
+    return hasher.get();
+  }
+
+  /**
+   * Compares the Java model of the collection with the Java model of another collection. Subtrees
+   * with the same content are skipped, so the time to compare is proportional to the amount of
+   * change. (See {@link JavaDiff})
+   *
+   * @param other The newer collection.
+   * @return The differences from this collection to the other, in order of path.
+   */
+  @NotNull
+  public JavaDiff diff(@NotNull RosettaCollection other) {
+    return JavaDiff.compare(getJavaLanguage(), other.getJavaLanguage());
+  }
+
+  /**
+   * Replaces the Java model of the collection with a freshly discovered one, carrying over the
+   * docs of the current model. (See {@link JavaLanguage#merge(JavaLanguage, ForkJoinPool)})
+   *
+   * @param discovered The discovered model. It must not be registered with a collection.
+   * @param pool The pool to match in. If null, the merge runs on the calling thread.
+   * @return The report of the merge. Orphaned docs aren't kept.
+   */
+  @NotNull
+  public JavaMergeReport merge(@NotNull JavaLanguage discovered, @Nullable ForkJoinPool pool) {
+    final JavaLanguage documented = getJavaLanguage();
+    if (documented == null) {
+      addLanguage(discovered);
+      return discovered.merge(new JavaLanguage());
+    }
+    final JavaMergeReport report = discovered.merge(documented, pool);
+    removeLanguage(documented);
+    addLanguage(discovered);
+    return report;
+  }
+
+  @Nullable
+  private JavaLanguage getJavaLanguage() {
+    return languages.get("java") instanceof JavaLanguage language ? language : null;
+  }
+
+  /**
+   * @return The journal recording changes to the objects of the collection's languages.
+   */
+  @NotNull
+  public ChangeJournal getJournal() {
+    return journal;
+  }
+
   private boolean hasLanguages() {
     return !this.languages.isEmpty();
   }
@@ -297,6 +405,7 @@ public class RosettaCollection {
     }
 
     languages.put(idLower, lang);
+    lang.setCollection(this);
   }
 
   /**
@@ -24,6 +24,33 @@ public interface RosettaLanguage {
   @NotNull
   Map<String, Object> onSave();
 
+  /**
+   * Invoked when the language is registered to a collection.
+   *
+   * @param collection The collection storing the language.
+   */
+  default void setCollection(@NotNull RosettaCollection collection) {}
+
+  /**
+   * Estimates the heap retained by the language's definitions.
+   *
+   * @return The footprint of the language. (Empty if the language doesn't support estimates)
+   */
+  @NotNull
+  default Footprint footprint() {
+    return Footprint.empty(getID());
+  }
+
+  /**
+   * Returns a hash of the content of the language's definitions. (See {@link
+   * RosettaObject#getContentHash()})
+   *
+   * @return The content hash of the language. (0 if the language doesn't support content hashes)
+   */
+  default long getContentHash() {
+    return 0;
+  }
+
   /**
    * @return The YAML language name. E.G: `java`, `lua`, etc..
    */
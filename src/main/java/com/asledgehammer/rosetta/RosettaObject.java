@@ -1,17 +1,67 @@
 package com.asledgehammer.rosetta;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * RosettaObject is a common super-class for dictionary objects that monitors its dirty-state for
  * compiling and modifying its properties.
+ *
+ * <p>Objects register with their parent when they become dirty so that compiling a parent only
+ * visits the children that changed.
  */
 public abstract class RosettaObject implements DirtySupported {
 
+  /** The revision clock. Changes are stamped with the current value. */
+  private static final AtomicLong REVISION = new AtomicLong(1);
+
+  /** Objects that became dirty while propagation is deferred on the thread. */
+  private static final ThreadLocal<Set<RosettaObject>> DEFERRED = new ThreadLocal<>();
+
   private boolean dirty = false;
 
+  /** The object this object is registered in. (If any) */
+  @Nullable private RosettaObject parent;
+
+  /** Children that became dirty since this object last compiled. (Lazily allocated) */
+  @Nullable private Set<RosettaObject> dirtyChildren;
+
+  /** The revision of the latest change to this object or any of its children. */
+  private long revision = 0;
+
+  /** The latest immutable snapshot of the object. (If any) */
+  @Nullable private Object snapshot;
+
+  /** The revision mark the snapshot was built at. */
+  private long snapshotRevision;
+
+  /** The latest content hash of the object. */
+  private long contentHash;
+
+  /** The revision mark the content hash was computed at. (-1 if never computed) */
+  private long contentHashRevision = -1;
+
+  /** True once the members are summed. Changed members are only tracked from then on. */
+  private boolean membersSummed;
+
+  /** The sum of the hashes of the members. (See {@link ContentHasher#members(Iterable[])}) */
+  private long memberSum;
+
+  /** Members that changed since the member sum was updated. (Lazily allocated) */
+  @Nullable private Set<RosettaObject> changedMembers;
+
+  /** The hash this object added to the member sum of its parent. (0 if not added) */
+  private long memberHash;
+
   /** Generic creation constructor. No arguments are passed. */
   protected RosettaObject() {}
 
@@ -27,6 +77,25 @@ public abstract class RosettaObject implements DirtySupported {
 
   @Override
   public boolean onCompile() {
+    return compileDirtyChildren();
+  }
+
+  /**
+   * Compiles only the children that registered themselves as dirty.
+   *
+   * @return True if all dirty children compiled.
+   */
+  protected boolean compileDirtyChildren() {
+    if (dirtyChildren == null || dirtyChildren.isEmpty()) return true;
+    Iterator<RosettaObject> iterator = dirtyChildren.iterator();
+    while (iterator.hasNext()) {
+      RosettaObject child = iterator.next();
+      // Fail compilation if the child fails. (It stays registered)
+      if (child.parent == this && !child.compile()) {
+        return false;
+      }
+      iterator.remove();
+    }
     return true;
   }
 
@@ -37,11 +106,296 @@ public abstract class RosettaObject implements DirtySupported {
 
   @Override
   public void setDirty() {
-    this.dirty = true;
+    setDirty(true);
   }
 
+  @Override
   public void setDirty(boolean flag) {
-    this.dirty = flag;
+    if (flag) {
+      touch();
+      if (this.dirty) return;
+      this.dirty = true;
+      if (this.parent != null) {
+        Set<RosettaObject> deferred = DEFERRED.get();
+        if (deferred != null) {
+          deferred.add(this);
+        } else {
+          this.parent.onChildDirty(this);
+        }
+      }
+    } else {
+      this.dirty = false;
+    }
+  }
+
+  /**
+   * Stamps the object and its parents with the current revision. The walk stops at the first
+   * object already stamped with it.
+   */
+  private void touch() {
+    final long stamp = REVISION.get();
+    for (RosettaObject object = this; object != null && object.revision != stamp; ) {
+      object.revision = stamp;
+      if (object.parent != null) object.parent.onMemberChanged(object);
+      object = object.parent;
+    }
+  }
+
+  /**
+   * @return The revision of the latest change to this object or any of its children. (0 if never
+   *     changed)
+   */
+  public long getRevision() {
+    return revision;
+  }
+
+  /**
+   * Advances the revision clock.
+   *
+   * @return A mark where every change made so far has a revision at or below it, and every later
+   *     change has a revision above it.
+   */
+  public static long markRevision() {
+    return REVISION.getAndIncrement();
+  }
+
+  /**
+   * Returns the cached snapshot of the object if nothing changed since it was built. Otherwise,
+   * builds and caches a new one.
+   *
+   * @param mark The revision mark of the snapshot being built. (See {@link #markRevision()})
+   * @param builder Builds the snapshot.
+   * @return The snapshot of the object.
+   * @param <S> The type of snapshot.
+   */
+  @NotNull
+  @SuppressWarnings({"unchecked"})
+  protected <S> S snapshot(long mark, @NotNull Supplier<S> builder) {
+    if (this.snapshot != null && this.revision <= this.snapshotRevision) {
+      return (S) this.snapshot;
+    }
+    S built = builder.get();
+    this.snapshot = built;
+    this.snapshotRevision = mark;
+    return built;
+  }
+
+  /**
+   * Returns a hash of the content of the object and its children. The hash is cached until the
+   * object or one of its children changes, so comparing unchanged subtrees is O(1). Members are
+   * summed incrementally, so rehashing after an edit only visits the objects on the edited path.
+   *
+   * <p>NOTE: Only the thread editing the object should invoke this method.
+   *
+   * @return The content hash of the object. Objects with the same content have the same hash.
+   */
+  public long getContentHash() {
+    if (this.contentHashRevision != -1 && this.revision <= this.contentHashRevision) {
+      return this.contentHash;
+    }
+    final long mark = markRevision();
+    final ContentHasher hasher = new ContentHasher(this);
+    hashContent(hasher);
+    this.contentHash = hasher.get();
+    this.contentHashRevision = mark;
+    return this.contentHash;
+  }
+
+  /**
+   * Folds the content of the object into a hash. Children are folded in through their own cached
+   * hashes. (See {@link ContentHasher#child(RosettaObject)})
+   *
+   * @param hasher The hasher to fold the content into.
+   */
+  protected abstract void hashContent(@NotNull ContentHasher hasher);
+
+  /**
+   * Sums the hashes of the members. The first sum visits every member. Later sums only update the
+   * members that changed.
+   *
+   * @param groups Every member of the object.
+   * @return The sum of the hashes of the members.
+   */
+  long sumMembers(@NotNull List<Iterable<? extends RosettaObject>> groups) {
+    if (!membersSummed) {
+      long sum = 0;
+      for (Iterable<? extends RosettaObject> group : groups) {
+        for (RosettaObject member : group) {
+          member.memberHash = ContentHasher.mix(member.getContentHash());
+          sum += member.memberHash;
+        }
+      }
+      this.memberSum = sum;
+      this.membersSummed = true;
+    } else if (changedMembers != null && !changedMembers.isEmpty()) {
+      for (RosettaObject member : changedMembers) {
+        if (member.parent != this) continue;
+        final long hash = ContentHasher.mix(member.getContentHash());
+        this.memberSum += hash - member.memberHash;
+        member.memberHash = hash;
+      }
+      changedMembers.clear();
+    }
+    return memberSum;
+  }
+
+  /**
+   * Registers a member as changed, if the members are summed.
+   *
+   * @param member The member that changed or was adopted.
+   */
+  private void onMemberChanged(@NotNull RosettaObject member) {
+    if (!membersSummed) return;
+    if (changedMembers == null) {
+      changedMembers = new LinkedHashSet<>();
+    }
+    changedMembers.add(member);
+  }
+
+  /**
+   * Defers notifying parents of objects becoming dirty on the current thread until {@link
+   * #propagateDeferred()} is invoked.
+   *
+   * @throws IllegalStateException If propagation is already deferred on the current thread.
+   */
+  static void deferPropagation() {
+    if (DEFERRED.get() != null) {
+      throw new IllegalStateException("Dirty propagation is already deferred on this thread.");
+    }
+    DEFERRED.set(new LinkedHashSet<>());
+  }
+
+  /**
+   * Notifies the parents of all objects that became dirty while propagation was deferred, and
+   * stops deferring propagation on the current thread.
+   *
+   * @return The objects that became dirty while propagation was deferred.
+   */
+  @NotNull
+  static Set<RosettaObject> propagateDeferred() {
+    Set<RosettaObject> deferred = DEFERRED.get();
+    if (deferred == null) return Set.of();
+    DEFERRED.remove();
+    for (RosettaObject object : deferred) {
+      if (object.dirty && object.parent != null) {
+        object.parent.onChildDirty(object);
+      }
+    }
+    return deferred;
+  }
+
+  /**
+   * Registers a child as dirty and marks this object dirty.
+   *
+   * @param child The child that became dirty.
+   */
+  private void onChildDirty(@NotNull RosettaObject child) {
+    if (dirtyChildren == null) {
+      dirtyChildren = new LinkedHashSet<>();
+    }
+    dirtyChildren.add(child);
+    setDirty(true);
+  }
+
+  /**
+   * Registers an object as a child of this object.
+   *
+   * @param child The child to adopt.
+   */
+  protected void adopt(@NotNull RosettaObject child) {
+    if (child.parent != this) {
+      child.parent = this;
+      child.memberHash = 0;
+      onMemberChanged(child);
+    }
+    if (child.dirty) {
+      onChildDirty(child);
+    }
+  }
+
+  /**
+   * Unregisters a child of this object.
+   *
+   * @param child The child to orphan.
+   */
+  protected void orphan(@NotNull RosettaObject child) {
+    if (child.parent != this) return;
+    child.parent = null;
+    if (dirtyChildren != null) {
+      dirtyChildren.remove(child);
+    }
+    this.memberSum -= child.memberHash;
+    child.memberHash = 0;
+    if (changedMembers != null) {
+      changedMembers.remove(child);
+    }
+  }
+
+  /**
+   * @return A copy of the children registered as dirty, in the order they became dirty.
+   */
+  @NotNull
+  public List<RosettaObject> getDirtyChildren() {
+    if (dirtyChildren == null || dirtyChildren.isEmpty()) return List.of();
+    return new ArrayList<>(dirtyChildren);
+  }
+
+  /**
+   * @return The path of the object from its root. E.G: "java.util.ArrayList#size"
+   */
+  @NotNull
+  public String getPath() {
+    String name = this instanceof NamedEntity named ? named.getName() : getClass().getSimpleName();
+    return parent != null ? parent.getPath() + '.' + name : name;
+  }
+
+  /**
+   * @return The journal of the collection the object belongs to. (If any)
+   */
+  @Nullable
+  protected ChangeJournal getJournal() {
+    return parent != null ? parent.getJournal() : null;
+  }
+
+  /**
+   * Records a change to a property of the object in the collection's journal. (If recording)
+   *
+   * @param type The kind of change.
+   * @param property The name of the property that changed.
+   * @param oldValue The value before the change.
+   * @param newValue The value after the change.
+   */
+  protected void record(
+      @NotNull ChangeEvent.Type type,
+      @NotNull String property,
+      @Nullable Object oldValue,
+      @Nullable Object newValue) {
+    // Skip the walk up the parents when nothing is subscribed.
+    if (!ChangeJournal.isAnyRecording()) return;
+    ChangeJournal journal = getJournal();
+    if (journal != null && journal.isRecording()) {
+      journal.record(type, this, property, oldValue, newValue);
+    }
+  }
+
+  /**
+   * @return The top-most object this object is registered in. (Itself if it has no parent)
+   */
+  @NotNull
+  public RosettaObject getRoot() {
+    RosettaObject root = this;
+    while (root.parent != null) {
+      root = root.parent;
+    }
+    return root;
+  }
+
+  /**
+   * @return The object this object is registered in. (If any)
+   */
+  @Nullable
+  public RosettaObject getParent() {
+    return parent;
   }
 
   /**
@@ -0,0 +1,216 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * RosettaTransaction buffers edits to Rosetta objects and applies them together when committed.
+ *
+ * <p>While committing, objects becoming dirty don't notify their parents until every edit is
+ * applied, after which each touched tree is compiled once. If an edit fails, the edits already
+ * applied are undone in reverse order and the failure is rethrown.
+ *
+ * <p>Use {@link RosettaCollection#edit(Consumer)} to run a transaction.
+ */
+public class RosettaTransaction {
+
+  /** A buffered edit that can be undone after it is applied. */
+  private interface Operation {
+
+    /**
+     * @return The object edited.
+     */
+    @NotNull
+    Object getTarget();
+
+    void apply();
+
+    void undo();
+  }
+
+  private final List<Operation> operations = new ArrayList<>();
+
+  private boolean committed = false;
+
+  RosettaTransaction() {}
+
+  /**
+   * Buffers setting the notes of an object.
+   *
+   * @param target The object to edit.
+   * @param notes The notes to set. (If null or empty, the notes are removed)
+   */
+  public void setNotes(@NotNull Notable target, @Nullable String notes) {
+    set(target, () -> target.hasNotes() ? target.getNotes() : null, target::setNotes, notes);
+  }
+
+  /**
+   * Buffers applying a tag to an object.
+   *
+   * @param target The object to edit.
+   * @param tag The tag to apply.
+   */
+  public void addTag(@NotNull Taggable target, @NotNull String tag) {
+    addAllTags(target, List.of(tag));
+  }
+
+  /**
+   * Buffers applying tags to an object.
+   *
+   * @param target The object to edit.
+   * @param tags The tags to apply.
+   */
+  public void addAllTags(@NotNull Taggable target, @NotNull List<String> tags) {
+    final List<String> copy = List.copyOf(tags);
+    add(target, () -> target.addAllTags(copy), () -> target.removeAllTags(copy));
+  }
+
+  /**
+   * Buffers removing a tag from an object.
+   *
+   * @param target The object to edit.
+   * @param tag The tag to remove.
+   */
+  public void removeTag(@NotNull Taggable target, @NotNull String tag) {
+    removeAllTags(target, List.of(tag));
+  }
+
+  /**
+   * Buffers removing tags from an object.
+   *
+   * @param target The object to edit.
+   * @param tags The tags to remove.
+   */
+  public void removeAllTags(@NotNull Taggable target, @NotNull List<String> tags) {
+    final List<String> copy = List.copyOf(tags);
+    add(target, () -> target.removeAllTags(copy), () -> target.addAllTags(copy));
+  }
+
+  /**
+   * Buffers setting a property of an object. The current value is read when the edit is applied so
+   * that it can be restored on rollback.
+   *
+   * @param target The object to edit.
+   * @param getter Reads the property.
+   * @param setter Writes the property.
+   * @param value The value to set.
+   * @param <T> The type of the property.
+   */
+  public <T> void set(
+      @NotNull Object target,
+      @NotNull Supplier<T> getter,
+      @NotNull Consumer<T> setter,
+      @Nullable T value) {
+    checkOpen();
+    operations.add(
+        new Operation() {
+          private T oldValue;
+
+          @NotNull
+          @Override
+          public Object getTarget() {
+            return target;
+          }
+
+          @Override
+          public void apply() {
+            oldValue = getter.get();
+            setter.accept(value);
+          }
+
+          @Override
+          public void undo() {
+            setter.accept(oldValue);
+          }
+        });
+  }
+
+  /**
+   * Buffers an edit with an explicit undo.
+   *
+   * @param target The object to edit.
+   * @param apply Applies the edit.
+   * @param undo Reverts the edit.
+   */
+  public void add(@NotNull Object target, @NotNull Runnable apply, @NotNull Runnable undo) {
+    checkOpen();
+    operations.add(
+        new Operation() {
+          @NotNull
+          @Override
+          public Object getTarget() {
+            return target;
+          }
+
+          @Override
+          public void apply() {
+            apply.run();
+          }
+
+          @Override
+          public void undo() {
+            undo.run();
+          }
+        });
+  }
+
+  /**
+   * @return The count of buffered edits.
+   */
+  public int size() {
+    return operations.size();
+  }
+
+  /**
+   * Applies all buffered edits, then compiles each touched tree once.
+   *
+   * @throws RuntimeException If an edit fails. Edits already applied are undone first.
+   */
+  void commit() {
+    checkOpen();
+    committed = true;
+    if (operations.isEmpty()) return;
+
+    RosettaObject.deferPropagation();
+    int applied = 0;
+    try {
+      for (Operation operation : operations) {
+        operation.apply();
+        applied++;
+      }
+    } catch (RuntimeException e) {
+      // Undo in reverse order.
+      for (int index = applied - 1; index >= 0; index--) {
+        try {
+          operations.get(index).undo();
+        } catch (RuntimeException suppressed) {
+          e.addSuppressed(suppressed);
+        }
+      }
+      throw e;
+    } finally {
+      RosettaObject.propagateDeferred();
+    }
+
+    // Compile each touched tree once.
+    final Set<RosettaObject> roots = new LinkedHashSet<>();
+    for (Operation operation : operations) {
+      if (operation.getTarget() instanceof RosettaObject object) {
+        roots.add(object.getRoot());
+      }
+    }
+    for (RosettaObject root : roots) {
+      root.compile();
+    }
+  }
+
+  private void checkOpen() {
+    if (committed) {
+      throw new IllegalStateException("The transaction is already committed.");
+    }
+  }
+}
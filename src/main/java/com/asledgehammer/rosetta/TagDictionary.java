@@ -0,0 +1,93 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TagDictionary assigns dense integer IDs to tag strings so that {@link TagSet}s can store tags as
+ * bits. IDs are assigned in the order tags are first seen and are never reused.
+ *
+ * <p>The dictionary is shared by every collection so that tags can be stored on objects before they
+ * are registered to one. Tags are never removed from it, since any set may still hold their IDs.
+ * Growth is bounded by {@link #MAX_SIZE}. Sets only span the IDs they hold, so late tags with high
+ * IDs don't grow the sets that don't carry them. (See {@link TagSet})
+ */
+public final class TagDictionary {
+
+  /** The most distinct tags the dictionary assigns IDs to. */
+  public static final int MAX_SIZE = 1 << 16;
+
+  private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+  private static volatile String[] tags = new String[64];
+  private static int size = 0;
+
+  private TagDictionary() {
+    throw new RuntimeException("Cannot instantiate TagDictionary.");
+  }
+
+  /**
+   * Returns the ID of a tag, assigning one if the tag is new.
+   *
+   * @param tag The tag.
+   * @return The ID of the tag.
+   * @throws IllegalArgumentException If the tag is empty.
+   * @throws IllegalStateException If the dictionary already holds {@link #MAX_SIZE} tags.
+   */
+  public static int idOf(@NotNull String tag) {
+    Integer id = IDS.get(tag);
+    if (id != null) return id;
+    if (tag.isEmpty()) {
+      throw new IllegalArgumentException("The tag is empty.");
+    }
+    synchronized (TagDictionary.class) {
+      id = IDS.get(tag);
+      if (id != null) return id;
+      if (size == MAX_SIZE) {
+        throw new IllegalStateException(
+            "The tag dictionary is full. (" + MAX_SIZE + " tags) Can't add: " + tag);
+      }
+      String[] tags = TagDictionary.tags;
+      if (size == tags.length) {
+        tags = Arrays.copyOf(tags, tags.length * 2);
+      }
+      tags[size] = tag;
+      TagDictionary.tags = tags;
+      IDS.put(tag, size);
+      return size++;
+    }
+  }
+
+  /**
+   * @param tag The tag.
+   * @return The ID of the tag, or -1 if the tag was never assigned one.
+   */
+  public static int find(@NotNull String tag) {
+    Integer id = IDS.get(tag);
+    return id != null ? id : -1;
+  }
+
+  /**
+   * @param id The ID of the tag.
+   * @return The tag.
+   * @throws IllegalArgumentException If no tag has the ID.
+   */
+  @NotNull
+  public static String nameOf(int id) {
+    String[] tags = TagDictionary.tags;
+    String tag = id >= 0 && id < tags.length ? tags[id] : null;
+    if (tag == null) {
+      throw new IllegalArgumentException("No tag has the ID: " + id);
+    }
+    return tag;
+  }
+
+  /**
+   * @return The count of tags assigned an ID.
+   */
+  public static int size() {
+    return IDS.size();
+  }
+}
@@ -0,0 +1,223 @@
+package com.asledgehammer.rosetta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TagSet stores tags as bits indexed by their {@link TagDictionary} IDs. Tests, additions and
+ * removals are O(1). No memory is allocated until a tag is added.
+ *
+ * <p>The bits only span the words between the lowest and highest IDs in the set, so a set holding
+ * a tag with a high ID doesn't allocate words for every ID below it. The IDs are also kept in the
+ * order they were added, so tags list in insertion order.
+ */
+public final class TagSet {
+
+  private static final long[] EMPTY = new long[0];
+  private static final int[] EMPTY_IDS = new int[0];
+
+  private long[] words = EMPTY;
+
+  /** The word index of the first word. (By ID: {@code id >>> 6}) */
+  private int offset = 0;
+
+  /** The IDs in the order they were added. */
+  private int[] order = EMPTY_IDS;
+
+  private int size = 0;
+
+  /** The cached read-only list of tags. (Cleared on changes) */
+  @Nullable private List<String> list;
+
+  /**
+   * @param id The ID of the tag.
+   * @return True if the tag is in the set.
+   */
+  public boolean contains(int id) {
+    int word = (id >>> 6) - offset;
+    return id >= 0 && word >= 0 && word < words.length && (words[word] & (1L << id)) != 0;
+  }
+
+  /**
+   * @param tag The tag.
+   * @return True if the tag is in the set.
+   * @throws IllegalArgumentException If the tag is empty.
+   */
+  public boolean contains(@NotNull String tag) {
+    if (tag.isEmpty()) {
+      throw new IllegalArgumentException("The tag is empty.");
+    }
+    return contains(TagDictionary.find(tag));
+  }
+
+  /**
+   * @param id The ID of the tag.
+   * @return True if the tag was added. False if already in the set.
+   */
+  public boolean add(int id) {
+    if (contains(id)) return false;
+    ensure(id >>> 6);
+    words[(id >>> 6) - offset] |= 1L << id;
+    if (size == order.length) {
+      order = Arrays.copyOf(order, Math.max(4, size * 2));
+    }
+    order[size++] = id;
+    list = null;
+    return true;
+  }
+
+  /**
+   * @param tag The tag.
+   * @return True if the tag was added. False if already in the set.
+   * @throws IllegalArgumentException If the tag is empty.
+   */
+  public boolean add(@NotNull String tag) {
+    return add(TagDictionary.idOf(tag));
+  }
+
+  /**
+   * @param id The ID of the tag.
+   * @return True if the tag was removed. False if not in the set.
+   */
+  public boolean remove(int id) {
+    if (!contains(id)) return false;
+    words[(id >>> 6) - offset] &= ~(1L << id);
+    for (int index = 0; index < size; index++) {
+      if (order[index] == id) {
+        System.arraycopy(order, index + 1, order, index, size - index - 1);
+        break;
+      }
+    }
+    size--;
+    list = null;
+    return true;
+  }
+
+  /**
+   * @param tag The tag.
+   * @return True if the tag was removed. False if not in the set.
+   * @throws IllegalArgumentException If the tag is empty.
+   */
+  public boolean remove(@NotNull String tag) {
+    if (tag.isEmpty()) {
+      throw new IllegalArgumentException("The tag is empty.");
+    }
+    return remove(TagDictionary.find(tag));
+  }
+
+  /**
+   * Adds every tag of another set, in the order they were added to it.
+   *
+   * @param other The set to add.
+   */
+  public void addAll(@NotNull TagSet other) {
+    for (int index = 0; index < other.size; index++) {
+      add(other.order[index]);
+    }
+  }
+
+  /**
+   * Removes every tag of another set.
+   *
+   * @param other The set to remove.
+   */
+  public void removeAll(@NotNull TagSet other) {
+    int kept = 0;
+    for (int index = 0; index < size; index++) {
+      int id = order[index];
+      if (other.contains(id)) {
+        words[(id >>> 6) - offset] &= ~(1L << id);
+      } else {
+        order[kept++] = id;
+      }
+    }
+    size = kept;
+    list = null;
+  }
+
+  /** Removes every tag. */
+  public void clear() {
+    words = EMPTY;
+    offset = 0;
+    order = EMPTY_IDS;
+    size = 0;
+    list = null;
+  }
+
+  /**
+   * @return The count of tags in the set.
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return The IDs of the tags in the order they were added.
+   */
+  @NotNull
+  public int[] ids() {
+    return Arrays.copyOf(order, size);
+  }
+
+  /**
+   * @return A read-only list of the tags, in the order they were added.
+   */
+  @NotNull
+  public List<String> toList() {
+    List<String> list = this.list;
+    if (list == null) {
+      if (size == 0) {
+        list = List.of();
+      } else {
+        List<String> built = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+          built.add(TagDictionary.nameOf(order[index]));
+        }
+        list = Collections.unmodifiableList(built);
+      }
+      this.list = list;
+    }
+    return list;
+  }
+
+  /**
+   * @return The estimated bytes of the set's storage. (Excluding the cached list)
+   */
+  long estimateStorage() {
+    long bytes = words.length == 0 ? 0 : FootprintEstimator.array(words.length, Long.BYTES);
+    return bytes + (order.length == 0 ? 0 : FootprintEstimator.array(order.length, Integer.BYTES));
+  }
+
+  /**
+   * Grows the words to span a word index.
+   *
+   * @param word The word index to span. (By ID: {@code id >>> 6})
+   */
+  private void ensure(int word) {
+    if (words.length == 0) {
+      words = new long[1];
+      offset = word;
+    } else if (word < offset) {
+      long[] grown = new long[words.length + offset - word];
+      System.arraycopy(words, 0, grown, offset - word, words.length);
+      words = grown;
+      offset = word;
+    } else if (word - offset >= words.length) {
+      words = Arrays.copyOf(words, word - offset + 1);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+}
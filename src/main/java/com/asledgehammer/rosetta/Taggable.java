@@ -22,6 +22,13 @@ public interface Taggable {
    */
   void addTag(@NotNull String tag);
 
+  /**
+   * Applies tags to the object. Implementations should validate all tags before applying any.
+   *
+   * @param tags The tags to apply.
+   * @throws NullPointerException If the list or a tag is null.
+   * @throws IllegalArgumentException If a tag is empty or already applied.
+   */
   default void addAllTags(@NotNull List<String> tags) {
     for (String tag : tags) {
       addTag(tag);
@@ -37,6 +44,13 @@ public interface Taggable {
    */
   void removeTag(@NotNull String tag);
 
+  /**
+   * Removes tags from the object. Implementations should validate all tags before removing any.
+   *
+   * @param tags The tags to remove.
+   * @throws NullPointerException If the list or a tag is null.
+   * @throws IllegalArgumentException If a tag is empty or is not applied.
+   */
   default void removeAllTags(@NotNull List<String> tags) {
     for (String tag : tags) {
       removeTag(tag);
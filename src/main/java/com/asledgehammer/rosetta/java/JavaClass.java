@@ -1,13 +1,22 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.CompactMap;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.Footprint;
+import com.asledgehammer.rosetta.FootprintEstimator;
 import com.asledgehammer.rosetta.NamedEntity;
 import com.asledgehammer.rosetta.Notable;
 import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.TagSet;
 import com.asledgehammer.rosetta.Taggable;
 import com.asledgehammer.rosetta.exception.MissingKeyException;
 import com.asledgehammer.rosetta.exception.ValueTypeException;
 import com.asledgehammer.rosetta.java.reference.ClassReference;
 import com.asledgehammer.rosetta.java.reference.TypeReference;
+import com.asledgehammer.rosetta.java.snapshot.ClassSnapshot;
+import com.asledgehammer.rosetta.java.snapshot.ExecutableSnapshot;
+import com.asledgehammer.rosetta.java.snapshot.FieldSnapshot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -17,10 +26,12 @@ import java.util.*;
 public class JavaClass extends RosettaObject
     implements NamedEntity, Notable, Reflected<Class<?>>, Taggable {
 
-  private final Map<String, JavaField> fields = new HashMap<>();
-  private final Map<String, JavaExecutableCollection<JavaMethod>> methods = new HashMap<>();
-  private final List<JavaTypeParameter> typeParameters = new ArrayList<>();
-  private final List<String> tags = new ArrayList<>();
+  private final Map<String, JavaField> fields = new CompactMap<>();
+  private final Map<String, JavaExecutableCollection<JavaMethod>> methods = new CompactMap<>();
+
+  /** Immutable. (Shared empty list until type parameters are defined) */
+  private List<JavaTypeParameter> typeParameters = List.of();
+  private final TagSet tags = new TagSet();
   private final JavaExecutableCollection<JavaConstructor> constructors;
   private ClassReference targetReference;
   private Class<?> target;
@@ -31,17 +42,26 @@ public class JavaClass extends RosettaObject
   private String deprecated;
 
   private TypeReference extendz;
-  private List<TypeReference> implementz = new ArrayList<>();
+  /** Immutable. (Shared empty list until super-interfaces are defined) */
+  private List<TypeReference> implementz = List.of();
 
   private JavaScope scope;
   private boolean isStatic;
   private boolean isFinal;
 
+  /** The latest footprint estimate of the class. (If any) */
+  @Nullable private Footprint footprint;
+
+  /** The revision mark the footprint was estimated at. */
+  private long footprintRevision;
+
   JavaClass(@NotNull JavaPackage pkg, @NotNull Class<?> clazz) {
     super();
 
     this.pkg = pkg;
-    this.name = clazz.getSimpleName();
+    // Nested classes keep their binary name so they don't collide. E.G: "Map$Entry"
+    String qualifiedName = clazz.getName();
+    this.name = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
     this.constructors = new JavaExecutableCollection<>(this.name);
 
     discover(clazz);
@@ -77,24 +97,42 @@ public class JavaClass extends RosettaObject
     this.isStatic = JavaLanguage.isStatic(clazz);
     this.isFinal = JavaLanguage.isFinal(clazz);
 
-    // Grab the superclass type.
-    this.extendz = TypeReference.of(clazz.getGenericSuperclass());
+    // Grab the superclass type. (Interfaces, primitives and Object don't have one)
+    Type superclass = clazz.getGenericSuperclass();
+    this.extendz = superclass != null ? TypeReference.of(superclass) : null;
 
     // Grab any superinterface types.
-    for (Type implement : clazz.getGenericInterfaces()) {
-      implementz.add(TypeReference.of(implement));
+    Type[] interfaces = clazz.getGenericInterfaces();
+    if (interfaces.length != 0) {
+      TypeReference[] implementz = new TypeReference[interfaces.length];
+      for (int index = 0; index < interfaces.length; index++) {
+        implementz[index] = TypeReference.of(interfaces[index]);
+      }
+      this.implementz = List.of(implementz);
+    }
+
+    // Register any generic parameter variables.
+    TypeVariable<?>[] typeVariables = clazz.getTypeParameters();
+    if (typeVariables.length != 0) {
+      JavaTypeParameter[] typeParameters = new JavaTypeParameter[typeVariables.length];
+      for (int index = 0; index < typeVariables.length; index++) {
+        typeParameters[index] = new JavaTypeParameter(TypeReference.of(typeVariables[index]));
+      }
+      this.typeParameters = List.of(typeParameters);
     }
 
     // Discover fields.
     for (Field field : clazz.getDeclaredFields()) {
       JavaField javaField = new JavaField(field);
       fields.put(javaField.getName(), javaField);
+      adopt(javaField);
     }
 
     // Discover constructors.
     for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
       JavaConstructor javaConstructor = new JavaConstructor(constructor);
       constructors.addExecutable(javaConstructor);
+      adopt(javaConstructor);
     }
 
     // Discover methods.
@@ -107,56 +145,30 @@ public class JavaClass extends RosettaObject
         methods.put(name, collection);
       }
       collection.addExecutable(javaMethod);
+      adopt(javaMethod);
     }
   }
 
   @Override
   public boolean onCompile() {
-
-    // Compile field(s).
-    if (!fields.isEmpty()) {
-      for (JavaField field : fields.values()) {
-        if (field.isDirty()) {
-          // Fail compilation if field fails to compile.
-          if (!field.compile()) {
-            return false;
-          }
-        }
-      }
-    }
-
-    // Compile method(s).
-    if (!methods.isEmpty()) {
-      for (JavaExecutableCollection<JavaMethod> methodList : methods.values()) {
-        for (JavaMethod method : methodList.getExecutables()) {
-          if (method.isDirty()) {
-            // Fail compilation if method fails to compile.
-            if (!method.compile()) {
-              return false;
-            }
-          }
-        }
-      }
-    }
-
-    // Compile constructor(s).
-    if (!constructors.isEmpty()) {
-      for (JavaConstructor constructor : constructors.getExecutables()) {
-        if (constructor.isDirty()) {
-          // Fail compilation if constructor fails to compile.
-          if (!constructor.compile()) {
-            return false;
-          }
-        }
-      }
-    }
-
-    return true;
+    // Only field(s), method(s) and constructor(s) registered as dirty are compiled.
+    return compileDirtyChildren();
   }
 
   @Override
   protected void onLoad(@NotNull final Map<String, Object> raw) {
 
+    // If the scope is defined. (Public by default)
+    if (raw.containsKey("scope")) {
+      Object oScope = raw.get("scope");
+      if (!(oScope instanceof String)) {
+        throw new ValueTypeException("class", "scope", oScope.getClass(), String.class);
+      }
+      this.scope = JavaScope.of((String) oScope);
+    } else {
+      this.scope = JavaScope.PUBLIC;
+    }
+
     // If the class is defined as static.
     if (raw.containsKey("static")) {
       Object oStatic = raw.get("static");
@@ -181,7 +193,11 @@ public class JavaClass extends RosettaObject
 
     // If the class extends another, resolve the type.
     if (raw.containsKey("extends")) {
+      TypeReference oldExtends = this.extendz;
       this.extendz = JavaLanguage.resolveType(raw.get("extends"));
+      if (oldExtends != this.extendz) {
+        record(ChangeEvent.Type.SET, "extends", oldExtends, this.extendz);
+      }
     }
 
     // Any implementation types are resolved.
@@ -190,9 +206,15 @@ public class JavaClass extends RosettaObject
       if (!(oImplements instanceof List)) {
         throw new ValueTypeException("class", "implements", oImplements.getClass(), List.class);
       }
+      final List<TypeReference> implementz = new ArrayList<>();
       for (Object oImplement : (List<Object>) oImplements) {
         implementz.add(JavaLanguage.resolveType(oImplement));
       }
+      List<TypeReference> oldImplements = this.implementz;
+      this.implementz = List.copyOf(implementz);
+      if (!oldImplements.equals(this.implementz)) {
+        record(ChangeEvent.Type.SET, "implements", oldImplements, this.implementz);
+      }
     }
 
     // If the object is deprecated and optionally has a description for it.
@@ -216,6 +238,18 @@ public class JavaClass extends RosettaObject
       if (!(oNotes instanceof String)) {
         throw new ValueTypeException("class", "notes", oNotes.getClass(), String.class);
       }
+      this.notes = (String) oNotes;
+    }
+
+    // Load tags. (If defined)
+    if (raw.containsKey("tags")) {
+      Object oTags = raw.get("tags");
+      if (!(oTags instanceof List)) {
+        throw new ValueTypeException("class", "tags", oTags.getClass(), List.class);
+      }
+      for (Object oTag : (List<?>) oTags) {
+        this.tags.add(oTag.toString());
+      }
     }
 
     // Load any type_parameters. (If defined)
@@ -226,11 +260,11 @@ public class JavaClass extends RosettaObject
             "class", "type_parameters", oTypeParameters.getClass(), List.class);
       }
 
+      final List<JavaTypeParameter> typeParameters = new ArrayList<>();
       for (Object oTypeParameter : (List<Object>) oTypeParameters) {
-        JavaTypeParameter javaTypeParameter =
-            new JavaTypeParameter(JavaLanguage.resolveType(oTypeParameter));
-        this.typeParameters.add(javaTypeParameter);
+        typeParameters.add(JavaTypeParameter.of(oTypeParameter));
       }
+      this.typeParameters = List.copyOf(typeParameters);
     }
 
     // Load any fields. (If defined)
@@ -248,7 +282,9 @@ public class JavaClass extends RosettaObject
         if (!(oField instanceof Map)) {
           throw new ValueTypeException("class.fields", key, oField.getClass(), Map.class);
         }
-        fields.put(key, new JavaField(key, (Map<String, Object>) oField));
+        JavaField javaField = new JavaField(key, (Map<String, Object>) oField);
+        this.fields.put(key, javaField);
+        adopt(javaField);
       }
     }
 
@@ -265,8 +301,11 @@ public class JavaClass extends RosettaObject
           throw new ValueTypeException(
               "class", "constructors[" + i + "]", oConstructor.getClass(), Map.class);
         }
-        constructors.addExecutable(
-            new JavaConstructor(this.name, (Map<String, Object>) oConstructor));
+        JavaConstructor javaConstructor =
+            new JavaConstructor(
+                this.name, (Map<String, Object>) oConstructor, this.typeParameters);
+        constructors.addExecutable(javaConstructor);
+        adopt(javaConstructor);
       }
     }
 
@@ -294,7 +333,9 @@ public class JavaClass extends RosettaObject
         }
         JavaExecutableCollection<JavaMethod> methods =
             this.methods.computeIfAbsent(methodName, JavaExecutableCollection::new);
-        methods.addExecutable(new JavaMethod(methodName, raw));
+        JavaMethod javaMethod = new JavaMethod(methodName, method, this.typeParameters);
+        methods.addExecutable(javaMethod);
+        adopt(javaMethod);
       }
     }
   }
@@ -304,6 +345,10 @@ public class JavaClass extends RosettaObject
 
     final Map<String, Object> raw = new HashMap<>();
 
+    if (scope != JavaScope.PUBLIC) {
+      raw.put("scope", scope.getID());
+    }
+
     if (isStatic) {
       raw.put("static", true);
     }
@@ -361,7 +406,7 @@ public class JavaClass extends RosettaObject
       keys.sort(Comparator.naturalOrder());
       for (String key : keys) {
         JavaField javaField = this.fields.get(key);
-        fields.put(key, javaField.onSave(this.targetReference));
+        fields.put(key, javaField.onSave(this.targetReference, this.target));
       }
       raw.put("fields", fields);
     }
@@ -373,7 +418,7 @@ public class JavaClass extends RosettaObject
           new ArrayList<>(this.constructors.getExecutables());
       javaConstructors.sort(Comparator.comparing(JavaExecutable::getSignature));
       for (JavaConstructor constructor : javaConstructors) {
-        constructors.add(constructor.onSave(targetReference));
+        constructors.add(constructor.onSave(targetReference, target));
       }
       raw.put("constructors", constructors);
     }
@@ -394,7 +439,7 @@ public class JavaClass extends RosettaObject
           javaMethods.sort(Comparator.comparing(JavaExecutable::getSignature));
         }
         for (JavaMethod method : javaMethods) {
-          methods.add(method.onSave(targetReference));
+          methods.add(method.onSave(targetReference, target));
         }
       }
       raw.put("methods", methods);
@@ -403,9 +448,122 @@ public class JavaClass extends RosettaObject
     return raw;
   }
 
+  /**
+   * @param mark The revision mark of the snapshot being built.
+   * @return An immutable view of the class. Unchanged members share their previous views.
+   */
+  @NotNull
+  ClassSnapshot snapshot(long mark) {
+    return snapshot(
+        mark,
+        () -> {
+          final Map<String, FieldSnapshot> fields = new HashMap<>();
+          for (JavaField field : this.fields.values()) {
+            fields.put(field.getName(), field.snapshot(mark));
+          }
+
+          final List<ExecutableSnapshot> constructors = new ArrayList<>();
+          for (JavaConstructor constructor : this.constructors.getExecutables()) {
+            constructors.add(constructor.snapshot(mark));
+          }
+
+          final Map<String, List<ExecutableSnapshot>> methods = new HashMap<>();
+          for (JavaExecutableCollection<JavaMethod> collection : this.methods.values()) {
+            final List<ExecutableSnapshot> group = new ArrayList<>();
+            for (JavaMethod method : collection.getExecutables()) {
+              group.add(method.snapshot(mark));
+            }
+            methods.put(collection.getName(), List.copyOf(group));
+          }
+
+          return new ClassSnapshot(
+              getPath(),
+              name,
+              extendz,
+              implementz,
+              scope,
+              isStatic,
+              isFinal,
+              notes,
+              deprecated,
+              tags.toList(),
+              fields,
+              constructors,
+              methods);
+        });
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(name).string(notes).string(deprecated).strings(tags.toList());
+    hasher.constant(scope).bool(isStatic).bool(isFinal);
+    hasher.string(extendz != null ? extendz.compile() : null);
+    hasher.value(implementz.size());
+    for (TypeReference implement : implementz) hasher.string(implement.compile());
+    hasher.value(typeParameters.size());
+    for (JavaTypeParameter typeParameter : typeParameters) {
+      hasher.string(typeParameter.getType().compile());
+    }
+    // Methods are only flattened if every member is visited.
+    final Iterable<JavaMethod> methods =
+        () -> {
+          final List<JavaMethod> list = new ArrayList<>();
+          for (JavaExecutableCollection<JavaMethod> collection : this.methods.values()) {
+            list.addAll(collection.getExecutables());
+          }
+          return list.iterator();
+        };
+    hasher.members(fields.values(), constructors.getExecutables(), methods);
+  }
+
+  /**
+   * @param mark The revision mark of the footprint being estimated.
+   * @return The footprint of the class. Reused if nothing changed since the last estimate.
+   */
+  @NotNull
+  Footprint footprint(long mark) {
+    if (footprint != null && getRevision() <= footprintRevision) {
+      return footprint;
+    }
+
+    final FootprintEstimator estimator = new FootprintEstimator();
+    estimator.object(this, "class");
+    estimator.string(name);
+    estimator.string(notes);
+    estimator.string(deprecated);
+    estimator.tags(tags);
+    estimator.list(implementz);
+    estimator.list(typeParameters);
+    for (JavaTypeParameter typeParameter : typeParameters) {
+      typeParameter.estimate(estimator);
+    }
+    estimator.map(fields);
+    for (JavaField field : fields.values()) {
+      field.estimate(estimator);
+    }
+    estimator.map(methods);
+    for (JavaExecutableCollection<JavaMethod> collection : methods.values()) {
+      collection.estimate(estimator);
+    }
+    constructors.estimate(estimator);
+
+    this.footprint = estimator.build(name, List.of());
+    this.footprintRevision = mark;
+    return this.footprint;
+  }
+
   @Override
   public String toString() {
-    return "JavaClass \"" + getPackage().getPath() + "." + getName() + "\"";
+    return "JavaClass \"" + getPath() + "\"";
+  }
+
+  /**
+   * @return The qualified path of the class. E.G: "java.util.ArrayList"
+   */
+  @NotNull
+  @Override
+  public String getPath() {
+    return pkg.getPath() + "." + name;
   }
 
   @NotNull
@@ -420,6 +578,79 @@ public class JavaClass extends RosettaObject
     return this.typeParameters;
   }
 
+  @NotNull
+  public JavaScope getScope() {
+    return this.scope;
+  }
+
+  public boolean isStatic() {
+    return this.isStatic;
+  }
+
+  public boolean isFinal() {
+    return this.isFinal;
+  }
+
+  /**
+   * @return True if the class is flagged as deprecated.
+   */
+  public boolean isDeprecated() {
+    return this.deprecated != null;
+  }
+
+  /**
+   * @return The deprecation message. If empty, the deprecation flag is set and no message is
+   *     provided.
+   * @throws NullPointerException If no deprecated message is set. (Use {@link
+   *     JavaClass#isDeprecated()} to check before invoking this method)
+   */
+  @NotNull
+  public String getDeprecatedMessage() {
+    if (this.deprecated == null) {
+      throw new NullPointerException("The class is not deprecated. (No message set)");
+    }
+    return this.deprecated;
+  }
+
+  /**
+   * Sets the deprecation flag of the class without a message.
+   *
+   * @param flag The flag to set.
+   */
+  public void setDeprecated(boolean flag) {
+    setDeprecated(flag ? "" : null);
+  }
+
+  /**
+   * @param message The message to set. If empty, the deprecation flag is set to true, but no
+   *     message is provided. If null, the deprecation flag is set to false.
+   */
+  public void setDeprecated(@Nullable String message) {
+    if (Objects.equals(this.deprecated, message)) {
+      return;
+    }
+    String oldDeprecated = this.deprecated;
+    this.deprecated = message;
+    record(ChangeEvent.Type.SET, "deprecated", oldDeprecated, message);
+    this.setDirty();
+  }
+
+  /**
+   * @return The super-class of the class. (Null for interfaces, primitives and Object)
+   */
+  @Nullable
+  public TypeReference getExtends() {
+    return this.extendz;
+  }
+
+  /**
+   * @return The super-interfaces of the class. (Read-only)
+   */
+  @NotNull
+  public List<TypeReference> getImplements() {
+    return this.implementz;
+  }
+
   @NotNull
   public JavaExecutableCollection<JavaConstructor> getConstructors() {
     if (isDirty()) compile();
@@ -495,8 +726,10 @@ public class JavaClass extends RosettaObject
       if (notes == null) return;
     } else if (this.notes.equals(notes)) return;
 
+    String oldNotes = this.notes;
     this.notes = notes;
 
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
     setDirty();
   }
 
@@ -508,7 +741,7 @@ public class JavaClass extends RosettaObject
   @NotNull
   @Override
   public List<String> getTags() {
-    return Collections.unmodifiableList(tags);
+    return tags.toList();
   }
 
   @Override
@@ -524,10 +757,10 @@ public class JavaClass extends RosettaObject
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (tags.contains(tag)) {
+    if (!this.tags.add(tag)) {
       throw new IllegalArgumentException("The tag is already applied: " + tag);
     }
-    this.tags.add(tag);
+    record(ChangeEvent.Type.ADD, "tags", null, tag);
     setDirty();
   }
 
@@ -536,10 +769,54 @@ public class JavaClass extends RosettaObject
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (!tags.contains(tag)) {
+    if (!this.tags.remove(tag)) {
       throw new IllegalArgumentException("The tag is not applied: " + tag);
     }
-    tags.remove(tag);
+    record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    setDirty();
+  }
+
+  @Override
+  public void addAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before applying any.
+    final TagSet added = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (this.tags.contains(tag) || !added.add(tag)) {
+        throw new IllegalArgumentException("The tag is already applied: " + tag);
+      }
+    }
+
+    this.tags.addAll(added);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.ADD, "tags", null, tag);
+    }
+    setDirty();
+  }
+
+  @Override
+  public void removeAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before removing any.
+    final TagSet removed = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (!this.tags.contains(tag) || !removed.add(tag)) {
+        throw new IllegalArgumentException("The tag is not applied: " + tag);
+      }
+    }
+
+    this.tags.removeAll(removed);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
     setDirty();
   }
 
@@ -549,8 +826,12 @@ public class JavaClass extends RosettaObject
     if (!hasTags()) {
       throw new RuntimeException("No tags are registered.");
     }
-    List<String> tagsRemoved = Collections.unmodifiableList(tags);
+    List<String> tagsRemoved = tags.toList();
     tags.clear();
+    for (String tag : tagsRemoved) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
+    setDirty();
     return tagsRemoved;
   }
 
@@ -0,0 +1,58 @@
+package com.asledgehammer.rosetta.java;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** JavaCompileReport stores the outcome of compiling a {@link JavaLanguage} model. */
+public class JavaCompileReport {
+
+  /**
+   * A definition that failed to compile.
+   *
+   * @param path The qualified path of the package or class definition.
+   * @param cause The thrown cause. (Null if the definition reported itself as not compiled)
+   */
+  public record Failure(@NotNull String path, @Nullable Throwable cause) {}
+
+  private final List<Failure> failures;
+  private final int compiled;
+
+  JavaCompileReport(@NotNull List<Failure> failures, int compiled) {
+    List<Failure> sorted = new ArrayList<>(failures);
+    sorted.sort(Comparator.comparing(Failure::path));
+    this.failures = Collections.unmodifiableList(sorted);
+    this.compiled = compiled;
+  }
+
+  /**
+   * @return True if every dirty definition compiled.
+   */
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * @return A read-only list of failures, sorted by path.
+   */
+  @NotNull
+  public List<Failure> getFailures() {
+    return failures;
+  }
+
+  /**
+   * @return The count of dirty class definitions that compiled.
+   */
+  public int getCompiledCount() {
+    return compiled;
+  }
+
+  @Override
+  public String toString() {
+    return "JavaCompileReport {compiled = " + compiled + ", failures = " + failures + "}";
+  }
+}
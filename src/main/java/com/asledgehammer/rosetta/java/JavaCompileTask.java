@@ -0,0 +1,92 @@
+package com.asledgehammer.rosetta.java;
+
+import com.asledgehammer.rosetta.RosettaObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JavaCompileTask compiles a dirty package or class definition. Dirty sub-packages and classes of a
+ * package compile as independent subtasks before the package itself compiles, so a package only
+ * compiles once all of its dirty children have.
+ *
+ * <p>Failures are collected with their paths instead of halting the compile. A package with a
+ * failed child stays dirty, matching a sequential compile.
+ */
+class JavaCompileTask extends RecursiveTask<Boolean> {
+
+  @Serial private static final long serialVersionUID = 1L;
+
+  private final RosettaObject object;
+  private final Queue<JavaCompileReport.Failure> failures;
+  private final AtomicInteger compiled;
+  private final boolean parallel;
+
+  JavaCompileTask(
+      @NotNull RosettaObject object,
+      @NotNull Queue<JavaCompileReport.Failure> failures,
+      @NotNull AtomicInteger compiled,
+      boolean parallel) {
+    this.object = object;
+    this.failures = failures;
+    this.compiled = compiled;
+    this.parallel = parallel;
+  }
+
+  @Override
+  protected Boolean compute() {
+    if (!object.isDirty()) return true;
+
+    // Compile dirty sub-packages and classes first.
+    if (object instanceof JavaPackage) {
+      List<JavaCompileTask> tasks = new ArrayList<>();
+      for (RosettaObject child : object.getDirtyChildren()) {
+        tasks.add(new JavaCompileTask(child, failures, compiled, parallel));
+      }
+
+      boolean childrenCompiled = true;
+      if (parallel) {
+        invokeAll(tasks);
+        for (JavaCompileTask task : tasks) {
+          childrenCompiled &= task.join();
+        }
+      } else {
+        for (JavaCompileTask task : tasks) {
+          childrenCompiled &= task.compute();
+        }
+      }
+
+      // Leave the package dirty. Its failed children are already reported.
+      if (!childrenCompiled) return false;
+    }
+
+    try {
+      if (object.compile()) {
+        if (object instanceof JavaClass) {
+          compiled.incrementAndGet();
+        }
+        return true;
+      }
+      failures.add(new JavaCompileReport.Failure(getPath(object), null));
+    } catch (RuntimeException e) {
+      Throwable cause = e.getCause() != null ? e.getCause() : e;
+      failures.add(new JavaCompileReport.Failure(getPath(object), cause));
+    }
+    return false;
+  }
+
+  @NotNull
+  private static String getPath(@NotNull RosettaObject object) {
+    if (object instanceof JavaPackage javaPackage) {
+      return javaPackage.getPath();
+    } else if (object instanceof JavaClass javaClass) {
+      return javaClass.getPath();
+    }
+    return object.toString();
+  }
+}
@@ -1,6 +1,7 @@
 package com.asledgehammer.rosetta.java;
 
 import java.lang.reflect.Constructor;
+import java.util.List;
 import java.util.Map;
 
 import org.jetbrains.annotations.NotNull;
@@ -13,8 +14,11 @@ public class JavaConstructor extends JavaExecutable<Constructor<?>> {
     System.out.println("new JavaConstructor(constructor = " + constructor + ")");
   }
 
-  JavaConstructor(@NotNull String name, @NotNull Map<String, Object> raw) {
-    super(name, raw);
+  JavaConstructor(
+      @NotNull String name,
+      @NotNull Map<String, Object> raw,
+      @NotNull List<JavaTypeParameter> classTypeParameters) {
+    super(name, raw, classTypeParameters);
     System.out.println("new JavaConstructor(name = " + name + ", raw = " + raw + ")");
   }
 
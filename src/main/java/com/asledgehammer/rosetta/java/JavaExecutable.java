@@ -1,12 +1,18 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ContentHasher;
 import com.asledgehammer.rosetta.DirtySupported;
+import com.asledgehammer.rosetta.FootprintEstimator;
 import com.asledgehammer.rosetta.NamedEntity;
 import com.asledgehammer.rosetta.Notable;
 import com.asledgehammer.rosetta.RosettaObject;
 import com.asledgehammer.rosetta.exception.ValueTypeException;
 import com.asledgehammer.rosetta.java.reference.ClassReference;
 import com.asledgehammer.rosetta.java.reference.TypeReference;
+import com.asledgehammer.rosetta.java.snapshot.ExecutableSnapshot;
+import com.asledgehammer.rosetta.java.snapshot.ParameterSnapshot;
+import com.asledgehammer.rosetta.java.snapshot.ReturnSnapshot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -27,17 +33,17 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
   /** Used to prevent wasteful empty list instantiations in heap memory. */
   private static final List<JavaParameter> DEFAULT_EMPTY_LIST = List.of();
 
-  private final List<JavaParameter> parameters = new ArrayList<>();
-  private final List<JavaTypeParameter> typeParameters = new ArrayList<>();
+  /** Immutable. (Shared empty list until parameters are defined) */
+  private List<JavaParameter> parameters = DEFAULT_EMPTY_LIST;
+
+  /** Immutable. (Shared empty list until type parameters are defined) */
+  private List<JavaTypeParameter> typeParameters = List.of();
 
   private final String signature;
   protected final String name;
 
   private String notes;
 
-  /** Defaults to true to compile first-time. */
-  private boolean dirty = true;
-
   /**
    * Compiled when dirty to keep properties clean and forcefully runs through getter/setters for the
    * record.
@@ -48,6 +54,10 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
 
   @Nullable private String deprecated;
 
+  private JavaScope scope;
+  private boolean isStatic;
+  private boolean isFinal;
+
   /**
    * New Constructor for Method and Constructors.
    *
@@ -62,33 +72,107 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
     this.name = executable.getName();
     this.signature = createSignature(this);
 
+    int modifiers = executable.getModifiers();
+    this.scope = JavaLanguage.getScope(executable);
+    this.isStatic = Modifier.isStatic(modifiers);
+    this.isFinal = Modifier.isFinal(modifiers);
+
     // Register any generic parameter variables.
     TypeVariable<?>[] typeVariables = executable.getTypeParameters();
-    for (TypeVariable<?> typeVariable : typeVariables) {
-      this.typeParameters.add(new JavaTypeParameter(TypeReference.of(typeVariable)));
+    if (typeVariables.length != 0) {
+      JavaTypeParameter[] typeParameters = new JavaTypeParameter[typeVariables.length];
+      for (int index = 0; index < typeVariables.length; index++) {
+        typeParameters[index] = new JavaTypeParameter(TypeReference.of(typeVariables[index]));
+      }
+      this.typeParameters = List.of(typeParameters);
     }
 
     // If parameters are provided, add them.
     if (executable.getParameterCount() != 0) {
-      for (Parameter parameter : executable.getParameters()) {
-        this.parameters.add(new JavaParameter(parameter));
+      Parameter[] reflected = executable.getParameters();
+      JavaParameter[] parameters = new JavaParameter[reflected.length];
+      for (int index = 0; index < reflected.length; index++) {
+        parameters[index] = new JavaParameter(reflected[index]);
+        adopt(parameters[index]);
       }
+      this.parameters = List.of(parameters);
     }
+
+    // Compile first-time.
+    setDirty();
   }
 
-  protected JavaExecutable(@NotNull String name, @NotNull Map<String, Object> raw) {
+  /**
+   * @param name The name of the executable.
+   * @param raw The serialized executable.
+   * @param classTypeParameters The type parameters declared by the class of the executable.
+   */
+  protected JavaExecutable(
+      @NotNull String name,
+      @NotNull Map<String, Object> raw,
+      @NotNull List<JavaTypeParameter> classTypeParameters) {
     super();
 
     this.name = name;
     this.target = null;
     onLoad(raw);
-    this.signature = createSignature(this);
+    this.signature = createSignature(this, classTypeParameters);
+
+    // Compile first-time.
+    setDirty();
   }
 
   @Override
   protected void onLoad(@NotNull Map<String, Object> raw) {
     // TODO: Implement.
 
+    // If the scope is defined. (Public by default)
+    if (raw.containsKey("scope")) {
+      Object oScope = raw.get("scope");
+      if (!(oScope instanceof String)) {
+        throw new ValueTypeException(name, "scope", oScope.getClass(), String.class);
+      }
+      this.scope = JavaScope.of((String) oScope);
+    } else {
+      this.scope = JavaScope.PUBLIC;
+    }
+
+    // If the executable is defined as static.
+    if (raw.containsKey("static")) {
+      Object oStatic = raw.get("static");
+      if (!(oStatic instanceof Boolean)) {
+        throw new ValueTypeException(name, "static", oStatic.getClass(), Boolean.class);
+      }
+      this.isStatic = (boolean) (Boolean) oStatic;
+    } else {
+      this.isStatic = false;
+    }
+
+    // If the executable is defined as final.
+    if (raw.containsKey("final")) {
+      Object oFinal = raw.get("final");
+      if (!(oFinal instanceof Boolean)) {
+        throw new ValueTypeException(name, "final", oFinal.getClass(), Boolean.class);
+      }
+      this.isFinal = (boolean) (Boolean) oFinal;
+    } else {
+      this.isFinal = false;
+    }
+
+    // Load any type_parameters. (If defined)
+    if (raw.containsKey("type_parameters")) {
+      Object oTypeParameters = raw.get("type_parameters");
+      if (!(oTypeParameters instanceof List)) {
+        throw new ValueTypeException(
+            name, "type_parameters", oTypeParameters.getClass(), List.class);
+      }
+      final List<JavaTypeParameter> typeParameters = new ArrayList<>();
+      for (Object oTypeParameter : (List<Object>) oTypeParameters) {
+        typeParameters.add(JavaTypeParameter.of(oTypeParameter));
+      }
+      this.typeParameters = List.copyOf(typeParameters);
+    }
+
     // Load parameters. (If present)
     if (raw.containsKey("parameters")) {
       Object oParameters = raw.get("parameters");
@@ -96,14 +180,19 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
         throw new ValueTypeException(name, "parameters", oParameters.getClass(), List.class);
       }
       List<Object> objects = (List<Object>) oParameters;
+      JavaParameter[] parameters = new JavaParameter[objects.size()];
       for (int i = 0; i < objects.size(); i++) {
         Object oParameter = objects.get(i);
         if (!(oParameter instanceof Map)) {
           throw new ValueTypeException(
               name, "parameters[" + i + "]", oParameter.getClass(), Map.class);
         }
-        parameters.add(new JavaParameter((Map<String, Object>) oParameter));
+        @SuppressWarnings({"unchecked"})
+        Map<String, Object> rawParameter = (Map<String, Object>) oParameter;
+        parameters[i] = new JavaParameter(rawParameter);
+        adopt(parameters[i]);
       }
+      this.parameters = List.of(parameters);
     }
 
     if (raw.containsKey("deprecated")) {
@@ -121,11 +210,32 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
     }
   }
 
+  /**
+   * @param reference The reference of the owning class. (Null if the class isn't on the classpath)
+   * @param deCl The owning class. (Null if the class isn't on the classpath)
+   * @return The serialized executable.
+   */
   @NotNull
-  protected Map<String, Object> onSave(@NotNull ClassReference reference) {
+  protected Map<String, Object> onSave(
+      @Nullable ClassReference reference, @Nullable Class<?> deCl) {
     Map<String, Object> raw = new HashMap<>();
 
-    final Class<?> deCl = getReflectionTarget().getDeclaringClass();
+    if (scope != JavaScope.PUBLIC) {
+      raw.put("scope", scope.getID());
+    }
+
+    if (isStatic) {
+      raw.put("static", true);
+    }
+
+    if (isFinal) {
+      raw.put("final", true);
+    }
+
+    if (deprecated != null) {
+      // An empty message is non-descriptive.
+      raw.put("deprecated", deprecated.isEmpty() ? true : deprecated);
+    }
 
     if (hasNotes()) {
       raw.put("notes", getNotes());
@@ -153,49 +263,28 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
   @Override
   public boolean onCompile() {
 
-    // Compile read-only list.
-    if (this.hasParameters()) {
-
-      // If any parameter is dirty, also compile.
-      for (JavaParameter parameter : parameters) {
-        if (parameter.isDirty()) {
-
-          // Fail compilation if the parameter fails.
-          if (!parameter.compile()) {
-            return false;
-          }
-        }
-      }
-
-      this.parametersReadOnly = Collections.unmodifiableList(this.parameters);
-    } else {
-      this.parametersReadOnly = DEFAULT_EMPTY_LIST;
+    // Only parameter(s) registered as dirty are compiled.
+    if (!compileDirtyChildren()) {
+      return false;
     }
 
+    // The parameter list is immutable, so it is shared as the read-only list.
+    this.parametersReadOnly = this.parameters;
+
     return true;
   }
 
-  @Override
-  public boolean isDirty() {
-
-    // Normal dirty-flag check.
-    if (this.dirty) return true;
-
-    // Check parameter(s) for dirty flag.
-    for (JavaParameter parameter : getParameters()) {
-      if (parameter.isDirty()) {
-        return true;
-      }
-    }
-
-    // Methods will need to implement this by a super-call AND check return definition.
+  @NotNull
+  public JavaScope getScope() {
+    return this.scope;
+  }
 
-    return false;
+  public boolean isStatic() {
+    return this.isStatic;
   }
 
-  @Override
-  public void setDirty(boolean flag) {
-    this.dirty = flag;
+  public boolean isFinal() {
+    return this.isFinal;
   }
 
   /**
@@ -209,6 +298,14 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
     return !this.typeParameters.isEmpty();
   }
 
+  /**
+   * @return A read-only list of the type parameters declared by the executable.
+   */
+  @NotNull
+  public List<JavaTypeParameter> getTypeParameters() {
+    return this.typeParameters;
+  }
+
   /**
    * @return A read-only list of registered parameters for the executable definition.
    */
@@ -239,6 +336,13 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
     return this.name;
   }
 
+  @NotNull
+  @Override
+  public String getPath() {
+    RosettaObject parent = getParent();
+    return parent != null ? parent.getPath() + '#' + name : name;
+  }
+
   @NotNull
   @Override
   public E getReflectionTarget() {
@@ -268,8 +372,10 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
       if (notes == null) return;
     } else if (this.notes.equals(notes)) return;
 
+    String oldNotes = this.notes;
     this.notes = notes;
 
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
     setDirty();
   }
 
@@ -304,7 +410,9 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
     if (Objects.equals(this.deprecated, deprecated)) {
       return;
     }
+    String oldDeprecated = this.deprecated;
     this.deprecated = deprecated;
+    record(ChangeEvent.Type.SET, "deprecated", oldDeprecated, deprecated);
     setDirty();
   }
 
@@ -316,20 +424,221 @@ public abstract class JavaExecutable<E extends Executable> extends RosettaObject
     if (Objects.equals(this.deprecated, message)) {
       return;
     }
+    String oldDeprecated = this.deprecated;
     this.deprecated = message;
+    record(ChangeEvent.Type.SET, "deprecated", oldDeprecated, message);
     this.setDirty();
   }
 
   /**
-   * Serializes a java-executable definition as a signature string.
+   * @param mark The revision mark of the snapshot being built.
+   * @return An immutable view of the executable.
+   */
+  @NotNull
+  ExecutableSnapshot snapshot(long mark) {
+    return snapshot(
+        mark,
+        () -> {
+          final List<ParameterSnapshot> parameters = new ArrayList<>(this.parameters.size());
+          for (JavaParameter parameter : this.parameters) {
+            parameters.add(parameter.snapshot(mark));
+          }
+          return new ExecutableSnapshot(
+              name,
+              signature,
+              parameters,
+              snapshotReturns(mark),
+              notes,
+              deprecated,
+              snapshotTags());
+        });
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(signature).children(parameters);
+    hasher.value(typeParameters.size());
+    for (JavaTypeParameter typeParameter : typeParameters) {
+      hasher.string(typeParameter.getType().compile());
+    }
+    hasher.string(notes).string(deprecated);
+    hasher.constant(scope).bool(isStatic).bool(isFinal);
+  }
+
+  /**
+   * @param estimator The estimator to count the executable in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.object(this, this instanceof JavaConstructor ? "constructor" : "method");
+    estimator.reflection(target);
+    if (target != null && !parameters.isEmpty()) {
+      // The reflection parameters are cached by the executable.
+      estimator.add(FootprintEstimator.array(parameters.size(), FootprintEstimator.REFERENCE));
+    }
+    // Discovered names are shared with reflection and signatures are interned.
+    if (target == null) estimator.string(name);
+    estimator.string(notes);
+    estimator.string(deprecated);
+    estimator.list(parameters);
+    for (JavaParameter parameter : parameters) {
+      parameter.estimate(estimator);
+    }
+    estimator.list(typeParameters);
+    for (JavaTypeParameter typeParameter : typeParameters) {
+      typeParameter.estimate(estimator);
+    }
+  }
+
+  /**
+   * @param mark The revision mark of the snapshot being built.
+   * @return An immutable view of the return definition. (Null if none)
+   */
+  @Nullable
+  ReturnSnapshot snapshotReturns(long mark) {
+    return null;
+  }
+
+  /**
+   * @return The applied tags. (If supported)
+   */
+  @NotNull
+  List<String> snapshotTags() {
+    return List.of();
+  }
+
+  /**
+   * Serializes a java-executable definition as a signature string. Signatures are the name followed
+   * by the JVM method descriptor, E.G: "indexOf(Ljava/lang/Object;)I". Constructors use the name
+   * "&lt;init&gt;". Type variables declared by the executable or its class are erased to their
+   * first bound. Any other name is a class.
+   *
+   * <p>Signatures are interned with {@link String#intern()}, so equal signatures are the same
+   * instance.
    *
    * @param executable The executable to serialize.
    * @return The serialized signature.
    * @throws NullPointerException If the executable is null.
    */
   public static String createSignature(@NotNull JavaExecutable<?> executable) {
-    // TODO: Implement.
-    return "";
+    return createSignature(
+        executable,
+        executable.getParent() instanceof JavaClass javaClass
+            ? javaClass.getTypeParameters()
+            : List.of());
+  }
+
+  /**
+   * @param executable The executable to serialize.
+   * @param classTypeParameters The type parameters declared by the class of the executable.
+   * @return The serialized signature.
+   */
+  private static String createSignature(
+      @NotNull JavaExecutable<?> executable,
+      @NotNull List<JavaTypeParameter> classTypeParameters) {
+    final boolean constructor = executable instanceof JavaConstructor;
+    final StringBuilder signature =
+        new StringBuilder(constructor ? "<init>" : executable.name).append('(');
+
+    final Executable target = executable.target;
+    if (target != null) {
+      // Use the erased reflection types.
+      for (Class<?> parameterType : target.getParameterTypes()) {
+        signature.append(parameterType.descriptorString());
+      }
+      signature.append(')');
+      if (target instanceof Method method) {
+        signature.append(method.getReturnType().descriptorString());
+      } else {
+        signature.append('V');
+      }
+    } else {
+      // Derive from the defined types. The executable's type variables shadow the class's.
+      final Map<String, TypeReference> variables = new HashMap<>();
+      for (JavaTypeParameter typeParameter : classTypeParameters) {
+        variables.put(typeParameter.getType().getBase(), typeParameter.getType());
+      }
+      for (JavaTypeParameter typeParameter : executable.typeParameters) {
+        variables.put(typeParameter.getType().getBase(), typeParameter.getType());
+      }
+      for (JavaParameter parameter : executable.parameters) {
+        appendDescriptor(signature, parameter.getType(), variables);
+      }
+      signature.append(')');
+      JavaReturn returns =
+          executable instanceof JavaMethod method ? method.getReturns() : null;
+      if (returns != null) {
+        appendDescriptor(signature, returns.getType(), variables);
+      } else {
+        signature.append('V');
+      }
+    }
+
+    return signature.toString().intern();
+  }
+
+  /**
+   * Appends the JVM field descriptor of the erasure of a type.
+   *
+   * @param builder The builder to append.
+   * @param type The type to erase.
+   * @param variables The declared type variables by name.
+   */
+  private static void appendDescriptor(
+      @NotNull StringBuilder builder,
+      @NotNull TypeReference type,
+      @NotNull Map<String, TypeReference> variables) {
+    String base = type.getBase();
+    while (base.endsWith("[]")) {
+      builder.append('[');
+      base = base.substring(0, base.length() - 2);
+    }
+
+    // Type variables erase to their first bound, which can be another type variable.
+    TypeReference variable = variables.get(base);
+    for (int depth = 0; variable != null; depth++) {
+      TypeReference[] bounds = variable.getBounds();
+      if (depth == variables.size() || bounds.length == 0) {
+        base = "java.lang.Object";
+        break;
+      }
+      base = bounds[0].getBase();
+      variable = variables.get(base);
+    }
+
+    switch (base) {
+      case "boolean" -> builder.append('Z');
+      case "byte" -> builder.append('B');
+      case "char" -> builder.append('C');
+      case "short" -> builder.append('S');
+      case "int" -> builder.append('I');
+      case "long" -> builder.append('J');
+      case "float" -> builder.append('F');
+      case "double" -> builder.append('D');
+      case "void" -> builder.append('V');
+      default -> builder.append('L').append(toInternalName(base)).append(';');
+    }
+  }
+
+  /**
+   * Converts a class name to its JVM internal name. Packages are lowercase by convention, so names
+   * after the first capitalized name are nested classes. (E.G: "java.util.Map.Entry" is
+   * "java/util/Map$Entry")
+   *
+   * @param name The class name.
+   * @return The internal name.
+   */
+  @NotNull
+  private static String toInternalName(@NotNull String name) {
+    final char[] chars = name.toCharArray();
+    boolean nested = false;
+    for (int index = 0; index < chars.length; index++) {
+      if (chars[index] == '.') {
+        chars[index] = nested ? '$' : '/';
+      } else if (!nested && (index == 0 || chars[index - 1] == '/')) {
+        nested = Character.isUpperCase(chars[index]);
+      }
+    }
+    return new String(chars);
   }
 
   /**
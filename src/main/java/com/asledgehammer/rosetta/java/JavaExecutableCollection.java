@@ -1,19 +1,35 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ContentHasher;
 import com.asledgehammer.rosetta.DirtySupported;
+import com.asledgehammer.rosetta.FootprintEstimator;
 import com.asledgehammer.rosetta.NamedEntity;
+import com.asledgehammer.rosetta.RosettaObject;
 import org.jetbrains.annotations.NotNull;
 
 import java.lang.reflect.Executable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-
+import java.util.*;
+
+/**
+ * JavaExecutableCollection stores the overloads of a method name (or the constructors of a class),
+ * indexed by signature and by reflection target for O(1) lookups. Small collections (The common
+ * case) skip the indexes and scan the list instead.
+ *
+ * @param <E> The type of executable.
+ */
 public class JavaExecutableCollection<E extends JavaExecutable>
     implements DirtySupported, NamedEntity {
 
-  private final List<E> executables = new ArrayList<>();
+  /** The size above which the collection allocates its lookup indexes. */
+  private static final int INDEX_THRESHOLD = 8;
+
+  private final List<E> executables = new ArrayList<>(1);
+
+  /** Null until the collection grows above {@link #INDEX_THRESHOLD}. */
+  private Map<String, E> bySignature;
+
+  /** Null until the collection grows above {@link #INDEX_THRESHOLD}. */
+  private Map<Executable, E> byTarget;
   private final String name;
 
   private boolean dirty;
@@ -49,19 +65,38 @@ public class JavaExecutableCollection<E extends JavaExecutable>
    * @return True if the executable definition is registered in the list.
    */
   public boolean hasExecutable(@NotNull E executable) {
-    return executables.contains(executable);
+    return findBySignature(executable.getSignature()) == executable;
+  }
+
+  /**
+   * @param signature The signature of the executable definition.
+   * @return True if an executable definition with the signature is registered in the list.
+   */
+  public boolean hasExecutable(@NotNull String signature) {
+    return findBySignature(signature) != null;
   }
 
   /**
    * @param executable The executable definition to register to the list.
    */
   public void addExecutable(@NotNull E executable) {
-    if (executables.contains(executable)) {
+    String signature = executable.getSignature();
+    if (findBySignature(signature) != null) {
       throw new IllegalArgumentException(
           "The "
               + executable.getClass().getSimpleName()
               + " is already registered in the list: "
-              + executable.getSignature());
+              + signature);
+    }
+    executables.add(executable);
+    if (bySignature != null) {
+      index(executable);
+    } else if (executables.size() > INDEX_THRESHOLD) {
+      bySignature = new HashMap<>();
+      byTarget = new HashMap<>();
+      for (E e : executables) {
+        index(e);
+      }
     }
     this.setDirty();
   }
@@ -70,7 +105,7 @@ public class JavaExecutableCollection<E extends JavaExecutable>
    * @param executable The executable definition to unregister from the list.
    */
   public void removeExecutable(@NotNull E executable) {
-    if (!executables.contains(executable)) {
+    if (!hasExecutable(executable)) {
       throw new IllegalArgumentException(
           "The "
               + executable.getClass().getSimpleName()
@@ -78,6 +113,13 @@ public class JavaExecutableCollection<E extends JavaExecutable>
               + executable.getSignature());
     }
     executables.remove(executable);
+    if (bySignature != null) {
+      bySignature.remove(executable.getSignature());
+      Executable target = executable.getReflectionTarget();
+      if (target != null) {
+        byTarget.remove(target);
+      }
+    }
     this.setDirty();
   }
 
@@ -115,22 +157,79 @@ public class JavaExecutableCollection<E extends JavaExecutable>
 
   @NotNull
   public E getExecutable(@NotNull Executable executable) {
-    if (executables.isEmpty()) {
+    E e = findByTarget(executable);
+    if (e == null) {
       throw new NullPointerException(
           executable.getClass().getSimpleName() + " isn't registered in group.");
     }
+    return e;
+  }
 
-    for (E e : executables) {
-      if (e.getReflectionTarget().equals(executable)) {
-        return e;
-      }
+  /**
+   * @param signature The signature of the executable definition.
+   * @return The executable definition.
+   * @throws NullPointerException If no executable definition with the signature is registered.
+   */
+  @NotNull
+  public E getExecutable(@NotNull String signature) {
+    E e = findBySignature(signature);
+    if (e == null) {
+      throw new NullPointerException("No executable is registered with the signature: " + signature);
     }
-
-    throw new NullPointerException(
-        executable.getClass().getSimpleName() + " isn't registered in group.");
+    return e;
   }
 
   public boolean isEmpty() {
     return executables.isEmpty();
   }
+
+  /**
+   * Returns a hash of the executables in the collection, regardless of their order.
+   *
+   * <p>NOTE: Only the thread editing the collection should invoke this method.
+   *
+   * @return The content hash of the collection. (See {@link RosettaObject#getContentHash()})
+   */
+  public long getContentHash() {
+    return new ContentHasher().string(name).unordered(executables).get();
+  }
+
+  /**
+   * @param estimator The estimator to count the collection and its executables in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.add(FootprintEstimator.shallowSizeOf(getClass()));
+    estimator.list(executables);
+    if (bySignature != null) {
+      estimator.map(bySignature);
+      estimator.map(byTarget);
+    }
+    for (E executable : executables) {
+      executable.estimate(estimator);
+    }
+  }
+
+  private void index(@NotNull E executable) {
+    bySignature.put(executable.getSignature(), executable);
+    Executable target = executable.getReflectionTarget();
+    if (target != null) {
+      byTarget.put(target, executable);
+    }
+  }
+
+  private E findBySignature(@NotNull String signature) {
+    if (bySignature != null) return bySignature.get(signature);
+    for (E executable : executables) {
+      if (executable.getSignature().equals(signature)) return executable;
+    }
+    return null;
+  }
+
+  private E findByTarget(@NotNull Executable target) {
+    if (byTarget != null) return byTarget.get(target);
+    for (E executable : executables) {
+      if (target.equals(executable.getReflectionTarget())) return executable;
+    }
+    return null;
+  }
 }
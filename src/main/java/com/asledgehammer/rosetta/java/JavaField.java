@@ -1,12 +1,18 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.FootprintEstimator;
 import com.asledgehammer.rosetta.NamedEntity;
 import com.asledgehammer.rosetta.Notable;
 import com.asledgehammer.rosetta.exception.MissingKeyException;
 import com.asledgehammer.rosetta.exception.ValueTypeException;
 import com.asledgehammer.rosetta.java.reference.ClassReference;
 import com.asledgehammer.rosetta.java.reference.TypeReference;
+import com.asledgehammer.rosetta.java.snapshot.FieldSnapshot;
 import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.TagSet;
+import com.asledgehammer.rosetta.Taggable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -14,7 +20,7 @@ import java.lang.reflect.Field;
 import java.util.*;
 
 public class JavaField extends RosettaObject
-    implements JavaTyped, NamedEntity, Notable, Reflected<Field> {
+    implements JavaTyped, NamedEntity, Notable, Reflected<Field>, Taggable {
 
   private final Field reflectedObject;
   private final String name;
@@ -25,7 +31,11 @@ public class JavaField extends RosettaObject
 
   private TypeReference type;
 
-  private final List<String> tags = new ArrayList<>();
+  private JavaScope scope;
+  private boolean isStatic;
+  private boolean isFinal;
+
+  private final TagSet tags = new TagSet();
 
   JavaField(@NotNull Field field) {
     super();
@@ -34,6 +44,9 @@ public class JavaField extends RosettaObject
     this.reflectedObject = field;
     this.type = TypeReference.of(field.getGenericType());
     this.nullable = !this.type.isPrimitive();
+    this.scope = JavaLanguage.getScope(field);
+    this.isStatic = JavaLanguage.isStatic(field);
+    this.isFinal = JavaLanguage.isFinal(field);
   }
 
   JavaField(@NotNull String name, @NotNull Map<String, Object> raw) {
@@ -62,15 +75,129 @@ public class JavaField extends RosettaObject
     } else {
       this.nullable = !type.isPrimitive();
     }
+
+    // If the scope is defined. (Public by default)
+    if (raw.containsKey("scope")) {
+      Object oScope = raw.get("scope");
+      if (!(oScope instanceof String)) {
+        throw new ValueTypeException(name, "scope", oScope.getClass(), String.class);
+      }
+      this.scope = JavaScope.of((String) oScope);
+    } else {
+      this.scope = JavaScope.PUBLIC;
+    }
+
+    // If the field is defined as static.
+    if (raw.containsKey("static")) {
+      Object oStatic = raw.get("static");
+      if (!(oStatic instanceof Boolean)) {
+        throw new ValueTypeException(name, "static", oStatic.getClass(), Boolean.class);
+      }
+      this.isStatic = (boolean) (Boolean) oStatic;
+    } else {
+      this.isStatic = false;
+    }
+
+    // If the field is defined as final.
+    if (raw.containsKey("final")) {
+      Object oFinal = raw.get("final");
+      if (!(oFinal instanceof Boolean)) {
+        throw new ValueTypeException(name, "final", oFinal.getClass(), Boolean.class);
+      }
+      this.isFinal = (boolean) (Boolean) oFinal;
+    } else {
+      this.isFinal = false;
+    }
+
+    // If the field is deprecated and optionally has a description for it.
+    if (raw.containsKey("deprecated")) {
+      Object oDeprecated = raw.get("deprecated");
+      if (oDeprecated instanceof String) {
+        this.deprecated = (String) oDeprecated;
+      } else if (oDeprecated instanceof Boolean) {
+        this.deprecated = (boolean) oDeprecated ? "" : null;
+      }
+    }
+
+    // Load notes. (If defined)
+    if (raw.containsKey("notes")) {
+      this.notes = raw.get("notes").toString();
+    }
+
+    // Load tags. (If defined)
+    if (raw.containsKey("tags")) {
+      Object oTags = raw.get("tags");
+      if (!(oTags instanceof List)) {
+        throw new ValueTypeException(name, "tags", oTags.getClass(), List.class);
+      }
+      for (Object oTag : (List<?>) oTags) {
+        this.tags.add(oTag.toString());
+      }
+    }
   }
 
   @NotNull
-  protected Map<String, Object> onSave(@NotNull ClassReference reference) {
-    // TODO: Implement.
+  protected Map<String, Object> onSave(@Nullable ClassReference reference, @Nullable Class<?> deCl) {
     final Map<String, Object> raw = new HashMap<>();
+
+    if (scope != JavaScope.PUBLIC) {
+      raw.put("scope", scope.getID());
+    }
+
+    if (isStatic) {
+      raw.put("static", true);
+    }
+
+    if (isFinal) {
+      raw.put("final", true);
+    }
+
+    if (deprecated != null) {
+      // An empty message is non-descriptive.
+      raw.put("deprecated", deprecated.isEmpty() ? true : deprecated);
+    }
+
+    if (hasNotes()) {
+      raw.put("notes", getNotes());
+    }
+
+    if (hasTags()) {
+      raw.put("tags", getTags());
+    }
+
+    raw.put("nullable", isNullable());
+    raw.put("type", JavaLanguage.compileType(this.type, reference, deCl));
     return raw;
   }
 
+  @NotNull
+  public JavaScope getScope() {
+    return this.scope;
+  }
+
+  public boolean isStatic() {
+    return this.isStatic;
+  }
+
+  public boolean isFinal() {
+    return this.isFinal;
+  }
+
+  /**
+   * @return True if the field can be null.
+   */
+  public boolean isNullable() {
+    return this.nullable;
+  }
+
+  public void setNullable(boolean nullable) {
+    if (this.nullable == nullable) return;
+
+    this.nullable = nullable;
+    record(ChangeEvent.Type.SET, "nullable", !nullable, nullable);
+    setDirty();
+  }
+
   @NotNull
   @Override
   public TypeReference getType() {
@@ -79,7 +206,19 @@ public class JavaField extends RosettaObject
 
   @Override
   public void setType(@NotNull TypeReference type) {
+    if (this.type == type) return;
+
+    TypeReference oldType = this.type;
     this.type = type;
+    record(ChangeEvent.Type.SET, "type", oldType, type);
+    setDirty();
+  }
+
+  @NotNull
+  @Override
+  public String getPath() {
+    RosettaObject parent = getParent();
+    return parent != null ? parent.getPath() + '#' + name : name;
   }
 
   @Nullable
@@ -117,8 +256,10 @@ public class JavaField extends RosettaObject
       if (notes == null) return;
     } else if (this.notes.equals(notes)) return;
 
+    String oldNotes = this.notes;
     this.notes = notes;
 
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
     setDirty();
   }
 
@@ -153,7 +294,9 @@ public class JavaField extends RosettaObject
     if (Objects.equals(this.deprecated, deprecated)) {
       return;
     }
+    String oldDeprecated = this.deprecated;
     this.deprecated = deprecated;
+    record(ChangeEvent.Type.SET, "deprecated", oldDeprecated, deprecated);
     setDirty();
   }
 
@@ -165,10 +308,42 @@ public class JavaField extends RosettaObject
     if (Objects.equals(this.deprecated, message)) {
       return;
     }
+    String oldDeprecated = this.deprecated;
     this.deprecated = message;
+    record(ChangeEvent.Type.SET, "deprecated", oldDeprecated, message);
     this.setDirty();
   }
 
+  /**
+   * @param mark The revision mark of the snapshot being built.
+   * @return An immutable view of the field.
+   */
+  @NotNull
+  FieldSnapshot snapshot(long mark) {
+    return snapshot(
+        mark, () -> new FieldSnapshot(name, type, nullable, notes, deprecated, tags.toList()));
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(name).string(type.compile()).bool(nullable);
+    hasher.string(notes).string(deprecated).strings(tags.toList());
+    hasher.constant(scope).bool(isStatic).bool(isFinal);
+  }
+
+  /**
+   * @param estimator The estimator to count the field in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.object(this, "field");
+    estimator.reflection(reflectedObject);
+    // Discovered names are shared with reflection.
+    if (reflectedObject == null) estimator.string(name);
+    estimator.string(notes);
+    estimator.string(deprecated);
+    estimator.tags(tags);
+  }
+
   @Override
   public String toString() {
     return "JavaField \"" + getName() + "\"";
@@ -186,7 +361,7 @@ public class JavaField extends RosettaObject
    */
   @NotNull
   public List<String> getTags() {
-    return Collections.unmodifiableList(tags);
+    return tags.toList();
   }
 
   /**
@@ -213,10 +388,10 @@ public class JavaField extends RosettaObject
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (tags.contains(tag)) {
+    if (!this.tags.add(tag)) {
       throw new IllegalArgumentException("The tag is already applied: " + tag);
     }
-    this.tags.add(tag);
+    record(ChangeEvent.Type.ADD, "tags", null, tag);
     setDirty();
   }
 
@@ -231,22 +406,74 @@ public class JavaField extends RosettaObject
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (!tags.contains(tag)) {
+    if (!this.tags.remove(tag)) {
       throw new IllegalArgumentException("The tag is not applied: " + tag);
     }
-    tags.remove(tag);
+    record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    setDirty();
+  }
+
+  @Override
+  public void addAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before applying any.
+    final TagSet added = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (this.tags.contains(tag) || !added.add(tag)) {
+        throw new IllegalArgumentException("The tag is already applied: " + tag);
+      }
+    }
+
+    this.tags.addAll(added);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.ADD, "tags", null, tag);
+    }
+    setDirty();
+  }
+
+  @Override
+  public void removeAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before removing any.
+    final TagSet removed = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (!this.tags.contains(tag) || !removed.add(tag)) {
+        throw new IllegalArgumentException("The tag is not applied: " + tag);
+      }
+    }
+
+    this.tags.removeAll(removed);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
     setDirty();
   }
 
   /**
    * Clears all applied tags.
    *
+   * @return A read-only list of the tags removed.
    * @throws RuntimeException If the object has no tags. (Use {@link JavaField#hasTags()})
    */
-  public void clearTags() {
+  @NotNull
+  public List<String> clearTags() {
     if (tags.isEmpty()) {
       throw new RuntimeException("No tags are registered.");
     }
+    List<String> tagsRemoved = tags.toList();
     tags.clear();
+    for (String tag : tagsRemoved) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
+    setDirty();
+    return tagsRemoved;
   }
 }
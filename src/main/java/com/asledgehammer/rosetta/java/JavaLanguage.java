@@ -1,6 +1,13 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ChangeJournal;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.Footprint;
+import com.asledgehammer.rosetta.FootprintEstimator;
+import com.asledgehammer.rosetta.RosettaCollection;
 import com.asledgehammer.rosetta.RosettaLanguage;
+import com.asledgehammer.rosetta.RosettaObject;
 import com.asledgehammer.rosetta.exception.MissingKeyException;
 import com.asledgehammer.rosetta.exception.RosettaException;
 import com.asledgehammer.rosetta.exception.TypeException;
@@ -9,20 +16,57 @@ import com.asledgehammer.rosetta.java.reference.ClassReference;
 import com.asledgehammer.rosetta.java.reference.SimpleTypeReference;
 import com.asledgehammer.rosetta.java.reference.TypeReference;
 import com.asledgehammer.rosetta.java.reference.UnionTypeReference;
+import com.asledgehammer.rosetta.java.snapshot.LanguageSnapshot;
+import com.asledgehammer.rosetta.java.snapshot.PackageSnapshot;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.Package.getPackages;
 
 public class JavaLanguage implements RosettaLanguage {
 
+  /** The most entries sampled from shared tables when estimating footprints. */
+  private static final int SAMPLE_SIZE = 1024;
+
   final Map<String, JavaClass> classes = new HashMap<>();
   final Map<String, JavaPackage> packages = new HashMap<>();
 
+  /** The latest published snapshot. Readers only read this field. */
+  private volatile LanguageSnapshot snapshot = LanguageSnapshot.EMPTY;
+
+  /** The collection storing the language. (If registered) */
+  @Nullable private RosettaCollection collection;
+
   public JavaLanguage() {}
 
+  @Override
+  public void setCollection(@NotNull RosettaCollection collection) {
+    this.collection = collection;
+  }
+
+  /**
+   * @return The collection storing the language. (If registered)
+   */
+  @Nullable
+  public RosettaCollection getCollection() {
+    return collection;
+  }
+
+  /**
+   * @return The journal of the collection storing the language. (If registered)
+   */
+  @Nullable
+  ChangeJournal getJournal() {
+    return collection != null ? collection.getJournal() : null;
+  }
+
   /**
    * Resolves a TypeReference from Rosetta-defined data.
    *
@@ -39,6 +83,11 @@ public class JavaLanguage implements RosettaLanguage {
 
     Map<String, Object> map = (Map<String, Object>) oType;
 
+    // Bounded types are parsed whole to keep their bounds.
+    if (map.containsKey("bounds") && map.get("full") instanceof String full) {
+      return TypeReference.of(full);
+    }
+
     // Retrieve the base string.
     Object oBase = map.get("base");
     if (oBase == null) {
@@ -76,11 +125,11 @@ public class JavaLanguage implements RosettaLanguage {
    */
   @NotNull
   public static Object serializeType(
-      @NotNull TypeReference type, @NotNull ClassReference reference, @NotNull Class<?> deCl) {
+      @NotNull TypeReference type, @Nullable ClassReference reference, @Nullable Class<?> deCl) {
     Map<String, Object> raw;
     if (type instanceof SimpleTypeReference simple) {
       if (!simple.hasSubTypes()) {
-        return simple.compile(reference, deCl);
+        return compileType(simple, reference, deCl);
       }
       raw = new HashMap<>();
       raw.put("full", simple.compile());
@@ -106,6 +155,19 @@ public class JavaLanguage implements RosettaLanguage {
     return raw;
   }
 
+  /**
+   * @param type The type to compile.
+   * @param reference The class the type is viewed from. (Null if the class isn't on the classpath)
+   * @param deCl The class declaring the member using the type. (Null if not on the classpath)
+   * @return The compiled type. Without a class to resolve inherited type variables from, the type
+   *     compiles as written.
+   */
+  @NotNull
+  static String compileType(
+      @NotNull TypeReference type, @Nullable ClassReference reference, @Nullable Class<?> deCl) {
+    return reference != null && deCl != null ? type.compile(reference, deCl) : type.compile();
+  }
+
   @NotNull
   public static JavaScope getScope(@NotNull Class<?> clazz) {
     return getScope(clazz.getModifiers());
@@ -121,6 +183,11 @@ public class JavaLanguage implements RosettaLanguage {
     return getScope(method.getModifiers());
   }
 
+  @NotNull
+  public static JavaScope getScope(@NotNull Executable executable) {
+    return getScope(executable.getModifiers());
+  }
+
   @NotNull
   public static JavaScope getScope(@NotNull Parameter parameter) {
     return getScope(parameter.getModifiers());
@@ -227,6 +294,9 @@ public class JavaLanguage implements RosettaLanguage {
     // Create & cache the package definition.
     JavaPackage javaPackage = new JavaPackage(this, parent, pkg);
     packages.put(path, javaPackage);
+    if (parent == null) {
+      recordRootPackage(javaPackage);
+    }
 
     return javaPackage;
   }
@@ -268,10 +338,26 @@ public class JavaLanguage implements RosettaLanguage {
     }
 
     JavaPackage javaPackage = new JavaPackage(this, parent, name);
-    this.packages.put(name, javaPackage);
+    this.packages.put(path, javaPackage);
+    if (parent == null) {
+      recordRootPackage(javaPackage);
+    }
     return javaPackage;
   }
 
+  /**
+   * Records a root package being added in the collection's journal. (Sub-packages are recorded by
+   * their parent)
+   *
+   * @param javaPackage The root package added.
+   */
+  private void recordRootPackage(@NotNull JavaPackage javaPackage) {
+    ChangeJournal journal = getJournal();
+    if (journal != null && journal.isRecording()) {
+      journal.record(ChangeEvent.Type.ADD, javaPackage, "packages", null, javaPackage);
+    }
+  }
+
   @NotNull
   public JavaClass of(@NotNull Class<?> clazz) {
     String qualifiedPath = clazz.getName();
@@ -315,8 +401,21 @@ public class JavaLanguage implements RosettaLanguage {
         throw new RosettaException(
             "The property \"languages.java.packages." + key + "\" is not a dictionary.");
       }
-      JavaPackage javaPackage = new JavaPackage(this, null, key, (Map<String, Object>) oPackage);
-      packages.put(javaPackage.getName(), javaPackage);
+      JavaPackage javaPackage = this.packages.get(key);
+      if (javaPackage != null) {
+        javaPackage.onLoad((Map<String, Object>) oPackage);
+        continue;
+      }
+
+      // Packages are saved flat by path. Parents without definitions aren't saved.
+      final int dot = key.lastIndexOf('.');
+      final JavaPackage parent = dot != -1 ? ofInternalPackage(key.substring(0, dot)) : null;
+      javaPackage =
+          new JavaPackage(this, parent, key.substring(dot + 1), (Map<String, Object>) oPackage);
+      this.packages.put(key, javaPackage);
+      if (parent == null) {
+        recordRootPackage(javaPackage);
+      }
     }
   }
 
@@ -366,6 +465,249 @@ public class JavaLanguage implements RosettaLanguage {
     return raw;
   }
 
+  /**
+   * Compiles all dirty package and class definitions on the calling thread.
+   *
+   * @return The report of the compile.
+   */
+  @NotNull
+  public JavaCompileReport compile() {
+    return compile(null);
+  }
+
+  /**
+   * Compiles all dirty package and class definitions in parallel using the common pool.
+   *
+   * @return The report of the compile.
+   */
+  @NotNull
+  public JavaCompileReport compileParallel() {
+    return compile(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Compiles all dirty package and class definitions in parallel. Independent sub-packages and
+   * classes compile as separate tasks and every failure is collected with its path.
+   *
+   * @param pool The pool to compile in. If null, the compile runs on the calling thread.
+   * @return The report of the compile.
+   */
+  @NotNull
+  public JavaCompileReport compile(@Nullable ForkJoinPool pool) {
+    final Queue<JavaCompileReport.Failure> failures = new ConcurrentLinkedQueue<>();
+    final AtomicInteger compiled = new AtomicInteger();
+
+    // Go through each root package alphanumerically.
+    final List<String> keys = new ArrayList<>(this.packages.keySet());
+    keys.sort(Comparator.naturalOrder());
+
+    final List<JavaCompileTask> tasks = new ArrayList<>();
+    for (String key : keys) {
+      final JavaPackage javaPackage = this.packages.get(key);
+      if (javaPackage.hasParent() || !javaPackage.isDirty()) continue;
+      tasks.add(new JavaCompileTask(javaPackage, failures, compiled, pool != null));
+    }
+
+    if (pool != null) {
+      for (JavaCompileTask task : tasks) {
+        pool.execute(task);
+      }
+      for (JavaCompileTask task : tasks) {
+        task.join();
+      }
+    } else {
+      for (JavaCompileTask task : tasks) {
+        task.compute();
+      }
+    }
+
+    return new JavaCompileReport(new ArrayList<>(failures), compiled.get());
+  }
+
+  /**
+   * Merges the docs of a documented model into this model on the calling thread.
+   *
+   * @param documented The model to carry docs from.
+   * @return The report of the merge.
+   */
+  @NotNull
+  public JavaMergeReport merge(@NotNull JavaLanguage documented) {
+    return merge(documented, null);
+  }
+
+  /**
+   * Merges the docs of a documented model into this model, usually a freshly discovered one.
+   * Packages, classes and fields match by name, and constructors and methods match by signature.
+   * Notes, tags, deprecation messages and named parameters are carried over. Nullability is
+   * carried over where the type didn't change. Notes of type parameters aren't tracked or saved,
+   * so they aren't carried over. Documented definitions without a match are reported as orphans.
+   *
+   * <p>Packages match as separate tasks. The edits are applied afterward on the calling thread.
+   *
+   * @param documented The model to carry docs from.
+   * @param pool The pool to match in. If null, the merge runs on the calling thread.
+   * @return The report of the merge.
+   */
+  @NotNull
+  public JavaMergeReport merge(@NotNull JavaLanguage documented, @Nullable ForkJoinPool pool) {
+    // Both models are compiled before they are read, so nothing compiles while packages match in
+    // parallel.
+    this.compile();
+    documented.compile();
+
+    // Sub-packages are listed by path, so every package is its own task.
+    final List<String> keys = new ArrayList<>(documented.packages.keySet());
+    keys.sort(Comparator.naturalOrder());
+
+    final JavaMerger[] mergers = new JavaMerger[keys.size()];
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int index = 0; index < keys.size(); index++) {
+      final int slot = index;
+      final JavaPackage from = documented.packages.get(keys.get(index));
+      final JavaPackage to = this.packages.get(keys.get(index));
+      final Runnable task =
+          () -> {
+            JavaMerger merger = new JavaMerger();
+            merger.mergePackage(from, to);
+            mergers[slot] = merger;
+          };
+      if (pool != null) {
+        tasks.add(pool.submit(task));
+      } else {
+        task.run();
+      }
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+
+    final List<JavaMergeReport.Orphan> orphans = new ArrayList<>();
+    int merged = 0;
+    for (JavaMerger merger : mergers) {
+      merged += merger.apply();
+      orphans.addAll(merger.getOrphans());
+    }
+    return new JavaMergeReport(orphans, merged);
+  }
+
+  /**
+   * Builds and publishes an immutable snapshot of the language. Packages and classes that didn't
+   * change since the previous snapshot share their previous views.
+   *
+   * <p>NOTE: Only the thread editing the language should invoke this method.
+   *
+   * @return The published snapshot.
+   */
+  @NotNull
+  public LanguageSnapshot snapshot() {
+    final long mark = RosettaObject.markRevision();
+    final Map<String, PackageSnapshot> packages = new HashMap<>();
+    for (JavaPackage javaPackage : this.packages.values()) {
+      if (!javaPackage.hasParent()) {
+        packages.put(javaPackage.getName(), javaPackage.snapshot(mark));
+      }
+    }
+    LanguageSnapshot snapshot = new LanguageSnapshot(mark, packages);
+    this.snapshot = snapshot;
+    return snapshot;
+  }
+
+  /**
+   * Returns the latest published snapshot without locking. Readers may hold the snapshot for as
+   * long as they need; later edits don't affect it.
+   *
+   * @return The latest published snapshot. (Empty if none is published)
+   */
+  @NotNull
+  public LanguageSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Returns a hash of the root packages, regardless of their order. Packages cache their hashes, so
+   * only the packages on the path of a change are hashed again.
+   *
+   * <p>NOTE: Only the thread editing the language should invoke this method.
+   *
+   * @return The content hash of the language. (See {@link RosettaObject#getContentHash()})
+   */
+  @Override
+  public long getContentHash() {
+    final List<JavaPackage> roots = new ArrayList<>();
+    for (JavaPackage javaPackage : this.packages.values()) {
+      if (!javaPackage.hasParent()) roots.add(javaPackage);
+    }
+    return new ContentHasher().unordered(roots).get();
+  }
+
+  /**
+   * Estimates the heap retained by the language. Classes that didn't change since the previous
+   * estimate reuse it, so repeated estimates only visit what changed.
+   *
+   * <p>Canonical TypeReferences and cached ClassReferences are shared by every class, so they are
+   * estimated once in the "&lt;shared&gt;" child from a sample of the tables.
+   *
+   * <p>NOTE: Only the thread editing the language should invoke this method.
+   *
+   * @return The footprint of the language. Children are the packages by path, followed by the
+   *     shared tables.
+   */
+  @NotNull
+  @Override
+  public Footprint footprint() {
+    final long mark = RosettaObject.markRevision();
+    final FootprintEstimator estimator = new FootprintEstimator();
+    estimator.add(FootprintEstimator.shallowSizeOf(getClass()));
+    estimator.map(classes);
+    estimator.map(packages);
+
+    final List<String> keys = new ArrayList<>(packages.keySet());
+    keys.sort(Comparator.naturalOrder());
+    final List<Footprint> children = new ArrayList<>(keys.size() + 1);
+    for (String key : keys) {
+      children.add(packages.get(key).footprint(mark));
+    }
+
+    // Shared tables are large, so they are sampled.
+    final FootprintEstimator shared = new FootprintEstimator();
+    final Collection<TypeReference> types = TypeReference.getInterned();
+    shared.count("typeReference", types.size());
+    shared.add(FootprintEstimator.sample(types, SAMPLE_SIZE, JavaLanguage::estimateType));
+    shared.add(TypeReference.estimateTablesFootprint(SAMPLE_SIZE));
+    final Collection<ClassReference> references = ClassReference.getCached();
+    shared.count("classReference", references.size());
+    shared.add(
+        FootprintEstimator.sample(references, SAMPLE_SIZE, ClassReference::estimateFootprint));
+    children.add(shared.build("<shared>", List.of()));
+
+    return estimator.build(getID(), children);
+  }
+
+  /**
+   * @param type The canonical type.
+   * @return The estimated bytes of the type. (Excluding canonical sub-types)
+   */
+  private static long estimateType(@NotNull TypeReference type) {
+    long bytes = FootprintEstimator.shallowSizeOf(type.getClass());
+    bytes += FootprintEstimator.sizeOf(type.getBase());
+    TypeReference[] bounds = type.getBounds();
+    if (bounds != null && bounds.length != 0) {
+      bytes += FootprintEstimator.array(bounds.length, FootprintEstimator.REFERENCE);
+    }
+    if (type instanceof SimpleTypeReference simple && simple.hasSubTypes()) {
+      bytes += FootprintEstimator.array(simple.getSubTypes().size(), FootprintEstimator.REFERENCE);
+    }
+    return bytes;
+  }
+
+  /**
+   * @return A read-only map of all package definitions by path. (Including sub-packages)
+   */
+  @NotNull
+  public Map<String, JavaPackage> getPackages() {
+    return Collections.unmodifiableMap(packages);
+  }
+
   private boolean hasPackages() {
     return !this.packages.isEmpty();
   }
@@ -0,0 +1,58 @@
+package com.asledgehammer.rosetta.java;
+
+import com.asledgehammer.rosetta.RosettaObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** JavaMergeReport stores the outcome of merging docs into a {@link JavaLanguage} model. */
+public class JavaMergeReport {
+
+  /**
+   * A documented definition without a match in the merged model. Its docs weren't carried over.
+   *
+   * @param path The qualified path of the definition. (Executables by signature)
+   * @param definition The documented definition.
+   */
+  public record Orphan(@NotNull String path, @NotNull RosettaObject definition) {}
+
+  private final List<Orphan> orphans;
+  private final int merged;
+
+  JavaMergeReport(@NotNull List<Orphan> orphans, int merged) {
+    List<Orphan> sorted = new ArrayList<>(orphans);
+    sorted.sort(Comparator.comparing(Orphan::path));
+    this.orphans = Collections.unmodifiableList(sorted);
+    this.merged = merged;
+  }
+
+  /**
+   * @return True if every documented definition found its match.
+   */
+  public boolean isComplete() {
+    return orphans.isEmpty();
+  }
+
+  /**
+   * @return A read-only list of documented definitions without a match, sorted by path.
+   */
+  @NotNull
+  public List<Orphan> getOrphans() {
+    return orphans;
+  }
+
+  /**
+   * @return The count of definitions that received docs.
+   */
+  public int getMergedCount() {
+    return merged;
+  }
+
+  @Override
+  public String toString() {
+    return "JavaMergeReport {merged = " + merged + ", orphans = " + orphans.size() + "}";
+  }
+}
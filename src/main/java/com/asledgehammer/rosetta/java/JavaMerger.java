@@ -0,0 +1,272 @@
+package com.asledgehammer.rosetta.java;
+
+import com.asledgehammer.rosetta.Notable;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.Taggable;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * JavaMerger matches the definitions of one documented package with a rediscovered model, and
+ * plans the edits that carry their docs over. (See {@link JavaLanguage#merge(JavaLanguage,
+ * java.util.concurrent.ForkJoinPool)})
+ *
+ * <p>Matching only reads both models, so packages match in parallel. Planned edits are applied
+ * afterward on the calling thread, since edits mark shared parents as dirty.
+ */
+final class JavaMerger {
+
+  /** The names reflection gives parameters of classes compiled without parameter names. */
+  private static final Pattern REFLECTED_NAME = Pattern.compile("^arg[0-9]+$");
+
+  private final List<Runnable> edits = new ArrayList<>();
+  private final List<JavaMergeReport.Orphan> orphans = new ArrayList<>();
+
+  /** The count of definitions with planned edits. */
+  private int merged;
+
+  /**
+   * @param from The documented package.
+   * @param to The rediscovered package of the same path. (If any)
+   */
+  void mergePackage(@NotNull JavaPackage from, @Nullable JavaPackage to) {
+    if (to == null) {
+      if (from.hasNotes() || from.hasTags()) orphan(from.getPath(), from);
+      for (JavaClass javaClass : from.getClasses().values()) orphanClass(javaClass);
+      return;
+    }
+
+    final int mark = edits.size();
+    mergeNotes(from, to);
+    mergeTags(from, to);
+    count(mark);
+
+    final Map<String, JavaClass> classes = to.getClasses();
+    for (JavaClass javaClass : from.getClasses().values()) {
+      mergeClass(javaClass, classes.get(javaClass.getName()));
+    }
+  }
+
+  /**
+   * Applies the planned edits.
+   *
+   * @return The count of definitions that received docs.
+   */
+  int apply() {
+    for (Runnable edit : edits) edit.run();
+    return merged;
+  }
+
+  /**
+   * @return The documented definitions without a match.
+   */
+  @NotNull
+  List<JavaMergeReport.Orphan> getOrphans() {
+    return orphans;
+  }
+
+  private void mergeClass(@NotNull JavaClass from, @Nullable JavaClass to) {
+    if (to == null) {
+      orphanClass(from);
+      return;
+    }
+
+    final int mark = edits.size();
+    mergeNotes(from, to);
+    mergeTags(from, to);
+    mergeDeprecated(deprecated(from), deprecated(to), to::setDeprecated);
+    count(mark);
+
+    final Map<String, JavaField> fields = to.getFields();
+    for (JavaField field : from.getFields().values()) {
+      mergeField(field, fields.get(field.getName()));
+    }
+
+    final Map<String, JavaConstructor> constructors = new HashMap<>();
+    for (JavaConstructor constructor : to.getConstructors().getExecutables()) {
+      constructors.put(constructor.getSignature(), constructor);
+    }
+    for (JavaConstructor constructor : from.getConstructors().getExecutables()) {
+      mergeExecutable(constructor, constructors.get(constructor.getSignature()));
+    }
+
+    final Map<String, JavaMethod> methods = new HashMap<>();
+    for (JavaExecutableCollection<JavaMethod> collection : to.getMethods().values()) {
+      for (JavaMethod method : collection.getExecutables()) {
+        methods.put(method.getSignature(), method);
+      }
+    }
+    for (JavaExecutableCollection<JavaMethod> collection : from.getMethods().values()) {
+      for (JavaMethod method : collection.getExecutables()) {
+        mergeExecutable(method, methods.get(method.getSignature()));
+      }
+    }
+  }
+
+  private void mergeField(@NotNull JavaField from, @Nullable JavaField to) {
+    if (to == null) {
+      if (isDocumented(from)) orphan(from.getPath(), from);
+      return;
+    }
+
+    final int mark = edits.size();
+    mergeNotes(from, to);
+    mergeTags(from, to);
+    mergeDeprecated(deprecated(from), deprecated(to), to::setDeprecated);
+    mergeNullable(from.getType(), from.isNullable(), to.getType(), to.isNullable(), to::setNullable);
+    count(mark);
+  }
+
+  private void mergeExecutable(
+      @NotNull JavaExecutable<?> from, @Nullable JavaExecutable<?> to) {
+    if (to == null) {
+      if (isDocumented(from)) orphan(getPath(from), from);
+      return;
+    }
+
+    final int mark = edits.size();
+    mergeNotes(from, to);
+    mergeDeprecated(deprecated(from), deprecated(to), to::setDeprecated);
+    if (from instanceof JavaMethod methodFrom && to instanceof JavaMethod methodTo) {
+      mergeTags(methodFrom, methodTo);
+      final JavaReturn returnsFrom = methodFrom.getReturns();
+      final JavaReturn returnsTo = methodTo.getReturns();
+      if (returnsFrom != null && returnsTo != null) {
+        mergeNotes(returnsFrom, returnsTo);
+        mergeNullable(
+            returnsFrom.getType(),
+            returnsFrom.isNullable(),
+            returnsTo.getType(),
+            returnsTo.isNullable(),
+            returnsTo::setNullable);
+      }
+    }
+
+    // The same signature has the same count of parameters.
+    final List<JavaParameter> parameters = to.getParameters();
+    for (int index = 0; index < parameters.size(); index++) {
+      final JavaParameter parameterFrom = from.getParameters().get(index);
+      final JavaParameter parameterTo = parameters.get(index);
+      final String name = parameterFrom.getName();
+      if (!name.equals(parameterTo.getName()) && !REFLECTED_NAME.matcher(name).matches()) {
+        edits.add(() -> parameterTo.setName(name));
+      }
+      mergeNotes(parameterFrom, parameterTo);
+      mergeNullable(
+          parameterFrom.getType(),
+          parameterFrom.isNullable(),
+          parameterTo.getType(),
+          parameterTo.isNullable(),
+          parameterTo::setNullable);
+    }
+    count(mark);
+  }
+
+  private void mergeNotes(@NotNull Notable from, @NotNull Notable to) {
+    if (!from.hasNotes()) return;
+    final String notes = from.getNotes();
+    if (!to.hasNotes() || !to.getNotes().equals(notes)) {
+      edits.add(() -> to.setNotes(notes));
+    }
+  }
+
+  /** Tags are added to the tags already applied. */
+  private void mergeTags(@NotNull Taggable from, @NotNull Taggable to) {
+    if (!from.hasTags()) return;
+    final List<String> tags = new ArrayList<>();
+    for (String tag : from.getTags()) {
+      if (!to.hasTag(tag)) tags.add(tag);
+    }
+    if (!tags.isEmpty()) edits.add(() -> to.addAllTags(tags));
+  }
+
+  private void mergeDeprecated(
+      @Nullable String from, @Nullable String to, @NotNull Consumer<String> setter) {
+    if (from != null && !from.equals(to)) edits.add(() -> setter.accept(from));
+  }
+
+  /** Nullability is only carried over if the type didn't change. */
+  private void mergeNullable(
+      @NotNull TypeReference typeFrom,
+      boolean from,
+      @NotNull TypeReference typeTo,
+      boolean to,
+      @NotNull Consumer<Boolean> setter) {
+    if (from != to && typeFrom.compile().equals(typeTo.compile())) {
+      edits.add(() -> setter.accept(from));
+    }
+  }
+
+  /** Counts the definition as merged if edits were planned since the mark. */
+  private void count(int mark) {
+    if (edits.size() > mark) merged++;
+  }
+
+  private void orphanClass(@NotNull JavaClass javaClass) {
+    if (javaClass.hasNotes() || javaClass.hasTags() || javaClass.isDeprecated()) {
+      orphan(javaClass.getPath(), javaClass);
+    }
+    for (JavaField field : javaClass.getFields().values()) {
+      if (isDocumented(field)) orphan(field.getPath(), field);
+    }
+    for (JavaConstructor constructor : javaClass.getConstructors().getExecutables()) {
+      if (isDocumented(constructor)) orphan(getPath(constructor), constructor);
+    }
+    for (JavaExecutableCollection<JavaMethod> collection : javaClass.getMethods().values()) {
+      for (JavaMethod method : collection.getExecutables()) {
+        if (isDocumented(method)) orphan(getPath(method), method);
+      }
+    }
+  }
+
+  private void orphan(@NotNull String path, @NotNull RosettaObject definition) {
+    orphans.add(new JavaMergeReport.Orphan(path, definition));
+  }
+
+  private static boolean isDocumented(@NotNull JavaField field) {
+    return field.hasNotes() || field.hasTags() || field.isDeprecated();
+  }
+
+  private static boolean isDocumented(@NotNull JavaExecutable<?> executable) {
+    if (executable.hasNotes() || executable.isDeprecated()) return true;
+    if (executable instanceof JavaMethod method) {
+      if (method.hasTags()) return true;
+      if (method.getReturns() != null && method.getReturns().hasNotes()) return true;
+    }
+    for (JavaParameter parameter : executable.getParameters()) {
+      if (parameter.hasNotes()) return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return The path of the executable, qualified by signature so overloads have their own paths.
+   */
+  @NotNull
+  private static String getPath(@NotNull JavaExecutable<?> executable) {
+    RosettaObject parent = executable.getParent();
+    return parent != null
+        ? parent.getPath() + '#' + executable.getSignature()
+        : executable.getSignature();
+  }
+
+  @Nullable
+  private static String deprecated(@NotNull JavaClass javaClass) {
+    return javaClass.isDeprecated() ? javaClass.getDeprecatedMessage() : null;
+  }
+
+  @Nullable
+  private static String deprecated(@NotNull JavaField field) {
+    return field.isDeprecated() ? field.getDeprecatedMessage() : null;
+  }
+
+  @Nullable
+  private static String deprecated(@NotNull JavaExecutable<?> executable) {
+    return executable.isDeprecated() ? executable.getDeprecatedMessage() : null;
+  }
+}
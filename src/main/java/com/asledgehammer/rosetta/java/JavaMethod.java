@@ -1,8 +1,13 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.FootprintEstimator;
+import com.asledgehammer.rosetta.TagSet;
 import com.asledgehammer.rosetta.Taggable;
 import com.asledgehammer.rosetta.exception.ValueTypeException;
 import com.asledgehammer.rosetta.java.reference.ClassReference;
+import com.asledgehammer.rosetta.java.snapshot.ReturnSnapshot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -13,17 +18,32 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
 
   @Nullable private JavaReturn returns;
 
-  private final List<String> tags = new ArrayList<>();
+  private final TagSet tags = new TagSet();
 
   JavaMethod(@NotNull Method method) {
     super(method);
 
     // TODO: Implement discovery.
     this.returns = new JavaReturn(method.getGenericReturnType());
+    adopt(this.returns);
   }
 
-  JavaMethod(@NotNull String name, @NotNull Map<String, Object> raw) {
-    super(name, raw);
+  JavaMethod(
+      @NotNull String name,
+      @NotNull Map<String, Object> raw,
+      @NotNull List<JavaTypeParameter> classTypeParameters) {
+    super(name, raw, classTypeParameters);
+
+    // Load tags. (If defined) The tag set isn't initialized while the super constructor loads.
+    if (raw.containsKey("tags")) {
+      Object oTags = raw.get("tags");
+      if (!(oTags instanceof List)) {
+        throw new ValueTypeException(name, "tags", oTags.getClass(), List.class);
+      }
+      for (Object oTag : (List<?>) oTags) {
+        this.tags.add(oTag.toString());
+      }
+    }
   }
 
   @Override
@@ -43,17 +63,20 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
       // Null definitions are void.
       this.returns = new JavaReturn(void.class);
     }
+    adopt(this.returns);
   }
 
   @NotNull
-  protected Map<String, Object> onSave(@NotNull ClassReference reference) {
+  protected Map<String, Object> onSave(
+      @Nullable ClassReference reference, @Nullable Class<?> deCl) {
 
     // Save the general executable definitions info first.
-    Map<String, Object> raw = super.onSave(reference);
+    Map<String, Object> raw = super.onSave(reference, deCl);
+    raw.put("name", name);
 
     // Save the returns definition if qualified.
     if (returns != null && returns.shouldSave()) {
-      raw.put("return", returns.onSave(reference, getReflectionTarget().getDeclaringClass()));
+      raw.put("return", returns.onSave(reference, deCl));
     }
 
     if (hasTags()) {
@@ -63,22 +86,6 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
     return raw;
   }
 
-  @Override
-  public boolean onCompile() {
-
-    // Invoke super-compile code and then handle return property.
-    if (!super.onCompile()) {
-      return false;
-    }
-
-    // Handle compiling the return property.
-    if (returns.isDirty()) {
-      return returns.compile();
-    }
-
-    return true;
-  }
-
   @Nullable
   public JavaReturn getReturns() {
     return this.returns;
@@ -93,10 +100,45 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
       return;
     }
 
+    JavaReturn oldReturns = this.returns;
+    if (oldReturns != null) {
+      orphan(oldReturns);
+    }
     this.returns = returns;
+    if (returns != null) {
+      adopt(returns);
+    }
+    record(ChangeEvent.Type.SET, "returns", oldReturns, returns);
     this.setDirty();
   }
 
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    super.hashContent(hasher);
+    hasher.child(returns).strings(tags.toList());
+  }
+
+  @Nullable
+  @Override
+  ReturnSnapshot snapshotReturns(long mark) {
+    return returns != null ? returns.snapshot(mark) : null;
+  }
+
+  @NotNull
+  @Override
+  List<String> snapshotTags() {
+    return tags.toList();
+  }
+
+  @Override
+  void estimate(@NotNull FootprintEstimator estimator) {
+    super.estimate(estimator);
+    estimator.tags(tags);
+    if (returns != null) {
+      returns.estimate(estimator);
+    }
+  }
+
   @Override
   public String toString() {
     return "JavaMethod \"" + getSignature() + "\"";
@@ -110,7 +152,7 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
   @NotNull
   @Override
   public List<String> getTags() {
-    return Collections.unmodifiableList(tags);
+    return tags.toList();
   }
 
   @Override
@@ -126,10 +168,10 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (tags.contains(tag)) {
+    if (!this.tags.add(tag)) {
       throw new IllegalArgumentException("The tag is already applied: " + tag);
     }
-    this.tags.add(tag);
+    record(ChangeEvent.Type.ADD, "tags", null, tag);
     setDirty();
   }
 
@@ -138,10 +180,54 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (!tags.contains(tag)) {
+    if (!this.tags.remove(tag)) {
       throw new IllegalArgumentException("The tag is not applied: " + tag);
     }
-    tags.remove(tag);
+    record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    setDirty();
+  }
+
+  @Override
+  public void addAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before applying any.
+    final TagSet added = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (this.tags.contains(tag) || !added.add(tag)) {
+        throw new IllegalArgumentException("The tag is already applied: " + tag);
+      }
+    }
+
+    this.tags.addAll(added);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.ADD, "tags", null, tag);
+    }
+    setDirty();
+  }
+
+  @Override
+  public void removeAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before removing any.
+    final TagSet removed = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (!this.tags.contains(tag) || !removed.add(tag)) {
+        throw new IllegalArgumentException("The tag is not applied: " + tag);
+      }
+    }
+
+    this.tags.removeAll(removed);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
     setDirty();
   }
 
@@ -151,8 +237,12 @@ public class JavaMethod extends JavaExecutable<Method> implements Taggable {
     if (!hasTags()) {
       throw new RuntimeException("No tags are registered.");
     }
-    List<String> tagsRemoved = Collections.unmodifiableList(tags);
+    List<String> tagsRemoved = tags.toList();
     tags.clear();
+    for (String tag : tagsRemoved) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
+    setDirty();
     return tagsRemoved;
   }
 }
@@ -1,6 +1,9 @@
 package com.asledgehammer.rosetta.java;
 
 import com.asledgehammer.rosetta.*;
+import com.asledgehammer.rosetta.exception.ValueTypeException;
+import com.asledgehammer.rosetta.java.snapshot.ClassSnapshot;
+import com.asledgehammer.rosetta.java.snapshot.PackageSnapshot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -15,10 +18,10 @@ public class JavaPackage extends RosettaObject
       Pattern.compile("^[a-z_][a-z0-9_]*$", Pattern.CASE_INSENSITIVE);
 
   /** Stores class definitions in the package. */
-  private final Map<String, JavaClass> classes = new HashMap<>();
+  private final Map<String, JavaClass> classes = new CompactMap<>();
 
   /** Stores sub-package definitions. */
-  private final Map<String, JavaPackage> packages = new HashMap<>();
+  private final Map<String, JavaPackage> packages = new CompactMap<>();
 
   private Package target;
 
@@ -34,7 +37,13 @@ public class JavaPackage extends RosettaObject
   /** Package-Info documentation notes. */
   private String notes;
 
-  private final List<String> tags = new ArrayList<>();
+  private final TagSet tags = new TagSet();
+
+  /** The latest summary of the package. (If any) */
+  @Nullable private PackageSummary summary;
+
+  /** The revision mark the summary was built at. */
+  private long summaryRevision;
 
   /**
    * Creation constructor for new package definitions.
@@ -111,40 +120,69 @@ public class JavaPackage extends RosettaObject
 
   @Override
   public boolean onCompile() {
+    // Only class(es) and sub-package(s) registered as dirty are compiled.
+    return compileDirtyChildren();
+  }
+
+  @Override
+  @SuppressWarnings({"unchecked"})
+  protected void onLoad(@NotNull Map<String, Object> raw) {
+
+    // Load notes. (If defined)
+    if (raw.containsKey("notes")) {
+      this.notes = raw.get("notes").toString();
+    }
 
-    // Compile class(es).
-    if (!classes.isEmpty()) {
+    // Load tags. (If defined)
+    if (raw.containsKey("tags")) {
+      Object oTags = raw.get("tags");
+      if (!(oTags instanceof List)) {
+        throw new ValueTypeException("package", "tags", oTags.getClass(), List.class);
+      }
+      for (Object oTag : (List<?>) oTags) {
+        this.tags.add(oTag.toString());
+      }
+    }
+
+    // Load any classes. (If defined)
+    if (raw.containsKey("classes")) {
+      Object oClasses = raw.get("classes");
+      if (!(oClasses instanceof Map)) {
+        throw new ValueTypeException("package", "classes", oClasses.getClass(), Map.class);
+      }
+      Map<String, Object> classes = (Map<String, Object>) oClasses;
       List<String> keys = new ArrayList<>(classes.keySet());
       keys.sort(Comparator.naturalOrder());
-
       for (String key : keys) {
-        JavaClass javaClass = classes.get(key);
-        if (javaClass.isDirty() && !javaClass.compile()) {
-          return false;
+        Object oClass = classes.get(key);
+        if (!(oClass instanceof Map)) {
+          throw new ValueTypeException("package.classes", key, oClass.getClass(), Map.class);
         }
+        JavaClass javaClass = new JavaClass(this, key, (Map<String, Object>) oClass);
+        addClass(javaClass);
+        language.classes.put(path + '.' + key, javaClass);
       }
     }
 
-    // Compile sub-package(s).
-    if (!packages.isEmpty()) {
+    // Load any sub-packages. (If defined)
+    if (raw.containsKey("packages")) {
+      Object oPackages = raw.get("packages");
+      if (!(oPackages instanceof Map)) {
+        throw new ValueTypeException("package", "packages", oPackages.getClass(), Map.class);
+      }
+      Map<String, Object> packages = (Map<String, Object>) oPackages;
       List<String> keys = new ArrayList<>(packages.keySet());
       keys.sort(Comparator.naturalOrder());
-
       for (String key : keys) {
-        JavaPackage javaPackage = packages.get(key);
-        if (javaPackage.isDirty() && !javaPackage.compile()) {
-          return false;
+        Object oPackage = packages.get(key);
+        if (!(oPackage instanceof Map)) {
+          throw new ValueTypeException("package.packages", key, oPackage.getClass(), Map.class);
         }
+        JavaPackage javaPackage =
+            new JavaPackage(language, this, key, (Map<String, Object>) oPackage);
+        language.packages.put(javaPackage.path, javaPackage);
       }
     }
-
-    return true;
-  }
-
-  @Override
-  protected void onLoad(@NotNull Map<String, Object> raw) {
-    // TODO: Load classes.
-    // TODO: Load sub-packages.
   }
 
   @NotNull
@@ -227,6 +265,9 @@ public class JavaPackage extends RosettaObject
           "The package \"" + this.name + "\" already contains sub-package: \"" + pkgName + "\"");
     }
     this.packages.put(pkg.getName(), pkg);
+    adopt(pkg);
+    record(ChangeEvent.Type.ADD, "packages", null, pkg);
+    setDirty();
   }
 
   /**
@@ -239,7 +280,10 @@ public class JavaPackage extends RosettaObject
       throw new IllegalArgumentException(
           "The package \"" + this.name + "\" doesn't contain sub-package: \"" + pkgName + "\"");
     }
-    this.packages.remove(pkgName);
+    JavaPackage removed = this.packages.remove(pkgName);
+    orphan(removed);
+    record(ChangeEvent.Type.REMOVE, "packages", removed, null);
+    setDirty();
   }
 
   /**
@@ -252,7 +296,11 @@ public class JavaPackage extends RosettaObject
       throw new IllegalArgumentException(
           "The package \"" + this.name + "\" doesn't contain sub-package: \"" + pkgName + "\"");
     }
-    return this.packages.remove(pkgName);
+    JavaPackage pkg = this.packages.remove(pkgName);
+    orphan(pkg);
+    record(ChangeEvent.Type.REMOVE, "packages", pkg, null);
+    setDirty();
+    return pkg;
   }
 
   /**
@@ -326,6 +374,9 @@ public class JavaPackage extends RosettaObject
           "The package \"" + this.name + "\" already contains class: \"" + clazzName + "\"");
     }
     this.classes.put(clazzName, clazz);
+    adopt(clazz);
+    record(ChangeEvent.Type.ADD, "classes", null, clazz);
+    setDirty();
   }
 
   /**
@@ -338,7 +389,10 @@ public class JavaPackage extends RosettaObject
       throw new IllegalArgumentException(
           "The package \"" + this.name + "\" doesn't contain class: \"" + clazzName + "\"");
     }
-    this.classes.remove(clazzName);
+    JavaClass removed = this.classes.remove(clazzName);
+    orphan(removed);
+    record(ChangeEvent.Type.REMOVE, "classes", removed, null);
+    setDirty();
   }
 
   /**
@@ -351,7 +405,11 @@ public class JavaPackage extends RosettaObject
       throw new IllegalArgumentException(
           "The package \"" + this.name + "\" doesn't contain class: \"" + clazzName + "\"");
     }
-    return this.classes.remove(clazzName);
+    JavaClass clazz = this.classes.remove(clazzName);
+    orphan(clazz);
+    record(ChangeEvent.Type.REMOVE, "classes", clazz, null);
+    setDirty();
+    return clazz;
   }
 
   public boolean canSave() {
@@ -381,8 +439,10 @@ public class JavaPackage extends RosettaObject
       if (notes == null) return;
     } else if (this.notes.equals(notes)) return;
 
+    String oldNotes = this.notes;
     this.notes = notes;
 
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
     setDirty();
   }
 
@@ -394,7 +454,7 @@ public class JavaPackage extends RosettaObject
   @NotNull
   @Override
   public List<String> getTags() {
-    return Collections.unmodifiableList(tags);
+    return tags.toList();
   }
 
   @Override
@@ -410,10 +470,10 @@ public class JavaPackage extends RosettaObject
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (tags.contains(tag)) {
+    if (!this.tags.add(tag)) {
       throw new IllegalArgumentException("The tag is already applied: " + tag);
     }
-    this.tags.add(tag);
+    record(ChangeEvent.Type.ADD, "tags", null, tag);
     setDirty();
   }
 
@@ -422,10 +482,54 @@ public class JavaPackage extends RosettaObject
     if (tag.isEmpty()) {
       throw new IllegalArgumentException("The tag is empty.");
     }
-    if (!tags.contains(tag)) {
+    if (!this.tags.remove(tag)) {
       throw new IllegalArgumentException("The tag is not applied: " + tag);
     }
-    tags.remove(tag);
+    record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    setDirty();
+  }
+
+  @Override
+  public void addAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before applying any.
+    final TagSet added = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (this.tags.contains(tag) || !added.add(tag)) {
+        throw new IllegalArgumentException("The tag is already applied: " + tag);
+      }
+    }
+
+    this.tags.addAll(added);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.ADD, "tags", null, tag);
+    }
+    setDirty();
+  }
+
+  @Override
+  public void removeAllTags(@NotNull List<String> tags) {
+    if (tags.isEmpty()) return;
+
+    // Validate every tag before removing any.
+    final TagSet removed = new TagSet();
+    for (String tag : tags) {
+      if (tag.isEmpty()) {
+        throw new IllegalArgumentException("The tag is empty.");
+      }
+      if (!this.tags.contains(tag) || !removed.add(tag)) {
+        throw new IllegalArgumentException("The tag is not applied: " + tag);
+      }
+    }
+
+    this.tags.removeAll(removed);
+    for (String tag : tags) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
     setDirty();
   }
 
@@ -435,11 +539,87 @@ public class JavaPackage extends RosettaObject
     if (!hasTags()) {
       throw new RuntimeException("No tags are registered.");
     }
-    List<String> tagsRemoved = Collections.unmodifiableList(tags);
+    List<String> tagsRemoved = tags.toList();
     tags.clear();
+    for (String tag : tagsRemoved) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
+    setDirty();
     return tagsRemoved;
   }
 
+  /**
+   * @param mark The revision mark of the snapshot being built.
+   * @return An immutable view of the package. Unchanged classes and sub-packages share their
+   *     previous views.
+   */
+  @NotNull
+  PackageSnapshot snapshot(long mark) {
+    return snapshot(
+        mark,
+        () -> {
+          final Map<String, ClassSnapshot> classes = new HashMap<>();
+          for (JavaClass javaClass : this.classes.values()) {
+            classes.put(javaClass.getName(), javaClass.snapshot(mark));
+          }
+          final Map<String, PackageSnapshot> packages = new HashMap<>();
+          for (JavaPackage javaPackage : this.packages.values()) {
+            packages.put(javaPackage.getName(), javaPackage.snapshot(mark));
+          }
+          return new PackageSnapshot(path, name, notes, tags.toList(), classes, packages);
+        });
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(name).string(notes).strings(tags.toList());
+    hasher.members(classes.values(), packages.values());
+  }
+
+  /**
+   * Returns the summary of the package and its sub-packages. The summary is cached until anything
+   * in the package changes.
+   *
+   * <p>NOTE: Only the thread editing the package should invoke this method.
+   *
+   * @return The summary of the package.
+   */
+  @NotNull
+  public PackageSummary getSummary() {
+    if (summary != null && getRevision() <= summaryRevision) {
+      return summary;
+    }
+    long mark = markRevision();
+    this.summary = new PackageSummary(this);
+    this.summaryRevision = mark;
+    return this.summary;
+  }
+
+  /**
+   * @param mark The revision mark of the footprint being estimated.
+   * @return The footprint of the package and its classes. (Excluding sub-packages)
+   */
+  @NotNull
+  Footprint footprint(long mark) {
+    final FootprintEstimator estimator = new FootprintEstimator();
+    estimator.object(this, "package");
+    // Discovered paths are shared with reflection.
+    if (target == null) estimator.string(path);
+    if (name != path) estimator.string(name);
+    estimator.string(notes);
+    estimator.tags(tags);
+    estimator.map(classes);
+    estimator.map(packages);
+
+    final List<String> keys = new ArrayList<>(classes.keySet());
+    keys.sort(Comparator.naturalOrder());
+    final List<Footprint> children = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      children.add(classes.get(key).footprint(mark));
+    }
+    return estimator.build(path, children);
+  }
+
   @NotNull
   @Override
   public Package getReflectionTarget() {
@@ -462,10 +642,17 @@ public class JavaPackage extends RosettaObject
   }
 
   @NotNull
+  @Override
   public String getPath() {
     return path;
   }
 
+  @Nullable
+  @Override
+  protected ChangeJournal getJournal() {
+    return parent != null ? super.getJournal() : language.getJournal();
+  }
+
   @NotNull
   public static String popPackagePath(@NotNull String path) {
 
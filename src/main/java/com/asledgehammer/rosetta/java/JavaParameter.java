@@ -1,10 +1,14 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.FootprintEstimator;
 import com.asledgehammer.rosetta.Notable;
 import com.asledgehammer.rosetta.exception.MissingKeyException;
 import com.asledgehammer.rosetta.exception.ValueTypeException;
 import com.asledgehammer.rosetta.java.reference.ClassReference;
 import com.asledgehammer.rosetta.java.reference.TypeReference;
+import com.asledgehammer.rosetta.java.snapshot.ParameterSnapshot;
 import com.asledgehammer.rosetta.NamedEntity;
 import com.asledgehammer.rosetta.RosettaObject;
 import org.jetbrains.annotations.NotNull;
@@ -86,14 +90,14 @@ public class JavaParameter extends RosettaObject
   }
 
   @NotNull
-  protected Map<String, Object> onSave(@NotNull ClassReference reference, @NotNull Class<?> deCl) {
+  protected Map<String, Object> onSave(@Nullable ClassReference reference, @Nullable Class<?> deCl) {
     Map<String, Object> raw = new HashMap<>();
     raw.put("name", getName());
     if (hasNotes()) {
       raw.put("notes", getNotes());
     }
     raw.put("nullable", isNullable());
-    raw.put("type", this.type.compile(reference, deCl));
+    raw.put("type", JavaLanguage.compileType(this.type, reference, deCl));
     return raw;
   }
 
@@ -124,7 +128,9 @@ public class JavaParameter extends RosettaObject
     }
     if (Objects.equals(this.name, name)) return;
 
+    String oldName = this.name;
     this.name = name;
+    record(ChangeEvent.Type.SET, "name", oldName, name);
     setDirty();
   }
 
@@ -136,7 +142,12 @@ public class JavaParameter extends RosettaObject
 
   @Override
   public void setType(@NotNull TypeReference type) {
+    if (this.type == type) return;
+
+    TypeReference oldType = this.type;
     this.type = type;
+    record(ChangeEvent.Type.SET, "type", oldType, type);
+    setDirty();
   }
 
   @Override
@@ -162,8 +173,10 @@ public class JavaParameter extends RosettaObject
       if (notes == null) return;
     } else if (this.notes.equals(notes)) return;
 
+    String oldNotes = this.notes;
     this.notes = notes;
 
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
     setDirty();
   }
 
@@ -172,7 +185,36 @@ public class JavaParameter extends RosettaObject
   }
 
   public void setNullable(boolean nullable) {
+    if (this.nullable == nullable) return;
+
     this.nullable = nullable;
+    record(ChangeEvent.Type.SET, "nullable", !nullable, nullable);
+    setDirty();
+  }
+
+  /**
+   * @param mark The revision mark of the snapshot being built.
+   * @return An immutable view of the parameter.
+   */
+  @NotNull
+  ParameterSnapshot snapshot(long mark) {
+    return snapshot(mark, () -> new ParameterSnapshot(name, type, nullable, notes));
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(name).string(type.compile()).bool(nullable).string(notes);
+  }
+
+  /**
+   * @param estimator The estimator to count the parameter in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.object(this, "parameter");
+    estimator.reflection(target);
+    // Discovered names are shared with reflection.
+    if (target == null) estimator.string(name);
+    estimator.string(notes);
   }
 
   @Override
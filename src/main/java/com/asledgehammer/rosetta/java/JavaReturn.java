@@ -1,10 +1,14 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.FootprintEstimator;
 import com.asledgehammer.rosetta.Notable;
 import com.asledgehammer.rosetta.exception.MissingKeyException;
 import com.asledgehammer.rosetta.exception.ValueTypeException;
 import com.asledgehammer.rosetta.java.reference.ClassReference;
 import com.asledgehammer.rosetta.java.reference.TypeReference;
+import com.asledgehammer.rosetta.java.snapshot.ReturnSnapshot;
 import com.asledgehammer.rosetta.RosettaObject;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -13,7 +17,7 @@ import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
 
-public class JavaReturn extends RosettaObject implements Notable {
+public class JavaReturn extends RosettaObject implements Notable, JavaTyped {
 
   private TypeReference type;
 
@@ -57,22 +61,54 @@ public class JavaReturn extends RosettaObject implements Notable {
   }
 
   @NotNull
-  protected Map<String, Object> onSave(@NotNull ClassReference reference, @NotNull Class<?> deCl) {
+  protected Map<String, Object> onSave(@Nullable ClassReference reference, @Nullable Class<?> deCl) {
     final Map<String, Object> raw = new HashMap<>();
-    // TODO: Implement.
+    if (hasNotes()) {
+      raw.put("notes", getNotes());
+    }
+    raw.put("nullable", isNullable());
+    raw.put("type", JavaLanguage.compileType(this.type, reference, deCl));
     return raw;
   }
 
   @NotNull
+  @Override
   public TypeReference getType() {
     return this.type;
   }
 
+  @Override
   public void setType(@NotNull TypeReference type) {
+    if (this.type == type) return;
+
+    TypeReference oldType = this.type;
     this.type = type;
+    record(ChangeEvent.Type.SET, "type", oldType, type);
+    setDirty();
+  }
+
+  /**
+   * @return True if the method can return null.
+   */
+  public boolean isNullable() {
+    return this.nullable;
+  }
+
+  public void setNullable(boolean nullable) {
+    if (this.nullable == nullable) return;
+
+    this.nullable = nullable;
+    record(ChangeEvent.Type.SET, "nullable", !nullable, nullable);
     setDirty();
   }
 
+  @NotNull
+  @Override
+  public String getPath() {
+    RosettaObject parent = getParent();
+    return parent != null ? parent.getPath() + ".return" : "return";
+  }
+
   @Override
   public boolean hasNotes() {
     return this.notes != null && !this.notes.isEmpty();
@@ -96,11 +132,35 @@ public class JavaReturn extends RosettaObject implements Notable {
       if (notes == null) return;
     } else if (this.notes.equals(notes)) return;
 
+    String oldNotes = this.notes;
     this.notes = notes;
 
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
     setDirty();
   }
 
+  /**
+   * @param mark The revision mark of the snapshot being built.
+   * @return An immutable view of the return definition.
+   */
+  @NotNull
+  ReturnSnapshot snapshot(long mark) {
+    return snapshot(mark, () -> new ReturnSnapshot(type, nullable, notes));
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(type.compile()).bool(nullable).string(notes);
+  }
+
+  /**
+   * @param estimator The estimator to count the return definition in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.object(this, "return");
+    estimator.string(notes);
+  }
+
   /**
    * @return True if the returns definition should save, having either a non-void return or defined
    *     notes.
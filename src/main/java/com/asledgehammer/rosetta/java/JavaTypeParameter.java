@@ -1,5 +1,6 @@
 package com.asledgehammer.rosetta.java;
 
+import com.asledgehammer.rosetta.FootprintEstimator;
 import com.asledgehammer.rosetta.java.reference.ClassReference;
 import com.asledgehammer.rosetta.java.reference.TypeReference;
 import org.jetbrains.annotations.NotNull;
@@ -17,6 +18,18 @@ public class JavaTypeParameter {
     this.type = type;
   }
 
+  /**
+   * @param raw Either a serialized type parameter or its type.
+   * @return The loaded type parameter.
+   */
+  @NotNull
+  static JavaTypeParameter of(@NotNull Object raw) {
+    if (raw instanceof Map<?, ?> map && map.containsKey("type")) {
+      return new JavaTypeParameter(JavaLanguage.resolveType(map.get("type")));
+    }
+    return new JavaTypeParameter(JavaLanguage.resolveType(raw));
+  }
+
   public TypeReference getType() {
     return type;
   }
@@ -34,8 +47,16 @@ public class JavaTypeParameter {
     this.notes = notes;
   }
 
+  /**
+   * @param estimator The estimator to count the type parameter in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.object(this, "typeParameter");
+    estimator.string(notes);
+  }
+
   @NotNull
-  public Map<String, Object> onSave(@NotNull ClassReference reference, @NotNull Class<?> deCl) {
+  public Map<String, Object> onSave(@Nullable ClassReference reference, @Nullable Class<?> deCl) {
     Map<String, Object> raw = new HashMap<>();
 
     raw.put("type", JavaLanguage.serializeType(type, reference, deCl));
@@ -0,0 +1,167 @@
+package com.asledgehammer.rosetta.java;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * PackageSummary describes what a package and its sub-packages contain, so that searches can skip
+ * packages that can't hold a match. (See {@link JavaPackage#getSummary()})
+ *
+ * <p>Definitions are described by flags: one bit per scope, and one bit for each value of the
+ * static, final, deprecated and notes properties. (E.G: A package holding a static and a
+ * non-static method has both {@link #STATIC} and {@link #NOT_STATIC} set for methods) A search for
+ * static methods skips any package without {@link #STATIC} set for methods.
+ */
+public final class PackageSummary {
+
+  public static final int PUBLIC = 1;
+  public static final int PACKAGE = 1 << 1;
+  public static final int PROTECTED = 1 << 2;
+  public static final int PRIVATE = 1 << 3;
+  public static final int STATIC = 1 << 4;
+  public static final int NOT_STATIC = 1 << 5;
+  public static final int FINAL = 1 << 6;
+  public static final int NOT_FINAL = 1 << 7;
+  public static final int DEPRECATED = 1 << 8;
+  public static final int NOT_DEPRECATED = 1 << 9;
+  public static final int NOTES = 1 << 10;
+  public static final int NO_NOTES = 1 << 11;
+
+  /** The flags of each property. Every definition has exactly one flag of each group set. */
+  public static final int[] GROUPS = {
+    PUBLIC | PACKAGE | PROTECTED | PRIVATE,
+    STATIC | NOT_STATIC,
+    FINAL | NOT_FINAL,
+    DEPRECATED | NOT_DEPRECATED,
+    NOTES | NO_NOTES
+  };
+
+  /** The kinds of definitions summarized. */
+  public enum Kind {
+    CLASS,
+    FIELD,
+    METHOD,
+    CONSTRUCTOR
+  }
+
+  private static final Kind[] KINDS = Kind.values();
+
+  private final int[] localFlags = new int[KINDS.length];
+  private final int[] flags = new int[KINDS.length];
+  private final int[] localCounts = new int[KINDS.length];
+  private final int[] counts = new int[KINDS.length];
+  private final Set<String> tags;
+
+  PackageSummary(@NotNull JavaPackage javaPackage) {
+    final Set<String> tags = new HashSet<>();
+    for (JavaClass javaClass : javaPackage.getClasses().values()) {
+      add(Kind.CLASS, getFlags(javaClass));
+      if (javaClass.hasTags()) tags.addAll(javaClass.getTags());
+      for (JavaField field : javaClass.getFields().values()) {
+        add(Kind.FIELD, getFlags(field));
+        if (field.hasTags()) tags.addAll(field.getTags());
+      }
+      for (JavaExecutableCollection<JavaMethod> methods : javaClass.getMethods().values()) {
+        for (JavaMethod method : methods.getExecutables()) {
+          add(Kind.METHOD, getFlags(method));
+          if (method.hasTags()) tags.addAll(method.getTags());
+        }
+      }
+      for (JavaConstructor constructor : javaClass.getConstructors().getExecutables()) {
+        add(Kind.CONSTRUCTOR, getFlags(constructor));
+      }
+    }
+    System.arraycopy(localFlags, 0, flags, 0, flags.length);
+    System.arraycopy(localCounts, 0, counts, 0, counts.length);
+
+    for (JavaPackage child : javaPackage.getPackages().values()) {
+      PackageSummary summary = child.getSummary();
+      for (int index = 0; index < flags.length; index++) {
+        flags[index] |= summary.flags[index];
+        counts[index] += summary.counts[index];
+      }
+      tags.addAll(summary.tags);
+    }
+    this.tags = tags.isEmpty() ? Set.of() : Set.copyOf(tags);
+  }
+
+  private void add(@NotNull Kind kind, int flags) {
+    localFlags[kind.ordinal()] |= flags;
+    localCounts[kind.ordinal()]++;
+  }
+
+  /**
+   * @param kind The kind of definition.
+   * @return The flags of the definitions in the package. (Excluding sub-packages)
+   */
+  public int getLocalFlags(@NotNull Kind kind) {
+    return localFlags[kind.ordinal()];
+  }
+
+  /**
+   * @param kind The kind of definition.
+   * @return The flags of the definitions in the package and its sub-packages.
+   */
+  public int getFlags(@NotNull Kind kind) {
+    return flags[kind.ordinal()];
+  }
+
+  /**
+   * @param kind The kind of definition.
+   * @return The count of definitions in the package. (Excluding sub-packages)
+   */
+  public int getLocalCount(@NotNull Kind kind) {
+    return localCounts[kind.ordinal()];
+  }
+
+  /**
+   * @param kind The kind of definition.
+   * @return The count of definitions in the package and its sub-packages.
+   */
+  public int getCount(@NotNull Kind kind) {
+    return counts[kind.ordinal()];
+  }
+
+  /**
+   * @return The tags of the classes, fields and methods in the package and its sub-packages.
+   */
+  @NotNull
+  public Set<String> getTags() {
+    return tags;
+  }
+
+  public static int getFlags(@NotNull JavaClass javaClass) {
+    return getFlags(
+        javaClass.getScope(),
+        javaClass.isStatic(),
+        javaClass.isFinal(),
+        javaClass.isDeprecated(),
+        javaClass.hasNotes());
+  }
+
+  public static int getFlags(@NotNull JavaField field) {
+    return getFlags(
+        field.getScope(), field.isStatic(), field.isFinal(), field.isDeprecated(), field.hasNotes());
+  }
+
+  public static int getFlags(@NotNull JavaExecutable<?> executable) {
+    return getFlags(
+        executable.getScope(),
+        executable.isStatic(),
+        executable.isFinal(),
+        executable.isDeprecated(),
+        executable.hasNotes());
+  }
+
+  private static int getFlags(
+      JavaScope scope, boolean isStatic, boolean isFinal, boolean deprecated, boolean notes) {
+    // Definitions loaded without a scope are public.
+    int flags = scope != null ? 1 << scope.ordinal() : PUBLIC;
+    flags |= isStatic ? STATIC : NOT_STATIC;
+    flags |= isFinal ? FINAL : NOT_FINAL;
+    flags |= deprecated ? DEPRECATED : NOT_DEPRECATED;
+    flags |= notes ? NOTES : NO_NOTES;
+    return flags;
+  }
+}
@@ -0,0 +1,43 @@
+package com.asledgehammer.rosetta.java.diff;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A difference between two Java models. (See {@link JavaDiff})
+ *
+ * @param type The kind of difference.
+ * @param path The path of the definition that differs. E.G: "java.util.ArrayList"
+ * @param property The property that differs. (Null for added and removed definitions) E.G: "notes"
+ * @param before The value in the older model. For {@link Type#REMOVED}, the removed definition.
+ * @param after The value in the newer model. For {@link Type#ADDED}, the added definition.
+ */
+public record JavaChange(
+    @NotNull Type type,
+    @NotNull String path,
+    @Nullable String property,
+    @Nullable Object before,
+    @Nullable Object after) {
+
+  /** The kind of difference. */
+  public enum Type {
+    /** A definition is only in the newer model. (Including everything in it) */
+    ADDED,
+    /** A definition is only in the older model. (Including everything in it) */
+    REMOVED,
+    /** A property of a definition differs between the models. */
+    CHANGED
+  }
+
+  /**
+   * @return The change as a changelog line. E.G: "~ java.util.ArrayList notes: null -> Resizable."
+   */
+  @Override
+  public String toString() {
+    return switch (type) {
+      case ADDED -> "+ " + path;
+      case REMOVED -> "- " + path;
+      case CHANGED -> "~ " + path + " " + property + ": " + before + " -> " + after;
+    };
+  }
+}
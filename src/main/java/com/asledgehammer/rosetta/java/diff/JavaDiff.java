@@ -0,0 +1,328 @@
+package com.asledgehammer.rosetta.java.diff;
+
+import com.asledgehammer.rosetta.Notable;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * JavaDiff compares two Java models structurally: added, removed and changed packages, classes,
+ * fields, constructors and methods, along with their types, modifiers, notes, deprecation and tags.
+ *
+ * <p>Definitions with the same content hash are skipped without visiting them, so the time to
+ * compare is proportional to the amount of change. (See {@link RosettaObject#getContentHash()})
+ * Members are matched by name, and executables by signature.
+ *
+ * <pre>{@code
+ * JavaDiff diff = JavaDiff.compare(previousBuild, currentBuild);
+ * for (JavaChange change : diff.getChanges()) System.out.println(change);
+ * }</pre>
+ *
+ * <p>NOTE: Hashes are cached on the models, so only the threads editing them should compare.
+ */
+public final class JavaDiff {
+
+  private final List<JavaChange> changes = new ArrayList<>();
+
+  /** The count of definitions compared property by property. */
+  private int compared;
+
+  private JavaDiff() {}
+
+  /**
+   * @param before The older model. If null, everything in the newer model is added.
+   * @param after The newer model. If null, everything in the older model is removed.
+   * @return The differences between the models, in order of path.
+   */
+  @NotNull
+  public static JavaDiff compare(@Nullable JavaLanguage before, @Nullable JavaLanguage after) {
+    final JavaDiff diff = new JavaDiff();
+    diff.compare(getRootPackages(before), getRootPackages(after), diff::comparePackage);
+    return diff;
+  }
+
+  /**
+   * @return A read-only list of the differences, in order of path.
+   */
+  @NotNull
+  public List<JavaChange> getChanges() {
+    return Collections.unmodifiableList(changes);
+  }
+
+  /**
+   * @param type The kind of differences to list.
+   * @return The differences of the kind, in order of path.
+   */
+  @NotNull
+  public List<JavaChange> getChanges(@NotNull JavaChange.Type type) {
+    final List<JavaChange> changes = new ArrayList<>();
+    for (JavaChange change : this.changes) {
+      if (change.type() == type) changes.add(change);
+    }
+    return changes;
+  }
+
+  /**
+   * @return True if the models have the same content.
+   */
+  public boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  /**
+   * @return The count of definitions compared property by property. Definitions with the same
+   *     content hash aren't counted.
+   */
+  public int getComparedCount() {
+    return compared;
+  }
+
+  /**
+   * @return The differences as a changelog. (One line per difference)
+   */
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    for (JavaChange change : changes) builder.append(change).append('\n');
+    return builder.toString();
+  }
+
+  private void comparePackage(@NotNull JavaPackage before, @NotNull JavaPackage after) {
+    compared++;
+    final String path = after.getPath();
+    property(path, "notes", notes(before), notes(after));
+    tags(path, before.getTags(), after.getTags());
+    compare(before.getClasses(), after.getClasses(), this::compareClass);
+    compare(before.getPackages(), after.getPackages(), this::comparePackage);
+  }
+
+  private void compareClass(@NotNull JavaClass before, @NotNull JavaClass after) {
+    compared++;
+    final String path = after.getPath();
+    property(path, "notes", notes(before), notes(after));
+    property(path, "deprecated", deprecated(before), deprecated(after));
+    property(path, "scope", before.getScope(), after.getScope());
+    property(path, "static", before.isStatic(), after.isStatic());
+    property(path, "final", before.isFinal(), after.isFinal());
+    type(path, "extends", before.getExtends(), after.getExtends());
+    types(path, "implements", before.getImplements(), after.getImplements());
+    types(
+        path,
+        "typeParameters",
+        getTypes(before.getTypeParameters()),
+        getTypes(after.getTypeParameters()));
+    tags(path, before.getTags(), after.getTags());
+    compare(before.getFields(), after.getFields(), this::compareField);
+    compare(
+        bySignature(before.getConstructors().getExecutables()),
+        bySignature(after.getConstructors().getExecutables()),
+        this::compareExecutable);
+    compare(getMethods(before), getMethods(after), this::compareExecutable);
+  }
+
+  private void compareField(@NotNull JavaField before, @NotNull JavaField after) {
+    compared++;
+    final String path = after.getPath();
+    type(path, "type", before.getType(), after.getType());
+    property(path, "nullable", before.isNullable(), after.isNullable());
+    property(path, "notes", notes(before), notes(after));
+    property(path, "deprecated", deprecated(before), deprecated(after));
+    property(path, "scope", before.getScope(), after.getScope());
+    property(path, "static", before.isStatic(), after.isStatic());
+    property(path, "final", before.isFinal(), after.isFinal());
+    tags(path, before.getTags(), after.getTags());
+  }
+
+  private void compareExecutable(
+      @NotNull JavaExecutable<?> before, @NotNull JavaExecutable<?> after) {
+    compared++;
+    final String path = getPath(after);
+    property(path, "notes", notes(before), notes(after));
+    property(path, "deprecated", deprecated(before), deprecated(after));
+    property(path, "scope", before.getScope(), after.getScope());
+    property(path, "static", before.isStatic(), after.isStatic());
+    property(path, "final", before.isFinal(), after.isFinal());
+    types(
+        path,
+        "typeParameters",
+        getTypes(before.getTypeParameters()),
+        getTypes(after.getTypeParameters()));
+
+    // The same signature has the same count of parameters.
+    final List<JavaParameter> parameters = after.getParameters();
+    for (int index = 0; index < parameters.size(); index++) {
+      JavaParameter parameterBefore = before.getParameters().get(index);
+      JavaParameter parameterAfter = parameters.get(index);
+      if (parameterBefore.getContentHash() == parameterAfter.getContentHash()) continue;
+      compared++;
+      String parameterPath = path + "." + index;
+      property(parameterPath, "name", parameterBefore.getName(), parameterAfter.getName());
+      type(parameterPath, "type", parameterBefore.getType(), parameterAfter.getType());
+      property(parameterPath, "nullable", parameterBefore.isNullable(), parameterAfter.isNullable());
+      property(parameterPath, "notes", notes(parameterBefore), notes(parameterAfter));
+    }
+
+    if (before instanceof JavaMethod methodBefore && after instanceof JavaMethod methodAfter) {
+      tags(path, methodBefore.getTags(), methodAfter.getTags());
+      final JavaReturn returnsBefore = methodBefore.getReturns();
+      final JavaReturn returnsAfter = methodAfter.getReturns();
+      final String returnPath = path + ".return";
+      if (returnsBefore == null && returnsAfter != null) {
+        changes.add(new JavaChange(JavaChange.Type.ADDED, returnPath, null, null, returnsAfter));
+      } else if (returnsBefore != null && returnsAfter == null) {
+        changes.add(new JavaChange(JavaChange.Type.REMOVED, returnPath, null, returnsBefore, null));
+      } else if (returnsBefore != null
+          && returnsBefore.getContentHash() != returnsAfter.getContentHash()) {
+        compared++;
+        type(returnPath, "type", returnsBefore.getType(), returnsAfter.getType());
+        property(returnPath, "nullable", returnsBefore.isNullable(), returnsAfter.isNullable());
+        property(returnPath, "notes", notes(returnsBefore), notes(returnsAfter));
+      }
+    }
+  }
+
+  /**
+   * Matches definitions by key. Unmatched definitions are added or removed, and matched
+   * definitions with different content hashes are compared.
+   */
+  private <T extends RosettaObject> void compare(
+      @NotNull Map<String, T> before,
+      @NotNull Map<String, T> after,
+      @NotNull BiConsumer<T, T> comparator) {
+    final Set<String> keys = new TreeSet<>(before.keySet());
+    keys.addAll(after.keySet());
+    for (String key : keys) {
+      final T definitionBefore = before.get(key);
+      final T definitionAfter = after.get(key);
+      if (definitionBefore == null) {
+        changes.add(
+            new JavaChange(
+                JavaChange.Type.ADDED, getPath(definitionAfter), null, null, definitionAfter));
+      } else if (definitionAfter == null) {
+        changes.add(
+            new JavaChange(
+                JavaChange.Type.REMOVED, getPath(definitionBefore), null, definitionBefore, null));
+      } else if (definitionBefore.getContentHash() != definitionAfter.getContentHash()) {
+        comparator.accept(definitionBefore, definitionAfter);
+      }
+    }
+  }
+
+  private void property(
+      @NotNull String path,
+      @NotNull String property,
+      @Nullable Object before,
+      @Nullable Object after) {
+    if (!Objects.equals(before, after)) {
+      changes.add(new JavaChange(JavaChange.Type.CHANGED, path, property, before, after));
+    }
+  }
+
+  /** Types are compared by their compiled form, so types of separate models compare equal. */
+  private void type(
+      @NotNull String path,
+      @NotNull String property,
+      @Nullable TypeReference before,
+      @Nullable TypeReference after) {
+    if (!Objects.equals(compile(before), compile(after))) {
+      changes.add(new JavaChange(JavaChange.Type.CHANGED, path, property, before, after));
+    }
+  }
+
+  private void types(
+      @NotNull String path,
+      @NotNull String property,
+      @NotNull List<TypeReference> before,
+      @NotNull List<TypeReference> after) {
+    boolean equal = before.size() == after.size();
+    for (int index = 0; equal && index < before.size(); index++) {
+      equal = compile(before.get(index)).equals(compile(after.get(index)));
+    }
+    if (!equal) {
+      changes.add(new JavaChange(JavaChange.Type.CHANGED, path, property, before, after));
+    }
+  }
+
+  /** Tags are compared without order. */
+  private void tags(@NotNull String path, @NotNull List<String> before, @NotNull List<String> after) {
+    if (!new HashSet<>(before).equals(new HashSet<>(after))) {
+      changes.add(new JavaChange(JavaChange.Type.CHANGED, path, "tags", before, after));
+    }
+  }
+
+  /**
+   * @return The path of the definition. Executables are qualified by signature, so overloads have
+   *     their own paths. (E.G: "java.util.ArrayList#get(I)Ljava/lang/Object;")
+   */
+  @NotNull
+  private static String getPath(@NotNull RosettaObject definition) {
+    if (definition instanceof JavaExecutable<?> executable && executable.getParent() != null) {
+      return executable.getParent().getPath() + '#' + executable.getSignature();
+    }
+    return definition.getPath();
+  }
+
+  @NotNull
+  private static Map<String, JavaPackage> getRootPackages(@Nullable JavaLanguage language) {
+    if (language == null) return Map.of();
+    final Map<String, JavaPackage> packages = new HashMap<>();
+    for (JavaPackage javaPackage : language.getPackages().values()) {
+      if (!javaPackage.hasParent()) packages.put(javaPackage.getName(), javaPackage);
+    }
+    return packages;
+  }
+
+  @NotNull
+  private static Map<String, JavaExecutable<?>> getMethods(@NotNull JavaClass javaClass) {
+    final Map<String, JavaExecutable<?>> methods = new HashMap<>();
+    for (JavaExecutableCollection<JavaMethod> collection : javaClass.getMethods().values()) {
+      methods.putAll(bySignature(collection.getExecutables()));
+    }
+    return methods;
+  }
+
+  @NotNull
+  private static Map<String, JavaExecutable<?>> bySignature(
+      @NotNull List<? extends JavaExecutable<?>> executables) {
+    final Map<String, JavaExecutable<?>> map = new HashMap<>();
+    for (JavaExecutable<?> executable : executables) map.put(executable.getSignature(), executable);
+    return map;
+  }
+
+  @NotNull
+  private static List<TypeReference> getTypes(@NotNull List<JavaTypeParameter> typeParameters) {
+    final List<TypeReference> types = new ArrayList<>(typeParameters.size());
+    for (JavaTypeParameter typeParameter : typeParameters) types.add(typeParameter.getType());
+    return types;
+  }
+
+  @Nullable
+  private static String compile(@Nullable TypeReference type) {
+    return type != null ? type.compile() : null;
+  }
+
+  @Nullable
+  private static String notes(@NotNull Notable notable) {
+    return notable.hasNotes() ? notable.getNotes() : null;
+  }
+
+  @Nullable
+  private static String deprecated(@NotNull JavaClass javaClass) {
+    return javaClass.isDeprecated() ? javaClass.getDeprecatedMessage() : null;
+  }
+
+  @Nullable
+  private static String deprecated(@NotNull JavaField field) {
+    return field.isDeprecated() ? field.getDeprecatedMessage() : null;
+  }
+
+  @Nullable
+  private static String deprecated(@NotNull JavaExecutable<?> executable) {
+    return executable.isDeprecated() ? executable.getDeprecatedMessage() : null;
+  }
+}
@@ -0,0 +1,570 @@
+package com.asledgehammer.rosetta.java.index;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.Footprint;
+import com.asledgehammer.rosetta.FootprintEstimator;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * CompletionIndex completes package, class, field and method names as they are typed:
+ *
+ * <ul>
+ *   <li>Names by prefix: "arrayl" completes "java.util.ArrayList" (Case-insensitive)
+ *   <li>Names by camel-case humps: "ArLi" or "AL" completes "ArrayList" and "AbstractList"
+ *   <li>Qualified names by prefix: "java.util.Ar" completes "java.util.ArrayList" (Nested classes
+ *       complete with either "." or "$")
+ *   <li>Members of a class: "ArrayList#ad" or "java.util.ArrayList#eC" completes "add" and
+ *       "ensureCapacity"
+ * </ul>
+ *
+ * <p>Shorter names complete first, then classes before packages, methods and fields. Overloaded
+ * methods complete once per class.
+ *
+ * <p>Names are stored in ternary search trees packed into arrays, and every node keeps the best
+ * score below it so that the top completions are found without visiting every match. Removed
+ * definitions are unlinked as they are removed and the trees are compacted once most entries are
+ * removed. See {@link #footprint()} for the memory used.
+ */
+public class CompletionIndex extends JavaIndex {
+
+  private static final char CLASS = 0;
+  private static final char PACKAGE = 1;
+  private static final char METHOD = 2;
+  private static final char FIELD = 3;
+
+  /** The types of items visited by searches. */
+  private static final int ENTRY = 0;
+  private static final int KEY = 1;
+  private static final int SUBTREE = 2;
+  private static final long INDEX_MASK = (1L << 30) - 1;
+
+  /** Simple names. (Lower-case) */
+  private final Trie names = new Trie();
+
+  /** Qualified names of packages. (Lower-case) */
+  private final Trie qualified = new Trie();
+
+  /** Initials of the humps of names with more than one hump. (Lower-case) */
+  private final Trie humps = new Trie();
+
+  private RosettaObject[] objects = new RosettaObject[1024];
+  private char[] scores = new char[1024];
+  private int entries;
+  private int removed;
+
+  public CompletionIndex(@NotNull JavaLanguage language) {
+    super(language);
+  }
+
+  /**
+   * @param query The text typed.
+   * @param limit The most completions to return.
+   * @return The best completions for the text, best first.
+   */
+  @NotNull
+  public List<RosettaObject> complete(@NotNull String query, int limit) {
+    sync();
+    if (removed > entries / 2) rebuild();
+    if (limit <= 0) return List.of();
+
+    int hash = query.indexOf('#');
+    if (hash != -1) {
+      return completeMembers(query.substring(0, hash), query.substring(hash + 1), limit);
+    }
+
+    final Map<Object, RosettaObject> results = new LinkedHashMap<>();
+    if (query.indexOf('.') != -1 || query.indexOf('$') != -1) {
+      String key = toQualifiedKey(query);
+      final List<RosettaObject> matches = new ArrayList<>(collectClasses(key, false));
+      search(qualified, key, limit, object -> true, results);
+      matches.addAll(results.values());
+      // Qualified names complete shortest first. (E.G: "java.util.concurrent" before its packages)
+      matches.sort(
+          Comparator.comparingInt((RosettaObject object) -> object.getPath().length())
+              .thenComparing(RosettaObject::getPath));
+      return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    final List<String> segments = splitQuery(query);
+    if (segments.size() > 1) {
+      final StringBuilder initials = new StringBuilder();
+      for (String segment : segments) initials.append(segment.charAt(0));
+      search(humps, initials.toString(), limit, object -> matchesHumps(object, segments), results);
+    }
+    search(names, query.toLowerCase(Locale.ROOT), limit, object -> true, results);
+    return new ArrayList<>(results.values());
+  }
+
+  /**
+   * @return The count of definitions indexed.
+   */
+  public int size() {
+    sync();
+    return entries - removed;
+  }
+
+  /**
+   * @return The estimated memory used by the index.
+   */
+  @NotNull
+  public Footprint footprint() {
+    sync();
+    final List<Footprint> children = new ArrayList<>();
+    children.add(names.footprint("names"));
+    children.add(qualified.footprint("qualified"));
+    children.add(humps.footprint("humps"));
+
+    final FootprintEstimator estimator = new FootprintEstimator();
+    estimator.add(FootprintEstimator.array(objects.length, FootprintEstimator.REFERENCE));
+    estimator.add(FootprintEstimator.array(scores.length, Character.BYTES));
+    estimator.count("entry", entries - removed);
+    children.add(estimator.build("entries", List.of()));
+    return new FootprintEstimator().build("completion", children);
+  }
+
+  @NotNull
+  private List<RosettaObject> completeMembers(
+      @NotNull String clazz, @NotNull String member, int limit) {
+    // Find the classes first. (Simple names may match several)
+    final List<JavaClass> classes;
+    if (clazz.indexOf('.') != -1) {
+      classes = collectClasses(toQualifiedKey(clazz), true);
+    } else {
+      classes = new ArrayList<>();
+      int node = names.find(clazz.toLowerCase(Locale.ROOT));
+      for (int posting = node != -1 ? names.head[node] : -1;
+          posting != -1;
+          posting = names.next[posting]) {
+        if (objects[names.entry[posting]] instanceof JavaClass javaClass) classes.add(javaClass);
+      }
+    }
+
+    final String key = member.toLowerCase(Locale.ROOT);
+    final List<String> segments = splitQuery(member);
+    final List<RosettaObject> matches = new ArrayList<>();
+    for (JavaClass javaClass : classes) {
+      for (JavaField field : javaClass.getFields().values()) {
+        if (matchesMember(field.getName(), key, segments)) matches.add(field);
+      }
+      for (JavaExecutableCollection<JavaMethod> methods : javaClass.getMethods().values()) {
+        List<JavaMethod> executables = methods.getExecutables();
+        if (!executables.isEmpty() && matchesMember(methods.getName(), key, segments)) {
+          matches.add(executables.get(0));
+        }
+      }
+    }
+    matches.sort(
+        Comparator.comparingInt((RosettaObject object) -> score(object))
+            .thenComparing(RosettaObject::getPath));
+    return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+  }
+
+  /**
+   * Finds classes by qualified name. Only packages are kept in the qualified tree, so classes are
+   * matched in every package the name could start with. (E.G: "java.util.map.e" is looked up as
+   * "map.e" in "java.util")
+   *
+   * @param key The qualified key.
+   * @param exact True to match whole names, false to match prefixes.
+   * @return The classes matched.
+   */
+  @NotNull
+  private List<JavaClass> collectClasses(@NotNull String key, boolean exact) {
+    final List<JavaClass> classes = new ArrayList<>();
+    for (int dot = key.lastIndexOf('.'); dot > 0; dot = key.lastIndexOf('.', dot - 1)) {
+      int node = qualified.find(key.substring(0, dot));
+      if (node == -1) continue;
+      String name = key.substring(dot + 1);
+      for (int posting = qualified.head[node]; posting != -1; posting = qualified.next[posting]) {
+        if (!(objects[qualified.entry[posting]] instanceof JavaPackage javaPackage)) continue;
+        for (JavaClass javaClass : javaPackage.getClasses().values()) {
+          String classKey = toQualifiedKey(javaClass.getName());
+          if (exact ? classKey.equals(name) : classKey.startsWith(name)) classes.add(javaClass);
+        }
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * Adds the best matches under a prefix of a trie to the results, until the results are full.
+   *
+   * <p>Nodes are visited best-first: a queue holds sub-trees, keys and entries ordered by the best
+   * score they can produce, so entries are found in order of score.
+   */
+  private void search(
+      @NotNull Trie trie,
+      @NotNull String prefix,
+      int limit,
+      @NotNull Predicate<RosettaObject> filter,
+      @NotNull Map<Object, RosettaObject> results) {
+    if (results.size() >= limit) return;
+    final PriorityQueue<Long> queue = new PriorityQueue<>();
+    if (prefix.isEmpty()) {
+      if (trie.size != 0) queue.add(item(trie.best[0], SUBTREE, 0));
+    } else {
+      int node = trie.find(prefix);
+      if (node == -1) return;
+      if (trie.head[node] != -1) queue.add(item(trie.best[node], KEY, node));
+      int eq = trie.eq[node];
+      if (eq != -1) queue.add(item(trie.best[eq], SUBTREE, eq));
+    }
+
+    while (!queue.isEmpty()) {
+      long item = queue.poll();
+      int index = (int) (item & INDEX_MASK);
+      switch ((int) (item >>> 30) & 3) {
+        case ENTRY -> {
+          RosettaObject object = objects[index];
+          if (object == null || !filter.test(object)) continue;
+          results.putIfAbsent(getCompletionKey(object), object);
+          if (results.size() >= limit) return;
+        }
+        case KEY -> {
+          for (int posting = trie.head[index]; posting != -1; posting = trie.next[posting]) {
+            int entry = trie.entry[posting];
+            queue.add(item(scores[entry], ENTRY, entry));
+          }
+        }
+        default -> {
+          if (trie.head[index] != -1) queue.add(item(trie.best[index], KEY, index));
+          for (int child : new int[] {trie.lo[index], trie.eq[index], trie.hi[index]}) {
+            if (child != -1) queue.add(item(trie.best[child], SUBTREE, child));
+          }
+        }
+      }
+    }
+  }
+
+  /** Orders items by score, then entries before keys before sub-trees, then by index. */
+  private static long item(char score, int type, int index) {
+    return ((long) score << 32) | ((long) type << 30) | index;
+  }
+
+  @Override
+  protected void onClear() {
+    names.clear();
+    qualified.clear();
+    humps.clear();
+    objects = new RosettaObject[1024];
+    scores = new char[1024];
+    entries = 0;
+    removed = 0;
+  }
+
+  @Override
+  protected void onBuild() {
+    super.onBuild();
+    // The slack of growing arrays is released once everything is added.
+    names.trim();
+    qualified.trim();
+    humps.trim();
+    objects = Arrays.copyOf(objects, Math.max(entries, 16));
+    scores = Arrays.copyOf(scores, objects.length);
+  }
+
+  @Override
+  protected void onAdd(@NotNull RosettaObject object) {
+    if (!isCompleted(object)) return;
+    if (entries == objects.length) {
+      objects = Arrays.copyOf(objects, grow(entries));
+      scores = Arrays.copyOf(scores, objects.length);
+    }
+    int entry = entries++;
+    objects[entry] = object;
+    scores[entry] = score(object);
+    for (String key : getNameKeys(object)) names.insert(key, entry, scores[entry]);
+    String humpKey = getHumpKey(object);
+    if (humpKey != null) humps.insert(humpKey, entry, scores[entry]);
+    if (object instanceof JavaPackage) {
+      qualified.insert(toQualifiedKey(object.getPath()), entry, scores[entry]);
+    }
+  }
+
+  @Override
+  protected void onRemove(@NotNull RosettaObject object) {
+    if (!isCompleted(object)) return;
+    int entry = -1;
+    for (String key : getNameKeys(object)) {
+      entry = Math.max(entry, names.remove(key, objects, object));
+    }
+    String humpKey = getHumpKey(object);
+    if (humpKey != null) humps.remove(humpKey, objects, object);
+    if (object instanceof JavaPackage) {
+      qualified.remove(toQualifiedKey(object.getPath()), objects, object);
+    }
+    if (entry != -1) {
+      objects[entry] = null;
+      removed++;
+    }
+  }
+
+  @Override
+  protected void onChange(@NotNull ChangeEvent event) {
+    // Names of completed definitions don't change.
+  }
+
+  private static boolean isCompleted(@NotNull RosettaObject object) {
+    return object instanceof JavaPackage
+        || object instanceof JavaClass
+        || object instanceof JavaField
+        || object instanceof JavaMethod;
+  }
+
+  private static char score(@NotNull RosettaObject object) {
+    char kind;
+    if (object instanceof JavaClass) {
+      kind = CLASS;
+    } else if (object instanceof JavaPackage) {
+      kind = PACKAGE;
+    } else if (object instanceof JavaMethod) {
+      kind = METHOD;
+    } else {
+      kind = FIELD;
+    }
+    return (char) (Math.min(getName(object).length(), 4095) * 4 + kind);
+  }
+
+  /** Overloaded methods complete once per class. */
+  @NotNull
+  private static Object getCompletionKey(@NotNull RosettaObject object) {
+    if (object instanceof JavaMethod method && method.getParent() != null) {
+      return method.getParent().getPath() + '#' + method.getName();
+    }
+    return object;
+  }
+
+  @NotNull
+  private static String getName(@NotNull RosettaObject object) {
+    if (object instanceof JavaPackage javaPackage) return javaPackage.getName();
+    if (object instanceof JavaClass javaClass) return javaClass.getName();
+    if (object instanceof JavaField field) return field.getName();
+    return ((JavaMethod) object).getName();
+  }
+
+  /** Nested classes complete by their binary name and the name after the last '$'. */
+  @NotNull
+  private static String[] getNameKeys(@NotNull RosettaObject object) {
+    String key = getName(object).toLowerCase(Locale.ROOT);
+    int dollar = key.lastIndexOf('$');
+    if (object instanceof JavaClass && dollar != -1 && dollar + 1 < key.length()) {
+      return new String[] {key, key.substring(dollar + 1)};
+    }
+    return new String[] {key};
+  }
+
+  @Nullable
+  private static String getHumpKey(@NotNull RosettaObject object) {
+    if (object instanceof JavaPackage) return null;
+    List<String> humps = getHumps(getName(object));
+    if (humps.size() < 2) return null;
+    final StringBuilder key = new StringBuilder(humps.size());
+    for (String hump : humps) key.append(hump.charAt(0));
+    return key.toString();
+  }
+
+  /** The lower-case humps of a name. (E.G: "getXMLParser" -> "get", "xml", "parser") */
+  @NotNull
+  private static List<String> getHumps(@NotNull String name) {
+    List<String> words = TextIndex.splitIdentifier(name);
+    // Names of more than one word end with the words joined.
+    return words.size() > 1 ? words.subList(0, words.size() - 1) : words;
+  }
+
+  /**
+   * @param query The text typed.
+   * @return The lower-case segments of the text. Segments start with upper-case letters and digits.
+   *     (E.G: "gXP" -> "g", "x", "p")
+   */
+  @NotNull
+  static List<String> splitQuery(@NotNull String query) {
+    final List<String> segments = new ArrayList<>();
+    final int length = query.length();
+    int start = -1;
+    for (int index = 0; index <= length; index++) {
+      char c = index < length ? query.charAt(index) : '_';
+      boolean boundary =
+          !Character.isLetterOrDigit(c)
+              || Character.isUpperCase(c)
+              || (start != -1 && Character.isDigit(c) != Character.isDigit(query.charAt(index - 1)));
+      if (boundary && start != -1) {
+        segments.add(query.substring(start, index).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+      if (start == -1 && Character.isLetterOrDigit(c)) start = index;
+    }
+    return segments;
+  }
+
+  private static boolean matchesHumps(@NotNull RosettaObject object, @NotNull List<String> segments) {
+    return matchesHumps(getHumps(getName(object)), segments);
+  }
+
+  private static boolean matchesHumps(@NotNull List<String> humps, @NotNull List<String> segments) {
+    if (segments.size() > humps.size()) return false;
+    for (int index = 0; index < segments.size(); index++) {
+      if (!humps.get(index).startsWith(segments.get(index))) return false;
+    }
+    return true;
+  }
+
+  private static boolean matchesMember(
+      @NotNull String name, @NotNull String key, @NotNull List<String> segments) {
+    if (name.toLowerCase(Locale.ROOT).startsWith(key)) return true;
+    return segments.size() > 1 && matchesHumps(getHumps(name), segments);
+  }
+
+  @NotNull
+  private static String toQualifiedKey(@NotNull String path) {
+    return path.replace('$', '.').toLowerCase(Locale.ROOT);
+  }
+
+  /** Arrays grow by half so that growing after a trim keeps little slack. */
+  private static int grow(int length) {
+    return length + (length >> 1) + 16;
+  }
+
+  /**
+   * A ternary search tree packed into parallel arrays. Every key ends at a node holding a chain of
+   * postings, and every node holds the best score of the postings below it. (Including the lo and
+   * hi branches)
+   */
+  private static final class Trie {
+
+    char[] chars = new char[256];
+    int[] lo = new int[256];
+    int[] eq = new int[256];
+    int[] hi = new int[256];
+    int[] head = new int[256];
+    char[] best = new char[256];
+    int size;
+
+    int[] entry = new int[256];
+    int[] next = new int[256];
+    int postings;
+
+    void clear() {
+      size = 0;
+      postings = 0;
+    }
+
+    /**
+     * @param key The key. (Not empty)
+     * @return The node the key ends at. (-1 if not found)
+     */
+    int find(@NotNull String key) {
+      if (key.isEmpty()) return -1;
+      int node = size != 0 ? 0 : -1;
+      int index = 0;
+      while (node != -1) {
+        char c = key.charAt(index);
+        if (c < chars[node]) {
+          node = lo[node];
+        } else if (c > chars[node]) {
+          node = hi[node];
+        } else if (++index == key.length()) {
+          return node;
+        } else {
+          node = eq[node];
+        }
+      }
+      return -1;
+    }
+
+    void insert(@NotNull String key, int entry, char score) {
+      if (key.isEmpty()) return;
+      if (size == 0) newNode(key.charAt(0));
+      int node = 0;
+      int index = 0;
+      while (true) {
+        if (score < best[node]) best[node] = score;
+        char c = key.charAt(index);
+        int child;
+        if (c < chars[node]) {
+          child = lo[node];
+          if (child == -1) lo[node] = child = newNode(c);
+        } else if (c > chars[node]) {
+          child = hi[node];
+          if (child == -1) hi[node] = child = newNode(c);
+        } else if (++index == key.length()) {
+          break;
+        } else {
+          child = eq[node];
+          if (child == -1) eq[node] = child = newNode(key.charAt(index));
+        }
+        node = child;
+      }
+      if (postings == this.entry.length) {
+        this.entry = Arrays.copyOf(this.entry, grow(postings));
+        this.next = Arrays.copyOf(this.next, this.entry.length);
+      }
+      this.entry[postings] = entry;
+      this.next[postings] = head[node];
+      head[node] = postings++;
+    }
+
+    /**
+     * Unlinks the posting of an object from a key. (The best scores are kept as lower bounds)
+     *
+     * @return The entry of the object. (-1 if not found)
+     */
+    int remove(@NotNull String key, @NotNull RosettaObject[] objects, @NotNull RosettaObject object) {
+      int node = find(key);
+      if (node == -1) return -1;
+      int previous = -1;
+      for (int posting = head[node]; posting != -1; posting = next[posting]) {
+        if (objects[entry[posting]] == object) {
+          if (previous == -1) {
+            head[node] = next[posting];
+          } else {
+            next[previous] = next[posting];
+          }
+          return entry[posting];
+        }
+        previous = posting;
+      }
+      return -1;
+    }
+
+    void trim() {
+      resizeNodes(Math.max(size, 16));
+      entry = Arrays.copyOf(entry, Math.max(postings, 16));
+      next = Arrays.copyOf(next, entry.length);
+    }
+
+    private void resizeNodes(int capacity) {
+      chars = Arrays.copyOf(chars, capacity);
+      lo = Arrays.copyOf(lo, capacity);
+      eq = Arrays.copyOf(eq, capacity);
+      hi = Arrays.copyOf(hi, capacity);
+      head = Arrays.copyOf(head, capacity);
+      best = Arrays.copyOf(best, capacity);
+    }
+
+    private int newNode(char c) {
+      if (size == chars.length) resizeNodes(grow(size));
+      chars[size] = c;
+      lo[size] = eq[size] = hi[size] = head[size] = -1;
+      best[size] = Character.MAX_VALUE;
+      return size++;
+    }
+
+    @NotNull
+    Footprint footprint(@NotNull String name) {
+      final FootprintEstimator estimator = new FootprintEstimator();
+      estimator.add(FootprintEstimator.shallowSizeOf(Trie.class));
+      estimator.add(2 * FootprintEstimator.array(chars.length, Character.BYTES));
+      estimator.add(4 * FootprintEstimator.array(lo.length, Integer.BYTES));
+      estimator.add(2 * FootprintEstimator.array(entry.length, Integer.BYTES));
+      estimator.count("node", size);
+      estimator.count("posting", postings);
+      return estimator.build(name, List.of());
+    }
+  }
+}
@@ -0,0 +1,358 @@
+package com.asledgehammer.rosetta.java.index;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaPackage;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * HierarchyIndex maps classes to their super-types and sub-types. Types are keyed by qualified name
+ * (E.G: "java.util.AbstractList"), so super-types that aren't defined in the model (E.G: "Object")
+ * can be queried for their sub-types.
+ *
+ * <p>Direct super-types and sub-types are kept as forward and reverse edges and are updated as
+ * classes are added, removed or reloaded. Transitive queries are answered from interval labels: every
+ * type is numbered in post-order over a spanning tree of the hierarchy and keeps the merged ranges of
+ * numbers of everything below it. (Types with several super-types add their ranges to each) A
+ * sub-type test is then a binary search and listing sub-types reads ranges of one array. The labels
+ * are recomputed on the first transitive query after the hierarchy changes.
+ */
+public class HierarchyIndex extends JavaIndex {
+
+  private static final String[] NO_NAMES = new String[0];
+
+  private final Map<String, Node> nodes = new HashMap<>();
+
+  /** The nodes by post-order number. (Null if the labels are out of date) */
+  @Nullable private Node[] order;
+
+  public HierarchyIndex(@NotNull JavaLanguage language) {
+    super(language);
+  }
+
+  /**
+   * @param type The qualified name of the type.
+   * @return The qualified names of the direct super-class and super-interfaces of the type.
+   */
+  @NotNull
+  public List<String> getSuperTypes(@NotNull String type) {
+    sync();
+    Node node = nodes.get(type);
+    return node != null ? List.of(node.supers) : List.of();
+  }
+
+  /**
+   * @param type The qualified name of the type.
+   * @return The classes directly extending or implementing the type.
+   */
+  @NotNull
+  public List<JavaClass> getDirectSubTypes(@NotNull String type) {
+    sync();
+    Node node = nodes.get(type);
+    if (node == null) return List.of();
+    final List<JavaClass> classes = new ArrayList<>(node.subs.size());
+    for (Node sub : node.subs) {
+      classes.add(sub.clazz);
+    }
+    return classes;
+  }
+
+  /**
+   * @param type The qualified name of the type.
+   * @return Every class extending or implementing the type, directly or not. (Excluding the type)
+   */
+  @NotNull
+  public List<JavaClass> getSubTypes(@NotNull String type) {
+    sync();
+    Node node = nodes.get(type);
+    if (node == null || node.subs.isEmpty()) return List.of();
+    final Node[] order = label();
+    final List<JavaClass> classes = new ArrayList<>();
+    final int[] ranges = node.ranges;
+    for (int index = 0; index < ranges.length; index += 2) {
+      for (int number = ranges[index]; number <= ranges[index + 1]; number++) {
+        Node sub = order[number];
+        if (sub != node && sub.clazz != null) classes.add(sub.clazz);
+      }
+    }
+    return classes;
+  }
+
+  /**
+   * @param clazz The class.
+   * @return Every class extending or implementing the class, directly or not. (Excluding the class)
+   */
+  @NotNull
+  public List<JavaClass> getSubTypes(@NotNull JavaClass clazz) {
+    return getSubTypes(clazz.getPath());
+  }
+
+  /**
+   * @param type The qualified name of the type.
+   * @param superType The qualified name of the super-type.
+   * @return True if the type extends or implements the super-type, directly or not.
+   */
+  public boolean isSubType(@NotNull String type, @NotNull String superType) {
+    sync();
+    Node node = nodes.get(type);
+    Node superNode = nodes.get(superType);
+    if (node == null || superNode == null || node == superNode) return false;
+    label();
+    return contains(superNode.ranges, node.number);
+  }
+
+  /**
+   * @param clazz The class.
+   * @param superClass The super-class.
+   * @return True if the class extends or implements the super-class, directly or not.
+   */
+  public boolean isSubType(@NotNull JavaClass clazz, @NotNull JavaClass superClass) {
+    return isSubType(clazz.getPath(), superClass.getPath());
+  }
+
+  @Override
+  protected void onClear() {
+    nodes.clear();
+    order = null;
+  }
+
+  @Override
+  protected void onBuild() {
+    // Only classes take part in the hierarchy, so members aren't visited.
+    for (JavaPackage javaPackage : language.getPackages().values()) {
+      for (JavaClass javaClass : javaPackage.getClasses().values()) {
+        link(javaClass);
+      }
+    }
+  }
+
+  @Override
+  protected void onAdd(@NotNull RosettaObject object) {
+    if (object instanceof JavaClass javaClass) {
+      link(javaClass);
+    }
+  }
+
+  @Override
+  protected void onRemove(@NotNull RosettaObject object) {
+    if (object instanceof JavaClass javaClass) {
+      unlink(javaClass);
+    }
+  }
+
+  @Override
+  protected void onChange(@NotNull ChangeEvent event) {
+    switch (event.getProperty()) {
+      case "extends", "implements" -> {
+        if (event.getSource() instanceof JavaClass javaClass) {
+          unlink(javaClass);
+          link(javaClass);
+        }
+      }
+    }
+  }
+
+  private void link(@NotNull JavaClass javaClass) {
+    Node node = nodes.computeIfAbsent(javaClass.getPath(), Node::new);
+
+    // A rediscovered class replaces the previous definition.
+    if (node.clazz != null && node.clazz != javaClass) unlink(node.clazz);
+
+    node.clazz = javaClass;
+    node.supers = getSuperNames(javaClass);
+    for (String name : node.supers) {
+      nodes.computeIfAbsent(name, Node::new).subs.add(node);
+    }
+    order = null;
+  }
+
+  private void unlink(@NotNull JavaClass javaClass) {
+    Node node = nodes.get(javaClass.getPath());
+    if (node == null || node.clazz != javaClass) return;
+    for (String name : node.supers) {
+      Node superNode = nodes.get(name);
+      if (superNode == null) continue;
+      superNode.subs.remove(node);
+      if (superNode.clazz == null && superNode.subs.isEmpty()) nodes.remove(name);
+    }
+    node.clazz = null;
+    node.supers = NO_NAMES;
+    if (node.subs.isEmpty()) nodes.remove(node.name);
+    order = null;
+  }
+
+  /**
+   * Numbers every node in post-order and computes the ranges of numbers below each node.
+   *
+   * @return The nodes by number.
+   */
+  @NotNull
+  private Node[] label() {
+    if (order != null) return order;
+
+    // Roots are sorted so that the numbering (And the order of results) is stable.
+    final List<Node> roots = new ArrayList<>();
+    for (Node node : nodes.values()) {
+      node.number = -1;
+      node.ranges = null;
+      if (node.supers.length == 0) roots.add(node);
+    }
+    roots.sort(Comparator.comparing(node -> node.name));
+
+    final Node[] order = new Node[nodes.size()];
+    int next = 0;
+    for (Node root : roots) {
+      next = number(root, order, next);
+    }
+    // Nodes only reachable through a cycle (Malformed definitions) are numbered as their own roots.
+    if (next < order.length) {
+      final List<Node> rest = new ArrayList<>();
+      for (Node node : nodes.values()) {
+        if (node.number == -1) rest.add(node);
+      }
+      rest.sort(Comparator.comparing(node -> node.name));
+      for (Node node : rest) {
+        if (node.number == -1) next = number(node, order, next);
+      }
+    }
+
+    for (Node node : order) {
+      computeRanges(node);
+    }
+    this.order = order;
+    return order;
+  }
+
+  /** Numbers the spanning tree below a node in post-order. (The tree follows first super-types) */
+  private int number(@NotNull Node root, @NotNull Node[] order, int next) {
+    final Deque<Node> stack = new ArrayDeque<>();
+    final Deque<Iterator<Node>> children = new ArrayDeque<>();
+    root.number = -2;
+    root.low = next;
+    stack.push(root);
+    children.push(root.subs.iterator());
+    while (!stack.isEmpty()) {
+      Iterator<Node> iterator = children.peek();
+      Node child = null;
+      while (iterator.hasNext()) {
+        Node candidate = iterator.next();
+        if (candidate.number == -1 && candidate.supers[0].equals(stack.peek().name)) {
+          child = candidate;
+          break;
+        }
+      }
+      if (child != null) {
+        child.number = -2;
+        child.low = next;
+        stack.push(child);
+        children.push(child.subs.iterator());
+      } else {
+        Node node = stack.pop();
+        children.pop();
+        node.number = next;
+        order[next++] = node;
+      }
+    }
+    return next;
+  }
+
+  /** Merges the range of a node's spanning tree with the ranges of every node below it. */
+  @NotNull
+  private int[] computeRanges(@NotNull Node node) {
+    if (node.ranges != null) return node.ranges;
+    // Marks the node as in progress so that cycles terminate.
+    node.ranges = new int[] {node.low, node.number};
+
+    // Most nodes only have sub-types in their spanning tree and keep a single range.
+    boolean outside = false;
+    for (Node sub : node.subs) {
+      int[] subRanges = computeRanges(sub);
+      if (subRanges[0] < node.low || subRanges[subRanges.length - 1] > node.number) {
+        outside = true;
+      }
+    }
+    if (!outside) return node.ranges;
+
+    final List<int[]> ranges = new ArrayList<>();
+    ranges.add(node.ranges);
+    for (Node sub : node.subs) {
+      int[] subRanges = sub.ranges;
+      for (int index = 0; index < subRanges.length; index += 2) {
+        ranges.add(new int[] {subRanges[index], subRanges[index + 1]});
+      }
+    }
+    ranges.sort(Comparator.comparingInt(range -> range[0]));
+
+    final int[] merged = new int[ranges.size() * 2];
+    int length = 0;
+    for (int[] range : ranges) {
+      if (length != 0 && range[0] <= merged[length - 1] + 1) {
+        merged[length - 1] = Math.max(merged[length - 1], range[1]);
+      } else {
+        merged[length++] = range[0];
+        merged[length++] = range[1];
+      }
+    }
+    node.ranges = Arrays.copyOf(merged, length);
+    return node.ranges;
+  }
+
+  private static boolean contains(@NotNull int[] ranges, int number) {
+    int low = 0;
+    int high = (ranges.length >> 1) - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (ranges[middle << 1] > number) {
+        high = middle - 1;
+      } else if (ranges[(middle << 1) + 1] < number) {
+        low = middle + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @NotNull
+  private static String[] getSuperNames(@NotNull JavaClass javaClass) {
+    TypeReference extendz = javaClass.getExtends();
+    List<TypeReference> implementz = javaClass.getImplements();
+    final Set<String> names = new LinkedHashSet<>();
+    if (extendz != null) names.add(extendz.getBase());
+    for (TypeReference implement : implementz) {
+      names.add(implement.getBase());
+    }
+    names.remove(javaClass.getPath());
+    return names.isEmpty() ? NO_NAMES : names.toArray(NO_NAMES);
+  }
+
+  private static final class Node {
+
+    @NotNull final String name;
+
+    /** The class. (Null if the type is only known as a super-type) */
+    @Nullable JavaClass clazz;
+
+    @NotNull String[] supers = NO_NAMES;
+
+    @NotNull final Set<Node> subs = new LinkedHashSet<>();
+
+    /** The post-order number of the node and the lowest number in its spanning tree. */
+    int number;
+
+    int low;
+
+    /** The ranges of numbers below the node, inclusive. (low, high pairs sorted by low) */
+    @Nullable int[] ranges;
+
+    Node(@NotNull String name) {
+      this.name = name;
+    }
+  }
+}
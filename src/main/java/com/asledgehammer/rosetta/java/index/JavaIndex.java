@@ -0,0 +1,197 @@
+package com.asledgehammer.rosetta.java.index;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ChangeJournal;
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JavaIndex is a common super-class for indexes over a {@link JavaLanguage} model that are kept up
+ * to date incrementally.
+ *
+ * <p>If the language is registered to a collection, the index follows the collection's {@link
+ * ChangeJournal}: added or removed packages and classes are added or removed as whole subtrees, and
+ * other changes are passed to {@link #onChange(ChangeEvent)}. The index rebuilds from the model if
+ * it falls behind the journal. Without a collection, the index rebuilds whenever the revision of the
+ * model changes.
+ *
+ * <p>NOTE: Indexes read the live model and should be synchronized on the thread editing it.
+ */
+public abstract class JavaIndex implements AutoCloseable {
+
+  protected final JavaLanguage language;
+
+  @Nullable private final ChangeJournal.Cursor cursor;
+
+  private boolean built = false;
+  private long revision;
+
+  protected JavaIndex(@NotNull JavaLanguage language) {
+    this.language = language;
+    RosettaCollection collection = language.getCollection();
+    this.cursor = collection != null ? collection.getJournal().subscribe() : null;
+  }
+
+  /** Brings the index up to date with the model. */
+  public void sync() {
+    if (cursor == null) {
+      if (!built || getModelRevision() != this.revision) {
+        rebuild();
+      }
+      return;
+    }
+
+    List<ChangeEvent> events = cursor.poll();
+    if (!built || cursor.isOverrun()) {
+      rebuild();
+      return;
+    }
+
+    for (ChangeEvent event : events) {
+      switch (event.getProperty()) {
+        case "classes", "packages" -> {
+          if (event.getType() == ChangeEvent.Type.ADD) {
+            visit((RosettaObject) event.getNewValue(), true);
+          } else if (event.getType() == ChangeEvent.Type.REMOVE) {
+            visit((RosettaObject) event.getOldValue(), false);
+          }
+        }
+        default -> onChange(event);
+      }
+    }
+  }
+
+  /** Clears and rebuilds the index from the model. */
+  public void rebuild() {
+    // The model is read as it is now, so pending changes are already part of the build.
+    if (cursor != null) {
+      cursor.poll();
+      cursor.clearOverrun();
+    } else {
+      this.revision = getModelRevision();
+    }
+    onClear();
+    onBuild();
+    built = true;
+  }
+
+  /**
+   * Invoked after the index clears to add every object in the model. By default, objects are
+   * passed to {@link #onAdd(RosettaObject)} one at a time.
+   */
+  protected void onBuild() {
+    for (JavaPackage javaPackage : language.getPackages().values()) {
+      if (!javaPackage.hasParent()) {
+        visit(javaPackage, true);
+      }
+    }
+  }
+
+  /**
+   * Invokes an action for a package and every object defined in it, excluding sub-packages.
+   *
+   * @param javaPackage The package.
+   * @param action The action to invoke.
+   */
+  protected static void forEachDefinition(
+      @NotNull JavaPackage javaPackage, @NotNull Consumer<RosettaObject> action) {
+    action.accept(javaPackage);
+    for (JavaClass javaClass : javaPackage.getClasses().values()) {
+      forEachMember(javaClass, action);
+    }
+  }
+
+  private static void forEachMember(
+      @Nullable RosettaObject object, @NotNull Consumer<RosettaObject> action) {
+    if (object == null) return;
+    action.accept(object);
+    if (object instanceof JavaClass javaClass) {
+      for (JavaField field : javaClass.getFields().values()) {
+        forEachMember(field, action);
+      }
+      for (JavaConstructor constructor : javaClass.getConstructors().getExecutables()) {
+        forEachMember(constructor, action);
+      }
+      for (JavaExecutableCollection<JavaMethod> methods : javaClass.getMethods().values()) {
+        for (JavaMethod method : methods.getExecutables()) {
+          forEachMember(method, action);
+        }
+      }
+    } else if (object instanceof JavaExecutable<?> executable) {
+      for (JavaParameter parameter : executable.getParameters()) {
+        forEachMember(parameter, action);
+      }
+      if (executable instanceof JavaMethod method) {
+        forEachMember(method.getReturns(), action);
+      }
+    }
+  }
+
+  /**
+   * Adds or removes an object and every object defined in it.
+   *
+   * @param object The object to visit.
+   * @param add True to add, false to remove.
+   */
+  private void visit(@Nullable RosettaObject object, boolean add) {
+    if (object == null) return;
+
+    Consumer<RosettaObject> action = add ? this::onAdd : this::onRemove;
+    if (object instanceof JavaPackage javaPackage) {
+      forEachDefinition(javaPackage, action);
+      for (JavaPackage child : javaPackage.getPackages().values()) {
+        visit(child, add);
+      }
+    } else {
+      forEachMember(object, action);
+    }
+  }
+
+  private long getModelRevision() {
+    long revision = language.getPackages().size();
+    for (JavaPackage javaPackage : language.getPackages().values()) {
+      if (!javaPackage.hasParent()) {
+        revision = 31 * revision + javaPackage.getRevision();
+      }
+    }
+    return revision;
+  }
+
+  /** Stops following the journal. */
+  @Override
+  public void close() {
+    if (cursor != null) {
+      cursor.close();
+    }
+  }
+
+  /** Invoked before the index rebuilds. */
+  protected abstract void onClear();
+
+  /**
+   * Invoked for every object added to the model.
+   *
+   * @param object The object added.
+   */
+  protected abstract void onAdd(@NotNull RosettaObject object);
+
+  /**
+   * Invoked for every object removed from the model.
+   *
+   * @param object The object removed.
+   */
+  protected abstract void onRemove(@NotNull RosettaObject object);
+
+  /**
+   * Invoked for every other recorded change.
+   *
+   * @param event The change.
+   */
+  protected void onChange(@NotNull ChangeEvent event) {}
+}
@@ -0,0 +1,113 @@
+package com.asledgehammer.rosetta.java.index;
+
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * NameIndex maps fully qualified names to the definitions they name:
+ *
+ * <ul>
+ *   <li>Packages: "java.util"
+ *   <li>Classes: "java.util.ArrayList" (Nested classes use binary names: "java.util.Map$Entry")
+ *   <li>Fields: "java.util.ArrayList#size"
+ *   <li>Methods and constructors by signature: "java.util.ArrayList#indexOf(Ljava/lang/Object;)I"
+ *       and "java.util.ArrayList#&lt;init&gt;(I)V"
+ * </ul>
+ *
+ * <p>Methods and constructors are also indexed without their return descriptor. E.G:
+ * "java.util.ArrayList#size()" (The first definition registered wins if two only differ by return
+ * type)
+ *
+ * <p>Definitions that aren't linked to a class (Partially loaded models) are skipped.
+ */
+public class NameIndex extends JavaIndex {
+
+  private final Map<String, RosettaObject> byName = new HashMap<>();
+
+  public NameIndex(@NotNull JavaLanguage language) {
+    super(language);
+  }
+
+  /**
+   * @param qualifiedName The fully qualified name.
+   * @return The definition. (If indexed)
+   */
+  @Nullable
+  public RosettaObject get(@NotNull String qualifiedName) {
+    sync();
+    return byName.get(qualifiedName);
+  }
+
+  /**
+   * @param qualifiedName The fully qualified name.
+   * @param type The type of definition.
+   * @return The definition. (If indexed and of the type)
+   * @param <E> The type of definition.
+   */
+  @Nullable
+  public <E> E get(@NotNull String qualifiedName, @NotNull Class<E> type) {
+    RosettaObject object = get(qualifiedName);
+    return type.isInstance(object) ? type.cast(object) : null;
+  }
+
+  /**
+   * @param qualifiedName The fully qualified name.
+   * @return True if a definition is indexed with the name.
+   */
+  public boolean contains(@NotNull String qualifiedName) {
+    return get(qualifiedName) != null;
+  }
+
+  /**
+   * @return The count of names indexed.
+   */
+  public int size() {
+    sync();
+    return byName.size();
+  }
+
+  @Override
+  protected void onClear() {
+    byName.clear();
+  }
+
+  @Override
+  protected void onAdd(@NotNull RosettaObject object) {
+    if (object instanceof JavaPackage || object instanceof JavaClass || object instanceof JavaField) {
+      byName.put(object.getPath(), object);
+    } else if (object instanceof JavaExecutable<?> executable) {
+      String name = getQualifiedName(executable);
+      if (name == null) return;
+      byName.put(name, executable);
+      byName.putIfAbsent(name.substring(0, name.lastIndexOf(')') + 1), executable);
+    }
+  }
+
+  @Override
+  protected void onRemove(@NotNull RosettaObject object) {
+    if (object instanceof JavaPackage || object instanceof JavaClass || object instanceof JavaField) {
+      byName.remove(object.getPath(), object);
+    } else if (object instanceof JavaExecutable<?> executable) {
+      String name = getQualifiedName(executable);
+      if (name == null) return;
+      byName.remove(name, executable);
+      byName.remove(name.substring(0, name.lastIndexOf(')') + 1), executable);
+    }
+  }
+
+  /**
+   * @param executable The executable.
+   * @return The qualified name of the executable. (Null if not linked to a class)
+   */
+  @Nullable
+  private static String getQualifiedName(@NotNull JavaExecutable<?> executable) {
+    RosettaObject parent = executable.getParent();
+    if (parent == null) return null;
+    return parent.getPath() + '#' + executable.getSignature();
+  }
+}
@@ -0,0 +1,107 @@
+package com.asledgehammer.rosetta.java.index;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.TagDictionary;
+import com.asledgehammer.rosetta.Taggable;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/** TagIndex maps tags to the definitions they are applied to. */
+public class TagIndex extends JavaIndex {
+
+  /** Tagged definitions, indexed by tag ID. */
+  private final List<Set<RosettaObject>> tagged = new ArrayList<>();
+
+  /** The tag IDs each indexed definition was indexed under. */
+  private final Map<RosettaObject, Set<Integer>> indexed = new HashMap<>();
+
+  public TagIndex(@NotNull JavaLanguage language) {
+    super(language);
+  }
+
+  /**
+   * @param tag The tag.
+   * @return A read-only set of the definitions the tag is applied to.
+   */
+  @NotNull
+  public Set<RosettaObject> getTagged(@NotNull String tag) {
+    sync();
+    int id = TagDictionary.find(tag);
+    if (id == -1 || id >= tagged.size() || tagged.get(id) == null) {
+      return Set.of();
+    }
+    return Collections.unmodifiableSet(tagged.get(id));
+  }
+
+  /**
+   * @param tag The tag.
+   * @param type The type of definitions to return.
+   * @return The definitions of the type the tag is applied to.
+   * @param <E> The type of definitions to return.
+   */
+  @NotNull
+  public <E> List<E> getTagged(@NotNull String tag, @NotNull Class<E> type) {
+    final List<E> list = new ArrayList<>();
+    for (RosettaObject object : getTagged(tag)) {
+      if (type.isInstance(object)) {
+        list.add(type.cast(object));
+      }
+    }
+    return list;
+  }
+
+  @Override
+  protected void onClear() {
+    tagged.clear();
+    indexed.clear();
+  }
+
+  @Override
+  protected void onAdd(@NotNull RosettaObject object) {
+    if (object instanceof Taggable taggable) {
+      for (String tag : taggable.getTags()) {
+        add(TagDictionary.idOf(tag), object);
+      }
+    }
+  }
+
+  @Override
+  protected void onRemove(@NotNull RosettaObject object) {
+    // The tags may have changed since the object was removed, so use the IDs it was indexed under.
+    Set<Integer> ids = indexed.remove(object);
+    if (ids == null) return;
+    for (int id : ids) {
+      tagged.get(id).remove(object);
+    }
+  }
+
+  @Override
+  protected void onChange(@NotNull ChangeEvent event) {
+    if (!event.getProperty().equals("tags")) return;
+    if (event.getType() == ChangeEvent.Type.ADD) {
+      add(TagDictionary.idOf((String) event.getNewValue()), event.getSource());
+    } else if (event.getType() == ChangeEvent.Type.REMOVE) {
+      int id = TagDictionary.find((String) event.getOldValue());
+      Set<Integer> ids = indexed.get(event.getSource());
+      if (id != -1 && ids != null && ids.remove(id)) {
+        tagged.get(id).remove(event.getSource());
+      }
+    }
+  }
+
+  private void add(int id, @NotNull RosettaObject object) {
+    while (tagged.size() <= id) {
+      tagged.add(null);
+    }
+    Set<RosettaObject> objects = tagged.get(id);
+    if (objects == null) {
+      objects = new LinkedHashSet<>();
+      tagged.set(id, objects);
+    }
+    objects.add(object);
+    indexed.computeIfAbsent(object, k -> new HashSet<>()).add(id);
+  }
+}
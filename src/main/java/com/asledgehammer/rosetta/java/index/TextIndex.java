@@ -0,0 +1,499 @@
+package com.asledgehammer.rosetta.java.index;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.NamedEntity;
+import com.asledgehammer.rosetta.Notable;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaPackage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * TextIndex is an inverted index over the names and notes of definitions. Names are split on
+ * camelCase, underscores and digits. (E.G: "getXMLParser" is indexed as "get", "xml", "parser" and
+ * "getxmlparser") Notes are split into lower-case words.
+ *
+ * <p>Queries match every word as a prefix, ranking exact words above prefixes and names above
+ * notes. Words in double quotes are matched as a phrase. All words and phrases of a query must
+ * match.
+ *
+ * <p>The index tokenizes packages in parallel when it rebuilds, and re-indexes definitions as their
+ * names or notes change. Removed definitions free their ID for the next definition added, and terms
+ * without postings are dropped, so edits don't grow the index.
+ */
+public class TextIndex extends JavaIndex {
+
+  /** The weight of words matched in names relative to words matched in notes. */
+  private static final double NAME_WEIGHT = 4.0;
+
+  /** The weight of words matched by prefix relative to exact words. */
+  private static final double PREFIX_WEIGHT = 0.5;
+
+  /** The weight of phrases relative to their words matched alone. */
+  private static final double PHRASE_WEIGHT = 2.0;
+
+  private static final int[] NO_POSTINGS = new int[0];
+  private static final Term[] NO_TERMS = new Term[0];
+
+  /** The dictionary. */
+  private final Map<String, Term> terms = new HashMap<>();
+
+  /** The dictionary, sorted for prefix lookups. */
+  private final TreeMap<String, Term> sortedTerms = new TreeMap<>();
+
+  /** Indexed documents by ID. (Null once removed, until the ID is reused) */
+  private final List<Document> documents = new ArrayList<>();
+
+  /** The IDs of removed documents, reused by the next documents added. */
+  private final Postings freeIds = new Postings();
+
+  private final Map<RosettaObject, Document> byObject = new HashMap<>();
+
+  /** Scratch space for scoring queries, by document ID. (Zeroed after each query) */
+  private double[] totals = new double[0];
+
+  private double[] best = new double[0];
+  private int[] matches = new int[0];
+
+  /**
+   * A definition matching a query.
+   *
+   * @param definition The definition.
+   * @param score The relevance of the definition. (Higher is better)
+   */
+  public record Result(@NotNull RosettaObject definition, double score) {}
+
+  public TextIndex(@NotNull JavaLanguage language) {
+    super(language);
+  }
+
+  /**
+   * @param query The words to search for. Words in double quotes are matched as a phrase.
+   * @param limit The most results to return.
+   * @return The best matching definitions, ordered by relevance.
+   */
+  @NotNull
+  public List<Result> search(@NotNull String query, int limit) {
+    sync();
+
+    // Split the quoted phrases from the words.
+    final List<List<String>> phrases = new ArrayList<>();
+    final List<String> words = new ArrayList<>();
+    String[] segments = query.split("\"", -1);
+    for (int index = 0; index < segments.length; index++) {
+      List<String> tokens = splitText(segments[index]);
+      if (index % 2 == 1 && tokens.size() > 1) {
+        phrases.add(tokens);
+      } else {
+        words.addAll(tokens);
+      }
+    }
+    if ((phrases.isEmpty() && words.isEmpty()) || limit <= 0) return List.of();
+
+    // Every word and phrase must match. Scores add up in scratch arrays by document ID.
+    ensureScratch();
+    final Postings touched = new Postings();
+    final Postings part = new Postings();
+    final int parts = words.size() + phrases.size();
+    for (int index = 0; index < parts; index++) {
+      part.size = 0;
+      if (index < words.size()) {
+        scoreWord(words.get(index), part);
+      } else {
+        scorePhrase(phrases.get(index - words.size()), part);
+      }
+      for (int at = 0; at < part.size; at++) {
+        int document = part.values[at];
+        if (matches[document]++ == 0) touched.add(document);
+        totals[document] += best[document];
+        best[document] = 0;
+      }
+    }
+
+    // Keep the best matches in a heap, with the worst match on top.
+    final PriorityQueue<Integer> heap =
+        new PriorityQueue<>(
+            Comparator.<Integer>comparingDouble(document -> totals[document])
+                .thenComparing(Comparator.<Integer>reverseOrder()));
+    for (int at = 0; at < touched.size; at++) {
+      int document = touched.values[at];
+      if (matches[document] == parts) {
+        heap.add(document);
+        if (heap.size() > limit) heap.poll();
+      }
+    }
+    final Result[] results = new Result[heap.size()];
+    for (int index = results.length - 1; index >= 0; index--) {
+      int document = heap.poll();
+      results[index] = new Result(documents.get(document).object, totals[document]);
+    }
+
+    // Reset the scratch arrays for the next query.
+    for (int at = 0; at < touched.size; at++) {
+      totals[touched.values[at]] = 0;
+      matches[touched.values[at]] = 0;
+    }
+    return List.of(results);
+  }
+
+  /**
+   * @return The count of definitions indexed.
+   */
+  public int size() {
+    sync();
+    return byObject.size();
+  }
+
+  /**
+   * Scores the documents matching a word. (Or a word it prefixes)
+   *
+   * @param word The word.
+   * @param matched The list to add the matching documents to. Their scores are stored in {@link
+   *     #best}.
+   */
+  private void scoreWord(@NotNull String word, @NotNull Postings matched) {
+    for (Term term : sortedTerms.subMap(word, true, word + Character.MAX_VALUE, true).values()) {
+      if (term.size == 0) continue;
+      double weight = idf(term) * (term.text.equals(word) ? 1.0 : PREFIX_WEIGHT);
+      for (int index = 0; index < term.size; index++) {
+        int document = term.documents[index];
+        double score = weight * (NAME_WEIGHT * term.nameCounts[index] + term.noteCounts[index]);
+        // Score the best expansion of the word.
+        if (best[document] == 0) matched.add(document);
+        if (score > best[document]) best[document] = score;
+      }
+    }
+  }
+
+  /**
+   * Scores the documents containing a phrase in their name or notes.
+   *
+   * @param words The words of the phrase.
+   * @param matched The list to add the matching documents to. Their scores are stored in {@link
+   *     #best}.
+   */
+  private void scorePhrase(@NotNull List<String> words, @NotNull Postings matched) {
+    final Term[] phrase = new Term[words.size()];
+    Term rarest = null;
+    double weight = 0;
+    for (int index = 0; index < phrase.length; index++) {
+      phrase[index] = terms.get(words.get(index));
+      if (phrase[index] == null || phrase[index].size == 0) return;
+      if (rarest == null || phrase[index].size < rarest.size) rarest = phrase[index];
+      weight += idf(phrase[index]);
+    }
+
+    for (int index = 0; index < rarest.size; index++) {
+      Document document = documents.get(rarest.documents[index]);
+      if (contains(document.name, phrase)) {
+        best[document.id] = PHRASE_WEIGHT * NAME_WEIGHT * weight;
+        matched.add(document.id);
+      } else if (contains(document.notes, phrase)) {
+        best[document.id] = PHRASE_WEIGHT * weight;
+        matched.add(document.id);
+      }
+    }
+  }
+
+  private double idf(@NotNull Term term) {
+    return Math.log(1.0 + (double) byObject.size() / term.size);
+  }
+
+  /** Grows the scratch arrays to fit every document ID. */
+  private void ensureScratch() {
+    if (totals.length < documents.size()) {
+      int length = Math.max(documents.size(), totals.length * 3 / 2);
+      totals = new double[length];
+      best = new double[length];
+      matches = new int[length];
+    }
+  }
+
+  private static boolean contains(@NotNull Term[] sequence, @NotNull Term[] phrase) {
+    outer:
+    for (int start = 0; start + phrase.length <= sequence.length; start++) {
+      for (int offset = 0; offset < phrase.length; offset++) {
+        if (sequence[start + offset] != phrase[offset]) continue outer;
+      }
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  protected void onClear() {
+    terms.clear();
+    sortedTerms.clear();
+    documents.clear();
+    freeIds.size = 0;
+    byObject.clear();
+  }
+
+  @Override
+  protected void onBuild() {
+    // Tokenizing is the expensive part, so it runs in parallel per package.
+    final List<JavaPackage> packages = new ArrayList<>(language.getPackages().values());
+    packages.sort(Comparator.comparing(JavaPackage::getPath));
+    final List<List<Tokens>> tokenized =
+        packages.parallelStream()
+            .map(
+                javaPackage -> {
+                  final List<Tokens> list = new ArrayList<>();
+                  forEachDefinition(javaPackage, object -> list.add(tokenize(object)));
+                  return list;
+                })
+            .toList();
+    for (List<Tokens> list : tokenized) {
+      for (Tokens tokens : list) {
+        add(tokens);
+      }
+    }
+  }
+
+  @Override
+  protected void onAdd(@NotNull RosettaObject object) {
+    onRemove(object);
+    add(tokenize(object));
+  }
+
+  @Override
+  protected void onRemove(@NotNull RosettaObject object) {
+    Document document = byObject.remove(object);
+    if (document == null) return;
+    documents.set(document.id, null);
+    freeIds.add(document.id);
+    for (Term term : document.name) {
+      unpost(document, term);
+    }
+    for (Term term : document.notes) {
+      unpost(document, term);
+    }
+  }
+
+  /**
+   * Removes a document from the postings of a term, dropping the term once it has none.
+   *
+   * @param document The document.
+   * @param term The term.
+   */
+  private void unpost(@NotNull Document document, @NotNull Term term) {
+    term.remove(document.id);
+    if (term.size == 0 && terms.remove(term.text) != null) {
+      sortedTerms.remove(term.text);
+    }
+  }
+
+  @Override
+  protected void onChange(@NotNull ChangeEvent event) {
+    switch (event.getProperty()) {
+      case "notes", "name" -> onAdd(event.getSource());
+    }
+  }
+
+  private void add(@NotNull Tokens tokens) {
+    if (tokens.name.isEmpty() && tokens.notes.isEmpty()) return;
+    final boolean reused = freeIds.size != 0;
+    final int id = reused ? freeIds.values[--freeIds.size] : documents.size();
+    final Document document =
+        new Document(id, tokens.object, toTerms(tokens.name), toTerms(tokens.notes));
+    if (reused) {
+      documents.set(id, document);
+    } else {
+      documents.add(document);
+    }
+    byObject.put(document.object, document);
+
+    for (int index = 0; index < document.name.length; index++) {
+      post(document, document.name[index], document.name, index);
+    }
+    for (int index = 0; index < document.notes.length; index++) {
+      post(document, document.notes[index], document.notes, index);
+    }
+  }
+
+  /**
+   * Adds a document to the postings of a term, once per term.
+   *
+   * @param document The document.
+   * @param term The term.
+   * @param words The words of the document the term is at.
+   * @param index The index of the term in the words.
+   */
+  private static void post(
+      @NotNull Document document, @NotNull Term term, @NotNull Term[] words, int index) {
+    // Only post the first occurrence.
+    for (int at = 0; at < index; at++) {
+      if (words[at] == term) return;
+    }
+    if (words == document.notes) {
+      for (Term other : document.name) {
+        if (other == term) return;
+      }
+    }
+    term.add(document.id, count(document.name, term), count(document.notes, term));
+  }
+
+  private static int count(@NotNull Term[] words, @NotNull Term term) {
+    int count = 0;
+    for (Term word : words) {
+      if (word == term) count++;
+    }
+    return count;
+  }
+
+  @NotNull
+  private Term[] toTerms(@NotNull List<String> tokens) {
+    if (tokens.isEmpty()) return NO_TERMS;
+    final Term[] array = new Term[tokens.size()];
+    for (int index = 0; index < array.length; index++) {
+      Term term = terms.get(tokens.get(index));
+      if (term == null) {
+        term = new Term(tokens.get(index));
+        terms.put(term.text, term);
+        sortedTerms.put(term.text, term);
+      }
+      array[index] = term;
+    }
+    return array;
+  }
+
+  @NotNull
+  private static Tokens tokenize(@NotNull RosettaObject object) {
+    List<String> name =
+        object instanceof NamedEntity named ? splitIdentifier(named.getName()) : List.of();
+    List<String> notes =
+        object instanceof Notable notable && notable.hasNotes()
+            ? splitText(notable.getNotes())
+            : List.of();
+    return new Tokens(object, name, notes);
+  }
+
+  /**
+   * Splits an identifier into lower-case words on camelCase, underscores and digits. The whole
+   * identifier is included if it has more than one word.
+   *
+   * @param identifier The identifier. E.G: "getXMLParser2"
+   * @return The words. E.G: ["get", "xml", "parser", "2", "getxmlparser2"]
+   */
+  @NotNull
+  public static List<String> splitIdentifier(@NotNull String identifier) {
+    final List<String> words = new ArrayList<>();
+    final int length = identifier.length();
+    int start = -1;
+    for (int index = 0; index <= length; index++) {
+      char c = index < length ? identifier.charAt(index) : '_';
+      if (!Character.isLetterOrDigit(c)) {
+        if (start != -1) words.add(identifier.substring(start, index).toLowerCase(Locale.ROOT));
+        start = -1;
+        continue;
+      }
+      if (start != -1 && index > start) {
+        char previous = identifier.charAt(index - 1);
+        boolean next = index + 1 < length && Character.isLowerCase(identifier.charAt(index + 1));
+        if ((Character.isDigit(c) != Character.isDigit(previous))
+            || (Character.isUpperCase(c) && Character.isLowerCase(previous))
+            || (Character.isUpperCase(c) && Character.isUpperCase(previous) && next)) {
+          words.add(identifier.substring(start, index).toLowerCase(Locale.ROOT));
+          start = index;
+        }
+      }
+      if (start == -1) start = index;
+    }
+    if (words.size() > 1) {
+      final StringBuilder whole = new StringBuilder();
+      for (String word : words) whole.append(word);
+      words.add(whole.toString());
+    }
+    return words;
+  }
+
+  /**
+   * @param text The text.
+   * @return The lower-case words of the text, in order.
+   */
+  @NotNull
+  public static List<String> splitText(@NotNull String text) {
+    final List<String> words = new ArrayList<>();
+    final int length = text.length();
+    int start = -1;
+    for (int index = 0; index <= length; index++) {
+      boolean letter = index < length && Character.isLetterOrDigit(text.charAt(index));
+      if (letter && start == -1) {
+        start = index;
+      } else if (!letter && start != -1) {
+        words.add(text.substring(start, index).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /** The words of a definition, tokenized before they are added to the dictionary. */
+  private record Tokens(
+      @NotNull RosettaObject object, @NotNull List<String> name, @NotNull List<String> notes) {}
+
+  /** An indexed definition. Words are kept in order to match phrases. */
+  private record Document(
+      int id, @NotNull RosettaObject object, @NotNull Term[] name, @NotNull Term[] notes) {}
+
+  /** A growable list of document IDs. */
+  private static final class Postings {
+
+    private int[] values = new int[16];
+    private int size;
+
+    private void add(int value) {
+      if (size == values.length) values = Arrays.copyOf(values, size * 2);
+      values[size++] = value;
+    }
+  }
+
+  /** A word of the dictionary and its postings, sorted by document ID. */
+  private static final class Term {
+
+    private final String text;
+    private int[] documents = NO_POSTINGS;
+    private int[] nameCounts = NO_POSTINGS;
+    private int[] noteCounts = NO_POSTINGS;
+    private int size;
+
+    private Term(@NotNull String text) {
+      this.text = text;
+    }
+
+    private void add(int document, int nameCount, int noteCount) {
+      int index = Arrays.binarySearch(documents, 0, size, document);
+      if (index >= 0) {
+        nameCounts[index] = nameCount;
+        noteCounts[index] = noteCount;
+        return;
+      }
+      index = -(index + 1);
+      if (size == documents.length) {
+        int capacity = Math.max(2, size * 2);
+        documents = Arrays.copyOf(documents, capacity);
+        nameCounts = Arrays.copyOf(nameCounts, capacity);
+        noteCounts = Arrays.copyOf(noteCounts, capacity);
+      }
+      System.arraycopy(documents, index, documents, index + 1, size - index);
+      System.arraycopy(nameCounts, index, nameCounts, index + 1, size - index);
+      System.arraycopy(noteCounts, index, noteCounts, index + 1, size - index);
+      documents[index] = document;
+      nameCounts[index] = nameCount;
+      noteCounts[index] = noteCount;
+      size++;
+    }
+
+    private void remove(int document) {
+      int index = Arrays.binarySearch(documents, 0, size, document);
+      if (index < 0) return;
+      int moved = size - index - 1;
+      System.arraycopy(documents, index + 1, documents, index, moved);
+      System.arraycopy(nameCounts, index + 1, nameCounts, index, moved);
+      System.arraycopy(noteCounts, index + 1, noteCounts, index, moved);
+      size--;
+    }
+  }
+}
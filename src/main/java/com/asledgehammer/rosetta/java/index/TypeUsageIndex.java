@@ -0,0 +1,186 @@
+package com.asledgehammer.rosetta.java.index;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.java.reference.SimpleTypeReference;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TypeUsageIndex maps the base names of types to the fields, parameters and returns using them.
+ * Types are searched in full: generic arguments, bounds and array components all count as usages.
+ * (E.G: A parameter of type "Map&lt;String, List&lt;? extends Number&gt;[]&gt;" uses "java.util.Map",
+ * "java.lang.String", "java.util.List" and "java.lang.Number") Type variables are not indexed, but
+ * their bounds are. (Except the implicit bound of Object)
+ *
+ * <p>The index collects usages of each package in parallel when it rebuilds, and follows type
+ * changes as they are recorded.
+ */
+public class TypeUsageIndex extends JavaIndex {
+
+  /**
+   * The base names used by each canonical type. (Types are canonical, so this is shared by every
+   * usage of a type)
+   */
+  private static final Map<TypeReference, String[]> NAMES = new ConcurrentHashMap<>();
+
+  private static final String[] NO_NAMES = new String[0];
+
+  private final Map<String, Set<RosettaObject>> usages = new HashMap<>();
+
+  /** The names each indexed definition was indexed with. */
+  private final Map<RosettaObject, String[]> indexed = new HashMap<>();
+
+  public TypeUsageIndex(@NotNull JavaLanguage language) {
+    super(language);
+  }
+
+  /**
+   * @param type The base name of the type. E.G: "java.util.List"
+   * @return A read-only set of the fields, parameters and returns using the type.
+   */
+  @NotNull
+  public Set<RosettaObject> getUsages(@NotNull String type) {
+    sync();
+    Set<RosettaObject> objects = usages.get(type);
+    return objects != null ? Collections.unmodifiableSet(objects) : Set.of();
+  }
+
+  /**
+   * @param type The base name of the type. E.G: "java.util.List"
+   * @return The fields and executables using the type in a field type, parameter or return.
+   */
+  @NotNull
+  public Set<RosettaObject> getMembers(@NotNull String type) {
+    final Set<RosettaObject> members = new LinkedHashSet<>();
+    for (RosettaObject object : getUsages(type)) {
+      if (object instanceof JavaField) {
+        members.add(object);
+      } else if (object.getParent() != null) {
+        members.add(object.getParent());
+      }
+    }
+    return members;
+  }
+
+  @Override
+  protected void onClear() {
+    usages.clear();
+    indexed.clear();
+  }
+
+  @Override
+  protected void onBuild() {
+    // Walking the types is the expensive part, so it runs in parallel per package.
+    final List<JavaPackage> packages = new ArrayList<>(language.getPackages().values());
+    packages.sort(Comparator.comparing(JavaPackage::getPath));
+    final List<List<Map.Entry<RosettaObject, String[]>>> collected =
+        packages.parallelStream()
+            .map(
+                javaPackage -> {
+                  final List<Map.Entry<RosettaObject, String[]>> list = new ArrayList<>();
+                  forEachDefinition(
+                      javaPackage,
+                      object -> {
+                        if (object instanceof JavaTyped typed) {
+                          list.add(Map.entry(object, getNames(typed.getType())));
+                        }
+                      });
+                  return list;
+                })
+            .toList();
+    for (List<Map.Entry<RosettaObject, String[]>> list : collected) {
+      for (Map.Entry<RosettaObject, String[]> entry : list) {
+        add(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  @Override
+  protected void onAdd(@NotNull RosettaObject object) {
+    if (object instanceof JavaTyped typed) {
+      onRemove(object);
+      add(object, getNames(typed.getType()));
+    }
+  }
+
+  @Override
+  protected void onRemove(@NotNull RosettaObject object) {
+    String[] names = indexed.remove(object);
+    if (names == null) return;
+    for (String name : names) {
+      Set<RosettaObject> objects = usages.get(name);
+      if (objects != null) {
+        objects.remove(object);
+        if (objects.isEmpty()) usages.remove(name);
+      }
+    }
+  }
+
+  @Override
+  protected void onChange(@NotNull ChangeEvent event) {
+    switch (event.getProperty()) {
+      case "type" -> onAdd(event.getSource());
+      case "returns" -> {
+        if (event.getOldValue() instanceof RosettaObject old) onRemove(old);
+        if (event.getNewValue() instanceof RosettaObject returns) onAdd(returns);
+      }
+    }
+  }
+
+  private void add(@NotNull RosettaObject object, @NotNull String[] names) {
+    if (names.length == 0) return;
+    indexed.put(object, names);
+    for (String name : names) {
+      usages.computeIfAbsent(name, key -> new LinkedHashSet<>()).add(object);
+    }
+  }
+
+  /**
+   * @param type The type.
+   * @return The distinct base names used in the type. (Including generic arguments and bounds)
+   */
+  @NotNull
+  public static String[] getNames(@NotNull TypeReference type) {
+    String[] names = NAMES.get(type);
+    if (names == null) {
+      final Set<String> set = new LinkedHashSet<>();
+      collect(type, set, Collections.newSetFromMap(new IdentityHashMap<>()));
+      names = set.isEmpty() ? NO_NAMES : set.toArray(NO_NAMES);
+      NAMES.putIfAbsent(type, names);
+    }
+    return names;
+  }
+
+  private static void collect(
+      @NotNull TypeReference type, @NotNull Set<String> names, @NotNull Set<TypeReference> visited) {
+    // Bounds can be recursive. (E.G: "E extends Enum<E>")
+    if (!visited.add(type)) return;
+    if (!type.isGeneric() && !type.isWildcard()) {
+      String base = type.getBase();
+      while (base.endsWith("[]")) {
+        base = base.substring(0, base.length() - 2);
+      }
+      if (!type.isPrimitive() || !base.equals("void")) {
+        names.add(base);
+      }
+    }
+    if (type instanceof SimpleTypeReference simple && simple.hasSubTypes()) {
+      for (TypeReference subType : simple.getSubTypes()) {
+        collect(subType, names, visited);
+      }
+    }
+    TypeReference[] bounds = type.getBounds();
+    // Unbounded variables and wildcards aren't usages of Object.
+    if (type.isGeneric() && bounds.length == 1 && bounds[0].getBase().equals("java.lang.Object")) {
+      return;
+    }
+    for (TypeReference bound : bounds) {
+      collect(bound, names, visited);
+    }
+  }
+}
@@ -0,0 +1,532 @@
+package com.asledgehammer.rosetta.java.query;
+
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.Taggable;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.java.index.TypeUsageIndex;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * JavaQuery searches a {@link JavaLanguage} model for classes, fields, methods or constructors.
+ * Queries are immutable and built by chaining conditions, which must all hold:
+ *
+ * <pre>{@code
+ * JavaQuery<JavaMethod> query =
+ *     JavaQuery.methods().in("zombie.*").scope(JavaScope.PUBLIC).isStatic(true)
+ *         .isDeprecated(true).hasNotes(false);
+ * List<JavaMethod> methods = query.list(language);
+ * }</pre>
+ *
+ * <p>Queries combine with {@link #or(JavaQuery)}. Conditions chained after an alternative apply to
+ * every alternative.
+ *
+ * <p>Queries evaluate lazily through a {@link Spliterator} that splits by package and then by class
+ * for parallel streams. Packages whose {@link PackageSummary} rules out a match are skipped with
+ * their sub-packages. {@link #list(JavaLanguage)} caches the matches of each package until the
+ * package changes.
+ *
+ * <p>NOTE: Queries compile the language before evaluating and read the live model. They should be
+ * evaluated on the thread editing the model. (Parallel streams only read it)
+ *
+ * @param <E> The type of definition.
+ */
+public final class JavaQuery<E extends RosettaObject> {
+
+  private static final int SCOPE = 0;
+  private static final int STATIC = 1;
+  private static final int FINAL = 2;
+  private static final int DEPRECATED = 3;
+  private static final int NOTES = 4;
+
+  private final Class<E> type;
+  private final PackageSummary.Kind[] kinds;
+  private final List<Clause<E>> clauses;
+
+  /** The matches of each package from the previous list. */
+  private final Map<JavaPackage, Cached<E>> cache = new HashMap<>();
+
+  private JavaQuery(
+      @NotNull Class<E> type, @NotNull PackageSummary.Kind[] kinds, @NotNull List<Clause<E>> clauses) {
+    this.type = type;
+    this.kinds = kinds;
+    this.clauses = clauses;
+  }
+
+  @NotNull
+  public static JavaQuery<JavaClass> classes() {
+    return new JavaQuery<>(JavaClass.class, new PackageSummary.Kind[] {PackageSummary.Kind.CLASS});
+  }
+
+  @NotNull
+  public static JavaQuery<JavaField> fields() {
+    return new JavaQuery<>(JavaField.class, new PackageSummary.Kind[] {PackageSummary.Kind.FIELD});
+  }
+
+  @NotNull
+  public static JavaQuery<JavaMethod> methods() {
+    return new JavaQuery<>(
+        JavaMethod.class, new PackageSummary.Kind[] {PackageSummary.Kind.METHOD});
+  }
+
+  @NotNull
+  public static JavaQuery<JavaConstructor> constructors() {
+    return new JavaQuery<>(
+        JavaConstructor.class, new PackageSummary.Kind[] {PackageSummary.Kind.CONSTRUCTOR});
+  }
+
+  /**
+   * @return A query of methods and constructors.
+   */
+  @NotNull
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public static JavaQuery<JavaExecutable<?>> executables() {
+    return new JavaQuery<>(
+        (Class) JavaExecutable.class,
+        new PackageSummary.Kind[] {PackageSummary.Kind.METHOD, PackageSummary.Kind.CONSTRUCTOR});
+  }
+
+  private JavaQuery(@NotNull Class<E> type, @NotNull PackageSummary.Kind[] kinds) {
+    this(type, kinds, List.of(new Clause<>()));
+  }
+
+  /**
+   * @param pattern The package. (E.G: "zombie") Append ".*" to include sub-packages. (E.G:
+   *     "zombie.*")
+   * @return The query limited to the package. (Combined packages match either)
+   */
+  @NotNull
+  public JavaQuery<E> in(@NotNull String pattern) {
+    return with(clause -> clause.withPackage(pattern));
+  }
+
+  /**
+   * @param scopes The scopes to match.
+   * @return The query limited to definitions of any of the scopes.
+   */
+  @NotNull
+  public JavaQuery<E> scope(@NotNull JavaScope... scopes) {
+    int flags = 0;
+    for (JavaScope scope : scopes) flags |= 1 << scope.ordinal();
+    final int accept = flags;
+    return with(clause -> clause.withFlags(SCOPE, accept));
+  }
+
+  @NotNull
+  public JavaQuery<E> isStatic(boolean flag) {
+    int accept = flag ? PackageSummary.STATIC : PackageSummary.NOT_STATIC;
+    return with(clause -> clause.withFlags(STATIC, accept));
+  }
+
+  @NotNull
+  public JavaQuery<E> isFinal(boolean flag) {
+    int accept = flag ? PackageSummary.FINAL : PackageSummary.NOT_FINAL;
+    return with(clause -> clause.withFlags(FINAL, accept));
+  }
+
+  @NotNull
+  public JavaQuery<E> isDeprecated(boolean flag) {
+    int accept = flag ? PackageSummary.DEPRECATED : PackageSummary.NOT_DEPRECATED;
+    return with(clause -> clause.withFlags(DEPRECATED, accept));
+  }
+
+  @NotNull
+  public JavaQuery<E> hasNotes(boolean flag) {
+    int accept = flag ? PackageSummary.NOTES : PackageSummary.NO_NOTES;
+    return with(clause -> clause.withFlags(NOTES, accept));
+  }
+
+  /**
+   * @param tag The tag.
+   * @return The query limited to definitions with the tag. (Constructors have no tags)
+   */
+  @NotNull
+  public JavaQuery<E> tagged(@NotNull String tag) {
+    return with(clause -> clause.withTag(tag));
+  }
+
+  /**
+   * @param name The name of the definition. (Case-Sensitive)
+   * @return The query limited to definitions with the name.
+   */
+  @NotNull
+  public JavaQuery<E> named(@NotNull String name) {
+    return with(clause -> clause.withPredicate(object -> getName(object).equals(name)));
+  }
+
+  /**
+   * Limits the query to definitions using a type anywhere in their types, including generic
+   * arguments and bounds:
+   *
+   * <ul>
+   *   <li>Classes: Super-class and super-interfaces.
+   *   <li>Fields: The type of the field.
+   *   <li>Methods and constructors: Parameter and return types.
+   * </ul>
+   *
+   * @param type The base name of the type. E.G: "java.util.List"
+   * @return The query limited to definitions using the type.
+   */
+  @NotNull
+  public JavaQuery<E> uses(@NotNull String type) {
+    return with(clause -> clause.withPredicate(object -> usesType(object, type)));
+  }
+
+  /**
+   * @param predicate The condition.
+   * @return The query limited to definitions matching the condition.
+   */
+  @NotNull
+  public JavaQuery<E> where(@NotNull Predicate<? super E> predicate) {
+    return with(clause -> clause.withPredicate(predicate));
+  }
+
+  /**
+   * @param other The other query.
+   * @return A query of definitions matching either query.
+   */
+  @NotNull
+  public JavaQuery<E> or(@NotNull JavaQuery<E> other) {
+    if (other.type != type) {
+      throw new IllegalArgumentException(
+          "Cannot combine queries of " + type.getSimpleName() + " and " + other.type.getSimpleName());
+    }
+    final List<Clause<E>> clauses = new ArrayList<>(this.clauses);
+    clauses.addAll(other.clauses);
+    return new JavaQuery<>(type, kinds, List.copyOf(clauses));
+  }
+
+  /**
+   * @param language The language to search.
+   * @return A lazy spliterator of the matches. (Ordered by package)
+   */
+  @NotNull
+  public Spliterator<E> spliterator(@NotNull JavaLanguage language) {
+    return new QuerySpliterator<>(this, slice(language));
+  }
+
+  /**
+   * @param language The language to search.
+   * @return A lazy stream of the matches.
+   */
+  @NotNull
+  public Stream<E> stream(@NotNull JavaLanguage language) {
+    return StreamSupport.stream(spliterator(language), false);
+  }
+
+  /**
+   * @param language The language to search.
+   * @return A lazy parallel stream of the matches.
+   */
+  @NotNull
+  public Stream<E> parallelStream(@NotNull JavaLanguage language) {
+    return StreamSupport.stream(spliterator(language), true);
+  }
+
+  /**
+   * Lists the matches in a language. The matches of each package are cached and only searched
+   * again once the package changes.
+   *
+   * @param language The language to search.
+   * @return The matches. (Ordered by package)
+   */
+  @NotNull
+  public synchronized List<E> list(@NotNull JavaLanguage language) {
+    final List<QuerySpliterator.Slice<E>> slices = slice(language);
+    final long mark = RosettaObject.markRevision();
+
+    // Only packages changed since the previous list are searched again. (In parallel)
+    final List<QuerySpliterator.Slice<E>> stale = new ArrayList<>();
+    for (QuerySpliterator.Slice<E> slice : slices) {
+      Cached<E> cached = cache.get(slice.javaPackage());
+      if (cached == null || slice.javaPackage().getRevision() > cached.revision()) {
+        stale.add(slice);
+      }
+    }
+    final List<List<E>> searched =
+        stale.parallelStream()
+            .map(
+                slice -> {
+                  final List<E> matches = new ArrayList<>();
+                  new QuerySpliterator<>(this, List.of(slice)).forEachRemaining(matches::add);
+                  return matches;
+                })
+            .toList();
+    for (int index = 0; index < stale.size(); index++) {
+      cache.put(stale.get(index).javaPackage(), new Cached<>(mark, searched.get(index)));
+    }
+
+    final List<E> matches = new ArrayList<>();
+    final Set<JavaPackage> packages = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (QuerySpliterator.Slice<E> slice : slices) {
+      matches.addAll(cache.get(slice.javaPackage()).matches());
+      packages.add(slice.javaPackage());
+    }
+    cache.keySet().retainAll(packages);
+    return matches;
+  }
+
+  /**
+   * @param language The language to search.
+   * @return The count of matches.
+   */
+  public long count(@NotNull JavaLanguage language) {
+    return list(language).size();
+  }
+
+  /**
+   * Collects the packages that can hold matches, in order of path, skipping sub-trees whose
+   * summaries rule out every clause.
+   */
+  @NotNull
+  private List<QuerySpliterator.Slice<E>> slice(@NotNull JavaLanguage language) {
+    // Members are compiled before they are read, so nothing compiles while streams read in parallel.
+    language.compile();
+
+    final List<JavaPackage> roots = new ArrayList<>();
+    for (JavaPackage javaPackage : language.getPackages().values()) {
+      if (!javaPackage.hasParent()) roots.add(javaPackage);
+    }
+    roots.sort(Comparator.comparing(JavaPackage::getPath));
+
+    final List<QuerySpliterator.Slice<E>> slices = new ArrayList<>();
+    for (JavaPackage root : roots) {
+      slice(root, slices);
+    }
+    return slices;
+  }
+
+  private void slice(@NotNull JavaPackage javaPackage, @NotNull List<QuerySpliterator.Slice<E>> slices) {
+    final String path = javaPackage.getPath();
+    final PackageSummary summary = javaPackage.getSummary();
+
+    final List<Clause<E>> active = new ArrayList<>();
+    boolean descend = false;
+    for (Clause<E> clause : clauses) {
+      if (!clause.mayMatch(summary, kinds, false) || !clause.mayDescend(path)) continue;
+      descend = true;
+      if (clause.includes(path) && clause.mayMatch(summary, kinds, true)) active.add(clause);
+    }
+    if (!descend) return;
+
+    if (!active.isEmpty()) {
+      Collection<JavaClass> values = javaPackage.getClasses().values();
+      JavaClass[] classes = values.toArray(new JavaClass[0]);
+      Arrays.sort(classes, Comparator.comparing(JavaClass::getName));
+      long weight = 0;
+      for (PackageSummary.Kind kind : kinds) weight += summary.getLocalCount(kind);
+      slices.add(
+          new QuerySpliterator.Slice<>(
+              javaPackage, classes, 0, classes.length, weight, List.copyOf(active)));
+    }
+
+    final List<JavaPackage> children = new ArrayList<>(javaPackage.getPackages().values());
+    children.sort(Comparator.comparing(JavaPackage::getPath));
+    for (JavaPackage child : children) {
+      slice(child, slices);
+    }
+  }
+
+  /** Adds the members of a class that the query searches. */
+  @SuppressWarnings({"unchecked"})
+  void collect(@NotNull JavaClass javaClass, @NotNull List<E> members) {
+    for (PackageSummary.Kind kind : kinds) {
+      switch (kind) {
+        case CLASS -> members.add((E) javaClass);
+        case FIELD -> {
+          for (JavaField field : javaClass.getFields().values()) members.add((E) field);
+        }
+        case METHOD -> {
+          for (JavaExecutableCollection<JavaMethod> methods : javaClass.getMethods().values()) {
+            for (JavaMethod method : methods.getExecutables()) members.add((E) method);
+          }
+        }
+        case CONSTRUCTOR -> {
+          for (JavaConstructor constructor : javaClass.getConstructors().getExecutables()) {
+            members.add((E) constructor);
+          }
+        }
+      }
+    }
+  }
+
+  @NotNull
+  private JavaQuery<E> with(@NotNull UnaryOperator<Clause<E>> change) {
+    final List<Clause<E>> clauses = new ArrayList<>(this.clauses.size());
+    for (Clause<E> clause : this.clauses) clauses.add(change.apply(clause));
+    return new JavaQuery<>(type, kinds, List.copyOf(clauses));
+  }
+
+  private static int getFlags(@NotNull RosettaObject object) {
+    if (object instanceof JavaClass javaClass) return PackageSummary.getFlags(javaClass);
+    if (object instanceof JavaField field) return PackageSummary.getFlags(field);
+    return PackageSummary.getFlags((JavaExecutable<?>) object);
+  }
+
+  @NotNull
+  private static String getName(@NotNull RosettaObject object) {
+    if (object instanceof JavaClass javaClass) return javaClass.getName();
+    if (object instanceof JavaField field) return field.getName();
+    return ((JavaExecutable<?>) object).getName();
+  }
+
+  private static boolean usesType(@NotNull RosettaObject object, @NotNull String type) {
+    if (object instanceof JavaClass javaClass) {
+      TypeReference extendz = javaClass.getExtends();
+      if (extendz != null && uses(extendz, type)) return true;
+      for (TypeReference implement : javaClass.getImplements()) {
+        if (uses(implement, type)) return true;
+      }
+      return false;
+    }
+    if (object instanceof JavaField field) return uses(field.getType(), type);
+    JavaExecutable<?> executable = (JavaExecutable<?>) object;
+    for (JavaParameter parameter : executable.getParameters()) {
+      if (uses(parameter.getType(), type)) return true;
+    }
+    return executable instanceof JavaMethod method
+        && method.getReturns() != null
+        && uses(method.getReturns().getType(), type);
+  }
+
+  private static boolean uses(@NotNull TypeReference reference, @NotNull String type) {
+    for (String name : TypeUsageIndex.getNames(reference)) {
+      if (name.equals(type)) return true;
+    }
+    return false;
+  }
+
+  /** One alternative of a query. Every condition of a clause must hold. */
+  static final class Clause<E> {
+
+    /** The package patterns. (Empty for every package) */
+    private final String[] packages;
+
+    /** The accepted flags of each group. (See {@link PackageSummary#GROUPS}) */
+    private final int[] accepts;
+
+    private final String[] tags;
+    private final List<Predicate<? super E>> predicates;
+
+    Clause() {
+      this(new String[0], PackageSummary.GROUPS.clone(), new String[0], List.of());
+    }
+
+    private Clause(
+        @NotNull String[] packages,
+        @NotNull int[] accepts,
+        @NotNull String[] tags,
+        @NotNull List<Predicate<? super E>> predicates) {
+      this.packages = packages;
+      this.accepts = accepts;
+      this.tags = tags;
+      this.predicates = predicates;
+    }
+
+    @NotNull
+    Clause<E> withPackage(@NotNull String pattern) {
+      String[] packages = Arrays.copyOf(this.packages, this.packages.length + 1);
+      packages[this.packages.length] = pattern;
+      return new Clause<>(packages, accepts, tags, predicates);
+    }
+
+    @NotNull
+    Clause<E> withFlags(int group, int accept) {
+      int[] accepts = this.accepts.clone();
+      accepts[group] &= accept;
+      return new Clause<>(packages, accepts, tags, predicates);
+    }
+
+    @NotNull
+    Clause<E> withTag(@NotNull String tag) {
+      String[] tags = Arrays.copyOf(this.tags, this.tags.length + 1);
+      tags[this.tags.length] = tag;
+      return new Clause<>(packages, accepts, tags, predicates);
+    }
+
+    @NotNull
+    Clause<E> withPredicate(@NotNull Predicate<? super E> predicate) {
+      final List<Predicate<? super E>> predicates = new ArrayList<>(this.predicates);
+      predicates.add(predicate);
+      return new Clause<E>(packages, accepts, tags, List.copyOf(predicates));
+    }
+
+    /**
+     * @param summary The summary of a package.
+     * @param kinds The kinds of definitions searched.
+     * @param local True to test the package alone, false to test it with its sub-packages.
+     * @return False if no definition summarized can match the clause.
+     */
+    boolean mayMatch(
+        @NotNull PackageSummary summary, @NotNull PackageSummary.Kind[] kinds, boolean local) {
+      if (!local) {
+        for (String tag : tags) {
+          if (!summary.getTags().contains(tag)) return false;
+        }
+      }
+      for (PackageSummary.Kind kind : kinds) {
+        int flags = local ? summary.getLocalFlags(kind) : summary.getFlags(kind);
+        if (matchesFlags(flags)) return true;
+      }
+      return false;
+    }
+
+    /**
+     * @return True if the package or one of its sub-packages can match a package pattern.
+     */
+    boolean mayDescend(@NotNull String path) {
+      if (packages.length == 0) return true;
+      for (String pattern : packages) {
+        String base = pattern.endsWith(".*") ? pattern.substring(0, pattern.length() - 2) : pattern;
+        if (base.equals(path)
+            || base.startsWith(path + ".")
+            || (pattern.endsWith(".*") && path.startsWith(base + "."))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @return True if the package matches a package pattern.
+     */
+    boolean includes(@NotNull String path) {
+      if (packages.length == 0) return true;
+      for (String pattern : packages) {
+        if (pattern.endsWith(".*")) {
+          String base = pattern.substring(0, pattern.length() - 2);
+          if (path.equals(base) || path.startsWith(base + ".")) return true;
+        } else if (path.equals(pattern)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    boolean matches(@NotNull E object) {
+      if (!matchesFlags(getFlags((RosettaObject) object))) return false;
+      for (String tag : tags) {
+        if (!(object instanceof Taggable taggable) || !taggable.hasTag(tag)) return false;
+      }
+      for (Predicate<? super E> predicate : predicates) {
+        if (!predicate.test(object)) return false;
+      }
+      return true;
+    }
+
+    private boolean matchesFlags(int flags) {
+      for (int accept : accepts) {
+        if ((flags & accept) == 0) return false;
+      }
+      return true;
+    }
+  }
+
+  private record Cached<E>(long revision, @NotNull List<E> matches) {}
+}
@@ -0,0 +1,150 @@
+package com.asledgehammer.rosetta.java.query;
+
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaPackage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates a {@link JavaQuery} over slices of the classes of packages. Splits halve the remaining
+ * slices by the count of definitions they summarize, and a single slice splits by halving its
+ * classes. Members of a class are only read when the class is reached.
+ *
+ * @param <E> The type of definition.
+ */
+final class QuerySpliterator<E extends RosettaObject> implements Spliterator<E> {
+
+  /**
+   * A range of the classes of a package to search.
+   *
+   * @param javaPackage The package.
+   * @param classes The classes of the package. (Sorted by name)
+   * @param from The first class to search.
+   * @param to The class after the last to search.
+   * @param weight The estimated count of definitions to test.
+   * @param clauses The clauses that can match in the package. (Read-only)
+   */
+  record Slice<E>(
+      @NotNull JavaPackage javaPackage,
+      @NotNull JavaClass[] classes,
+      int from,
+      int to,
+      long weight,
+      @NotNull List<JavaQuery.Clause<E>> clauses) {}
+
+  private final JavaQuery<E> query;
+  private List<Slice<E>> slices;
+  private int index;
+  private long weight;
+
+  /** The slice being searched. (If any) */
+  @Nullable private Slice<E> slice;
+
+  private int next;
+  private final List<E> members = new ArrayList<>();
+  private int member;
+
+  QuerySpliterator(@NotNull JavaQuery<E> query, @NotNull List<Slice<E>> slices) {
+    this.query = query;
+    this.slices = slices;
+    for (Slice<E> slice : slices) weight += slice.weight();
+  }
+
+  @Override
+  public boolean tryAdvance(@NotNull Consumer<? super E> action) {
+    while (true) {
+      while (member < members.size()) {
+        E object = members.get(member++);
+        if (matches(object)) {
+          action.accept(object);
+          return true;
+        }
+      }
+      members.clear();
+      member = 0;
+
+      if (slice != null && next < slice.to()) {
+        query.collect(slice.classes()[next++], members);
+        continue;
+      }
+      if (index == slices.size()) return false;
+      slice = slices.get(index++);
+      weight -= slice.weight();
+      next = slice.from();
+    }
+  }
+
+  private boolean matches(@NotNull E object) {
+    for (JavaQuery.Clause<E> clause : slice.clauses()) {
+      if (clause.matches(object)) return true;
+    }
+    return false;
+  }
+
+  @Nullable
+  @Override
+  public Spliterator<E> trySplit() {
+    // Splits hand out a prefix, so a spliterator part-way through a slice keeps the rest.
+    if (slice != null) return null;
+    final int remaining = slices.size() - index;
+    if (remaining >= 2) {
+      // Split at the middle of the remaining weight.
+      long half = weight / 2;
+      long sum = 0;
+      int middle = index;
+      while (middle < slices.size() - 1 && sum + slices.get(middle).weight() <= half) {
+        sum += slices.get(middle++).weight();
+      }
+      if (middle == index) middle++;
+      List<Slice<E>> prefix = slices.subList(index, middle);
+      index = middle;
+      QuerySpliterator<E> split = new QuerySpliterator<>(query, prefix);
+      weight -= split.weight;
+      return split;
+    }
+    if (remaining == 1) {
+      // Split the last slice by its classes.
+      Slice<E> last = slices.get(index);
+      int count = last.to() - last.from();
+      if (count < 2) return null;
+      int middle = last.from() + count / 2;
+      long firstWeight = last.weight() / 2;
+      Slice<E> first =
+          new Slice<>(
+              last.javaPackage(), last.classes(), last.from(), middle, firstWeight, last.clauses());
+      Slice<E> second =
+          new Slice<>(
+              last.javaPackage(),
+              last.classes(),
+              middle,
+              last.to(),
+              last.weight() - firstWeight,
+              last.clauses());
+      slices = List.of(second);
+      index = 0;
+      weight -= firstWeight;
+      return new QuerySpliterator<>(query, List.of(first));
+    }
+    return null;
+  }
+
+  @Override
+  public long estimateSize() {
+    long size = weight + members.size() - member;
+    if (slice != null && next < slice.to()) {
+      size += slice.weight() * (slice.to() - next) / Math.max(1, slice.to() - slice.from());
+    }
+    return size;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+}
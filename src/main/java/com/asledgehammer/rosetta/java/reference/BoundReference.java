@@ -3,7 +3,7 @@ package com.asledgehammer.rosetta.java.reference;
 /** Any reference that supports type-boundaries. */
 public interface BoundReference {
   /**
-   * @return The upper type-boundaries allowed as an array.
+   * @return The upper type-boundaries allowed as an array. (A copy, since references are shared)
    */
   TypeReference[] getBounds();
 }
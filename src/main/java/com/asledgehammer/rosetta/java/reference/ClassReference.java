@@ -1,13 +1,15 @@
 package com.asledgehammer.rosetta.java.reference;
 
+import com.asledgehammer.rosetta.FootprintEstimator;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jetbrains.annotations.NotNull;
 
 @SuppressWarnings("unused")
 public class ClassReference {
 
-  private static final Map<Class<?>, ClassReference> CACHE = new HashMap<>();
+  private static final Map<Class<?>, ClassReference> CACHE = new ConcurrentHashMap<>();
 
   private final Map<Class<?>, Map<String, TypeReference>> assignedSuperVariables = new HashMap<>();
 
@@ -23,6 +25,18 @@ public class ClassReference {
   private final Map<Method, MethodReference> methodReferenceMap = new HashMap<>();
   private final Map<Constructor<?>, ConstructorReference> constructorReferenceMap = new HashMap<>();
 
+  /**
+   * Flattened substitution table: ancestor class -> (type variable -> type assigned from this
+   * class). Variables of this class are stored with their bounds.
+   */
+  private final Map<Class<?>, Map<String, TypeReference>> resolvedVariables = new HashMap<>();
+
+  /** Resolved types keyed by (type, declaring class). */
+  private final Map<DeclaredType, TypeReference> resolvedTypes = new ConcurrentHashMap<>();
+
+  /** Compiled types keyed by (type, declaring class). */
+  private final Map<DeclaredType, String> compiledTypes = new ConcurrentHashMap<>();
+
   private ClassReference(@NotNull Class<?> clazz) {
     this.clazz = clazz;
 
@@ -56,6 +70,15 @@ public class ClassReference {
       }
     }
 
+    // Flatten the super-type variable assignments before any member resolves its types.
+    // (Super-class route first, then interfaces)
+    if (superClazzReference != null) {
+      flatten(superClazzReference);
+    }
+    for (ClassReference interfazeReference : superInterfazeReferences) {
+      flatten(interfazeReference);
+    }
+
     // Fields
     Field[] fields = clazz.getFields();
     for (Field field : fields) {
@@ -135,40 +158,108 @@ public class ClassReference {
     return resolveType(TypeReference.of(type), deCl);
   }
 
+  /**
+   * Resolves a type used by a member declared in this class or one of its super-types, as seen
+   * from this class. (Cached)
+   *
+   * @param type The type to resolve.
+   * @param deCl The class declaring the member using the type.
+   * @return The resolved type.
+   */
   public TypeReference resolveType(@NotNull TypeReference type, @NotNull Class<?> deCl) {
-    String rawType = type.getBase();
+    DeclaredType key = new DeclaredType(type, deCl);
+    TypeReference resolvedType = resolvedTypes.get(key);
+    if (resolvedType == null) {
+      resolvedType = onResolveType(type, deCl);
+      resolvedTypes.put(key, resolvedType);
+    }
+    return resolvedType;
+  }
+
+  @NotNull
+  private TypeReference onResolveType(@NotNull TypeReference type, @NotNull Class<?> deCl) {
     TypeReference resolvedType = type;
-    TypeReference[] bounds = resolvedType.getBounds();
-    Stack<ClassReference> chain = resolveChain(deCl);
-
-    // Here we resolve the hierarchy as a stack to traverse backwards.
-    List<ClassReference> stackRef = new ArrayList<>(chain);
-
-    ClassReference sup = stackRef.remove(stackRef.size() - 1);
-    while (!stackRef.isEmpty()) {
-      ClassReference refNext = stackRef.remove(stackRef.size() - 1);
-      if (refNext.assignedSuperVariables.containsKey(sup.clazz)) {
-        Map<String, TypeReference> vars = refNext.assignedSuperVariables.get(sup.clazz);
-        if (vars.containsKey(rawType)) {
-          // The class contains an entry of the var name as generic so transform it to the
-          // applied type.
-          resolvedType = vars.get(rawType);
-          if (resolvedType.isGeneric()) {
-            TypeReference o = refNext.genericTypesMap.get(resolvedType.getBase());
-            if (o != null) bounds = o.getBounds();
-          }
-        }
+
+    // Wildcards carry their own bounds.
+    if (type.isWildcard()) return type;
+
+    Map<String, TypeReference> vars =
+        deCl == this.clazz ? this.genericTypesMap : this.resolvedVariables.get(deCl);
+    if (vars != null) {
+      TypeReference assigned = vars.get(type.getBase());
+      if (assigned != null) {
+        resolvedType = assigned;
       }
-      sup = refNext;
     }
 
-    if (!resolvedType.isPrimitive() && resolvedType.isGeneric()) {
-      return new UnionTypeReference(resolvedType.getBase(), true, bounds);
+    if (!resolvedType.isPrimitive() && resolvedType.isGeneric() && !resolvedType.isWildcard()) {
+      return TypeReference.intern(
+          new UnionTypeReference(resolvedType.getBase(), true, resolvedType.getBounds()));
     }
 
     return resolvedType;
   }
 
+  /**
+   * Folds a direct super-type's substitution table into this class's table, rewriting the
+   * super-type's variables with the types this class assigns to them.
+   *
+   * @param superReference The direct super-class or super-interface reference.
+   */
+  private void flatten(@NotNull ClassReference superReference) {
+    Map<String, TypeReference> assigned = assignedSuperVariables.get(superReference.clazz);
+
+    // The direct super-type's own variables.
+    Map<String, TypeReference> direct =
+        resolvedVariables.computeIfAbsent(superReference.clazz, k -> new HashMap<>());
+    for (Map.Entry<String, TypeReference> entry : assigned.entrySet()) {
+      direct.putIfAbsent(entry.getKey(), bind(entry.getValue()));
+    }
+
+    // Every ancestor of the super-type.
+    for (Map.Entry<Class<?>, Map<String, TypeReference>> ancestor :
+        superReference.resolvedVariables.entrySet()) {
+      Map<String, TypeReference> vars =
+          resolvedVariables.computeIfAbsent(ancestor.getKey(), k -> new HashMap<>());
+      for (Map.Entry<String, TypeReference> entry : ancestor.getValue().entrySet()) {
+        TypeReference type = entry.getValue();
+        if (type.isGeneric() && !type.isWildcard() && assigned.containsKey(type.getBase())) {
+          type = bind(assigned.get(type.getBase()));
+        }
+        vars.putIfAbsent(entry.getKey(), type);
+      }
+    }
+  }
+
+  /**
+   * @param type The type assigned from this class.
+   * @return The type with bounds if it is one of this class's type variables.
+   */
+  @NotNull
+  private TypeReference bind(@NotNull TypeReference type) {
+    if (type.isGeneric() && !type.isWildcard()) {
+      TypeReference variable = genericTypesMap.get(type.getBase());
+      if (variable != null) return variable;
+    }
+    return type;
+  }
+
+  /**
+   * @param type The type to compile.
+   * @param deCl The class declaring the member using the type.
+   * @return The compiled type, resolved from this class. (Cached)
+   */
+  @NotNull
+  public String compile(@NotNull TypeReference type, @NotNull Class<?> deCl) {
+    DeclaredType key = new DeclaredType(type, deCl);
+    String compiled = compiledTypes.get(key);
+    if (compiled == null) {
+      compiled = type.onCompile(this, deCl);
+      compiledTypes.put(key, compiled);
+    }
+    return compiled;
+  }
+
   @Override
   public String toString() {
     return "ClassReference(" + this.clazz + ")";
@@ -205,6 +296,74 @@ public class ClassReference {
     return fieldReferenceMap.get(field);
   }
 
+  /**
+   * Estimates the heap retained by the reference: its member references, the reflection objects
+   * they hold and its resolution caches. Canonical types and super-class references are excluded.
+   *
+   * @return The estimated bytes.
+   */
+  public long estimateFootprint() {
+    long bytes = FootprintEstimator.shallowSizeOf(getClass());
+    bytes += FootprintEstimator.array(superInterfazeReferences.length, FootprintEstimator.REFERENCE);
+    bytes += FootprintEstimator.sizeOfHashMap(HashMap.class, genericTypesMap.size());
+    bytes += estimateNested(assignedSuperVariables) + estimateNested(resolvedVariables);
+
+    bytes += FootprintEstimator.sizeOfHashMap(HashMap.class, fieldReferenceMap.size());
+    bytes +=
+        fieldReferenceMap.size()
+            * (FootprintEstimator.shallowSizeOf(FieldReference.class)
+                + FootprintEstimator.shallowSizeOf(Field.class));
+    bytes += FootprintEstimator.sizeOfHashMap(HashMap.class, methodReferenceMap.size());
+    for (MethodReference reference : methodReferenceMap.values()) {
+      bytes += estimateExecutable(reference) + FootprintEstimator.shallowSizeOf(ReturnReference.class);
+    }
+    bytes += FootprintEstimator.sizeOfHashMap(HashMap.class, constructorReferenceMap.size());
+    for (ConstructorReference reference : constructorReferenceMap.values()) {
+      bytes += estimateExecutable(reference);
+    }
+
+    bytes += FootprintEstimator.sizeOfHashMap(ConcurrentHashMap.class, resolvedTypes.size());
+    bytes += resolvedTypes.size() * FootprintEstimator.shallowSizeOf(DeclaredType.class);
+    bytes += FootprintEstimator.sizeOfHashMap(ConcurrentHashMap.class, compiledTypes.size());
+    bytes += compiledTypes.size() * FootprintEstimator.shallowSizeOf(DeclaredType.class);
+    for (String compiled : compiledTypes.values()) {
+      bytes += FootprintEstimator.sizeOf(compiled);
+    }
+    return bytes;
+  }
+
+  private static long estimateExecutable(@NotNull ExecutableReference<?> reference) {
+    int parameters = reference.getParameterReferences().length;
+    long bytes = FootprintEstimator.shallowSizeOf(reference.getClass());
+    bytes += FootprintEstimator.shallowSizeOf(reference.getExecutable().getClass());
+    bytes += FootprintEstimator.array(reference.getBounds().length, FootprintEstimator.REFERENCE);
+    if (parameters != 0) {
+      // The references and the reflection parameters cached by the executable.
+      bytes += 2 * FootprintEstimator.array(parameters, FootprintEstimator.REFERENCE);
+      bytes +=
+          parameters
+              * (FootprintEstimator.shallowSizeOf(ParameterReference.class)
+                  + FootprintEstimator.shallowSizeOf(Parameter.class));
+    }
+    return bytes;
+  }
+
+  private static long estimateNested(@NotNull Map<Class<?>, Map<String, TypeReference>> map) {
+    long bytes = FootprintEstimator.sizeOfHashMap(HashMap.class, map.size());
+    for (Map<String, TypeReference> nested : map.values()) {
+      bytes += FootprintEstimator.sizeOfHashMap(nested.getClass(), nested.size());
+    }
+    return bytes;
+  }
+
+  /**
+   * @return A read-only view of the cached class references.
+   */
+  @NotNull
+  public static Collection<ClassReference> getCached() {
+    return Collections.unmodifiableCollection(CACHE.values());
+  }
+
   @NotNull
   public Class<?> getClazz() {
     return clazz;
@@ -212,52 +371,34 @@ public class ClassReference {
 
   @NotNull
   public static ClassReference of(@NotNull Class<?> clazz) {
-    if (CACHE.containsKey(clazz)) return CACHE.get(clazz);
-    return new ClassReference(clazz);
+    ClassReference reference = CACHE.get(clazz);
+    if (reference == null) {
+      reference = new ClassReference(clazz);
+      ClassReference existing = CACHE.putIfAbsent(clazz, reference);
+      if (existing != null) reference = existing;
+    }
+    return reference;
   }
 
   /**
-   * @param superClazz The super-class or super-interface.
+   * @param superClazzClazz The class of the super-class or super-interface.
+   * @param superClazz The generic super-class or super-interface.
    * @return The map of resolved generic types.
    */
   @NotNull
   public static Map<String, TypeReference> createTypeMap(
       @NotNull Class<?> superClazzClazz, @NotNull Type superClazz) {
-    Type[] types = superClazzClazz.getTypeParameters();
-    String rawSuperClazzName = superClazz.getTypeName();
-
-    int height = 0;
-    List<TypeReference> vars = new ArrayList<>();
-    StringBuilder var = new StringBuilder();
-    for (int x = 0; x < rawSuperClazzName.length(); x++) {
-      char curr = rawSuperClazzName.charAt(x);
-      if (curr == '<') {
-        height++;
-        if (height > 1) {
-          var.append(curr);
-        }
-      } else if (curr == '>') {
-        height--;
-        if (height > 0) {
-          var.append(curr);
-        } else {
-          break;
-        }
-      } else if (curr == ',' && height == 1) {
-        vars.add(TypeReference.of(var.toString()));
-        var = new StringBuilder();
-      } else if (height != 0) {
-        var.append(curr);
-      }
-    }
+    Map<String, TypeReference> map = new HashMap<>();
 
-    if (!var.isEmpty()) {
-      vars.add(TypeReference.of(var.toString()));
+    // Raw super-types don't assign their variables.
+    if (!(superClazz instanceof ParameterizedType parameterized)) {
+      return map;
     }
 
-    Map<String, TypeReference> map = new HashMap<>();
-    for (int x = 0; x < types.length; x++) {
-      map.put(types[x].getTypeName(), vars.get(x));
+    TypeVariable<?>[] types = superClazzClazz.getTypeParameters();
+    Type[] arguments = parameterized.getActualTypeArguments();
+    for (int x = 0; x < types.length && x < arguments.length; x++) {
+      map.put(types[x].getTypeName(), TypeReference.of(arguments[x]));
     }
 
     return map;
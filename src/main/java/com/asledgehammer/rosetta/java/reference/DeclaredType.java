@@ -0,0 +1,29 @@
+package com.asledgehammer.rosetta.java.reference;
+
+import org.jetbrains.annotations.NotNull;
+
+/** A (type, declaring class) pair used to key per-class resolution caches. */
+final class DeclaredType {
+
+  private final TypeReference type;
+  private final Class<?> deCl;
+  private final int hash;
+
+  DeclaredType(@NotNull TypeReference type, @NotNull Class<?> deCl) {
+    this.type = type;
+    this.deCl = deCl;
+    this.hash = 31 * type.hashCode() + deCl.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof DeclaredType other)) return false;
+    return this.deCl == other.deCl && this.type.equals(other.type);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
@@ -2,6 +2,7 @@ package com.asledgehammer.rosetta.java.reference;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -19,15 +20,23 @@ public class SimpleTypeReference extends TypeReference {
   private final boolean primitive;
   private final boolean generic;
   private final TypeReference[] bounds;
+  private final int hash;
+
+  /** The memoized result of {@link SimpleTypeReference#compile()}. */
+  private String compiled;
 
   SimpleTypeReference(String raw) {
     if (raw.contains("<")) {
-      this.base = raw.substring(0, raw.indexOf('<'));
+      // Keep any array brackets trailing the type arguments. (E.G: `java.util.List<T>[]`)
+      this.base =
+          raw.substring(0, raw.indexOf('<')) + raw.substring(raw.lastIndexOf('>') + 1).trim();
       List<String> subTypesStr = getGenericTypes(raw);
-      subTypes = new ArrayList<>();
+      List<TypeReference> subTypes = new ArrayList<>();
       for (String subTypeStr : subTypesStr) {
         subTypes.add(TypeReference.of(subTypeStr));
       }
+      // Instances are interned and shared, so the list must be read-only.
+      this.subTypes = List.copyOf(subTypes);
     } else {
       String base = raw.trim();
       if (base.contains(" extends ")) {
@@ -41,52 +50,92 @@ public class SimpleTypeReference extends TypeReference {
     }
 
     this.wildcard = this.base.equals("?");
-    this.primitive = PRIMITIVE_TYPES.contains(this.base);
+
+    // Arrays are reference types and are generic only if their element type is.
+    String element = this.base;
+    boolean array = element.endsWith("[]");
+    if (array) {
+      element = element.substring(0, element.indexOf('['));
+    }
+    this.primitive = !array && PRIMITIVE_TYPES.contains(element);
+
     boolean generic = this.wildcard;
-    if (!generic && !this.primitive) {
-      // Attempt to resolve the path. if it doesn't exist then it's considered generic.
-      try {
-        Class.forName(this.base, false, ClassLoader.getSystemClassLoader());
-      } catch (Exception e) {
-        generic = true;
-      }
+    if (!generic && !PRIMITIVE_TYPES.contains(element)) {
+      generic = isGenericName(element);
     }
     this.generic = generic;
     this.bounds = this.generic ? OBJECT_BOUNDS : new TypeReference[] {this};
+    this.hash = Objects.hash(this.base, this.subTypes, this.generic);
+  }
+
+  /**
+   * Structural constructor used when building from Java reflection types.
+   *
+   * @param base The base type-name. (Array types end with `[]`)
+   * @param subTypes The parameterized type arguments, if any.
+   * @param primitive True if the type is a primitive.
+   * @param generic True if the type is generic.
+   */
+  SimpleTypeReference(
+      @NotNull String base,
+      @Nullable List<TypeReference> subTypes,
+      boolean primitive,
+      boolean generic) {
+    this.base = base;
+    this.subTypes = subTypes != null ? List.copyOf(subTypes) : null;
+    this.wildcard = false;
+    this.primitive = primitive;
+    this.generic = generic;
+    this.bounds = this.generic ? OBJECT_BOUNDS : new TypeReference[] {this};
+    this.hash = Objects.hash(this.base, this.subTypes, this.generic);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof SimpleTypeReference other) || this.hash != other.hash) return false;
+    return this.generic == other.generic
+        && this.base.equals(other.base)
+        && Objects.equals(this.subTypes, other.subTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
   }
 
   @NotNull
   public String compile() {
-    String compiled = this.base;
-    if (subTypes != null) {
-      StringBuilder subTypeStr = new StringBuilder();
-      for (TypeReference subType : subTypes) {
-        if (subTypeStr.isEmpty()) {
-          subTypeStr = new StringBuilder(subType.compile());
-        } else {
-          subTypeStr.append(", ").append(subType.compile());
+    // Immutable, so the compiled form is built once.
+    String compiled = this.compiled;
+    if (compiled == null) {
+      compiled = this.base;
+      if (subTypes != null) {
+        StringBuilder subTypeStr = new StringBuilder();
+        for (TypeReference subType : subTypes) {
+          if (!subTypeStr.isEmpty()) subTypeStr.append(", ");
+          subTypeStr.append(subType.compile());
         }
+        compiled = insertSubTypes(compiled, subTypeStr.toString());
       }
-      compiled += '<' + subTypeStr.toString() + '>';
+      this.compiled = compiled;
     }
     return compiled;
   }
 
   @NotNull
-  public String compile(@NotNull ClassReference reference, @NotNull Class<?> deCl) {
-    String compiled = reference.resolveType(this, deCl).compile();
-    if (subTypes != null) {
-      StringBuilder subTypeStr = new StringBuilder();
-      for (TypeReference subType : subTypes) {
-        if (subTypeStr.isEmpty()) {
-          subTypeStr = new StringBuilder(subType.compile(reference, deCl));
-        } else {
-          subTypeStr.append(", ").append(subType.compile(reference, deCl));
-        }
-      }
-      compiled += '<' + subTypeStr.toString() + '>';
+  @Override
+  protected String onCompile(@NotNull ClassReference reference, @NotNull Class<?> deCl) {
+    // Parameterized types are never type variables, so only their sub-types are resolved.
+    if (subTypes == null) {
+      return reference.resolveType(this, deCl).compile();
     }
-    return compiled;
+    StringBuilder subTypeStr = new StringBuilder();
+    for (TypeReference subType : subTypes) {
+      if (!subTypeStr.isEmpty()) subTypeStr.append(", ");
+      subTypeStr.append(subType.compile(reference, deCl));
+    }
+    return insertSubTypes(this.base, subTypeStr.toString());
   }
 
   @Override
@@ -112,7 +161,7 @@ public class SimpleTypeReference extends TypeReference {
   @NotNull
   @Override
   public TypeReference[] getBounds() {
-    return bounds;
+    return bounds.clone();
   }
 
   public boolean hasSubTypes() {
@@ -132,6 +181,20 @@ public class SimpleTypeReference extends TypeReference {
     return subTypes;
   }
 
+  /**
+   * @param base The compiled base type. (Array types end with `[]`)
+   * @param subTypes The compiled sub-types.
+   * @return The compiled type with sub-types placed before any array brackets.
+   */
+  @NotNull
+  static String insertSubTypes(@NotNull String base, @NotNull String subTypes) {
+    int array = base.indexOf('[');
+    if (array == -1) {
+      return base + '<' + subTypes + '>';
+    }
+    return base.substring(0, array) + '<' + subTypes + '>' + base.substring(array);
+  }
+
   public static List<String> getGenericTypes(String raw) {
     int level = 0;
     final List<String> vars = new ArrayList<>();
@@ -1,17 +1,39 @@
 package com.asledgehammer.rosetta.java.reference;
 
+import com.asledgehammer.rosetta.FootprintEstimator;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jetbrains.annotations.NotNull;
 
 @SuppressWarnings("unused")
 public abstract class TypeReference {
 
-  private static final Map<Type, TypeReference> CACHE = new HashMap<>();
+  private static final Map<Type, TypeReference> CACHE = new ConcurrentHashMap<>();
+
+  /** Stores whether or not a base type-name resolves to a class. (Unresolved names are generic) */
+  private static final Map<String, Boolean> MAP_CHECKED_GENERIC = new ConcurrentHashMap<>();
+
+  /**
+   * Hash-consing table. Every TypeReference handed out by this API is the canonical instance for
+   * its structure, so equal types can be compared by identity and used as map keys cheaply.
+   *
+   * <p>NOTE: The table holds strong references and is shared by every collection in the process, so
+   * it only grows. Processes that load and discard many collections should invoke {@link
+   * #clearCache()} once the types are no longer used.
+   */
+  private static final Map<TypeReference, TypeReference> INTERNED = new ConcurrentHashMap<>();
+
+  /** Parsed string types. (Avoids re-parsing and re-resolving the same raw strings) */
+  private static final Map<String, TypeReference> PARSED = new ConcurrentHashMap<>();
 
   static final List<String> PRIMITIVE_TYPES;
   static final TypeReference OBJECT_TYPE;
@@ -33,6 +55,53 @@ public abstract class TypeReference {
     OBJECT_TYPE_MAP = new TypeReference[] {OBJECT_TYPE};
   }
 
+  /**
+   * @param reference The reference to intern.
+   * @param <E> The type of reference.
+   * @return The canonical instance that is structurally equal to the reference.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  static <E extends TypeReference> E intern(@NotNull E reference) {
+    TypeReference existing = INTERNED.putIfAbsent(reference, reference);
+    return existing != null ? (E) existing : reference;
+  }
+
+  /**
+   * @return The count of canonical TypeReference instances currently interned.
+   */
+  public static int getInternedCount() {
+    return INTERNED.size();
+  }
+
+  /**
+   * Estimates the heap retained by the lookup tables of the API: the interning table, the
+   * reflection types cached as keys and the parsed strings. (Excluding the canonical instances)
+   *
+   * @param sampleSize The most keys sampled from each table.
+   * @return The estimated bytes.
+   */
+  public static long estimateTablesFootprint(int sampleSize) {
+    long bytes = FootprintEstimator.sizeOfHashMap(ConcurrentHashMap.class, INTERNED.size());
+    bytes += FootprintEstimator.sizeOfHashMap(ConcurrentHashMap.class, CACHE.size());
+    // Reflection types are created per lookup, so the cached keys are retained by the table.
+    bytes +=
+        FootprintEstimator.sample(
+            CACHE.keySet(), sampleSize, type -> FootprintEstimator.shallowSizeOf(type.getClass()));
+    bytes += FootprintEstimator.sizeOfHashMap(ConcurrentHashMap.class, PARSED.size());
+    bytes += FootprintEstimator.sample(PARSED.keySet(), sampleSize, FootprintEstimator::sizeOf);
+    bytes += FootprintEstimator.sizeOfHashMap(ConcurrentHashMap.class, MAP_CHECKED_GENERIC.size());
+    return bytes;
+  }
+
+  /**
+   * @return A read-only view of the canonical TypeReference instances currently interned.
+   */
+  @NotNull
+  public static Collection<TypeReference> getInterned() {
+    return Collections.unmodifiableCollection(INTERNED.keySet());
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "(compile() = " + compile() + ")";
@@ -44,8 +113,28 @@ public abstract class TypeReference {
   @NotNull
   public abstract String compile();
 
+  /**
+   * Compiles the type as seen from a class, resolving inherited type variables. Results are cached
+   * in the class reference per (type, declaring class).
+   *
+   * @param reference The class the type is viewed from.
+   * @param deCl The class declaring the member using the type.
+   * @return The compiled type.
+   */
+  @NotNull
+  public String compile(@NotNull ClassReference reference, @NotNull Class<?> deCl) {
+    return reference.compile(this, deCl);
+  }
+
+  /**
+   * Builds the compiled type as seen from a class. (Uncached)
+   *
+   * @param reference The class the type is viewed from.
+   * @param deCl The class declaring the member using the type.
+   * @return The compiled type.
+   */
   @NotNull
-  public abstract String compile(@NotNull ClassReference reference, @NotNull Class<?> deCl);
+  protected abstract String onCompile(@NotNull ClassReference reference, @NotNull Class<?> deCl);
 
   public abstract boolean isGeneric();
 
@@ -53,6 +142,10 @@ public abstract class TypeReference {
 
   public abstract boolean isPrimitive();
 
+  /**
+   * @return A copy of the bounds of the type. (Instances are interned and shared, so the bounds are
+   *     never handed out directly)
+   */
   @NotNull
   public abstract TypeReference[] getBounds();
 
@@ -64,33 +157,130 @@ public abstract class TypeReference {
     for (int i = 0; i < bounds.length; i++) {
       trBounds[i] = of(bounds[i]);
     }
-    TypeReference reference = new UnionTypeReference(type.getTypeName(), true, trBounds);
+    TypeReference reference = intern(new UnionTypeReference(type.getTypeName(), true, trBounds));
     CACHE.put(type, reference);
     return reference;
   }
 
+  /**
+   * Builds a TypeReference directly from the reflection structure of the type. (No string
+   * round-trip)
+   *
+   * <p>NOTE: Type variables reached through this method are not bounded. (Bounds are resolved
+   * through {@link ClassReference#resolveType(TypeReference, Class)} or {@link
+   * TypeReference#of(TypeVariable)})
+   *
+   * @param type The type to reference.
+   * @return The canonical TypeReference of the type.
+   */
   @NotNull
   public static TypeReference of(@NotNull Type type) {
-    if (CACHE.containsKey(type)) return CACHE.get(type);
-    TypeReference reference = of(type.getTypeName());
+    // Type variables are unbounded here and bounded in of(TypeVariable). Keep them out of the
+    // shared cache so that the two never collide.
+    if (type instanceof TypeVariable<?> variable) {
+      return intern(new UnionTypeReference(variable.getName(), true, OBJECT_TYPE_MAP));
+    }
+
+    TypeReference reference = CACHE.get(type);
+    if (reference != null) return reference;
+
+    if (type instanceof Class<?> clazz) {
+      reference = ofClass(clazz);
+    } else if (type instanceof ParameterizedType parameterized) {
+      Type[] arguments = parameterized.getActualTypeArguments();
+      List<TypeReference> subTypes = new ArrayList<>(arguments.length);
+      for (Type argument : arguments) {
+        subTypes.add(of(argument));
+      }
+      // The raw type's name already carries any owner type. (E.G: `java.util.Map$Entry`)
+      String base = parameterized.getRawType().getTypeName();
+      reference = intern(new SimpleTypeReference(base, subTypes, false, false));
+    } else if (type instanceof WildcardType wildcard) {
+      Type[] lower = wildcard.getLowerBounds();
+      boolean extendsOrSuper = lower.length == 0;
+      Type[] bounds = extendsOrSuper ? wildcard.getUpperBounds() : lower;
+      TypeReference[] trBounds = new TypeReference[bounds.length];
+      for (int i = 0; i < bounds.length; i++) {
+        trBounds[i] = of(bounds[i]);
+      }
+      reference = intern(new UnionTypeReference("?", extendsOrSuper, trBounds, true, true));
+    } else if (type instanceof GenericArrayType array) {
+      reference = ofArray(of(array.getGenericComponentType()));
+    } else {
+      // Unknown implementation of Type. Fall back to the type's name.
+      reference = of(type.getTypeName());
+    }
+
     CACHE.put(type, reference);
     return reference;
   }
 
   @NotNull
   public static TypeReference of(@NotNull Class<?> clazz) {
-    if (CACHE.containsKey(clazz)) {
-      return CACHE.get(clazz);
+    return of((Type) clazz);
+  }
+
+  @NotNull
+  private static TypeReference ofClass(@NotNull Class<?> clazz) {
+    if (clazz.isArray()) {
+      return ofArray(of(clazz.getComponentType()));
     }
-    TypeReference reference = of(clazz.getTypeName());
-    CACHE.put(clazz, reference);
-    return reference;
+    return intern(new SimpleTypeReference(clazz.getTypeName(), null, clazz.isPrimitive(), false));
+  }
+
+  @NotNull
+  private static TypeReference ofArray(@NotNull TypeReference component) {
+    if (component instanceof SimpleTypeReference simple) {
+      List<TypeReference> subTypes = simple.hasSubTypes() ? simple.getSubTypes() : null;
+      return intern(
+          new SimpleTypeReference(simple.getBase() + "[]", subTypes, false, simple.isGeneric()));
+    }
+    UnionTypeReference union = (UnionTypeReference) component;
+    return intern(
+        new UnionTypeReference(
+            union.getBase() + "[]", union.isExtendsOrSuper(), union.getBounds()));
+  }
+
+  /**
+   * @param base The base type-name. (Array brackets removed)
+   * @return True if the name doesn't resolve to a class and is considered generic.
+   */
+  static boolean isGenericName(@NotNull String base) {
+    Boolean result = MAP_CHECKED_GENERIC.get(base);
+    if (result == null) {
+      // Attempt to resolve the path. if it doesn't exist then it's considered generic.
+      try {
+        Class.forName(base, false, ClassLoader.getSystemClassLoader());
+        result = false;
+      } catch (Exception e) {
+        result = true;
+      }
+      MAP_CHECKED_GENERIC.put(base, result);
+    }
+    return result;
   }
 
   @NotNull
   public static TypeReference of(@NotNull String rawType) {
-    // No need to iterate.
-    if (!rawType.contains("&")) {
+    TypeReference reference = PARSED.get(rawType);
+    if (reference == null) {
+      reference = intern(parse(rawType));
+      PARSED.put(rawType, reference);
+    }
+    return reference;
+  }
+
+  @NotNull
+  private static TypeReference parse(@NotNull String rawType) {
+    // Wildcards carry their own bounds. (E.G: `? extends java.lang.Number`)
+    if (rawType.trim().startsWith("?")) {
+      return new UnionTypeReference(rawType, true, OBJECT_TYPE_MAP);
+    }
+
+    // Declared type variables carry their bounds. (E.G: `T extends java.lang.Number`)
+    final int extendsIndex = indexOfTopLevel(rawType, " extends ");
+    final int superIndex = extendsIndex == -1 ? indexOfTopLevel(rawType, " super ") : -1;
+    if (extendsIndex == -1 && superIndex == -1) {
       TypeReference reference = new SimpleTypeReference(rawType);
       if (reference.isGeneric()) {
         reference = new UnionTypeReference(reference.getBase(), true, OBJECT_TYPE_MAP);
@@ -98,16 +288,11 @@ public abstract class TypeReference {
       return reference;
     }
 
-    String base;
-    String sub;
-    boolean extendsOrSuper = rawType.contains(" extends ");
-    if (extendsOrSuper) {
-      base = rawType.substring(0, rawType.indexOf(" extends ") - 1);
-      sub = rawType.substring(rawType.indexOf(" extends ") + " extends ".length());
-    } else {
-      base = rawType.substring(0, rawType.indexOf(" super ") - 1);
-      sub = rawType.substring(rawType.indexOf(" super ") + " super ".length());
-    }
+    final boolean extendsOrSuper = extendsIndex != -1;
+    final int index = extendsOrSuper ? extendsIndex : superIndex;
+    final String base = rawType.substring(0, index);
+    final String sub =
+        rawType.substring(index + (extendsOrSuper ? " extends " : " super ").length());
 
     List<String> list = getStrings(sub);
 
@@ -119,6 +304,26 @@ public abstract class TypeReference {
     return new UnionTypeReference(base, extendsOrSuper, typeAliases);
   }
 
+  /**
+   * @param raw The raw type.
+   * @param token The token to find.
+   * @return The index of the token outside any type arguments, or -1 if not found.
+   */
+  private static int indexOfTopLevel(@NotNull String raw, @NotNull String token) {
+    int level = 0;
+    for (int index = 0; index < raw.length(); index++) {
+      char curr = raw.charAt(index);
+      if (curr == '<') {
+        level++;
+      } else if (curr == '>') {
+        level--;
+      } else if (level == 0 && raw.startsWith(token, index)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
   @NotNull
   private static List<String> getStrings(@NotNull String sub) {
     List<String> list = new ArrayList<>();
@@ -143,8 +348,19 @@ public abstract class TypeReference {
     return list;
   }
 
+  /**
+   * Clears the shared tables of the API, including the interned types. Types handed out before the
+   * clear are no longer canonical, so they must not be compared by identity with types handed out
+   * after it.
+   */
   public static void clearCache() {
     CACHE.clear();
+    PARSED.clear();
+    MAP_CHECKED_GENERIC.clear();
+    INTERNED.clear();
+
+    // Keep the shared Object type canonical.
+    INTERNED.put(OBJECT_TYPE, OBJECT_TYPE);
   }
 
   private static class TestType<J, K extends Map<J, String>> extends ArrayList<K> {}
@@ -12,26 +12,10 @@ public class UnionTypeReference extends TypeReference implements BoundReference
   private final boolean wildcard;
   private final boolean primitive;
   private final boolean generic;
+  private final int hash;
 
-  private static Map<String, Boolean> MAP_CHECKED_GENERIC = new HashMap<>();
-
-  private static boolean isGeneric(String base) {
-    if (MAP_CHECKED_GENERIC.containsKey(base)) {
-      return MAP_CHECKED_GENERIC.get(base);
-    }
-
-    boolean result = false;
-    // Attempt to resolve the path. if it doesn't exist then it's considered generic.
-    try {
-      Class.forName(base, false, ClassLoader.getSystemClassLoader());
-    } catch (Exception e) {
-      result = true;
-    }
-
-    MAP_CHECKED_GENERIC.put(base, result);
-
-    return result;
-  }
+  /** The memoized result of {@link UnionTypeReference#compile()}. */
+  private String compiled;
 
   UnionTypeReference(
       @NotNull String base, boolean extendsOrSuper, @NotNull TypeReference[] bounds) {
@@ -41,7 +25,7 @@ public class UnionTypeReference extends TypeReference implements BoundReference
       this.base = "?";
       this.primitive = false;
       this.generic = true;
-      this.extendsOrSuper = base.contains("? extends ");
+      this.extendsOrSuper = !base.contains("? super ");
 
       // We parse the types because they are preserved in runtime here, otherwise we'd only see
       // Object.
@@ -84,15 +68,65 @@ public class UnionTypeReference extends TypeReference implements BoundReference
     } else {
       this.base = base.trim();
       this.extendsOrSuper = extendsOrSuper;
-      this.bounds = bounds;
+      // Instances are interned and shared, so the caller's array must not be kept.
+      this.bounds = bounds.clone();
       String adjustedBase = this.base.replace("[]", "");
       this.primitive = PRIMITIVE_TYPES.contains(adjustedBase);
       boolean generic = false;
       if (!this.primitive) {
-        generic = isGeneric(adjustedBase);
+        generic = isGenericName(adjustedBase);
       }
       this.generic = generic;
     }
+
+    this.hash = computeHash();
+  }
+
+  private int computeHash() {
+    int hash = this.base.hashCode();
+    hash = 31 * hash + Boolean.hashCode(this.extendsOrSuper);
+    hash = 31 * hash + Boolean.hashCode(this.generic);
+    return 31 * hash + Arrays.hashCode(this.bounds);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof UnionTypeReference other) || this.hash != other.hash) return false;
+    return this.extendsOrSuper == other.extendsOrSuper
+        && this.generic == other.generic
+        && this.base.equals(other.base)
+        && Arrays.equals(this.bounds, other.bounds);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  /**
+   * Structural constructor used when building from Java reflection types.
+   *
+   * @param base The base type-name.
+   * @param extendsOrSuper True if the bounds are upper-bounds. (`extends`)
+   * @param bounds The bounds of the type.
+   * @param wildcard True if the type is a wildcard. (`?`)
+   * @param generic True if the type is generic.
+   */
+  UnionTypeReference(
+      @NotNull String base,
+      boolean extendsOrSuper,
+      @NotNull TypeReference[] bounds,
+      boolean wildcard,
+      boolean generic) {
+    this.base = base;
+    this.extendsOrSuper = extendsOrSuper;
+    // Instances are interned and shared, so the caller's array must not be kept.
+    this.bounds = bounds.clone();
+    this.wildcard = wildcard;
+    this.primitive = false;
+    this.generic = generic;
+    this.hash = computeHash();
   }
 
   public static void main(String[] args) {
@@ -103,23 +137,34 @@ public class UnionTypeReference extends TypeReference implements BoundReference
   @Override
   public String compile() {
     if (!isGeneric()) return this.base;
-    StringBuilder builder = new StringBuilder(this.base);
-    if (this.extendsOrSuper) {
-      builder.append(" extends ");
-    } else {
-      builder.append(" super ");
-    }
-    for (int i = 0; i < this.bounds.length; i++) {
-      TypeReference reference = this.bounds[i];
-      if (i != 0) builder.append(" & ");
-      builder.append(reference.compile());
+
+    // Immutable, so the compiled form is built once.
+    String compiled = this.compiled;
+    if (compiled == null) {
+      StringBuilder builder = new StringBuilder(this.base);
+      if (this.extendsOrSuper) {
+        builder.append(" extends ");
+      } else {
+        builder.append(" super ");
+      }
+      for (int i = 0; i < this.bounds.length; i++) {
+        TypeReference reference = this.bounds[i];
+        if (i != 0) builder.append(" & ");
+        builder.append(reference.compile());
+      }
+      compiled = builder.toString();
+      this.compiled = compiled;
     }
-    return builder.toString();
+    return compiled;
   }
 
   @NotNull
   @Override
-  public String compile(@NotNull ClassReference clazzReference, @NotNull Class<?> deCl) {
+  protected String onCompile(@NotNull ClassReference clazzReference, @NotNull Class<?> deCl) {
+    if (!this.wildcard) {
+      // Type variables are substituted with the type assigned from the viewing class.
+      return clazzReference.resolveType(this, deCl).compile();
+    }
     StringBuilder builder = new StringBuilder(this.base);
     if (this.extendsOrSuper) {
       builder.append(" extends ");
@@ -158,7 +203,7 @@ public class UnionTypeReference extends TypeReference implements BoundReference
   @NotNull
   @Override
   public TypeReference[] getBounds() {
-    return bounds;
+    return bounds.clone();
   }
 
   public boolean isExtendsOrSuper() {
@@ -0,0 +1,51 @@
+package com.asledgehammer.rosetta.java.snapshot;
+
+import com.asledgehammer.rosetta.java.JavaScope;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of a {@link com.asledgehammer.rosetta.java.JavaClass}.
+ *
+ * @param path The qualified path of the class.
+ * @param name The name of the class.
+ * @param extendz The super-class type. (If any)
+ * @param implementz The super-interface types.
+ * @param scope The scope of the class. (If known)
+ * @param isStatic True if the class is static.
+ * @param isFinal True if the class is final.
+ * @param notes The documentation notes. (If any)
+ * @param deprecated The deprecation message. (Empty if deprecated without a message, null if not
+ *     deprecated)
+ * @param tags The applied tags.
+ * @param fields The fields by name.
+ * @param constructors The constructors.
+ * @param methods The methods grouped by name.
+ */
+public record ClassSnapshot(
+    @NotNull String path,
+    @NotNull String name,
+    @Nullable TypeReference extendz,
+    @NotNull List<TypeReference> implementz,
+    @Nullable JavaScope scope,
+    boolean isStatic,
+    boolean isFinal,
+    @Nullable String notes,
+    @Nullable String deprecated,
+    @NotNull List<String> tags,
+    @NotNull Map<String, FieldSnapshot> fields,
+    @NotNull List<ExecutableSnapshot> constructors,
+    @NotNull Map<String, List<ExecutableSnapshot>> methods) {
+
+  public ClassSnapshot {
+    implementz = List.copyOf(implementz);
+    tags = List.copyOf(tags);
+    fields = Map.copyOf(fields);
+    constructors = List.copyOf(constructors);
+    methods = Map.copyOf(methods);
+  }
+}
@@ -0,0 +1,34 @@
+package com.asledgehammer.rosetta.java.snapshot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * An immutable view of a {@link com.asledgehammer.rosetta.java.JavaMethod} or {@link
+ * com.asledgehammer.rosetta.java.JavaConstructor}.
+ *
+ * @param name The name of the executable.
+ * @param signature The signature of the executable.
+ * @param parameters The parameters in order.
+ * @param returns The return definition. (Null for constructors)
+ * @param notes The documentation notes. (If any)
+ * @param deprecated The deprecation message. (Empty if deprecated without a message, null if not
+ *     deprecated)
+ * @param tags The applied tags.
+ */
+public record ExecutableSnapshot(
+    @NotNull String name,
+    @NotNull String signature,
+    @NotNull List<ParameterSnapshot> parameters,
+    @Nullable ReturnSnapshot returns,
+    @Nullable String notes,
+    @Nullable String deprecated,
+    @NotNull List<String> tags) {
+
+  public ExecutableSnapshot {
+    parameters = List.copyOf(parameters);
+    tags = List.copyOf(tags);
+  }
+}
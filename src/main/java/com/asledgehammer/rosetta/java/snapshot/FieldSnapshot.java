@@ -0,0 +1,31 @@
+package com.asledgehammer.rosetta.java.snapshot;
+
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * An immutable view of a {@link com.asledgehammer.rosetta.java.JavaField}.
+ *
+ * @param name The name of the field.
+ * @param type The type of the field.
+ * @param nullable True if the field can be null.
+ * @param notes The documentation notes. (If any)
+ * @param deprecated The deprecation message. (Empty if deprecated without a message, null if not
+ *     deprecated)
+ * @param tags The applied tags.
+ */
+public record FieldSnapshot(
+    @NotNull String name,
+    @NotNull TypeReference type,
+    boolean nullable,
+    @Nullable String notes,
+    @Nullable String deprecated,
+    @NotNull List<String> tags) {
+
+  public FieldSnapshot {
+    tags = List.copyOf(tags);
+  }
+}
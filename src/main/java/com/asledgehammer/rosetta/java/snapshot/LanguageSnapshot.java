@@ -0,0 +1,49 @@
+package com.asledgehammer.rosetta.java.snapshot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * An immutable, consistent view of a {@link com.asledgehammer.rosetta.java.JavaLanguage}. Snapshots
+ * share the views of packages and classes that didn't change between them.
+ *
+ * @param revision The revision mark the snapshot was taken at.
+ * @param packages The root packages by name.
+ */
+public record LanguageSnapshot(long revision, @NotNull Map<String, PackageSnapshot> packages) {
+
+  /** A snapshot with no packages. */
+  public static final LanguageSnapshot EMPTY = new LanguageSnapshot(0, Map.of());
+
+  public LanguageSnapshot {
+    packages = Map.copyOf(packages);
+  }
+
+  /**
+   * @param path The qualified path of the package. E.G: "java.util"
+   * @return The package view. (If present)
+   */
+  @Nullable
+  public PackageSnapshot getPackage(@NotNull String path) {
+    String[] split = path.split("\\.");
+    PackageSnapshot pkg = packages.get(split[0]);
+    for (int index = 1; pkg != null && index < split.length; index++) {
+      pkg = pkg.packages().get(split[index]);
+    }
+    return pkg;
+  }
+
+  /**
+   * @param path The qualified path of the class. E.G: "java.util.ArrayList"
+   * @return The class view. (If present)
+   */
+  @Nullable
+  public ClassSnapshot getClazz(@NotNull String path) {
+    int index = path.lastIndexOf('.');
+    if (index == -1) return null;
+    PackageSnapshot pkg = getPackage(path.substring(0, index));
+    return pkg != null ? pkg.classes().get(path.substring(index + 1)) : null;
+  }
+}
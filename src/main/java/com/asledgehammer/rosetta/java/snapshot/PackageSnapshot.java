@@ -0,0 +1,32 @@
+package com.asledgehammer.rosetta.java.snapshot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of a {@link com.asledgehammer.rosetta.java.JavaPackage}.
+ *
+ * @param path The qualified path of the package.
+ * @param name The name of the package.
+ * @param notes The package-info documentation notes. (If any)
+ * @param tags The applied tags.
+ * @param classes The classes by name.
+ * @param packages The sub-packages by name.
+ */
+public record PackageSnapshot(
+    @NotNull String path,
+    @NotNull String name,
+    @Nullable String notes,
+    @NotNull List<String> tags,
+    @NotNull Map<String, ClassSnapshot> classes,
+    @NotNull Map<String, PackageSnapshot> packages) {
+
+  public PackageSnapshot {
+    tags = List.copyOf(tags);
+    classes = Map.copyOf(classes);
+    packages = Map.copyOf(packages);
+  }
+}
@@ -0,0 +1,16 @@
+package com.asledgehammer.rosetta.java.snapshot;
+
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable view of a {@link com.asledgehammer.rosetta.java.JavaParameter}.
+ *
+ * @param name The formal name of the parameter.
+ * @param type The type of the parameter.
+ * @param nullable True if the parameter accepts null.
+ * @param notes The documentation notes. (If any)
+ */
+public record ParameterSnapshot(
+    @NotNull String name, @NotNull TypeReference type, boolean nullable, @Nullable String notes) {}
@@ -0,0 +1,15 @@
+package com.asledgehammer.rosetta.java.snapshot;
+
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable view of a {@link com.asledgehammer.rosetta.java.JavaReturn}.
+ *
+ * @param type The returned type.
+ * @param nullable True if the method can return null.
+ * @param notes The documentation notes. (If any)
+ */
+public record ReturnSnapshot(
+    @NotNull TypeReference type, boolean nullable, @Nullable String notes) {}
@@ -0,0 +1,821 @@
+package com.asledgehammer.rosetta.lua;
+
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.java.reference.SimpleTypeReference;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import com.asledgehammer.rosetta.java.reference.UnionTypeReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * EmmyLuaEmitter writes EmmyLua (LuaLS) annotation stubs for the classes of a {@link JavaLanguage},
+ * as exposed to Kahlua:
+ *
+ * <ul>
+ *   <li>Classes are declared with <code>---@class</code> using their qualified names, and bound to a
+ *       global table of their simple name. (E.G: <code>ArrayList = {}</code>)
+ *   <li>Public fields are declared with <code>---@field</code>.
+ *   <li>Public methods are declared as functions, with further overloads as <code>---@overload
+ *       </code>. Constructors are declared as <code>new</code>.
+ * </ul>
+ *
+ * <p>Each package is written to its own file, named after its path. (E.G: "java.util.lua")
+ * Packages write in parallel straight to their files, so only the packages being written are held
+ * in memory. Output is sorted by name and signature, so the same model always emits the same bytes.
+ *
+ * <p>Incremental emits only re-render the classes that changed since the last emit, and only
+ * rewrite the files whose output changed. (See {@link #emitIncremental(Path, ForkJoinPool)})
+ *
+ * <p>NOTE: The language is compiled before emitting. Only the thread editing the model should
+ * emit.
+ */
+public class EmmyLuaEmitter {
+
+  /** Reserved words of Lua, which can't name parameters. */
+  private static final Set<String> KEYWORDS =
+      Set.of(
+          "and", "break", "do", "else", "elseif", "end", "false", "for", "function", "goto", "if",
+          "in", "local", "nil", "not", "or", "repeat", "return", "then", "true", "until", "while");
+
+  /** Java types with a native Lua type. */
+  private static final Map<String, String> NATIVE_TYPES =
+      Map.ofEntries(
+          Map.entry("void", "nil"),
+          Map.entry("boolean", "boolean"),
+          Map.entry("byte", "number"),
+          Map.entry("short", "number"),
+          Map.entry("int", "number"),
+          Map.entry("long", "number"),
+          Map.entry("float", "number"),
+          Map.entry("double", "number"),
+          Map.entry("char", "string"),
+          Map.entry("java.lang.Void", "nil"),
+          Map.entry("java.lang.Boolean", "boolean"),
+          Map.entry("java.lang.Byte", "number"),
+          Map.entry("java.lang.Short", "number"),
+          Map.entry("java.lang.Integer", "number"),
+          Map.entry("java.lang.Long", "number"),
+          Map.entry("java.lang.Float", "number"),
+          Map.entry("java.lang.Double", "number"),
+          Map.entry("java.lang.Number", "number"),
+          Map.entry("java.lang.Character", "string"),
+          Map.entry("java.lang.String", "string"),
+          Map.entry("java.lang.CharSequence", "string"),
+          Map.entry("java.lang.Object", "any"));
+
+  /** The file listing the hashes of an incremental emit, in its directory. */
+  public static final String MANIFEST = ".rosetta-manifest";
+
+  private static final String MANIFEST_HEADER = "# Rosetta EmmyLua manifest. (SHA-256)";
+
+  private static final HexFormat HEX = HexFormat.of();
+
+  private final JavaLanguage language;
+
+  /** The class bound to each global name. (The first class of the name in order of path) */
+  private final Map<String, JavaClass> globals = new HashMap<>();
+
+  /** The last output of each class emitted incrementally. */
+  private final Map<JavaClass, Rendered> rendered = new ConcurrentHashMap<>();
+
+  /** The last hash of each package emitted incrementally. */
+  private final Map<JavaPackage, Assembled> assembled = new ConcurrentHashMap<>();
+
+  /**
+   * @param language The language to emit.
+   */
+  public EmmyLuaEmitter(@NotNull JavaLanguage language) {
+    this.language = language;
+  }
+
+  /**
+   * Emits every package of the language on the calling thread.
+   *
+   * @param directory The directory to write the package files in.
+   * @return The written files. (In order of package)
+   * @throws IOException If a file fails to write.
+   */
+  @NotNull
+  public List<Path> emit(@NotNull Path directory) throws IOException {
+    return emit(directory, null);
+  }
+
+  /**
+   * Emits every package of the language.
+   *
+   * @param directory The directory to write the package files in.
+   * @param pool The pool to write packages in. If null, packages write on the calling thread.
+   * @return The written files. (In order of package)
+   * @throws IOException If a file fails to write. Every package is attempted before throwing.
+   */
+  @NotNull
+  public List<Path> emit(@NotNull Path directory, @Nullable ForkJoinPool pool)
+      throws IOException {
+    final List<JavaPackage> packages = prepare();
+    Files.createDirectories(directory);
+
+    final List<Path> paths = new ArrayList<>();
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    final Path[] files = new Path[packages.size()];
+    final IOException[] failures = new IOException[packages.size()];
+    for (int index = 0; index < packages.size(); index++) {
+      final JavaPackage javaPackage = packages.get(index);
+      final int slot = index;
+      final Path file = directory.resolve(javaPackage.getPath() + ".lua");
+      Runnable task =
+          () -> {
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+              write(javaPackage, writer);
+              files[slot] = file;
+            } catch (IOException e) {
+              failures[slot] = e;
+            }
+          };
+      if (pool != null) {
+        tasks.add(pool.submit(task));
+      } else {
+        task.run();
+      }
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+
+    IOException failure = null;
+    for (int index = 0; index < files.length; index++) {
+      if (failures[index] != null) {
+        if (failure == null) {
+          failure = new IOException("Failed to emit packages.", failures[index]);
+        } else {
+          failure.addSuppressed(failures[index]);
+        }
+      } else if (files[index] != null) {
+        paths.add(files[index]);
+      }
+    }
+    if (failure != null) throw failure;
+    return paths;
+  }
+
+  /**
+   * Emits one package of the language.
+   *
+   * @param javaPackage The package to emit.
+   * @param writer The writer to stream the stubs to.
+   * @throws IOException If the writer fails.
+   */
+  public void emit(@NotNull JavaPackage javaPackage, @NotNull Writer writer) throws IOException {
+    prepare();
+    write(javaPackage, writer);
+  }
+
+  /**
+   * Emits every changed package of the language on the calling thread. (See {@link
+   * #emitIncremental(Path, ForkJoinPool)})
+   *
+   * @param directory The directory to write the package files in.
+   * @return The report of the files written and deleted.
+   * @throws IOException If a file fails to write or delete.
+   */
+  @NotNull
+  public EmmyLuaReport emitIncremental(@NotNull Path directory) throws IOException {
+    return emitIncremental(directory, null);
+  }
+
+  /**
+   * Emits every changed package of the language, leaving files with unchanged output untouched:
+   *
+   * <ul>
+   *   <li>Classes are rendered once and reused until they change, or their global binding does.
+   *   <li>Files are only written when the hash of their output differs from the one in the
+   *       manifest. (Or from the file on disk, if the manifest doesn't list it)
+   *   <li>Files listed in the manifest that no package emits anymore are deleted.
+   * </ul>
+   *
+   * <p>The manifest stores the hash of each file and of each class in it. (See {@link #MANIFEST})
+   * Rendered classes are kept by the emitter, so emit through the same emitter to skip them.
+   *
+   * @param directory The directory to write the package files in.
+   * @param pool The pool to write packages in. If null, packages write on the calling thread.
+   * @return The report of the files written and deleted.
+   * @throws IOException If a file fails to write or delete. Every package is attempted and the
+   *     manifest is written before throwing.
+   */
+  @NotNull
+  public EmmyLuaReport emitIncremental(@NotNull Path directory, @Nullable ForkJoinPool pool)
+      throws IOException {
+    // Every change made before the mark is in this emit.
+    final long mark = RosettaObject.markRevision();
+    final List<JavaPackage> packages = prepare();
+    Files.createDirectories(directory);
+
+    final Path manifestFile = directory.resolve(MANIFEST);
+    final String oldManifest =
+        Files.isRegularFile(manifestFile)
+            ? Files.readString(manifestFile, StandardCharsets.UTF_8)
+            : null;
+    final Map<String, String> oldHashes = readManifest(oldManifest);
+
+    final Set<JavaClass> seen = new HashSet<>();
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    final Emitted[] emitted = new Emitted[packages.size()];
+    final IOException[] failures = new IOException[packages.size()];
+    for (int index = 0; index < packages.size(); index++) {
+      final JavaPackage javaPackage = packages.get(index);
+      final List<JavaClass> classes = getClasses(javaPackage);
+      seen.addAll(classes);
+      final int slot = index;
+      Runnable task =
+          () -> {
+            try {
+              emitted[slot] = emitIncremental(javaPackage, classes, directory, oldHashes, mark);
+            } catch (IOException e) {
+              failures[slot] = e;
+            }
+          };
+      if (pool != null) {
+        tasks.add(pool.submit(task));
+      } else {
+        task.run();
+      }
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+    rendered.keySet().retainAll(seen);
+    assembled.keySet().retainAll(packages);
+
+    final List<Path> written = new ArrayList<>();
+    final Set<String> names = new HashSet<>();
+    final StringBuilder manifest = new StringBuilder(MANIFEST_HEADER).append('\n');
+    int unchanged = 0;
+    int renderedCount = 0;
+    IOException failure = null;
+    for (int index = 0; index < emitted.length; index++) {
+      final Emitted result = emitted[index];
+      if (failures[index] != null) {
+        if (failure == null) {
+          failure = new IOException("Failed to emit packages.", failures[index]);
+        } else {
+          failure.addSuppressed(failures[index]);
+        }
+        // Unlisted files are compared on disk next time, so failed packages are retried.
+        names.add(packages.get(index).getPath() + ".lua");
+        continue;
+      }
+      names.add(result.name());
+      renderedCount += result.rendered();
+      if (result.written()) {
+        written.add(directory.resolve(result.name()));
+      } else {
+        unchanged++;
+      }
+      manifest.append(result.name()).append(' ').append(result.hash()).append('\n');
+      for (String line : result.classes()) {
+        manifest.append("  ").append(line).append('\n');
+      }
+    }
+
+    // Delete files of packages that no longer emit.
+    final List<Path> deleted = new ArrayList<>();
+    final List<String> orphans = new ArrayList<>(oldHashes.keySet());
+    orphans.removeAll(names);
+    orphans.sort(Comparator.naturalOrder());
+    for (String orphan : orphans) {
+      // Only touch package files directly in the directory.
+      if (!orphan.endsWith(".lua") || orphan.indexOf('/') != -1 || orphan.indexOf('\\') != -1) {
+        continue;
+      }
+      final Path file = directory.resolve(orphan);
+      try {
+        if (Files.deleteIfExists(file)) deleted.add(file);
+      } catch (IOException e) {
+        if (failure == null) {
+          failure = new IOException("Failed to delete orphaned files.", e);
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+
+    final String newManifest = manifest.toString();
+    if (!newManifest.equals(oldManifest)) {
+      Path temporary = directory.resolve(MANIFEST + ".tmp");
+      Files.writeString(temporary, newManifest, StandardCharsets.UTF_8);
+      Files.move(temporary, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    if (failure != null) throw failure;
+    return new EmmyLuaReport(written, deleted, unchanged, renderedCount);
+  }
+
+  /** Emits one package, writing its file only if its output changed. */
+  @NotNull
+  private Emitted emitIncremental(
+      @NotNull JavaPackage javaPackage,
+      @NotNull List<JavaClass> classes,
+      @NotNull Path directory,
+      @NotNull Map<String, String> oldHashes,
+      long mark)
+      throws IOException {
+    final String name = javaPackage.getPath() + ".lua";
+    final Path file = directory.resolve(name);
+    final String header = "---@meta\n\n-- " + javaPackage.getPath() + "\n";
+
+    // Nothing in the package changed since it was last assembled, so neither did its output.
+    final Assembled last = assembled.get(javaPackage);
+    final Rendered[] parts = new Rendered[classes.size()];
+    int renderedCount = 0;
+    String hash = null;
+    if (last != null && javaPackage.getRevision() <= last.mark() && last.classes().equals(classes)) {
+      hash = last.hash();
+      for (int index = 0; index < parts.length; index++) {
+        parts[index] = rendered.get(classes.get(index));
+        if (parts[index] == null || parts[index].global() != isGlobal(classes.get(index))) {
+          hash = null;
+          break;
+        }
+      }
+    }
+    if (hash == null) {
+      final MessageDigest digest = newDigest();
+      digest.update(header.getBytes(StandardCharsets.UTF_8));
+      for (int index = 0; index < parts.length; index++) {
+        parts[index] = render(classes.get(index), mark);
+        if (parts[index].mark() == mark) renderedCount++;
+        digest.update((byte) '\n');
+        digest.update(parts[index].text().getBytes(StandardCharsets.UTF_8));
+      }
+      hash = HEX.formatHex(digest.digest());
+      assembled.put(javaPackage, new Assembled(mark, classes, hash));
+    }
+
+    final List<String> classHashes = new ArrayList<>(parts.length);
+    for (int index = 0; index < parts.length; index++) {
+      classHashes.add(getLuaName(classes.get(index)) + ' ' + parts[index].hash());
+    }
+
+    final boolean write;
+    if (!Files.isRegularFile(file)) {
+      write = true;
+    } else if (oldHashes.containsKey(name)) {
+      write = !hash.equals(oldHashes.get(name));
+    } else {
+      write = !hash.equals(HEX.formatHex(newDigest().digest(Files.readAllBytes(file))));
+    }
+    if (write) {
+      final StringBuilder content = new StringBuilder(header);
+      for (Rendered part : parts) content.append('\n').append(part.text());
+      Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+    return new Emitted(name, hash, classHashes, write, renderedCount);
+  }
+
+  /**
+   * @return The output of the class, rendered again only if it changed since its last render.
+   */
+  @NotNull
+  private Rendered render(@NotNull JavaClass javaClass, long mark) throws IOException {
+    final boolean global = isGlobal(javaClass);
+    final Rendered last = rendered.get(javaClass);
+    if (last != null
+        && last.global() == global
+        && last.javaPackage() == javaClass.getPackage()
+        && javaClass.getRevision() <= last.mark()) {
+      return last;
+    }
+    final StringWriter writer = new StringWriter();
+    writeClass(javaClass, new LuaWriter(writer));
+    final String text = writer.toString();
+    final String hash =
+        HEX.formatHex(newDigest().digest(text.getBytes(StandardCharsets.UTF_8)));
+    final Rendered next = new Rendered(mark, javaClass.getPackage(), global, text, hash);
+    rendered.put(javaClass, next);
+    return next;
+  }
+
+  private boolean isGlobal(@NotNull JavaClass javaClass) {
+    return globals.get(getGlobalName(javaClass)) == javaClass;
+  }
+
+  /**
+   * @return The hash of each file listed in the manifest, by name.
+   */
+  @NotNull
+  private static Map<String, String> readManifest(@Nullable String manifest) {
+    final Map<String, String> hashes = new HashMap<>();
+    if (manifest == null) return hashes;
+    for (String line : manifest.split("\n")) {
+      // Skip the header and the class hashes. (Indented)
+      if (line.isEmpty() || line.startsWith("#") || line.startsWith(" ")) continue;
+      int space = line.indexOf(' ');
+      if (space != -1) hashes.put(line.substring(0, space), line.substring(space + 1).trim());
+    }
+    return hashes;
+  }
+
+  @NotNull
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Compiles the language and binds global names.
+   *
+   * @return The packages with public classes, in order of path.
+   */
+  @NotNull
+  private List<JavaPackage> prepare() {
+    language.compile();
+
+    final List<JavaPackage> packages = new ArrayList<>();
+    for (JavaPackage javaPackage : language.getPackages().values()) {
+      if (!getClasses(javaPackage).isEmpty()) packages.add(javaPackage);
+    }
+    packages.sort(Comparator.comparing(JavaPackage::getPath));
+
+    globals.clear();
+    for (JavaPackage javaPackage : packages) {
+      for (JavaClass javaClass : getClasses(javaPackage)) {
+        globals.putIfAbsent(getGlobalName(javaClass), javaClass);
+      }
+    }
+    return packages;
+  }
+
+  private void write(@NotNull JavaPackage javaPackage, @NotNull Writer writer) throws IOException {
+    final LuaWriter out =
+        new LuaWriter(writer instanceof BufferedWriter ? writer : new BufferedWriter(writer));
+    out.line("---@meta");
+    out.line("");
+    out.line("-- " + javaPackage.getPath());
+    for (JavaClass javaClass : getClasses(javaPackage)) {
+      out.line("");
+      writeClass(javaClass, out);
+    }
+    out.flush();
+  }
+
+  private void writeClass(@NotNull JavaClass javaClass, @NotNull LuaWriter out)
+      throws IOException {
+    final Set<String> variables = new HashSet<>();
+    final StringBuilder header = new StringBuilder("---@class ").append(getLuaName(javaClass));
+    final List<JavaTypeParameter> typeParameters = javaClass.getTypeParameters();
+    if (!typeParameters.isEmpty()) {
+      header.append('<');
+      for (int index = 0; index < typeParameters.size(); index++) {
+        String name = typeParameters.get(index).getType().getBase();
+        variables.add(name);
+        if (index != 0) header.append(", ");
+        header.append(name);
+      }
+      header.append('>');
+    }
+
+    final List<String> supers = new ArrayList<>();
+    final TypeReference extendz = javaClass.getExtends();
+    if (extendz != null && !"java.lang.Object".equals(extendz.getBase())) {
+      supers.add(toLuaType(extendz, variables));
+    }
+    for (TypeReference implement : javaClass.getImplements()) {
+      supers.add(toLuaType(implement, variables));
+    }
+    if (!supers.isEmpty()) header.append(": ").append(String.join(", ", supers));
+
+    writeNotes(javaClass.hasNotes() ? javaClass.getNotes() : null, out);
+    if (javaClass.isDeprecated()) out.line("---@deprecated");
+    out.line(header.toString());
+
+    final List<JavaField> fields = new ArrayList<>(javaClass.getFields().values());
+    fields.sort(Comparator.comparing(JavaField::getName));
+    for (JavaField field : fields) {
+      if (!isPublic(field.getScope())) continue;
+      StringBuilder line =
+          new StringBuilder("---@field public ")
+              .append(field.getName())
+              .append(' ')
+              .append(toLuaType(field.getType(), field.isStatic() ? Set.of() : variables));
+      if (field.hasNotes()) line.append(' ').append(inline(field.getNotes()));
+      out.line(line.toString());
+    }
+
+    final String table = getGlobalName(javaClass);
+    if (globals.get(table) == javaClass) {
+      out.line(table + " = {}");
+    } else {
+      // Another class already holds the global name.
+      out.line("local " + table + " = {}");
+    }
+
+    final List<String> names = new ArrayList<>(javaClass.getMethods().keySet());
+    names.sort(Comparator.naturalOrder());
+    for (String name : names) {
+      final List<JavaMethod> methods = new ArrayList<>();
+      for (JavaMethod method : javaClass.getMethods().get(name).getExecutables()) {
+        if (isPublic(method.getScope())) methods.add(method);
+      }
+      methods.sort(Comparator.comparing(JavaMethod::getSignature));
+      // Static and instance methods of the same name are called differently, so declare both.
+      writeExecutables(table, name, filter(methods, true), true, variables, out);
+      writeExecutables(table, name, filter(methods, false), false, variables, out);
+    }
+
+    final List<JavaConstructor> constructors = new ArrayList<>();
+    for (JavaConstructor constructor : javaClass.getConstructors().getExecutables()) {
+      if (isPublic(constructor.getScope())) constructors.add(constructor);
+    }
+    constructors.sort(Comparator.comparing(JavaConstructor::getSignature));
+    writeExecutables(table, "new", constructors, true, variables, out);
+  }
+
+  @NotNull
+  private static List<JavaMethod> filter(@NotNull List<JavaMethod> methods, boolean isStatic) {
+    final List<JavaMethod> filtered = new ArrayList<>();
+    for (JavaMethod method : methods) {
+      if (method.isStatic() == isStatic) filtered.add(method);
+    }
+    return filtered;
+  }
+
+  private void writeExecutables(
+      @NotNull String table,
+      @NotNull String name,
+      @NotNull List<? extends JavaExecutable<?>> executables,
+      boolean isStatic,
+      @NotNull Set<String> classVariables,
+      @NotNull LuaWriter out)
+      throws IOException {
+    if (executables.isEmpty()) return;
+
+    // Static members can't see the type variables of the class.
+    final Set<String> inherited = isStatic ? Set.of() : classVariables;
+    final JavaExecutable<?> first = executables.get(0);
+    final Set<String> variables = new HashSet<>(inherited);
+    for (JavaTypeParameter typeParameter : first.getTypeParameters()) {
+      variables.add(typeParameter.getType().getBase());
+    }
+
+    out.line("");
+    writeNotes(first.hasNotes() ? first.getNotes() : null, out);
+    if (first.isDeprecated()) out.line("---@deprecated");
+    for (JavaTypeParameter typeParameter : first.getTypeParameters()) {
+      TypeReference type = typeParameter.getType();
+      StringBuilder line = new StringBuilder("---@generic ").append(type.getBase());
+      TypeReference[] bounds = type.getBounds();
+      if (bounds.length != 0 && !"java.lang.Object".equals(bounds[0].getBase())) {
+        line.append(" : ").append(toLuaType(bounds[0], inherited));
+      }
+      out.line(line.toString());
+    }
+
+    final List<String> parameters = new ArrayList<>();
+    for (JavaParameter parameter : first.getParameters()) {
+      String parameterName = getParameterName(parameter);
+      parameters.add(parameterName);
+      StringBuilder line =
+          new StringBuilder("---@param ")
+              .append(parameterName)
+              .append(' ')
+              .append(toLuaType(parameter.getType(), variables));
+      if (parameter.hasNotes()) line.append(' ').append(inline(parameter.getNotes()));
+      out.line(line.toString());
+    }
+    final String returns = getReturnType(first, variables);
+    if (returns != null) out.line("---@return " + returns);
+
+    // Overloads can't declare type variables, so theirs resolve to their bounds.
+    for (int index = 1; index < executables.size(); index++) {
+      final JavaExecutable<?> executable = executables.get(index);
+      final StringBuilder line = new StringBuilder("---@overload fun(");
+      boolean separate = false;
+      if (!isStatic) {
+        line.append("self: ").append(getLuaName((JavaClass) executable.getParent()));
+        separate = true;
+      }
+      for (JavaParameter parameter : executable.getParameters()) {
+        if (separate) line.append(", ");
+        line.append(getParameterName(parameter))
+            .append(": ")
+            .append(toLuaType(parameter.getType(), inherited));
+        separate = true;
+      }
+      line.append(')');
+      String overloadReturns = getReturnType(executable, inherited);
+      if (overloadReturns != null) line.append(": ").append(overloadReturns);
+      out.line(line.toString());
+    }
+
+    out.line(
+        "function "
+            + table
+            + (isStatic ? '.' : ':')
+            + name
+            + "("
+            + String.join(", ", parameters)
+            + ") end");
+  }
+
+  @Nullable
+  private String getReturnType(
+      @NotNull JavaExecutable<?> executable, @NotNull Set<String> variables) {
+    if (executable instanceof JavaConstructor) {
+      return getLuaName((JavaClass) executable.getParent());
+    }
+    JavaReturn returns = ((JavaMethod) executable).getReturns();
+    if (returns == null) return null;
+    String type = toLuaType(returns.getType(), variables);
+    if (type.equals("nil")) return null;
+    if (returns.hasNotes()) type += " " + inline(returns.getNotes());
+    return type;
+  }
+
+  /**
+   * Maps a Java type to its Lua type:
+   *
+   * <ul>
+   *   <li>Numbers, booleans and strings (With their boxes) map to their native Lua types. Object
+   *       maps to <code>any</code> and void to <code>nil</code>.
+   *   <li>Arrays map to Lua arrays. (E.G: <code>int[]</code> to <code>number[]</code>)
+   *   <li>Type variables in scope keep their name. Others map to their first bound.
+   *   <li>Wildcards map to their upper bound, or <code>any</code>.
+   *   <li>Classes map to their qualified names, with their generic arguments. (E.G: <code>
+   *       java.util.Map.Entry&lt;string, any&gt;</code>)
+   * </ul>
+   *
+   * @param type The Java type.
+   * @param variables The type variables in scope.
+   * @return The Lua type.
+   */
+  @NotNull
+  public static String toLuaType(@NotNull TypeReference type, @NotNull Set<String> variables) {
+    return toLuaType(type, variables, Collections.newSetFromMap(new IdentityHashMap<>()));
+  }
+
+  @NotNull
+  private static String toLuaType(
+      @NotNull TypeReference type, @NotNull Set<String> variables, @NotNull Set<TypeReference> seen) {
+    String base = type.getBase();
+    int dimensions = 0;
+    while (base.endsWith("[]")) {
+      base = base.substring(0, base.length() - 2);
+      dimensions++;
+    }
+
+    String lua;
+    if (type.isWildcard()) {
+      TypeReference[] bounds = type.getBounds();
+      boolean upper =
+          !(type instanceof UnionTypeReference union)
+              || union.isExtendsOrSuper();
+      lua = upper && bounds.length != 0 ? toLuaBound(bounds[0], variables, seen) : "any";
+    } else if (type.isGeneric()) {
+      if (variables.contains(base)) {
+        lua = base;
+      } else {
+        TypeReference[] bounds = type.getBounds();
+        lua = bounds.length != 0 ? toLuaBound(bounds[0], variables, seen) : "any";
+      }
+    } else {
+      lua = NATIVE_TYPES.get(base);
+      if (lua == null) {
+        lua = base.replace('$', '.');
+        if (type instanceof SimpleTypeReference simple && simple.hasSubTypes()) {
+          StringBuilder builder = new StringBuilder(lua).append('<');
+          List<TypeReference> subTypes = simple.getSubTypes();
+          for (int index = 0; index < subTypes.size(); index++) {
+            if (index != 0) builder.append(", ");
+            builder.append(toLuaBound(subTypes.get(index), variables, seen));
+          }
+          lua = builder.append('>').toString();
+        }
+      }
+    }
+    if (dimensions != 0) {
+      if (lua.contains("|")) lua = "(" + lua + ")";
+      lua += "[]".repeat(dimensions);
+    }
+    return lua;
+  }
+
+  /** Maps a nested type, stopping at recursive bounds. (E.G: <code>E extends Enum&lt;E&gt;</code>) */
+  @NotNull
+  private static String toLuaBound(
+      @NotNull TypeReference type, @NotNull Set<String> variables, @NotNull Set<TypeReference> seen) {
+    if (!seen.add(type)) return "any";
+    try {
+      return toLuaType(type, variables, seen);
+    } finally {
+      seen.remove(type);
+    }
+  }
+
+  /**
+   * @return The public classes of a package, in order of name.
+   */
+  @NotNull
+  private static List<JavaClass> getClasses(@NotNull JavaPackage javaPackage) {
+    final List<JavaClass> classes = new ArrayList<>();
+    for (JavaClass javaClass : javaPackage.getClasses().values()) {
+      if (isPublic(javaClass.getScope())) classes.add(javaClass);
+    }
+    classes.sort(Comparator.comparing(JavaClass::getName));
+    return classes;
+  }
+
+  private static boolean isPublic(@Nullable JavaScope scope) {
+    // Definitions loaded without a scope are public.
+    return scope == null || scope == JavaScope.PUBLIC;
+  }
+
+  /**
+   * @return The qualified name of the class in Lua. (E.G: "java.util.Map.Entry")
+   */
+  @NotNull
+  private static String getLuaName(@NotNull JavaClass javaClass) {
+    return javaClass.getPackage().getPath() + "." + javaClass.getName().replace('$', '.');
+  }
+
+  /**
+   * @return The name Kahlua exposes the class as. (E.G: "Entry")
+   */
+  @NotNull
+  private static String getGlobalName(@NotNull JavaClass javaClass) {
+    String name = javaClass.getName();
+    return name.substring(name.lastIndexOf('$') + 1);
+  }
+
+  @NotNull
+  private static String getParameterName(@NotNull JavaParameter parameter) {
+    String name = parameter.getName();
+    return KEYWORDS.contains(name) ? name + "_" : name;
+  }
+
+  private static void writeNotes(@Nullable String notes, @NotNull LuaWriter out)
+      throws IOException {
+    if (notes == null || notes.isEmpty()) return;
+    for (String line : notes.split("\\R", -1)) {
+      out.line(line.isEmpty() ? "---" : "--- " + line);
+    }
+  }
+
+  /**
+   * @return The notes on one line, for the end of an annotation.
+   */
+  @NotNull
+  private static String inline(@NotNull String notes) {
+    return notes.replaceAll("\\s*\\R\\s*", " ").trim();
+  }
+
+  /** The output of a class, as of the revision mark of the emit rendering it. */
+  private record Rendered(
+      long mark,
+      @NotNull JavaPackage javaPackage,
+      boolean global,
+      @NotNull String text,
+      @NotNull String hash) {}
+
+  /** The public classes and file hash of a package, as of the revision mark of an emit. */
+  private record Assembled(long mark, @NotNull List<JavaClass> classes, @NotNull String hash) {}
+
+  /** The outcome of emitting one package incrementally. */
+  private record Emitted(
+      @NotNull String name,
+      @NotNull String hash,
+      @NotNull List<String> classes,
+      boolean written,
+      int rendered) {}
+
+  /** Writes lines with Unix line endings, so output is the same on every platform. */
+  private record LuaWriter(@NotNull Writer writer) {
+
+    void line(@NotNull String line) throws IOException {
+      writer.write(line);
+      writer.write('\n');
+    }
+
+    void flush() throws IOException {
+      writer.flush();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.asledgehammer.rosetta.lua;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/** EmmyLuaReport stores the outcome of an incremental emit. (See {@link EmmyLuaEmitter}) */
+public class EmmyLuaReport {
+
+  private final List<Path> written;
+  private final List<Path> deleted;
+  private final int unchanged;
+  private final int rendered;
+
+  EmmyLuaReport(@NotNull List<Path> written, @NotNull List<Path> deleted, int unchanged, int rendered) {
+    this.written = Collections.unmodifiableList(written);
+    this.deleted = Collections.unmodifiableList(deleted);
+    this.unchanged = unchanged;
+    this.rendered = rendered;
+  }
+
+  /**
+   * @return A read-only list of the files written, in order of package.
+   */
+  @NotNull
+  public List<Path> getWritten() {
+    return written;
+  }
+
+  /**
+   * @return A read-only list of the files deleted because their package no longer emits.
+   */
+  @NotNull
+  public List<Path> getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * @return The count of files left untouched because their output didn't change.
+   */
+  public int getUnchangedCount() {
+    return unchanged;
+  }
+
+  /**
+   * @return The count of classes rendered. (Unchanged classes reuse their previous output)
+   */
+  public int getRenderedCount() {
+    return rendered;
+  }
+
+  @Override
+  public String toString() {
+    return "EmmyLuaReport {written = "
+        + written.size()
+        + ", deleted = "
+        + deleted.size()
+        + ", unchanged = "
+        + unchanged
+        + ", rendered = "
+        + rendered
+        + "}";
+  }
+}
@@ -0,0 +1,283 @@
+package com.asledgehammer.rosetta.lua;
+
+import com.asledgehammer.rosetta.*;
+import com.asledgehammer.rosetta.exception.ValueTypeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * LuaDefinition is the common super-class of named Lua definitions: tables, functions and fields.
+ * It stores their notes, deprecation and tags.
+ */
+public abstract class LuaDefinition extends RosettaObject
+    implements NamedEntity, Notable, Taggable {
+
+  private final String name;
+
+  @Nullable private String notes;
+  @Nullable private String deprecated;
+
+  private final TagSet tags = new TagSet();
+
+  LuaDefinition(@NotNull String name) {
+    super();
+    if (name.isEmpty()) {
+      throw new IllegalArgumentException("The name is empty.");
+    }
+    this.name = name;
+  }
+
+  /**
+   * Loads the notes, deprecation and tags of the definition.
+   *
+   * @param raw The raw definition.
+   */
+  @SuppressWarnings({"unchecked"})
+  void loadDefinition(@NotNull Map<String, Object> raw) {
+    if (raw.containsKey("notes")) {
+      Object oNotes = raw.get("notes");
+      if (!(oNotes instanceof String)) {
+        throw new ValueTypeException(name, "notes", oNotes.getClass(), String.class);
+      }
+      String notes = (String) oNotes;
+      this.notes = notes.isEmpty() ? null : notes;
+    }
+
+    if (raw.containsKey("deprecated")) {
+      Object oDeprecated = raw.get("deprecated");
+      if (oDeprecated instanceof String) {
+        this.deprecated = (String) oDeprecated;
+      } else if (oDeprecated instanceof Boolean) {
+        this.deprecated = (boolean) oDeprecated ? "" : null;
+      } else {
+        throw new ValueTypeException(
+            name, "deprecated", oDeprecated.getClass(), String.class, Boolean.class);
+      }
+    }
+
+    if (raw.containsKey("tags")) {
+      Object oTags = raw.get("tags");
+      if (!(oTags instanceof List)) {
+        throw new ValueTypeException(name, "tags", oTags.getClass(), List.class);
+      }
+      for (Object oTag : (List<Object>) oTags) {
+        if (!(oTag instanceof String)) {
+          throw new ValueTypeException(name, "tags", oTag.getClass(), String.class);
+        }
+        this.tags.add((String) oTag);
+      }
+    }
+  }
+
+  /**
+   * Saves the notes, deprecation and tags of the definition.
+   *
+   * @param raw The raw definition to save to.
+   */
+  void saveDefinition(@NotNull Map<String, Object> raw) {
+    if (notes != null) raw.put("notes", notes);
+    if (deprecated != null) raw.put("deprecated", deprecated.isEmpty() ? true : deprecated);
+    if (!tags.isEmpty()) raw.put("tags", tags.toList());
+  }
+
+  /**
+   * Folds the name, notes, deprecation and tags of the definition into a hash.
+   *
+   * @param hasher The hasher to fold the definition into.
+   */
+  void hashDefinition(@NotNull ContentHasher hasher) {
+    hasher.string(name).string(notes).string(deprecated).strings(tags.toList());
+  }
+
+  /**
+   * @param estimator The estimator to count the definition in.
+   * @param kind The kind of definition. E.G: "table"
+   */
+  void estimateDefinition(@NotNull FootprintEstimator estimator, @NotNull String kind) {
+    estimator.object(this, kind);
+    estimator.string(name);
+    estimator.string(notes);
+    estimator.string(deprecated);
+    estimator.tags(tags);
+  }
+
+  /**
+   * @return The language the definition is registered in. (If any)
+   */
+  @Nullable
+  public LuaLanguage getLanguage() {
+    RosettaObject root = getRoot();
+    return root instanceof LuaTable table ? table.getRootLanguage() : null;
+  }
+
+  @NotNull
+  @Override
+  public String getPath() {
+    RosettaObject parent = getParent();
+    if (parent instanceof LuaTable table && table.isGlobals()) return name;
+    return parent != null ? parent.getPath() + '.' + name : name;
+  }
+
+  @NotNull
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public boolean hasNotes() {
+    return this.notes != null && !this.notes.isEmpty();
+  }
+
+  @Override
+  @NotNull
+  public String getNotes() {
+    if (!hasNotes()) {
+      throw new NullPointerException("The object has no notes.");
+    }
+    return this.notes;
+  }
+
+  @Override
+  public void setNotes(@Nullable String notes) {
+    notes = notes == null || notes.isEmpty() ? null : notes;
+    if (Objects.equals(this.notes, notes)) return;
+
+    String oldNotes = this.notes;
+    this.notes = notes;
+
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
+    setDirty();
+  }
+
+  /**
+   * @return True if the definition is flagged as deprecated.
+   */
+  public boolean isDeprecated() {
+    return this.deprecated != null;
+  }
+
+  /**
+   * @return The deprecation message. If empty, the deprecation flag is set and no message is
+   *     provided.
+   * @throws NullPointerException If no deprecated message is set. (Use {@link
+   *     LuaDefinition#isDeprecated()} to check before invoking this method)
+   */
+  @NotNull
+  public String getDeprecatedMessage() {
+    if (this.deprecated == null) {
+      throw new NullPointerException("The definition is not deprecated. (No message set)");
+    }
+    return this.deprecated;
+  }
+
+  /**
+   * Sets the deprecation flag of the definition without a message.
+   *
+   * @param flag The flag to set.
+   */
+  public void setDeprecated(boolean flag) {
+    setDeprecated(flag ? "" : null);
+  }
+
+  /**
+   * @param message The message to set. If empty, the deprecation flag is set to true, but no
+   *     message is provided. If null, the deprecation flag is set to false.
+   */
+  public void setDeprecated(@Nullable String message) {
+    if (Objects.equals(this.deprecated, message)) return;
+
+    String oldDeprecated = this.deprecated;
+    this.deprecated = message;
+    record(ChangeEvent.Type.SET, "deprecated", oldDeprecated, message);
+    setDirty();
+  }
+
+  @Override
+  public boolean hasTags() {
+    return !this.tags.isEmpty();
+  }
+
+  @NotNull
+  @Override
+  public List<String> getTags() {
+    return tags.toList();
+  }
+
+  @Override
+  public boolean hasTag(@NotNull String tag) {
+    if (tag.isEmpty()) {
+      throw new IllegalArgumentException("The tag is empty.");
+    }
+    return this.tags.contains(tag);
+  }
+
+  @Override
+  public void addTag(@NotNull String tag) {
+    if (tag.isEmpty()) {
+      throw new IllegalArgumentException("The tag is empty.");
+    }
+    if (!this.tags.add(tag)) {
+      throw new IllegalArgumentException("The tag is already applied: " + tag);
+    }
+    record(ChangeEvent.Type.ADD, "tags", null, tag);
+    setDirty();
+  }
+
+  @Override
+  public void removeTag(@NotNull String tag) {
+    if (tag.isEmpty()) {
+      throw new IllegalArgumentException("The tag is empty.");
+    }
+    if (!this.tags.remove(tag)) {
+      throw new IllegalArgumentException("The tag is not applied: " + tag);
+    }
+    record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    setDirty();
+  }
+
+  @NotNull
+  @Override
+  public List<String> clearTags() {
+    if (tags.isEmpty()) {
+      throw new RuntimeException("No tags are registered.");
+    }
+    List<String> tagsRemoved = tags.toList();
+    tags.clear();
+    for (String tag : tagsRemoved) {
+      record(ChangeEvent.Type.REMOVE, "tags", tag, null);
+    }
+    setDirty();
+    return tagsRemoved;
+  }
+
+  /**
+   * Reads a Lua type from a raw definition.
+   *
+   * @param owner The name of the definition.
+   * @param raw The raw definition.
+   * @return The interned type. ("any" if not defined)
+   */
+  @NotNull
+  static String loadType(@NotNull String owner, @NotNull Map<String, Object> raw) {
+    Object oType = raw.get("type");
+    if (oType == null) return "any";
+    if (!(oType instanceof String)) {
+      throw new ValueTypeException(owner, "type", oType.getClass(), String.class);
+    }
+    return internType((String) oType);
+  }
+
+  /**
+   * Types repeat across definitions, so they share one instance each.
+   *
+   * @param type The Lua type. E.G: "string|nil"
+   * @return The shared instance of the type.
+   */
+  @NotNull
+  static String internType(@NotNull String type) {
+    return type.trim().intern();
+  }
+}
@@ -0,0 +1,91 @@
+package com.asledgehammer.rosetta.lua;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.FootprintEstimator;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LuaField defines a value stored in a Lua table. Callbacks are fields of function types. (E.G:
+ * "fun(player: IsoPlayer): boolean")
+ */
+public class LuaField extends LuaDefinition {
+
+  private String type;
+
+  /**
+   * @param name The name of the field.
+   * @param type The Lua type of the field. E.G: "string|nil"
+   */
+  public LuaField(@NotNull String name, @NotNull String type) {
+    super(name);
+    this.type = internType(type);
+  }
+
+  LuaField(@NotNull String name, @NotNull Map<String, Object> raw) {
+    super(name);
+    onLoad(raw);
+  }
+
+  @Override
+  protected void onLoad(@NotNull Map<String, Object> raw) {
+    this.type = loadType(getName(), raw);
+    loadDefinition(raw);
+  }
+
+  @NotNull
+  public Map<String, Object> onSave() {
+    final Map<String, Object> raw = new LinkedHashMap<>();
+    raw.put("type", type);
+    saveDefinition(raw);
+    return raw;
+  }
+
+  @Override
+  public boolean onCompile() {
+    return true;
+  }
+
+  /**
+   * @return The Lua type of the field. E.G: "string|nil"
+   */
+  @NotNull
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * @param type The Lua type of the field. E.G: "string|nil"
+   */
+  public void setType(@NotNull String type) {
+    type = internType(type);
+    if (this.type.equals(type)) return;
+
+    String oldType = this.type;
+    this.type = type;
+    record(ChangeEvent.Type.SET, "type", oldType, type);
+    setDirty();
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hashDefinition(hasher);
+    hasher.string(type);
+  }
+
+  /**
+   * @param estimator The estimator to count the field in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    // Types are interned and shared.
+    estimateDefinition(estimator, "field");
+  }
+
+  @Override
+  public String toString() {
+    return "LuaField \"" + getPath() + "\"";
+  }
+}
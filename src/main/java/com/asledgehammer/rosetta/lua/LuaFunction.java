@@ -0,0 +1,262 @@
+package com.asledgehammer.rosetta.lua;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ContentHasher;
+import com.asledgehammer.rosetta.FootprintEstimator;
+import com.asledgehammer.rosetta.exception.ValueTypeException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * LuaFunction defines a function stored in a Lua table. Methods are called with the table as their
+ * first argument. (E.G: <code>button:onClick()</code>)
+ *
+ * <p>Events are documented as functions holding the parameters passed to their listeners.
+ */
+public class LuaFunction extends LuaDefinition {
+
+  private boolean method;
+
+  /** Replaced on change, so unchanged lists stay compact and read-only. */
+  private List<LuaParameter> parameters = List.of();
+
+  private List<LuaReturn> returns = List.of();
+
+  /**
+   * @param name The name of the function.
+   */
+  public LuaFunction(@NotNull String name) {
+    super(name);
+  }
+
+  LuaFunction(@NotNull String name, @NotNull Map<String, Object> raw) {
+    super(name);
+    onLoad(raw);
+  }
+
+  @Override
+  @SuppressWarnings({"unchecked"})
+  protected void onLoad(@NotNull Map<String, Object> raw) {
+    loadDefinition(raw);
+
+    if (raw.containsKey("method")) {
+      Object oMethod = raw.get("method");
+      if (!(oMethod instanceof Boolean)) {
+        throw new ValueTypeException(getName(), "method", oMethod.getClass(), Boolean.class);
+      }
+      this.method = (boolean) oMethod;
+    }
+
+    if (raw.containsKey("parameters")) {
+      Object oParameters = raw.get("parameters");
+      if (!(oParameters instanceof List)) {
+        throw new ValueTypeException(getName(), "parameters", oParameters.getClass(), List.class);
+      }
+      final List<Object> rawParameters = (List<Object>) oParameters;
+      final LuaParameter[] parameters = new LuaParameter[rawParameters.size()];
+      for (int index = 0; index < parameters.length; index++) {
+        Object oParameter = rawParameters.get(index);
+        if (!(oParameter instanceof Map)) {
+          throw new ValueTypeException(getName(), "parameters", oParameter.getClass(), Map.class);
+        }
+        parameters[index] = new LuaParameter((Map<String, Object>) oParameter);
+        adopt(parameters[index]);
+      }
+      this.parameters = List.of(parameters);
+    }
+
+    if (raw.containsKey("returns")) {
+      Object oReturns = raw.get("returns");
+      if (!(oReturns instanceof List)) {
+        throw new ValueTypeException(getName(), "returns", oReturns.getClass(), List.class);
+      }
+      final List<Object> rawReturns = (List<Object>) oReturns;
+      final LuaReturn[] returns = new LuaReturn[rawReturns.size()];
+      for (int index = 0; index < returns.length; index++) {
+        Object oReturn = rawReturns.get(index);
+        if (oReturn instanceof String type) {
+          // Shorthand for a return of only a type.
+          returns[index] = new LuaReturn(type);
+        } else if (oReturn instanceof Map) {
+          returns[index] = new LuaReturn((Map<String, Object>) oReturn);
+        } else {
+          throw new ValueTypeException(
+              getName(), "returns", oReturn.getClass(), String.class, Map.class);
+        }
+        adopt(returns[index]);
+      }
+      this.returns = List.of(returns);
+    }
+  }
+
+  @NotNull
+  public Map<String, Object> onSave() {
+    final Map<String, Object> raw = new LinkedHashMap<>();
+    if (method) raw.put("method", true);
+    saveDefinition(raw);
+
+    if (!parameters.isEmpty()) {
+      final List<Object> rawParameters = new ArrayList<>(parameters.size());
+      for (LuaParameter parameter : parameters) {
+        rawParameters.add(parameter.onSave());
+      }
+      raw.put("parameters", rawParameters);
+    }
+
+    if (!returns.isEmpty()) {
+      final List<Object> rawReturns = new ArrayList<>(returns.size());
+      for (LuaReturn luaReturn : returns) {
+        Map<String, Object> rawReturn = luaReturn.onSave();
+        rawReturns.add(rawReturn.size() == 1 ? luaReturn.getType() : rawReturn);
+      }
+      raw.put("returns", rawReturns);
+    }
+    return raw;
+  }
+
+  @Override
+  public boolean onCompile() {
+    // Only parameters and returns registered as dirty are compiled.
+    return compileDirtyChildren();
+  }
+
+  /**
+   * @return True if the function is called with its table as the first argument. (<code>:</code>)
+   */
+  public boolean isMethod() {
+    return this.method;
+  }
+
+  public void setMethod(boolean method) {
+    if (this.method == method) return;
+
+    this.method = method;
+    record(ChangeEvent.Type.SET, "method", !method, method);
+    setDirty();
+  }
+
+  /**
+   * @return True if the function has parameters.
+   */
+  public boolean hasParameters() {
+    return !this.parameters.isEmpty();
+  }
+
+  /**
+   * @return A read-only list of the parameters of the function.
+   */
+  @NotNull
+  public List<LuaParameter> getParameters() {
+    return this.parameters;
+  }
+
+  /**
+   * @param parameter The parameter to append.
+   * @throws IllegalArgumentException If the parameter is registered elsewhere or the name is taken.
+   */
+  public void addParameter(@NotNull LuaParameter parameter) {
+    if (parameter.getParent() != null) {
+      throw new IllegalArgumentException("The parameter is already registered: " + parameter);
+    }
+    for (LuaParameter other : parameters) {
+      if (other.getName().equals(parameter.getName())) {
+        throw new IllegalArgumentException(
+            "The function \"" + getPath() + "\" already has parameter: \"" + parameter.getName() + "\"");
+      }
+    }
+    final List<LuaParameter> parameters = new ArrayList<>(this.parameters);
+    parameters.add(parameter);
+    this.parameters = List.copyOf(parameters);
+    adopt(parameter);
+    record(ChangeEvent.Type.ADD, "parameters", null, parameter);
+    setDirty();
+  }
+
+  /**
+   * @param parameter The parameter to remove.
+   * @throws IllegalArgumentException If the parameter is NOT registered.
+   */
+  public void removeParameter(@NotNull LuaParameter parameter) {
+    if (!parameters.contains(parameter)) {
+      throw new IllegalArgumentException(
+          "The function \"" + getPath() + "\" doesn't have parameter: \"" + parameter.getName() + "\"");
+    }
+    final List<LuaParameter> parameters = new ArrayList<>(this.parameters);
+    parameters.remove(parameter);
+    this.parameters = List.copyOf(parameters);
+    orphan(parameter);
+    record(ChangeEvent.Type.REMOVE, "parameters", parameter, null);
+    setDirty();
+  }
+
+  /**
+   * @return True if the function returns values.
+   */
+  public boolean hasReturns() {
+    return !this.returns.isEmpty();
+  }
+
+  /**
+   * @return A read-only list of the values returned by the function.
+   */
+  @NotNull
+  public List<LuaReturn> getReturns() {
+    return this.returns;
+  }
+
+  /**
+   * @param luaReturn The returned value to append.
+   * @throws IllegalArgumentException If the value is registered elsewhere.
+   */
+  public void addReturn(@NotNull LuaReturn luaReturn) {
+    if (luaReturn.getParent() != null) {
+      throw new IllegalArgumentException("The return is already registered: " + luaReturn);
+    }
+    final List<LuaReturn> returns = new ArrayList<>(this.returns);
+    returns.add(luaReturn);
+    this.returns = List.copyOf(returns);
+    adopt(luaReturn);
+    record(ChangeEvent.Type.ADD, "returns", null, luaReturn);
+    setDirty();
+  }
+
+  /**
+   * @param luaReturn The returned value to remove.
+   * @throws IllegalArgumentException If the value is NOT registered.
+   */
+  public void removeReturn(@NotNull LuaReturn luaReturn) {
+    if (!returns.contains(luaReturn)) {
+      throw new IllegalArgumentException(
+          "The function \"" + getPath() + "\" doesn't return: " + luaReturn);
+    }
+    final List<LuaReturn> returns = new ArrayList<>(this.returns);
+    returns.remove(luaReturn);
+    this.returns = List.copyOf(returns);
+    orphan(luaReturn);
+    record(ChangeEvent.Type.REMOVE, "returns", luaReturn, null);
+    setDirty();
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hashDefinition(hasher);
+    hasher.bool(method).children(parameters).children(returns);
+  }
+
+  /**
+   * @param estimator The estimator to count the function in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimateDefinition(estimator, "function");
+    estimator.list(parameters);
+    estimator.list(returns);
+    for (LuaParameter parameter : parameters) parameter.estimate(estimator);
+    for (LuaReturn luaReturn : returns) luaReturn.estimate(estimator);
+  }
+
+  @Override
+  public String toString() {
+    return "LuaFunction \"" + getPath() + "\"";
+  }
+}
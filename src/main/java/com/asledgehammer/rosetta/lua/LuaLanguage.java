@@ -1,19 +1,189 @@
 package com.asledgehammer.rosetta.lua;
 
-import com.asledgehammer.rosetta.RosettaLanguage;
+import com.asledgehammer.rosetta.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
+import java.util.*;
 
+/**
+ * LuaLanguage stores the Lua definitions of a collection: tables, functions and fields, starting
+ * from the global table.
+ *
+ * <pre>{@code
+ * lua:
+ *   tables:
+ *     ISButton:
+ *       extends: ISPanel
+ *       fields:
+ *         title: { type: string }
+ *       functions:
+ *         onClick:
+ *           method: true
+ *           parameters:
+ *             - { name: x, type: number, optional: true }
+ *           returns: [ boolean ]
+ *   functions: { ... }
+ *   fields: { ... }
+ * }</pre>
+ *
+ * <p>Every definition is indexed by its qualified Lua path. (E.G: "ISButton.onClick")
+ */
 public class LuaLanguage implements RosettaLanguage {
 
+  private final LuaTable globals = new LuaTable(this);
+
+  /** Every registered table, function and field by path. */
+  private final Map<String, LuaDefinition> index = new HashMap<>();
+
+  /** The collection storing the language. (If registered) */
+  @Nullable private RosettaCollection collection;
+
+  public LuaLanguage() {}
+
   @Override
-  public void onLoad(@NotNull Map<String, Object> language) {}
+  public void setCollection(@NotNull RosettaCollection collection) {
+    this.collection = collection;
+  }
+
+  /**
+   * @return The collection storing the language. (If registered)
+   */
+  @Nullable
+  public RosettaCollection getCollection() {
+    return collection;
+  }
+
+  /**
+   * @return The journal of the collection storing the language. (If registered)
+   */
+  @Nullable
+  ChangeJournal getJournal() {
+    return collection != null ? collection.getJournal() : null;
+  }
+
+  /**
+   * Loads definitions into the global table. Raw definitions are released from the given map as
+   * they are built. (If mutable)
+   *
+   * @param raw The YAML dictionary storing the language data.
+   */
+  @Override
+  public void onLoad(@NotNull Map<String, Object> raw) {
+    globals.onLoad(raw);
+  }
 
   @NotNull
   @Override
   public Map<String, Object> onSave() {
-    return Map.of();
+    return globals.onSave();
+  }
+
+  /**
+   * Compiles all dirty definitions.
+   *
+   * @return True if every definition compiled.
+   */
+  public boolean compile() {
+    return globals.compile();
+  }
+
+  /**
+   * @return The global table. (Path "_G") Its members are the global definitions.
+   */
+  @NotNull
+  public LuaTable getGlobals() {
+    return globals;
+  }
+
+  /**
+   * @param path The qualified Lua path. (E.G: "ISButton.onClick")
+   * @return The table, function or field at the path. (If any)
+   */
+  @Nullable
+  public LuaDefinition resolve(@NotNull String path) {
+    return index.get(path);
+  }
+
+  /**
+   * @param path The qualified Lua path. (E.G: "ISButton")
+   * @return The table at the path. (If any)
+   */
+  @Nullable
+  public LuaTable getTable(@NotNull String path) {
+    return index.get(path) instanceof LuaTable table ? table : null;
+  }
+
+  /**
+   * @param path The qualified Lua path. (E.G: "ISButton.onClick")
+   * @return The function at the path. (If any)
+   */
+  @Nullable
+  public LuaFunction getFunction(@NotNull String path) {
+    return index.get(path) instanceof LuaFunction function ? function : null;
+  }
+
+  /**
+   * @param path The qualified Lua path. (E.G: "ISButton.title")
+   * @return The field at the path. (If any)
+   */
+  @Nullable
+  public LuaField getField(@NotNull String path) {
+    return index.get(path) instanceof LuaField field ? field : null;
+  }
+
+  /**
+   * @return The count of tables, functions and fields in the language.
+   */
+  public int size() {
+    return index.size();
+  }
+
+  /** Indexes a definition and every definition in it. */
+  void register(@NotNull LuaDefinition definition) {
+    index.put(definition.getPath(), definition);
+    if (definition instanceof LuaTable table) {
+      for (LuaTable member : table.getTables().values()) register(member);
+      for (LuaFunction member : table.getFunctions().values()) register(member);
+      for (LuaField member : table.getFields().values()) register(member);
+    }
+  }
+
+  /** Removes a definition and every definition in it from the index. */
+  void unregister(@NotNull LuaDefinition definition) {
+    index.remove(definition.getPath());
+    if (definition instanceof LuaTable table) {
+      for (LuaTable member : table.getTables().values()) unregister(member);
+      for (LuaFunction member : table.getFunctions().values()) unregister(member);
+      for (LuaField member : table.getFields().values()) unregister(member);
+    }
+  }
+
+  /**
+   * Estimates the heap retained by the language. Lua types are interned and shared, so they are
+   * not counted.
+   *
+   * @return The footprint of the language. Children are the tables by path.
+   */
+  @NotNull
+  @Override
+  public Footprint footprint() {
+    final FootprintEstimator estimator = new FootprintEstimator();
+    estimator.add(FootprintEstimator.shallowSizeOf(getClass()));
+    estimator.map(index);
+    return estimator.build(getID(), List.of(globals.footprint()));
+  }
+
+  /**
+   * Returns the content hash of the global table, which stores every definition of the language.
+   *
+   * <p>NOTE: Only the thread editing the language should invoke this method.
+   *
+   * @return The content hash of the language.
+   */
+  @Override
+  public long getContentHash() {
+    return globals.getContentHash();
   }
 
   @NotNull
@@ -0,0 +1,167 @@
+package com.asledgehammer.rosetta.lua;
+
+import com.asledgehammer.rosetta.*;
+import com.asledgehammer.rosetta.exception.MissingKeyException;
+import com.asledgehammer.rosetta.exception.ValueTypeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/** LuaParameter defines a parameter of a {@link LuaFunction}. */
+public class LuaParameter extends RosettaObject implements NamedEntity, Notable {
+
+  private String name;
+  private String type;
+  private boolean optional;
+  @Nullable private String notes;
+
+  /**
+   * @param name The name of the parameter. ("..." for variable arguments)
+   * @param type The Lua type of the parameter. E.G: "number"
+   */
+  public LuaParameter(@NotNull String name, @NotNull String type) {
+    super();
+    if (name.isEmpty()) {
+      throw new IllegalArgumentException("The name is empty.");
+    }
+    this.name = name;
+    this.type = LuaDefinition.internType(type);
+  }
+
+  LuaParameter(@NotNull Map<String, Object> raw) {
+    super(raw);
+  }
+
+  @Override
+  protected void onLoad(@NotNull Map<String, Object> raw) {
+    Object oName = raw.get("name");
+    if (oName == null) {
+      throw new MissingKeyException("parameter", "name");
+    } else if (!(oName instanceof String)) {
+      throw new ValueTypeException("parameter", "name", oName.getClass(), String.class);
+    }
+    this.name = (String) oName;
+    this.type = LuaDefinition.loadType(name, raw);
+
+    if (raw.containsKey("optional")) {
+      Object oOptional = raw.get("optional");
+      if (!(oOptional instanceof Boolean)) {
+        throw new ValueTypeException(name, "optional", oOptional.getClass(), Boolean.class);
+      }
+      this.optional = (boolean) oOptional;
+    }
+
+    if (raw.containsKey("notes")) {
+      Object oNotes = raw.get("notes");
+      if (!(oNotes instanceof String)) {
+        throw new ValueTypeException(name, "notes", oNotes.getClass(), String.class);
+      }
+      String notes = (String) oNotes;
+      this.notes = notes.isEmpty() ? null : notes;
+    }
+  }
+
+  @NotNull
+  public Map<String, Object> onSave() {
+    final Map<String, Object> raw = new LinkedHashMap<>();
+    raw.put("name", name);
+    raw.put("type", type);
+    if (optional) raw.put("optional", true);
+    if (notes != null) raw.put("notes", notes);
+    return raw;
+  }
+
+  @Override
+  public boolean onCompile() {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * @return The Lua type of the parameter. E.G: "number"
+   */
+  @NotNull
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * @param type The Lua type of the parameter. E.G: "number"
+   */
+  public void setType(@NotNull String type) {
+    type = LuaDefinition.internType(type);
+    if (this.type.equals(type)) return;
+
+    String oldType = this.type;
+    this.type = type;
+    record(ChangeEvent.Type.SET, "type", oldType, type);
+    setDirty();
+  }
+
+  /**
+   * @return True if the parameter can be omitted.
+   */
+  public boolean isOptional() {
+    return this.optional;
+  }
+
+  public void setOptional(boolean optional) {
+    if (this.optional == optional) return;
+
+    this.optional = optional;
+    record(ChangeEvent.Type.SET, "optional", !optional, optional);
+    setDirty();
+  }
+
+  @Override
+  public boolean hasNotes() {
+    return this.notes != null && !this.notes.isEmpty();
+  }
+
+  @Override
+  @NotNull
+  public String getNotes() {
+    if (!hasNotes()) {
+      throw new NullPointerException("The object has no notes.");
+    }
+    return this.notes;
+  }
+
+  @Override
+  public void setNotes(@Nullable String notes) {
+    notes = notes == null || notes.isEmpty() ? null : notes;
+    if (Objects.equals(this.notes, notes)) return;
+
+    String oldNotes = this.notes;
+    this.notes = notes;
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
+    setDirty();
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(name).string(type).bool(optional).string(notes);
+  }
+
+  /**
+   * @param estimator The estimator to count the parameter in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.object(this, "parameter");
+    estimator.string(name);
+    estimator.string(notes);
+  }
+
+  @Override
+  public String toString() {
+    return "LuaParameter \"" + name + "\"";
+  }
+}
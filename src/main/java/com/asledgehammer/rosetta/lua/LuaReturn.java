@@ -0,0 +1,159 @@
+package com.asledgehammer.rosetta.lua;
+
+import com.asledgehammer.rosetta.*;
+import com.asledgehammer.rosetta.exception.ValueTypeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/** LuaReturn defines one of the values returned by a {@link LuaFunction}. */
+public class LuaReturn extends RosettaObject implements Notable {
+
+  private String type;
+  @Nullable private String name;
+  @Nullable private String notes;
+
+  /**
+   * @param type The Lua type of the value. E.G: "boolean"
+   */
+  public LuaReturn(@NotNull String type) {
+    super();
+    this.type = LuaDefinition.internType(type);
+  }
+
+  LuaReturn(@NotNull Map<String, Object> raw) {
+    super(raw);
+  }
+
+  @Override
+  protected void onLoad(@NotNull Map<String, Object> raw) {
+    this.type = LuaDefinition.loadType("return", raw);
+
+    if (raw.containsKey("name")) {
+      Object oName = raw.get("name");
+      if (!(oName instanceof String)) {
+        throw new ValueTypeException("return", "name", oName.getClass(), String.class);
+      }
+      this.name = (String) oName;
+    }
+
+    if (raw.containsKey("notes")) {
+      Object oNotes = raw.get("notes");
+      if (!(oNotes instanceof String)) {
+        throw new ValueTypeException("return", "notes", oNotes.getClass(), String.class);
+      }
+      String notes = (String) oNotes;
+      this.notes = notes.isEmpty() ? null : notes;
+    }
+  }
+
+  @NotNull
+  public Map<String, Object> onSave() {
+    final Map<String, Object> raw = new LinkedHashMap<>();
+    raw.put("type", type);
+    if (name != null) raw.put("name", name);
+    if (notes != null) raw.put("notes", notes);
+    return raw;
+  }
+
+  @Override
+  public boolean onCompile() {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public String getPath() {
+    RosettaObject parent = getParent();
+    String name = this.name != null ? this.name : "return";
+    return parent != null ? parent.getPath() + "." + name : name;
+  }
+
+  /**
+   * @return The Lua type of the value. E.G: "boolean"
+   */
+  @NotNull
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * @param type The Lua type of the value. E.G: "boolean"
+   */
+  public void setType(@NotNull String type) {
+    type = LuaDefinition.internType(type);
+    if (this.type.equals(type)) return;
+
+    String oldType = this.type;
+    this.type = type;
+    record(ChangeEvent.Type.SET, "type", oldType, type);
+    setDirty();
+  }
+
+  /**
+   * @return The name of the value. (If any)
+   */
+  @Nullable
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * @param name The name of the value. If null, the value is unnamed.
+   */
+  public void setName(@Nullable String name) {
+    if (Objects.equals(this.name, name)) return;
+
+    String oldName = this.name;
+    this.name = name;
+    record(ChangeEvent.Type.SET, "name", oldName, name);
+    setDirty();
+  }
+
+  @Override
+  public boolean hasNotes() {
+    return this.notes != null && !this.notes.isEmpty();
+  }
+
+  @Override
+  @NotNull
+  public String getNotes() {
+    if (!hasNotes()) {
+      throw new NullPointerException("The object has no notes.");
+    }
+    return this.notes;
+  }
+
+  @Override
+  public void setNotes(@Nullable String notes) {
+    notes = notes == null || notes.isEmpty() ? null : notes;
+    if (Objects.equals(this.notes, notes)) return;
+
+    String oldNotes = this.notes;
+    this.notes = notes;
+    record(ChangeEvent.Type.SET, "notes", oldNotes, notes);
+    setDirty();
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hasher.string(type).string(name).string(notes);
+  }
+
+  /**
+   * @param estimator The estimator to count the value in.
+   */
+  void estimate(@NotNull FootprintEstimator estimator) {
+    estimator.object(this, "return");
+    estimator.string(name);
+    estimator.string(notes);
+  }
+
+  @Override
+  public String toString() {
+    return "LuaReturn \"" + type + "\"";
+  }
+}
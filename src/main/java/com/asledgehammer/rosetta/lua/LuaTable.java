@@ -0,0 +1,444 @@
+package com.asledgehammer.rosetta.lua;
+
+import com.asledgehammer.rosetta.*;
+import com.asledgehammer.rosetta.exception.RosettaException;
+import com.asledgehammer.rosetta.exception.ValueTypeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * LuaTable defines a Lua table and its members: sub-tables, functions and fields. Like keys of a
+ * Lua table, members share one namespace.
+ *
+ * <p>The global table of a {@link LuaLanguage} holds the global definitions. (See {@link
+ * LuaLanguage#getGlobals()})
+ */
+public class LuaTable extends LuaDefinition {
+
+  /** The name of the global table. */
+  public static final String GLOBALS = "_G";
+
+  /** The language if this is its global table. */
+  @Nullable private final LuaLanguage language;
+
+  /** The name of the table this table extends. (If any) E.G: "ISPanel" */
+  @Nullable private String extendz;
+
+  private final CompactMap<LuaTable> tables = new CompactMap<>();
+  private final CompactMap<LuaFunction> functions = new CompactMap<>();
+  private final CompactMap<LuaField> fields = new CompactMap<>();
+
+  /**
+   * @param name The name of the table.
+   */
+  public LuaTable(@NotNull String name) {
+    super(name);
+    this.language = null;
+  }
+
+  LuaTable(@NotNull LuaLanguage language) {
+    super(GLOBALS);
+    this.language = language;
+  }
+
+  @Override
+  public boolean onCompile() {
+    // Only members registered as dirty are compiled.
+    return compileDirtyChildren();
+  }
+
+  @Override
+  protected void onLoad(@NotNull Map<String, Object> raw) {
+    loadDefinition(raw);
+
+    if (raw.containsKey("extends")) {
+      Object oExtends = raw.get("extends");
+      if (!(oExtends instanceof String)) {
+        throw new ValueTypeException(getName(), "extends", oExtends.getClass(), String.class);
+      }
+      this.extendz = (String) oExtends;
+    }
+
+    consume(
+        raw,
+        "fields",
+        (name, rawField) -> {
+          LuaField field = new LuaField(name, rawField);
+          addField(field);
+        });
+    consume(
+        raw,
+        "functions",
+        (name, rawFunction) -> {
+          LuaFunction function = new LuaFunction(name, rawFunction);
+          addFunction(function);
+        });
+    consume(
+        raw,
+        "tables",
+        (name, rawTable) -> {
+          LuaTable table = new LuaTable(name);
+          table.onLoad(rawTable);
+          addTable(table);
+        });
+  }
+
+  /**
+   * Builds each definition of a section and drops its raw entry once built, so the raw tree is
+   * released as the model grows. (If the raw map is mutable)
+   */
+  @SuppressWarnings({"unchecked"})
+  private void consume(
+      @NotNull Map<String, Object> raw,
+      @NotNull String key,
+      @NotNull BiConsumer<String, Map<String, Object>> builder) {
+    if (!raw.containsKey(key)) return;
+    final Object oSection = raw.get(key);
+    if (!(oSection instanceof Map)) {
+      throw new RosettaException(
+          "The property \"" + getPath() + "." + key + "\" is not a dictionary.");
+    }
+
+    final Iterator<Map.Entry<String, Object>> iterator =
+        ((Map<String, Object>) oSection).entrySet().iterator();
+    boolean release = true;
+    while (iterator.hasNext()) {
+      final Map.Entry<String, Object> entry = iterator.next();
+      final Object oDefinition = entry.getValue();
+      if (!(oDefinition instanceof Map)) {
+        throw new RosettaException(
+            "The property \""
+                + getPath()
+                + "."
+                + key
+                + "."
+                + entry.getKey()
+                + "\" is not a dictionary.");
+      }
+      builder.accept(entry.getKey(), (Map<String, Object>) oDefinition);
+      if (release) {
+        try {
+          iterator.remove();
+        } catch (UnsupportedOperationException e) {
+          release = false;
+        }
+      }
+    }
+  }
+
+  @NotNull
+  public Map<String, Object> onSave() {
+    final Map<String, Object> raw = new LinkedHashMap<>();
+    if (extendz != null) raw.put("extends", extendz);
+    saveDefinition(raw);
+
+    if (!fields.isEmpty()) {
+      final Map<String, Object> rawFields = new LinkedHashMap<>();
+      for (String name : sortedKeys(fields)) {
+        rawFields.put(name, fields.get(name).onSave());
+      }
+      raw.put("fields", rawFields);
+    }
+    if (!functions.isEmpty()) {
+      final Map<String, Object> rawFunctions = new LinkedHashMap<>();
+      for (String name : sortedKeys(functions)) {
+        rawFunctions.put(name, functions.get(name).onSave());
+      }
+      raw.put("functions", rawFunctions);
+    }
+    if (!tables.isEmpty()) {
+      final Map<String, Object> rawTables = new LinkedHashMap<>();
+      for (String name : sortedKeys(tables)) {
+        rawTables.put(name, tables.get(name).onSave());
+      }
+      raw.put("tables", rawTables);
+    }
+    return raw;
+  }
+
+  @NotNull
+  private static List<String> sortedKeys(@NotNull Map<String, ?> map) {
+    final List<String> keys = new ArrayList<>(map.keySet());
+    keys.sort(Comparator.naturalOrder());
+    return keys;
+  }
+
+  /**
+   * @return True if the table is the global table of a language.
+   */
+  public boolean isGlobals() {
+    return language != null;
+  }
+
+  /**
+   * @return The language if this is its global table.
+   */
+  @Nullable
+  LuaLanguage getRootLanguage() {
+    return language;
+  }
+
+  @Nullable
+  @Override
+  protected ChangeJournal getJournal() {
+    return language != null ? language.getJournal() : super.getJournal();
+  }
+
+  @NotNull
+  @Override
+  public String getPath() {
+    return language != null ? GLOBALS : super.getPath();
+  }
+
+  /**
+   * @return True if the table extends another table.
+   */
+  public boolean hasExtends() {
+    return this.extendz != null;
+  }
+
+  /**
+   * @return The name of the table this table extends. (If any) E.G: "ISPanel"
+   */
+  @Nullable
+  public String getExtends() {
+    return this.extendz;
+  }
+
+  /**
+   * @param extendz The name of the table to extend. If null, the table extends nothing.
+   */
+  public void setExtends(@Nullable String extendz) {
+    if (Objects.equals(this.extendz, extendz)) return;
+
+    String oldExtends = this.extendz;
+    this.extendz = extendz;
+    record(ChangeEvent.Type.SET, "extends", oldExtends, extendz);
+    setDirty();
+  }
+
+  /**
+   * @param name The name of the member. (Case-Sensitive)
+   * @return The table, function or field of the name. (If any)
+   */
+  @Nullable
+  public LuaDefinition getMember(@NotNull String name) {
+    LuaDefinition member = tables.get(name);
+    if (member == null) member = functions.get(name);
+    if (member == null) member = fields.get(name);
+    return member;
+  }
+
+  /**
+   * @return True if the table has sub-tables.
+   */
+  public boolean hasTables() {
+    return !this.tables.isEmpty();
+  }
+
+  /**
+   * @return A read-only map of sub-tables by name.
+   */
+  @NotNull
+  public Map<String, LuaTable> getTables() {
+    return Collections.unmodifiableMap(tables);
+  }
+
+  /**
+   * @param name The name of the sub-table. (Case-Sensitive)
+   * @return The sub-table. (If any)
+   */
+  @Nullable
+  public LuaTable getTable(@NotNull String name) {
+    return tables.get(name);
+  }
+
+  /**
+   * @param table The sub-table to register.
+   * @throws IllegalArgumentException If the table is registered elsewhere or the name is taken.
+   */
+  public void addTable(@NotNull LuaTable table) {
+    add(table);
+    tables.put(table.getName(), table);
+    attach(table, "tables");
+  }
+
+  /**
+   * @param table The sub-table to unregister.
+   * @throws IllegalArgumentException If the table is NOT registered.
+   */
+  public void removeTable(@NotNull LuaTable table) {
+    if (tables.get(table.getName()) != table) {
+      throw new IllegalArgumentException(
+          "The table \"" + getPath() + "\" doesn't contain table: \"" + table.getName() + "\"");
+    }
+    detach(table, "tables");
+    tables.remove(table.getName());
+  }
+
+  /**
+   * @return True if the table has functions.
+   */
+  public boolean hasFunctions() {
+    return !this.functions.isEmpty();
+  }
+
+  /**
+   * @return A read-only map of functions by name.
+   */
+  @NotNull
+  public Map<String, LuaFunction> getFunctions() {
+    return Collections.unmodifiableMap(functions);
+  }
+
+  /**
+   * @param name The name of the function. (Case-Sensitive)
+   * @return The function. (If any)
+   */
+  @Nullable
+  public LuaFunction getFunction(@NotNull String name) {
+    return functions.get(name);
+  }
+
+  /**
+   * @param function The function to register.
+   * @throws IllegalArgumentException If the function is registered elsewhere or the name is taken.
+   */
+  public void addFunction(@NotNull LuaFunction function) {
+    add(function);
+    functions.put(function.getName(), function);
+    attach(function, "functions");
+  }
+
+  /**
+   * @param function The function to unregister.
+   * @throws IllegalArgumentException If the function is NOT registered.
+   */
+  public void removeFunction(@NotNull LuaFunction function) {
+    if (functions.get(function.getName()) != function) {
+      throw new IllegalArgumentException(
+          "The table \""
+              + getPath()
+              + "\" doesn't contain function: \""
+              + function.getName()
+              + "\"");
+    }
+    detach(function, "functions");
+    functions.remove(function.getName());
+  }
+
+  /**
+   * @return True if the table has fields.
+   */
+  public boolean hasFields() {
+    return !this.fields.isEmpty();
+  }
+
+  /**
+   * @return A read-only map of fields by name.
+   */
+  @NotNull
+  public Map<String, LuaField> getFields() {
+    return Collections.unmodifiableMap(fields);
+  }
+
+  /**
+   * @param name The name of the field. (Case-Sensitive)
+   * @return The field. (If any)
+   */
+  @Nullable
+  public LuaField getField(@NotNull String name) {
+    return fields.get(name);
+  }
+
+  /**
+   * @param field The field to register.
+   * @throws IllegalArgumentException If the field is registered elsewhere or the name is taken.
+   */
+  public void addField(@NotNull LuaField field) {
+    add(field);
+    fields.put(field.getName(), field);
+    attach(field, "fields");
+  }
+
+  /**
+   * @param field The field to unregister.
+   * @throws IllegalArgumentException If the field is NOT registered.
+   */
+  public void removeField(@NotNull LuaField field) {
+    if (fields.get(field.getName()) != field) {
+      throw new IllegalArgumentException(
+          "The table \"" + getPath() + "\" doesn't contain field: \"" + field.getName() + "\"");
+    }
+    detach(field, "fields");
+    fields.remove(field.getName());
+  }
+
+  /** Checks that a member can be registered. */
+  private void add(@NotNull LuaDefinition member) {
+    if (member.getParent() != null) {
+      throw new IllegalArgumentException(
+          "The " + member.getClass().getSimpleName() + " is already registered: " + member.getPath());
+    }
+    if (member instanceof LuaTable table && table.isGlobals()) {
+      throw new IllegalArgumentException("The global table can't be a member.");
+    }
+    if (getMember(member.getName()) != null) {
+      throw new IllegalArgumentException(
+          "The table \"" + getPath() + "\" already contains: \"" + member.getName() + "\"");
+    }
+  }
+
+  private void attach(@NotNull LuaDefinition member, @NotNull String property) {
+    adopt(member);
+    LuaLanguage language = getLanguage();
+    if (language != null) language.register(member);
+    record(ChangeEvent.Type.ADD, property, null, member);
+    setDirty();
+  }
+
+  private void detach(@NotNull LuaDefinition member, @NotNull String property) {
+    // Paths are only known while registered.
+    LuaLanguage language = getLanguage();
+    if (language != null) language.unregister(member);
+    orphan(member);
+    record(ChangeEvent.Type.REMOVE, property, member, null);
+    setDirty();
+  }
+
+  @Override
+  protected void hashContent(@NotNull ContentHasher hasher) {
+    hashDefinition(hasher);
+    hasher.string(extendz);
+    hasher.members(tables.values(), functions.values(), fields.values());
+  }
+
+  /**
+   * @return The footprint of the table. Children are the sub-tables by name.
+   */
+  @NotNull
+  Footprint footprint() {
+    final FootprintEstimator estimator = new FootprintEstimator();
+    estimateDefinition(estimator, "table");
+    estimator.string(extendz);
+    estimator.map(tables);
+    estimator.map(functions);
+    estimator.map(fields);
+    for (LuaFunction function : functions.values()) function.estimate(estimator);
+    for (LuaField field : fields.values()) field.estimate(estimator);
+
+    final List<Footprint> children = new ArrayList<>(tables.size());
+    for (String name : sortedKeys(tables)) {
+      children.add(tables.get(name).footprint());
+    }
+    return estimator.build(getName(), children);
+  }
+
+  @Override
+  public String toString() {
+    return "LuaTable \"" + getPath() + "\"";
+  }
+}
@@ -0,0 +1,78 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ChangeJournal;
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+public class TestChangeJournal {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    ChangeJournal journal = collection.getJournal();
+
+    // Nothing is recorded without a subscriber.
+    JavaClass clazz = language.of(StringJoiner.class);
+    clazz.setNotes("Ignored.");
+    assert !journal.isRecording();
+    assert journal.getSequence() == 0;
+
+    try (ChangeJournal.Cursor cursor = journal.subscribe()) {
+      assert journal.isRecording();
+      assert ChangeJournal.isAnyRecording();
+
+      JavaMethod method = language.of(StringJoiner.class.getMethod("add", CharSequence.class));
+      clazz.setNotes("Joins strings.");
+      method.addTag("builder");
+      method.getParameters().get(0).setNullable(false);
+      method.setNotes(null);
+
+      List<ChangeEvent> events = cursor.poll();
+      assert events.size() == 3;
+
+      ChangeEvent notes = events.get(0);
+      assert notes.getSequence() == 1;
+      assert notes.getType() == ChangeEvent.Type.SET;
+      assert notes.getPath().equals("java.util.StringJoiner");
+      assert notes.getProperty().equals("notes");
+      assert "Ignored.".equals(notes.getOldValue());
+      assert "Joins strings.".equals(notes.getNewValue());
+
+      ChangeEvent tag = events.get(1);
+      assert tag.getType() == ChangeEvent.Type.ADD;
+      assert tag.getPath().equals("java.util.StringJoiner#add");
+      assert "builder".equals(tag.getNewValue());
+
+      ChangeEvent nullable = events.get(2);
+      assert nullable.getSource() == method.getParameters().get(0);
+      assert nullable.getProperty().equals("nullable");
+
+      // Polling again only returns new events.
+      assert cursor.poll().isEmpty();
+      method.removeTag("builder");
+      assert cursor.poll().size() == 1;
+    }
+
+    // Recording stops when the last cursor closes.
+    assert !journal.isRecording();
+
+    // Cursors that fall behind the buffer are flagged as overrun.
+    ChangeJournal small = new ChangeJournal(2);
+    ChangeJournal.Cursor cursor = small.subscribe();
+    for (int i = 0; i < 5; i++) {
+      small.record(ChangeEvent.Type.SET, clazz, "notes", null, i);
+    }
+    List<ChangeEvent> events = cursor.poll();
+    assert cursor.isOverrun();
+    assert events.size() == 2 && events.get(0).getSequence() == 4;
+  }
+}
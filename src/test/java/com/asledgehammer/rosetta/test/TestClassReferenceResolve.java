@@ -0,0 +1,36 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.reference.ClassReference;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+
+public class TestClassReferenceResolve {
+
+  static class NamedList<X extends CharSequence> extends ArrayList<X> {}
+
+  static class StringList extends NamedList<String> {}
+
+  @Test
+  public void test() {
+    TypeReference e = TypeReference.of("E");
+
+    // Variables are followed through every level, even when renamed. (E -> X -> String)
+    ClassReference strings = ClassReference.of(StringList.class);
+    assert strings.resolveType(e, AbstractCollection.class) == TypeReference.of(String.class);
+    assert strings.resolveType(TypeReference.of("T"), Iterable.class)
+        == TypeReference.of(String.class);
+
+    // Unassigned variables keep the bounds of the viewing class.
+    ClassReference named = ClassReference.of(NamedList.class);
+    assert named
+        .resolveType(e, AbstractCollection.class)
+        .compile()
+        .equals("X extends java.lang.CharSequence");
+
+    // Lookups are cached.
+    assert ClassReference.of(StringList.class) == strings;
+  }
+}
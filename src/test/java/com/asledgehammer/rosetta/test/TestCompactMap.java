@@ -0,0 +1,54 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.CompactMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class TestCompactMap {
+
+  @Test
+  public void test() {
+    Map<String, Integer> map = new CompactMap<>();
+    Map<String, Integer> expected = new HashMap<>();
+    assert map.isEmpty();
+    assert map.get("a") == null;
+
+    // Small maps stay sorted.
+    for (String key : List.of("d", "b", "c", "a")) {
+      map.put(key, key.charAt(0) - 'a');
+      expected.put(key, key.charAt(0) - 'a');
+    }
+    assert map.equals(expected);
+    assert List.copyOf(map.keySet()).equals(List.of("a", "b", "c", "d"));
+    assert map.put("b", 10) == 1;
+    assert map.remove("c") == 2;
+    expected.put("b", 10);
+    expected.remove("c");
+    assert map.equals(expected);
+
+    // Write-through entries and iterator removal.
+    for (Map.Entry<String, Integer> entry : map.entrySet()) {
+      if (entry.getKey().equals("a")) entry.setValue(-1);
+    }
+    assert map.get("a") == -1;
+    Iterator<String> iterator = map.keySet().iterator();
+    iterator.next();
+    iterator.remove();
+    assert !map.containsKey("a");
+    expected.remove("a");
+
+    // Promotion above the threshold.
+    for (int index = 0; index < CompactMap.THRESHOLD * 2; index++) {
+      map.put("key" + index, index);
+      expected.put("key" + index, index);
+    }
+    assert map.size() == expected.size();
+    assert map.equals(expected);
+    map.clear();
+    assert map.isEmpty();
+  }
+}
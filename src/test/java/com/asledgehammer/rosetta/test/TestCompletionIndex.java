@@ -0,0 +1,60 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.RosettaObject;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.index.CompletionIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class TestCompletionIndex {
+
+  @Test
+  public void test() {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    JavaClass arrayList = language.of(ArrayList.class);
+    JavaClass abstractList = language.of(AbstractList.class);
+    JavaClass entry = language.of(Map.Entry.class);
+    language.of(StringJoiner.class);
+
+    try (CompletionIndex index = new CompletionIndex(language)) {
+      // Prefixes are case-insensitive and shorter names complete first.
+      List<RosettaObject> results = index.complete("arrayl", 10);
+      assert results.get(0) == arrayList;
+      assert index.complete("ArrayList", 10).get(0) == arrayList;
+
+      // Camel-case humps.
+      results = index.complete("AL", 10);
+      assert results.contains(arrayList) && results.contains(abstractList);
+      assert index.complete("AbsLi", 10).get(0) == abstractList;
+      assert index.complete("eC", 10).stream()
+          .anyMatch(object -> object.getPath().endsWith("#ensureCapacity"));
+
+      // Qualified names and nested classes.
+      assert index.complete("java.util.Arr", 10).get(0) == arrayList;
+      assert index.complete("java.util.Map.E", 10).get(0) == entry;
+      assert index.complete("entry", 10).get(0) == entry;
+
+      // Members of a class. (Overloads complete once)
+      results = index.complete("ArrayList#ad", 10);
+      assert results.size() == 2; // add, addAll
+      assert index.complete("java.util.ArrayList#eC", 10).get(0).getPath()
+          .endsWith("#ensureCapacity");
+
+      // Limits.
+      assert index.complete("", 3).size() == 3;
+      assert index.complete("a", 1).size() == 1;
+
+      // Removals.
+      arrayList.getPackage().removeClazz(arrayList);
+      assert !index.complete("arrayl", 10).contains(arrayList);
+      assert index.complete("ArrayList#ad", 10).isEmpty();
+      assert index.complete("AL", 10).contains(abstractList);
+      assert index.footprint().getCount("entry") == index.size();
+    }
+  }
+}
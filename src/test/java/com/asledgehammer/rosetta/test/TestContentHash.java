@@ -0,0 +1,85 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.lua.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class TestContentHash {
+
+  private static final String YAML =
+      """
+      version: '1.2'
+      languages:
+        lua:
+          tables:
+            ISButton:
+              fields:
+                title: { type: string }
+              tables:
+                Style:
+                  fields:
+                    color: { type: string }
+      """;
+
+  @Test
+  public void test() {
+    JavaLanguage edited = newLanguage();
+    RosettaCollection collection = new RosettaCollection();
+    collection.addLanguage(edited);
+    long collectionHash = collection.getContentHash();
+    long languageHash = edited.getContentHash();
+    JavaPackage util = edited.getPackages().get("java.util");
+    JavaClass hashMap = util.getClazz("HashMap");
+    long hashMapHash = hashMap.getContentHash();
+
+    // Incremental hashes match the hashes of models built with the same edits.
+    JavaMethod size = getSize(edited);
+    size.setNotes("The count of elements.");
+    JavaClass optional = util.removeClazz("Optional");
+    JavaLanguage fresh = newLanguage();
+    getSize(fresh).setNotes("The count of elements.");
+    fresh.getPackages().get("java.util").removeClazz("Optional");
+    assert edited.getContentHash() == fresh.getContentHash();
+    assert edited.getContentHash() != languageHash;
+    assert collection.getContentHash() != collectionHash;
+    assert hashMap.getContentHash() == hashMapHash;
+
+    // Reverting the edits restores the hashes.
+    size.setNotes(null);
+    util.addClass(optional);
+    assert edited.getContentHash() == languageHash;
+    assert collection.getContentHash() == collectionHash;
+
+    // Overloads hash regardless of their order.
+    JavaClass freshHashMap = fresh.getPackages().get("java.util").getClazz("HashMap");
+    JavaExecutableCollection<JavaMethod> overloads = hashMap.getMethods().get("put");
+    assert overloads.getContentHash() == freshHashMap.getMethods().get("put").getContentHash();
+
+    // Lua definitions hash the same way.
+    RosettaCollection luaCollection = new RosettaCollection();
+    luaCollection.load(YAML);
+    LuaLanguage lua = (LuaLanguage) luaCollection.getLanguage("lua");
+    long luaHash = lua.getContentHash();
+    LuaField color = lua.getField("ISButton.Style.color");
+    color.setNotes("The color of the text.");
+    assert lua.getContentHash() != luaHash;
+    color.setNotes(null);
+    assert lua.getContentHash() == luaHash;
+  }
+
+  private static JavaLanguage newLanguage() {
+    JavaLanguage language = new JavaLanguage();
+    language.of(ArrayList.class);
+    language.of(HashMap.class);
+    language.of(Optional.class);
+    return language;
+  }
+
+  private static JavaMethod getSize(JavaLanguage language) {
+    JavaClass arrayList = language.getPackages().get("java.util").getClazz("ArrayList");
+    return arrayList.getMethods().get("size").getExecutables().get(0);
+  }
+}
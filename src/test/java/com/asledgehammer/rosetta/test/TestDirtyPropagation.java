@@ -0,0 +1,46 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMethod;
+import com.asledgehammer.rosetta.java.JavaPackage;
+import org.junit.jupiter.api.Test;
+
+import java.util.StringJoiner;
+
+public class TestDirtyPropagation {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    JavaLanguage language = new JavaLanguage();
+    JavaClass clazz = language.of(StringJoiner.class);
+    JavaPackage pkg = clazz.getPackage();
+
+    // Discovered members register with their class and package.
+    assert clazz.getParent() == pkg;
+    assert pkg.isDirty();
+    assert pkg.compile();
+    assert !pkg.isDirty() && !clazz.isDirty();
+
+    // Editing a member marks the path up to the package dirty.
+    JavaMethod method = language.of(StringJoiner.class.getMethod("length"));
+    assert method.getParent() == clazz;
+    method.setNotes("The length of the joined string.");
+    assert method.isDirty() && clazz.isDirty() && pkg.isDirty();
+
+    // Compiling the package cleans only the changed path.
+    assert pkg.compile();
+    assert !pkg.isDirty() && !clazz.isDirty() && !method.isDirty();
+
+    // Redundant changes don't mark anything dirty.
+    method.setNotes("The length of the joined string.");
+    assert !pkg.isDirty();
+
+    // Removed classes no longer reach the package.
+    pkg.removeClazz(clazz);
+    assert clazz.getParent() == null;
+    assert pkg.compile();
+    clazz.setNotes("Removed.");
+    assert clazz.isDirty() && !pkg.isDirty();
+  }
+}
@@ -0,0 +1,60 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.lua.EmmyLuaEmitter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestEmmyLuaEmitter {
+
+  @Test
+  public void test() throws IOException {
+    JavaLanguage language = new JavaLanguage();
+    language.of(ArrayList.class);
+    language.of(Collections.class);
+    language.of(Map.Entry.class);
+
+    StringWriter writer = new StringWriter();
+    new EmmyLuaEmitter(language).emit(language.getPackages().get("java.util"), writer);
+    String lua = writer.toString();
+
+    assert lua.startsWith("---@meta\n");
+    assert lua.contains("---@class java.util.ArrayList<E>: java.util.AbstractList<E>");
+    assert lua.contains("\nArrayList = {}\n");
+    assert lua.contains("---@class java.util.Map.Entry<K, V>\nEntry = {}\n");
+
+    // Types, overloads and static functions.
+    assert lua.contains("---@param arg0 number\n---@return E\nfunction ArrayList:get(arg0) end");
+    assert lua.contains("---@overload fun(self: java.util.ArrayList, arg0: E): boolean");
+    assert lua.contains("---@generic T\n---@return java.util.List<T>\nfunction Collections.emptyList()");
+    assert lua.contains("---@overload fun(arg0: number): java.util.ArrayList\n");
+    assert lua.contains("function ArrayList.new() end");
+    assert !lua.contains("function ArrayList:grow("); // Private.
+
+    // The same model loaded in another order emits the same bytes, in parallel or not.
+    JavaLanguage reversed = new JavaLanguage();
+    reversed.of(Map.Entry.class);
+    reversed.of(Collections.class);
+    reversed.of(ArrayList.class);
+    Path first = Files.createTempDirectory("rosetta");
+    Path second = Files.createTempDirectory("rosetta");
+    List<Path> files = new EmmyLuaEmitter(language).emit(first);
+    new EmmyLuaEmitter(reversed).emit(second, ForkJoinPool.commonPool());
+    assert files.size() == 1;
+    for (Path file : files) {
+      Path other = second.resolve(file.getFileName());
+      assert Arrays.equals(Files.readAllBytes(file), Files.readAllBytes(other));
+      assert Files.readString(file).equals(lua);
+      Files.delete(file);
+      Files.delete(other);
+    }
+    Files.delete(first);
+    Files.delete(second);
+  }
+}
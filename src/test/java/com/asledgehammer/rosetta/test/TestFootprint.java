@@ -0,0 +1,43 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.Footprint;
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.StringJoiner;
+
+public class TestFootprint {
+
+  @Test
+  public void test() {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    JavaClass joiner = language.of(StringJoiner.class);
+    language.of(Optional.class);
+
+    Footprint first = collection.footprint();
+    Footprint java = first.getChild("java");
+    assert first.bytes() == java.bytes() && java.bytes() > 0;
+    assert java.getCount("class") == 2;
+    assert java.getCount("method") > 0 && java.getCount("parameter") > 0;
+    assert java.getChild("<shared>").getCount("typeReference") > 0;
+
+    Footprint util = java.getChild("java.util");
+    assert util.children().size() == 2;
+    Footprint optional = util.getChild("Optional");
+    Footprint joinerFootprint = util.getChild("StringJoiner");
+
+    // Unchanged classes reuse their estimates.
+    joiner.setNotes("Joins strings with a delimiter.");
+    Footprint second = language.footprint().getChild("java.util");
+    assert second.getChild("Optional") == optional;
+    assert second.getChild("StringJoiner") != joinerFootprint;
+    assert second.getChild("StringJoiner").bytes() > joinerFootprint.bytes();
+    assert second.getChild("StringJoiner").getCount("string")
+        == joinerFootprint.getCount("string") + 1;
+  }
+}
@@ -0,0 +1,60 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.index.HierarchyIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class TestHierarchyIndex {
+
+  @Test
+  public void test() {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    for (Class<?> clazz :
+        List.of(
+            Collection.class,
+            List.class,
+            Queue.class,
+            Deque.class,
+            AbstractCollection.class,
+            AbstractList.class,
+            AbstractSequentialList.class,
+            ArrayList.class)) {
+      language.of(clazz);
+    }
+    JavaClass arrayList = language.of(ArrayList.class);
+    JavaClass linkedList = language.of(LinkedList.class);
+
+    try (HierarchyIndex index = new HierarchyIndex(language)) {
+      assert index.getSuperTypes("java.util.ArrayList").get(0).equals("java.util.AbstractList");
+      assert index.getDirectSubTypes("java.util.AbstractList").contains(arrayList);
+      assert !index.getDirectSubTypes("java.util.Collection").contains(arrayList);
+
+      // Transitive through both super-classes and super-interfaces.
+      assert index.isSubType("java.util.ArrayList", "java.util.Collection");
+      assert index.isSubType("java.util.LinkedList", "java.util.Queue");
+      assert !index.isSubType("java.util.ArrayList", "java.util.Queue");
+      assert !index.isSubType("java.util.Collection", "java.util.ArrayList");
+      List<JavaClass> collections = index.getSubTypes("java.util.Collection");
+      assert collections.contains(arrayList) && collections.contains(linkedList);
+      assert collections.size() == new HashSet<>(collections).size();
+
+      // Types outside the model can be queried for sub-types.
+      assert index.getSubTypes("java.io.Serializable").contains(arrayList);
+      assert index.getSubTypes("java.lang.Object").size() == 5;
+
+      // Removed and rediscovered classes are followed.
+      linkedList.getPackage().removeClazz(linkedList);
+      assert !index.getSubTypes("java.util.Collection").contains(linkedList);
+      assert !index.isSubType("java.util.LinkedList", "java.util.Queue");
+      linkedList.getPackage().addClass(linkedList);
+      assert index.isSubType("java.util.LinkedList", "java.util.Queue");
+      assert index.getSubTypes("java.util.AbstractList").contains(linkedList);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaPackage;
+import com.asledgehammer.rosetta.lua.EmmyLuaEmitter;
+import com.asledgehammer.rosetta.lua.EmmyLuaReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+public class TestIncrementalEmit {
+
+  @Test
+  public void test() throws IOException {
+    JavaLanguage language = new JavaLanguage();
+    language.of(ArrayList.class);
+    language.of(Collections.class);
+    language.of(Supplier.class);
+    EmmyLuaEmitter emitter = new EmmyLuaEmitter(language);
+    Path directory = Files.createTempDirectory("rosetta");
+
+    // Everything is written the first time.
+    EmmyLuaReport first = emitter.emitIncremental(directory);
+    assert first.getWritten().size() == 2 && first.getUnchangedCount() == 0;
+    assert first.getRenderedCount() == 3;
+    Path util = directory.resolve("java.util.lua");
+    String manifest = Files.readString(directory.resolve(EmmyLuaEmitter.MANIFEST));
+    assert manifest.contains("\njava.util.lua ") && manifest.contains("\n  java.util.ArrayList ");
+
+    // Incremental output matches a full emit.
+    Path full = Files.createTempDirectory("rosetta");
+    for (Path file : new EmmyLuaEmitter(language).emit(full)) {
+      assert Arrays.equals(
+          Files.readAllBytes(file), Files.readAllBytes(directory.resolve(file.getFileName())));
+      Files.delete(file);
+    }
+    Files.delete(full);
+
+    // Nothing changed, so nothing is rendered or written.
+    EmmyLuaReport second = emitter.emitIncremental(directory);
+    assert second.getWritten().isEmpty() && second.getUnchangedCount() == 2;
+    assert second.getRenderedCount() == 0;
+
+    // Only the changed class renders, and only its file is written.
+    JavaPackage javaUtil = language.getPackages().get("java.util");
+    javaUtil.getClazz("ArrayList").setNotes("A resizable array.");
+    EmmyLuaReport third = emitter.emitIncremental(directory);
+    assert third.getWritten().equals(List.of(util)) && third.getRenderedCount() == 1;
+    assert Files.readString(util).contains("--- A resizable array.\n---@class java.util.ArrayList");
+
+    // A new emitter trusts the manifest, and compares unlisted files on disk.
+    Files.writeString(directory.resolve(EmmyLuaEmitter.MANIFEST), "");
+    EmmyLuaReport fresh = new EmmyLuaEmitter(language).emitIncremental(directory);
+    assert fresh.getWritten().isEmpty() && fresh.getRenderedCount() == 3;
+
+    // Files of packages that no longer emit are deleted.
+    JavaPackage function = language.getPackages().get("java.util.function");
+    JavaClass supplier = function.getClazz("Supplier");
+    function.removeClazz(supplier);
+    EmmyLuaReport fourth = emitter.emitIncremental(directory);
+    assert fourth.getDeleted().equals(List.of(directory.resolve("java.util.function.lua")));
+    assert fourth.getWritten().isEmpty() && fourth.getRenderedCount() == 0;
+    assert !Files.readString(directory.resolve(EmmyLuaEmitter.MANIFEST)).contains("Supplier");
+
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) Files.delete(file);
+    }
+    Files.delete(directory);
+  }
+}
@@ -0,0 +1,84 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.java.diff.JavaChange;
+import com.asledgehammer.rosetta.java.diff.JavaDiff;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class TestJavaDiff {
+
+  @Test
+  public void test() {
+    JavaLanguage before = new JavaLanguage();
+    before.of(ArrayList.class);
+    before.of(HashMap.class);
+    before.of(Optional.class);
+    JavaLanguage after = new JavaLanguage();
+    after.of(Optional.class);
+    after.of(HashMap.class);
+    after.of(ArrayList.class);
+    RosettaCollection collectionBefore = new RosettaCollection();
+    collectionBefore.addLanguage(before);
+    RosettaCollection collectionAfter = new RosettaCollection();
+    collectionAfter.addLanguage(after);
+
+    // Models built in another order have the same content.
+    JavaPackage javaBefore = before.getPackages().get("java");
+    JavaPackage javaAfter = after.getPackages().get("java");
+    assert javaBefore.getContentHash() == javaAfter.getContentHash();
+    JavaDiff same = collectionBefore.diff(collectionAfter);
+    assert same.isEmpty() && same.getComparedCount() == 0;
+
+    // Edits invalidate the hashes of their parents.
+    JavaClass arrayList = after.getPackages().get("java.util").getClazz("ArrayList");
+    JavaClass hashMap = after.getPackages().get("java.util").getClazz("HashMap");
+    long hash = hashMap.getContentHash();
+    JavaMethod size = arrayList.getMethods().get("size").getExecutables().get(0);
+    size.setNotes("The count of elements.");
+    assert javaBefore.getContentHash() != javaAfter.getContentHash();
+    assert hashMap.getContentHash() == hash;
+
+    size.setDeprecated("Use isEmpty.");
+    size.addTag("collection");
+    after.of(Collections.class);
+    JavaPackage utilBefore = before.getPackages().get("java.util");
+    utilBefore.removeClazz(utilBefore.getClazz("Optional"));
+
+    JavaDiff diff = collectionBefore.diff(collectionAfter);
+    List<JavaChange> changes = diff.getChanges();
+    String path = "java.util.ArrayList#size()I";
+    assert changes.contains(
+        new JavaChange(JavaChange.Type.CHANGED, path, "notes", null, "The count of elements."));
+    assert changes.contains(
+        new JavaChange(JavaChange.Type.CHANGED, path, "deprecated", null, "Use isEmpty."));
+    assert changes.contains(
+        new JavaChange(JavaChange.Type.CHANGED, path, "tags", List.of(), List.of("collection")));
+    assert diff.getChanges(JavaChange.Type.ADDED).get(0).path().equals("java.util.Collections");
+    assert diff.getChanges(JavaChange.Type.ADDED).size() == 2; // Collections and Optional.
+    assert diff.getChanges(JavaChange.Type.REMOVED).isEmpty();
+    assert changes.size() == 5;
+
+    // Only the changed path is compared. (java, java.util, ArrayList and size)
+    assert diff.getComparedCount() == 4;
+    assert diff.toString().contains("~ " + path + " notes: null -> The count of elements.\n");
+
+    // Reversed, additions are removals.
+    JavaDiff reversed = JavaDiff.compare(after, before);
+    assert reversed.getChanges(JavaChange.Type.REMOVED).size() == 2;
+    assert JavaDiff.compare(null, after).getChanges(JavaChange.Type.ADDED).size() == 1;
+
+    // A return on one side only is added or removed.
+    JavaClass arrayListBefore = utilBefore.getClazz("ArrayList");
+    JavaMethod sizeBefore = arrayListBefore.getMethods().get("size").getExecutables().get(0);
+    JavaReturn returns = sizeBefore.getReturns();
+    sizeBefore.setReturns(null);
+    JavaChange added = JavaDiff.compare(before, after).getChanges(JavaChange.Type.ADDED).get(0);
+    assert added.path().equals(path + ".return") && added.after() == size.getReturns();
+    JavaChange removed = JavaDiff.compare(after, before).getChanges(JavaChange.Type.REMOVED).get(0);
+    assert removed.path().equals(path + ".return") && removed.before() == size.getReturns();
+    sizeBefore.setReturns(returns);
+  }
+}
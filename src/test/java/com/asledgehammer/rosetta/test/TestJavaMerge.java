@@ -0,0 +1,93 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestJavaMerge {
+
+  @Test
+  public void test() {
+    JavaLanguage documented = new JavaLanguage();
+    documented.of(ArrayList.class);
+    documented.of(Collections.class);
+    JavaClass arrayList = documented.getPackages().get("java.util").getClazz("ArrayList");
+    arrayList.setNotes("A resizable list.");
+    JavaMethod size = arrayList.getMethods().get("size").getExecutables().get(0);
+    size.setNotes("The count of elements.");
+    size.setDeprecated("Use isEmpty.");
+    size.addTag("collection");
+    JavaMethod add = getAdd(arrayList);
+    add.getParameters().get(0).setName("element");
+    add.getParameters().get(0).setNotes("The element to add.");
+    add.getParameters().get(0).setNullable(false);
+    JavaClass collections = documented.getPackages().get("java.util").getClazz("Collections");
+    collections.setNotes("Utilities for collections.");
+    collections.getFields().get("EMPTY_LIST").setNotes("The empty list.");
+
+    RosettaCollection collection = new RosettaCollection();
+    collection.addLanguage(documented);
+    String saved = collection.save();
+
+    // Collections isn't rediscovered, so its docs are orphaned.
+    JavaLanguage discovered = newDiscovered();
+    JavaMergeReport report = collection.merge(discovered, null);
+    assert collection.getLanguage("java") == discovered;
+    assert !report.isComplete();
+    List<String> orphans = new ArrayList<>();
+    for (JavaMergeReport.Orphan orphan : report.getOrphans()) orphans.add(orphan.path());
+    assert orphans.equals(List.of("java.util.Collections", "java.util.Collections#EMPTY_LIST"));
+    assert report.getMergedCount() == 3; // ArrayList, size and add.
+
+    // The docs are carried over.
+    JavaClass merged = discovered.getPackages().get("java.util").getClazz("ArrayList");
+    assert merged.getNotes().equals("A resizable list.");
+    JavaMethod mergedSize = merged.getMethods().get("size").getExecutables().get(0);
+    assert mergedSize.getNotes().equals("The count of elements.");
+    assert mergedSize.getDeprecatedMessage().equals("Use isEmpty.");
+    assert mergedSize.hasTag("collection");
+    JavaParameter element = getAdd(merged).getParameters().get(0);
+    assert element.getName().equals("element");
+    assert element.getNotes().equals("The element to add.");
+    assert !element.isNullable();
+
+    // Merging again changes nothing.
+    assert discovered.merge(documented).getMergedCount() == 0;
+
+    // Parallel merges have the same outcome.
+    JavaLanguage parallel = newDiscovered();
+    JavaMergeReport parallelReport = parallel.merge(documented, ForkJoinPool.commonPool());
+    assert parallelReport.getMergedCount() == report.getMergedCount();
+    assert parallelReport.getOrphans().size() == report.getOrphans().size();
+    assert parallel.getPackages().get("java").getContentHash()
+        == discovered.getPackages().get("java").getContentHash();
+
+    // Docs loaded from a file merge the same way, and save the same.
+    RosettaCollection loaded = new RosettaCollection();
+    loaded.load(saved);
+    JavaMergeReport loadedReport = loaded.merge(newDiscovered(), null);
+    assert loadedReport.getMergedCount() == report.getMergedCount();
+    assert loadedReport.getOrphans().size() == report.getOrphans().size();
+    JavaLanguage loadedLanguage = (JavaLanguage) loaded.getLanguage("java");
+    JavaClass loadedList = loadedLanguage.getPackages().get("java.util").getClazz("ArrayList");
+    assert loadedList.getMethods().get("size").getExecutables().get(0).hasTag("collection");
+    assert loaded.save().equals(collection.save());
+  }
+
+  private static JavaLanguage newDiscovered() {
+    JavaLanguage discovered = new JavaLanguage();
+    discovered.of(HashMap.class);
+    discovered.of(ArrayList.class);
+    return discovered;
+  }
+
+  private static JavaMethod getAdd(JavaClass javaClass) {
+    for (JavaMethod method : javaClass.getMethods().get("add").getExecutables()) {
+      if (method.getParameters().size() == 1) return method;
+    }
+    throw new NoSuchElementException();
+  }
+}
@@ -0,0 +1,74 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.java.query.JavaQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+public class TestJavaQuery {
+
+  @Test
+  public void test() {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    JavaClass collections = language.of(Collections.class);
+    JavaClass arrayList = language.of(ArrayList.class);
+    language.of(ConcurrentHashMap.class);
+    JavaClass date = language.of(Date.class);
+
+    // Static methods.
+    JavaQuery<JavaMethod> statics =
+        JavaQuery.methods().in("java.util").scope(JavaScope.PUBLIC).isStatic(true);
+    List<JavaMethod> methods = statics.list(language);
+    assert !methods.isEmpty();
+    assert methods.stream().anyMatch(method -> method.getName().equals("emptyList"));
+    assert methods.stream().allMatch(JavaMethod::isStatic);
+    assert methods.stream().noneMatch(method -> method.getPath().contains("concurrent"));
+
+    // Sub-packages.
+    assert JavaQuery.classes().in("java.*").list(language).size() == 4;
+    assert JavaQuery.classes().in("java.util.concurrent").list(language).size() == 1;
+    assert JavaQuery.classes().in("java").list(language).isEmpty();
+
+    // Deprecation and names.
+    date.getMethods().get("getYear").getExecutables().get(0).setDeprecated(true);
+    List<JavaMethod> deprecated =
+        JavaQuery.methods().named("getYear").isDeprecated(true).list(language);
+    assert deprecated.size() == 1;
+    assert JavaQuery.methods().named("getYear").isDeprecated(false).list(language).isEmpty();
+
+    // Types and alternatives.
+    JavaQuery<JavaExecutable<?>> listed = JavaQuery.executables().uses("java.util.List");
+    assert listed.list(language).stream().anyMatch(method -> method.getName().equals("sort"));
+    JavaQuery<JavaClass> either =
+        JavaQuery.classes().named("ArrayList").or(JavaQuery.classes().named("Date"));
+    assert either.count(language) == 2;
+    assert either.in("java.util.concurrent").count(language) == 0;
+
+    // Parallel streams split into the same matches.
+    Set<JavaMethod> parallel = statics.parallelStream(language).collect(Collectors.toSet());
+    assert parallel.equals(new HashSet<>(methods));
+    assert JavaQuery.fields().stream(language).count()
+        == JavaQuery.fields().parallelStream(language).count();
+
+    // Tags and notes invalidate cached results.
+    JavaQuery<JavaMethod> tagged = JavaQuery.methods().tagged("zomboid");
+    JavaQuery<JavaClass> noted = JavaQuery.classes().hasNotes(true);
+    assert tagged.list(language).isEmpty();
+    assert noted.list(language).isEmpty();
+
+    JavaMethod add = arrayList.getMethods().get("add").getExecutables().get(0);
+    add.addTag("zomboid");
+    collections.setNotes("Utilities.");
+    assert tagged.list(language).equals(List.of(add));
+    assert noted.list(language).equals(List.of(collections));
+
+    collections.setNotes(null);
+    assert noted.list(language).isEmpty();
+  }
+}
@@ -0,0 +1,91 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class TestLoadedSignature {
+
+  private static final String YAML =
+      """
+      version: '1.2'
+      languages:
+        java:
+          packages:
+            zombie.characters:
+              classes:
+                IsoGameCharacter:
+                  notes: A character in the world.
+                  type_parameters: [E]
+                  fields:
+                    health: { type: float, notes: The health of the character. }
+                  constructors:
+                    - parameters:
+                        - { name: element, type: E }
+                  methods:
+                    - name: foo
+                      parameters:
+                        - { name: player, type: zombie.characters.IsoPlayer }
+                    - name: foo
+                      parameters:
+                        - { name: zombie, type: zombie.characters.IsoZombie }
+                    - name: sum
+                      notes: Adds the entry to the value.
+                      tags: [math]
+                      type_parameters: [T extends java.lang.Number]
+                      parameters:
+                        - { name: value, type: T }
+                        - { name: entry, type: 'java.util.Map.Entry<java.lang.String, T>' }
+                      return: { type: T }
+      """;
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    RosettaCollection collection = new RosettaCollection();
+    collection.load(YAML);
+    JavaLanguage language = (JavaLanguage) collection.getLanguage("java");
+    JavaClass loaded =
+        language.getPackages().get("zombie.characters").getClazz("IsoGameCharacter");
+
+    // Unknown classes are classes, so overloads don't collide.
+    JavaExecutableCollection<JavaMethod> foos = loaded.getMethods().get("foo");
+    assert foos.getExecutables().size() == 2;
+    assert foos.hasExecutable("foo(Lzombie/characters/IsoPlayer;)V");
+    assert foos.hasExecutable("foo(Lzombie/characters/IsoZombie;)V");
+
+    // Class type variables erase to Object.
+    assert loaded.getConstructors().hasExecutable("<init>(Ljava/lang/Object;)V");
+
+    // Executable type variables erase to their bound and nested classes are binary names.
+    JavaMethod sum = loaded.getMethods().get("sum").getExecutables().get(0);
+    JavaMethod discovered =
+        language.of(
+            TestLoadedSignature.class.getDeclaredMethod("sum", Number.class, Map.Entry.class));
+    assert sum.getSignature()
+        .equals("sum(Ljava/lang/Number;Ljava/util/Map$Entry;)Ljava/lang/Number;");
+    assert sum.getSignature() == discovered.getSignature();
+
+    // Classes not on the classpath save as written and load back the same.
+    String saved = collection.save();
+    RosettaCollection reloaded = new RosettaCollection();
+    reloaded.load(saved);
+    assert reloaded.save().equals(saved);
+    JavaLanguage reloadedLanguage = (JavaLanguage) reloaded.getLanguage("java");
+    JavaClass reloadedClass =
+        reloadedLanguage.getPackages().get("zombie.characters").getClazz("IsoGameCharacter");
+    JavaMethod reloadedSum = reloadedClass.getMethods().get("sum").getExecutables().get(0);
+    assert reloadedSum.getSignature() == sum.getSignature();
+    assert reloadedSum.getNotes().equals("Adds the entry to the value.");
+    assert reloadedSum.hasTag("math");
+    assert reloadedSum.getParameters().get(1).getType() == sum.getParameters().get(1).getType();
+    assert reloadedSum.getReturns().getType() == sum.getReturns().getType();
+    assert reloadedClass.getConstructors().hasExecutable("<init>(Ljava/lang/Object;)V");
+    assert reloadedClass.getFields().get("health").getNotes().equals("The health of the character.");
+  }
+
+  static <T extends Number> T sum(T value, Map.Entry<String, T> entry) {
+    return value;
+  }
+}
@@ -0,0 +1,116 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.ChangeEvent;
+import com.asledgehammer.rosetta.ChangeJournal;
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.lua.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class TestLuaLanguage {
+
+  private static final String YAML =
+      """
+      version: '1.2'
+      languages:
+        lua:
+          tables:
+            ISButton:
+              extends: ISPanel
+              notes: A clickable button.
+              tags: [ui]
+              fields:
+                title: { type: string }
+                onMouseDown: { type: 'fun(x: number, y: number): boolean' }
+              functions:
+                onClick:
+                  method: true
+                  parameters:
+                    - { name: x, type: number }
+                    - { name: y, type: number, optional: true }
+                  returns: [ boolean ]
+              tables:
+                Style:
+                  fields:
+                    color: { type: string, deprecated: true }
+          functions:
+            getPlayer:
+              returns:
+                - { type: IsoPlayer, name: player, notes: The local player. }
+          fields:
+            SandboxVars: { type: table }
+      """;
+
+  @Test
+  public void test() {
+    RosettaCollection collection = new RosettaCollection();
+    collection.load(YAML);
+    LuaLanguage language = (LuaLanguage) collection.getLanguage("lua");
+
+    // Qualified paths.
+    LuaTable button = language.getTable("ISButton");
+    assert button != null && button.getExtends().equals("ISPanel") && button.hasTag("ui");
+    LuaFunction onClick = language.getFunction("ISButton.onClick");
+    assert onClick != null && onClick.isMethod();
+    assert onClick.getParameters().get(1).isOptional();
+    assert onClick.getReturns().get(0).getType().equals("boolean");
+    assert language.getField("ISButton.Style.color").isDeprecated();
+    assert language.getFunction("getPlayer").getReturns().get(0).getName().equals("player");
+    assert language.resolve("SandboxVars") instanceof LuaField;
+    assert language.size() == 8;
+
+    // Round trips.
+    String saved = collection.save();
+    RosettaCollection reloaded = new RosettaCollection();
+    reloaded.load(saved);
+    assert reloaded.save().equals(saved);
+
+    // Members register in the index and dirty their parents.
+    language.compile();
+    LuaTable style = button.getTable("Style");
+    LuaField size = new LuaField("size", "number");
+    style.addField(size);
+    assert language.getField("ISButton.Style.size") == size;
+    assert button.isDirty() && language.getGlobals().isDirty();
+    assert button.getDirtyChildren().contains(style);
+    language.compile();
+    assert !button.isDirty();
+
+    onClick.getParameters().get(0).setNotes("The x position.");
+    assert onClick.isDirty() && button.isDirty();
+    language.compile();
+
+    // Names are shared between tables, functions and fields.
+    try {
+      button.addFunction(new LuaFunction("title"));
+      assert false;
+    } catch (IllegalArgumentException ignored) {
+    }
+
+    // Removing a table removes its members from the index.
+    button.removeTable(style);
+    assert language.resolve("ISButton.Style") == null;
+    assert language.resolve("ISButton.Style.size") == null;
+    LuaTable other = new LuaTable("Other");
+    other.addTable(style);
+    assert style.getPath().equals("Other.Style");
+    language.getGlobals().addTable(other);
+    assert language.getField("Other.Style.size") == size;
+
+    // Changes are journaled.
+    ChangeJournal.Cursor cursor = collection.getJournal().subscribe();
+    size.setType("integer");
+    List<ChangeEvent> events = cursor.poll();
+    assert events.size() == 1 && events.get(0).getProperty().equals("type");
+    cursor.close();
+
+    // Raw definitions are released once loaded.
+    Map<String, Object> tables = new LinkedHashMap<>();
+    tables.put("A", new LinkedHashMap<>(Map.of("notes", "a")));
+    Map<String, Object> raw = new LinkedHashMap<>(Map.of("tables", tables));
+    LuaLanguage loaded = new LuaLanguage();
+    loaded.onLoad(raw);
+    assert tables.isEmpty() && loaded.getTable("A").getNotes().equals("a");
+  }
+}
@@ -0,0 +1,49 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.*;
+import com.asledgehammer.rosetta.java.index.NameIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class TestNameIndex {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    JavaClass joiner = language.of(StringJoiner.class);
+
+    try (NameIndex index = new NameIndex(language)) {
+      assert index.get("java.util", JavaPackage.class) == joiner.getPackage();
+      assert index.get("java.util.StringJoiner") == joiner;
+      assert index.get("java.util.StringJoiner#prefix", JavaField.class) != null;
+
+      JavaMethod add = joiner.getMethod(StringJoiner.class.getMethod("add", CharSequence.class));
+      assert index.get("java.util.StringJoiner#add(Ljava/lang/CharSequence;)Ljava/util/StringJoiner;")
+          == add;
+      assert index.get("java.util.StringJoiner#add(Ljava/lang/CharSequence;)") == add;
+      assert index.get("java.util.StringJoiner#<init>(Ljava/lang/CharSequence;)V")
+          instanceof JavaConstructor;
+
+      // Nested classes don't collide with top-level classes of the same simple name.
+      JavaClass entry = language.of(Map.Entry.class);
+      assert entry.getName().equals("Map$Entry");
+      assert index.get("java.util.Map$Entry") == entry;
+      assert index.get("java.util.Map$Entry#getKey()") != null;
+
+      // New root packages and removals are followed incrementally.
+      JavaClass test = language.of(TestNameIndex.class);
+      assert index.get("com") != null;
+      assert index.get("com.asledgehammer.rosetta.test.TestNameIndex#test()V") != null;
+      joiner.getPackage().removeClazz(joiner);
+      assert index.get("java.util.StringJoiner") == null;
+      assert index.get("java.util.StringJoiner#prefix") == null;
+      assert index.get("java.util.Map$Entry") == entry;
+      assert index.get(test.getPath()) == test;
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.JavaCompileReport;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+public class TestParallelCompile {
+
+  private static final Class<?>[] CLASSES = {
+    ArrayList.class, HashMap.class, Optional.class, StringJoiner.class, Function.class, String.class,
+    Thread.class, Objects.class
+  };
+
+  @Test
+  public void test() {
+    JavaLanguage sequential = new JavaLanguage();
+    JavaLanguage parallel = new JavaLanguage();
+    for (Class<?> clazz : CLASSES) {
+      sequential.of(clazz);
+      parallel.of(clazz);
+    }
+
+    JavaCompileReport a = sequential.compile();
+    JavaCompileReport b = parallel.compileParallel();
+    assert a.isSuccessful() && b.isSuccessful();
+    assert a.getCompiledCount() == CLASSES.length;
+    assert b.getCompiledCount() == CLASSES.length;
+
+    // Everything is clean afterward, so another compile does nothing.
+    for (Class<?> clazz : CLASSES) {
+      assert !parallel.of(clazz).isDirty();
+      assert !parallel.of(clazz).getPackage().isDirty();
+    }
+    assert parallel.compileParallel().getCompiledCount() == 0;
+
+    // Only the edited class compiles again.
+    parallel.of(Optional.class).setNotes("A container object.");
+    assert parallel.compileParallel().getCompiledCount() == 1;
+  }
+}
@@ -0,0 +1,50 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaExecutableCollection;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class TestSignature {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    JavaLanguage language = new JavaLanguage();
+
+    // Signatures are the name followed by the erased JVM descriptor.
+    JavaMethod map = language.of(Optional.class.getMethod("map", Function.class));
+    assert map.getSignature().equals("map(Ljava/util/function/Function;)Ljava/util/Optional;");
+
+    JavaClass list = language.of(ArrayList.class);
+    JavaExecutableCollection<JavaMethod> adds = list.getMethods().get("add");
+    assert adds.hasExecutable("add(Ljava/lang/Object;)Z");
+    assert adds.hasExecutable("add(ILjava/lang/Object;)V");
+    assert list.getConstructors().hasExecutable("<init>(Ljava/util/Collection;)V");
+    assert list.getConstructors().hasExecutable("<init>(I)V");
+
+    // Overloads are found by signature and by reflection target.
+    JavaMethod add = adds.getExecutable("add(ILjava/lang/Object;)V");
+    assert add == adds.getExecutable(ArrayList.class.getMethod("add", int.class, Object.class));
+    assert list.getMethod(ArrayList.class.getMethod("addAll", Collection.class))
+        .getSignature()
+        .equals("addAll(Ljava/util/Collection;)Z");
+
+    // Signatures are interned.
+    JavaMethod other = new JavaLanguage().of(Optional.class.getMethod("map", Function.class));
+    assert other.getSignature() == map.getSignature();
+
+    // Duplicate signatures are rejected.
+    try {
+      adds.addExecutable(add);
+      assert false;
+    } catch (IllegalArgumentException expected) {
+      // Already registered.
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.snapshot.ClassSnapshot;
+import com.asledgehammer.rosetta.java.snapshot.LanguageSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.StringJoiner;
+
+public class TestSnapshot {
+
+  @Test
+  public void test() {
+    JavaLanguage language = new JavaLanguage();
+    JavaClass joiner = language.of(StringJoiner.class);
+    language.of(Optional.class);
+
+    LanguageSnapshot first = language.snapshot();
+    assert language.getSnapshot() == first;
+
+    ClassSnapshot joinerView = first.getClazz("java.util.StringJoiner");
+    assert joinerView != null && joinerView.notes() == null;
+    assert joinerView.methods().containsKey("add");
+
+    // Edits don't affect snapshots already taken.
+    joiner.setNotes("Joins strings.");
+    assert first.getClazz("java.util.StringJoiner").notes() == null;
+
+    // Unchanged subtrees are shared between snapshots.
+    LanguageSnapshot second = language.snapshot();
+    assert "Joins strings.".equals(second.getClazz("java.util.StringJoiner").notes());
+    assert second.getClazz("java.util.Optional") == first.getClazz("java.util.Optional");
+    assert second.getClazz("java.util.StringJoiner").methods().get("add").get(0)
+        == joinerView.methods().get("add").get(0);
+    assert second.getPackage("java.util") != first.getPackage("java.util");
+
+    // Snapshots with no edits in between are identical.
+    LanguageSnapshot third = language.snapshot();
+    assert third.getPackage("java") == second.getPackage("java");
+  }
+}
@@ -0,0 +1,68 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.TagSet;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMethod;
+import com.asledgehammer.rosetta.java.index.TagIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+
+public class TestTagIndex {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    // Bitset storage.
+    TagSet set = new TagSet();
+    assert set.add("server-only") && !set.add("server-only");
+    assert set.contains("server-only") && !set.contains("client-only");
+    assert set.size() == 1 && set.toList().equals(List.of("server-only"));
+    assert set.remove("server-only") && set.isEmpty();
+
+    // Tags list in insertion order, whatever their IDs.
+    set.add(1000);
+    set.add(3);
+    set.add(70);
+    assert Arrays.equals(set.ids(), new int[] {1000, 3, 70});
+    assert set.remove(3) && set.contains(1000) && set.contains(70) && !set.contains(3);
+    TagSet other = new TagSet();
+    other.add(70);
+    set.removeAll(other);
+    assert Arrays.equals(set.ids(), new int[] {1000});
+    set.clear();
+
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+
+    JavaClass joiner = language.of(StringJoiner.class);
+    joiner.addTag("server-only");
+
+    try (TagIndex index = new TagIndex(language)) {
+      // The first query builds the index from the model.
+      assert index.getTagged("server-only").equals(Set.of(joiner));
+
+      // Later edits are followed through the journal.
+      JavaMethod method = language.of(StringJoiner.class.getMethod("length"));
+      method.addTag("server-only");
+      JavaClass optional = language.of(Optional.class);
+      assert index.getTagged("server-only").equals(Set.of(joiner, method));
+      assert index.getTagged("server-only", JavaMethod.class).equals(List.of(method));
+
+      optional.addTag("server-only");
+      joiner.removeTag("server-only");
+      assert index.getTagged("server-only").equals(Set.of(method, optional));
+
+      // Removing a class removes its members.
+      joiner.getPackage().removeClazz(joiner);
+      assert index.getTagged("server-only").equals(Set.of(optional));
+      assert index.getTagged("unknown").isEmpty();
+    }
+  }
+}
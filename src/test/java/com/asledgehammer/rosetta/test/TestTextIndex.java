@@ -0,0 +1,50 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMethod;
+import com.asledgehammer.rosetta.java.index.TextIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+public class TestTextIndex {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    assert TextIndex.splitIdentifier("getXMLParser2")
+        .equals(List.of("get", "xml", "parser", "2", "getxmlparser2"));
+    assert TextIndex.splitText("Adds a copy, of the value.")
+        .equals(List.of("adds", "a", "copy", "of", "the", "value"));
+
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    JavaClass joiner = language.of(StringJoiner.class);
+    language.of(Optional.class);
+
+    try (TextIndex index = new TextIndex(language)) {
+      // Names rank above prefixes.
+      List<TextIndex.Result> results = index.search("joiner", 10);
+      assert results.get(0).definition() == joiner;
+      assert index.search("setEmp", 10).get(0).definition().getPath().endsWith("#setEmptyValue");
+      assert index.search("isEmpty", 10).get(0).definition().getPath()
+          .equals("java.util.Optional#isEmpty");
+
+      // Notes are re-indexed as they change.
+      JavaMethod add = joiner.getMethod(StringJoiner.class.getMethod("add", CharSequence.class));
+      assert index.search("\"copy of the given\"", 10).isEmpty();
+      add.setNotes("Adds a copy of the given value as the next element.");
+      assert index.search("\"copy of the given\"", 10).get(0).definition() == add;
+      assert index.search("\"given copy\"", 10).isEmpty();
+      assert index.search("next eleme", 10).get(0).definition() == add;
+
+      add.setNotes(null);
+      assert index.search("\"copy of the given\"", 10).isEmpty();
+      assert index.search("add", 10).stream().anyMatch(result -> result.definition() == add);
+    }
+  }
+}
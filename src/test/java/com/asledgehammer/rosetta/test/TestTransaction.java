@@ -0,0 +1,73 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+public class TestTransaction {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+
+    JavaClass clazz = language.of(StringJoiner.class);
+    JavaMethod method = language.of(StringJoiner.class.getMethod("length"));
+    assert language.compile().isSuccessful();
+
+    // Edits apply together and the touched tree compiles once at commit.
+    collection.edit(
+        tx -> {
+          tx.setNotes(clazz, "Joins strings.");
+          tx.addAllTags(method, List.of("size", "query"));
+          tx.set(
+              method,
+              () -> method.isDeprecated() ? method.getDeprecatedMessage() : null,
+              method::setDeprecated,
+              "Use toString().length().");
+          // Nothing is applied while buffering.
+          assert !clazz.hasNotes();
+        });
+    assert clazz.getNotes().equals("Joins strings.");
+    assert method.getTags().equals(List.of("size", "query"));
+    assert method.getDeprecatedMessage().equals("Use toString().length().");
+    assert !clazz.getPackage().getRoot().isDirty() && !method.isDirty();
+
+    // A failing edit rolls back the edits already applied.
+    try {
+      collection.edit(
+          tx -> {
+            tx.setNotes(clazz, "Rolled back.");
+            tx.removeTag(method, "size");
+            tx.addTag(method, "query");
+          });
+      assert false;
+    } catch (IllegalArgumentException expected) {
+      // The tag "query" is already applied.
+    }
+    assert clazz.getNotes().equals("Joins strings.");
+    assert method.getTags().size() == 2 && method.hasTag("size");
+
+    // Bulk tag edits validate every tag before applying any.
+    try {
+      method.addAllTags(List.of("a", "a"));
+      assert false;
+    } catch (IllegalArgumentException expected) {
+      assert !method.hasTag("a");
+    }
+    try {
+      method.addAllTags(List.of("a", ""));
+      assert false;
+    } catch (IllegalArgumentException expected) {
+      assert !method.hasTag("a");
+    }
+    method.removeAllTags(List.of("query", "size"));
+    assert !method.hasTags();
+  }
+}
@@ -0,0 +1,47 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.reference.SimpleTypeReference;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+public class TestTypeReferenceCanonical {
+
+  Map<String, List<Integer>> map;
+
+  @Test
+  public void test() throws Exception {
+    Field field = getClass().getDeclaredField("map");
+
+    TypeReference fromType = TypeReference.of(field.getGenericType());
+    TypeReference fromString =
+        TypeReference.of("java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>");
+
+    // Structurally equal types are the same canonical instance.
+    assert fromType == fromString;
+    assert fromType.equals(fromString);
+    assert fromType.hashCode() == fromString.hashCode();
+
+    assert TypeReference.of("java.lang.String") == TypeReference.of(String.class);
+    assert TypeReference.of("java.lang.String") != TypeReference.of("java.lang.Integer");
+    assert !TypeReference.of("java.util.List<java.lang.String>")
+        .equals(TypeReference.of("java.util.List<java.lang.Integer>"));
+
+    // Canonical instances can't be changed through their sub-types.
+    SimpleTypeReference set = (SimpleTypeReference) TypeReference.of("java.util.Set<java.lang.Long>");
+    try {
+      set.getSubTypes().clear();
+      assert false;
+    } catch (UnsupportedOperationException ignored) {
+    }
+
+    // Nor through their bounds.
+    TypeReference bounded = TypeReference.of("T extends java.lang.Number");
+    bounded.getBounds()[0] = TypeReference.of(String.class);
+    assert bounded.getBounds()[0] == TypeReference.of(Number.class);
+    assert bounded == TypeReference.of("T extends java.lang.Number");
+  }
+}
@@ -0,0 +1,40 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import com.asledgehammer.rosetta.java.reference.UnionTypeReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class TestTypeReferenceStructure {
+
+  List<String>[] array;
+  int[] primitiveArray;
+  Map<? extends Number, ? super Integer> wildcards;
+
+  @Test
+  public void test() throws Exception {
+    TypeReference array = of("array");
+    assert !array.isGeneric();
+    assert array.compile().equals("java.util.List<java.lang.String>[]");
+
+    TypeReference primitiveArray = of("primitiveArray");
+    assert !primitiveArray.isGeneric();
+    assert !primitiveArray.isPrimitive();
+    assert primitiveArray.getBase().equals("int[]");
+
+    TypeReference wildcards = of("wildcards");
+    assert wildcards
+        .compile()
+        .equals("java.util.Map<? extends java.lang.Number, ? super java.lang.Integer>");
+
+    // Reflection and string construction agree on the same canonical instance.
+    assert wildcards == TypeReference.of(wildcards.compile());
+    assert TypeReference.of("?") instanceof UnionTypeReference;
+  }
+
+  private TypeReference of(String field) throws Exception {
+    return TypeReference.of(getClass().getDeclaredField(field).getGenericType());
+  }
+}
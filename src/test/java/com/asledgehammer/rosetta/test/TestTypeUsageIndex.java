@@ -0,0 +1,48 @@
+package com.asledgehammer.rosetta.test;
+
+import com.asledgehammer.rosetta.RosettaCollection;
+import com.asledgehammer.rosetta.java.JavaClass;
+import com.asledgehammer.rosetta.java.JavaLanguage;
+import com.asledgehammer.rosetta.java.JavaMethod;
+import com.asledgehammer.rosetta.java.JavaParameter;
+import com.asledgehammer.rosetta.java.index.TypeUsageIndex;
+import com.asledgehammer.rosetta.java.reference.TypeReference;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+public class TestTypeUsageIndex {
+
+  @Test
+  public void test() throws NoSuchMethodException {
+    RosettaCollection collection = new RosettaCollection();
+    JavaLanguage language = new JavaLanguage();
+    collection.addLanguage(language);
+    JavaClass joiner = language.of(StringJoiner.class);
+    JavaClass optional = language.of(Optional.class);
+
+    try (TypeUsageIndex index = new TypeUsageIndex(language)) {
+      JavaMethod add = joiner.getMethod(StringJoiner.class.getMethod("add", CharSequence.class));
+      assert index.getMembers("java.lang.CharSequence").contains(add);
+      assert index.getMembers("java.util.StringJoiner").contains(add);
+
+      // Generic arguments and bounds count as usages. (or(Supplier<? extends Optional<? extends T>>))
+      JavaMethod or = optional.getMethod(Optional.class.getMethod("or", Supplier.class));
+      assert index.getMembers("java.util.function.Supplier").contains(or);
+      assert index.getUsages("java.util.Optional").contains(or.getParameters().get(0));
+      assert index.getUsages("T").isEmpty();
+      assert !index.getMembers("java.lang.Object").contains(or);
+
+      // Type changes are followed.
+      JavaParameter parameter = add.getParameters().get(0);
+      parameter.setType(TypeReference.of(String.class));
+      assert !index.getUsages("java.lang.CharSequence").contains(parameter);
+      assert index.getUsages("java.lang.String").contains(parameter);
+
+      joiner.getPackage().removeClazz(joiner);
+      assert !index.getMembers("java.lang.String").contains(add);
+    }
+  }
+}